@@ -0,0 +1,47 @@
+#!/bin/bash
+
+# Runs the same k6 load (scripts/load/patient-stack.js) against a patient-service started in
+# servlet mode and one started with PATIENT_WEB_STACK=reactive, then prints throughput and
+# latency side by side. Both instances must point at the same MongoDB.
+# Usage: SERVLET_URL=http://localhost:8081 REACTIVE_URL=http://localhost:8082 VUS=1500 ./scripts/bench-patient-stacks.sh
+
+SERVLET_URL=${SERVLET_URL:-"http://localhost:8081"}
+REACTIVE_URL=${REACTIVE_URL:-"http://localhost:8082"}
+VUS=${VUS:-1000}
+DURATION=${DURATION:-"2m"}
+AUTH_HEADER=${AUTH_HEADER:-""}
+RESULTS_DIR=${RESULTS_DIR:-"build/bench"}
+SCRIPT_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")" && pwd)"
+
+for tool in k6 jq; do
+    if ! command -v $tool &> /dev/null; then
+        echo "$tool is required"
+        exit 1
+    fi
+done
+
+mkdir -p "$RESULTS_DIR"
+
+run_stack() {
+    local stack=$1
+    local url=$2
+    echo "Loading $stack stack at $url with $VUS virtual users for $DURATION..."
+    k6 run --quiet \
+        -e BASE_URL="$url" -e VUS="$VUS" -e DURATION="$DURATION" -e AUTH_HEADER="$AUTH_HEADER" \
+        --summary-export "$RESULTS_DIR/$stack.json" \
+        "$SCRIPT_DIR/load/patient-stack.js" > "$RESULTS_DIR/$stack.log" 2>&1
+}
+
+run_stack servlet "$SERVLET_URL"
+run_stack reactive "$REACTIVE_URL"
+
+printf "\n%-10s %12s %10s %10s %10s %10s\n" "stack" "req/s" "p50 ms" "p95 ms" "p99 ms" "errors"
+for stack in servlet reactive; do
+    jq -r --arg stack "$stack" '[$stack,
+        (.metrics.http_reqs.rate | floor),
+        (.metrics.http_req_duration["p(50)"] * 100 | round / 100),
+        (.metrics.http_req_duration["p(95)"] * 100 | round / 100),
+        (.metrics.http_req_duration["p(99)"] * 100 | round / 100),
+        ((.metrics.http_req_failed.value // 0) * 10000 | round / 100 | tostring + "%")] | @tsv' \
+        "$RESULTS_DIR/$stack.json" | awk -F'\t' '{ printf "%-10s %12s %10s %10s %10s %10s\n", $1, $2, $3, $4, $5, $6 }'
+done
@@ -0,0 +1,142 @@
+#!/bin/bash
+
+# Cold start of each service as the plain fat jar and with the fast-startup build profile, step by
+# step: Spring AOT (aot), plus a class-data-sharing archive trained on a start of the same build
+# (cds), plus lazy initialization (fast). Every mode is started RUNS times; the time from launch to
+# /actuator/health/readiness answering UP and the resident set size at that moment are printed as
+# medians and appended to RESULTS, so cold start can be followed from commit to commit.
+# The services connect to the infrastructure from docker-compose, published on localhost:
+#   docker-compose up -d kafka redis mongodb postgres-appointment postgres-billing postgres-inventory
+# AOT fixes @Conditional bean choices at build time, so build with the environment the services run in.
+# A CDS archive only fits the JVM that wrote it; train images on their own JRE.
+# Usage: ./scripts/bench-startup.sh
+#        RUNS=5 SERVICES="telemedicine-service notification-service" ./scripts/bench-startup.sh
+#        SKIP_BUILD=true MODES="jar fast" JAVA_OPTS="-Xmx512m" ./scripts/bench-startup.sh
+
+ROOT="$(cd "$(dirname "${BASH_SOURCE[0]}")/.." && pwd)"
+SERVICES=${SERVICES:-"patient-service appointment-service medical-records-service billing-service telemedicine-service inventory-service notification-service analytics-service"}
+MODES=${MODES:-"jar aot cds fast"}
+RUNS=${RUNS:-3}
+PORT=${PORT:-18080}
+JAVA_OPTS=${JAVA_OPTS:-""}
+STARTUP_TIMEOUT=${STARTUP_TIMEOUT:-180}
+SKIP_BUILD=${SKIP_BUILD:-false}
+RESULTS=${RESULTS:-"$ROOT/target/startup/results.csv"}
+VERSION=1.0.0
+SPRING_ARGS="--server.port=$PORT --spring.main.banner-mode=off"
+
+# Where each service finds the docker-compose infrastructure from the host.
+infra_env() {
+    case "$1" in
+        patient-service) echo "SPRING_DATA_MONGODB_HOST=localhost REDIS_HOST=localhost KAFKA_BOOTSTRAP_SERVERS=localhost:9092" ;;
+        appointment-service) echo "DB_HOST=localhost DB_PORT=5433 REDIS_HOST=localhost KAFKA_BOOTSTRAP_SERVERS=localhost:9092" ;;
+        medical-records-service) echo "SPRING_DATA_MONGODB_HOST=localhost" ;;
+        billing-service) echo "DB_HOST=localhost DB_PORT=5434" ;;
+        telemedicine-service) echo "REDIS_HOST=localhost" ;;
+        inventory-service) echo "DB_HOST=localhost DB_PORT=5435" ;;
+        notification-service) echo "REDIS_HOST=localhost KAFKA_BOOTSTRAP_SERVERS=localhost:9092" ;;
+        analytics-service) echo "KAFKA_BOOTSTRAP_SERVERS=localhost:9092 PATIENT_SERVICE_URL=" ;;
+    esac
+}
+
+# The java command line for a service in a mode, relative to the service's directory.
+launch() {
+    local service=$1 mode=$2
+    local thin="target/fast-startup/$service-$VERSION-fast-startup.jar"
+    local archive="target/fast-startup/$service.jsa"
+    case "$mode" in
+        jar) echo "java $JAVA_OPTS -jar target/$service-$VERSION.jar" ;;
+        aot) echo "java $JAVA_OPTS -Dspring.aot.enabled=true -jar $thin" ;;
+        # -Xshare:on fails the start instead of quietly running without the archive.
+        cds) echo "java $JAVA_OPTS -Xshare:on -XX:SharedArchiveFile=$archive -Dspring.aot.enabled=true -jar $thin" ;;
+        fast) echo "java $JAVA_OPTS -Xshare:on -XX:SharedArchiveFile=$archive -Dspring.aot.enabled=true -Dspring.main.lazy-initialization=true -jar $thin" ;;
+        *) echo "Unknown mode $mode" >&2; return 1 ;;
+    esac
+}
+
+# Builds the service with the fast-startup profile and trains its CDS archive on a start that
+# exits as soon as the application context is refreshed.
+build() {
+    local service=$1
+    echo "Building $service with the fast-startup profile..."
+    mvn -B -q -Pfast-startup -DskipTests clean package || return 1
+    echo "Training the class-data-sharing archive of $service..."
+    env $(infra_env "$service") java $JAVA_OPTS -XX:ArchiveClassesAtExit="target/fast-startup/$service.jsa" \
+        -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh \
+        -jar "target/fast-startup/$service-$VERSION-fast-startup.jar" $SPRING_ARGS > target/startup-training.log 2>&1
+    if [ ! -f "target/fast-startup/$service.jsa" ]; then
+        echo "Training run of $service wrote no archive, see $(pwd)/target/startup-training.log"
+        return 1
+    fi
+}
+
+# Starts the service once and prints "<milliseconds to ready> <RSS in MB>".
+start_once() {
+    local service=$1 mode=$2 log=$3
+    local command
+    command=$(launch "$service" "$mode") || return 1
+    local started=$(date +%s%N)
+    env $(infra_env "$service") $command $SPRING_ARGS > "$log" 2>&1 &
+    local pid=$!
+    until curl -sf "http://localhost:$PORT/actuator/health/readiness" 2>/dev/null | grep -q '"status":"UP"'; do
+        if ! kill -0 $pid 2>/dev/null; then
+            echo "$service ($mode) exited before it was ready, see $log" >&2
+            return 1
+        fi
+        if [ $(( ($(date +%s%N) - started) / 1000000000 )) -ge "$STARTUP_TIMEOUT" ]; then
+            echo "$service ($mode) was not ready within ${STARTUP_TIMEOUT}s, see $log" >&2
+            kill $pid; wait $pid 2>/dev/null
+            return 1
+        fi
+        sleep 0.05
+    done
+    local ready_ms=$(( ($(date +%s%N) - started) / 1000000 ))
+    local rss_kb=$(ps -o rss= -p $pid | tr -d ' ')
+    kill $pid; wait $pid 2>/dev/null
+    echo "$ready_ms $(( rss_kb / 1024 ))"
+}
+
+median() {
+    tr ' ' '\n' | sort -n | awk '{ values[NR] = $1 } END { print values[int((NR + 1) / 2)] }'
+}
+
+mkdir -p "$(dirname "$RESULTS")"
+[ -f "$RESULTS" ] || echo "timestamp,commit,service,mode,run,ready_ms,rss_mb" > "$RESULTS"
+COMMIT=$(git -C "$ROOT" rev-parse --short HEAD 2>/dev/null)
+TIMESTAMP=$(date -u +%Y-%m-%dT%H:%M:%SZ)
+SUMMARY=""
+status=0
+
+for service in $SERVICES; do
+    cd "$ROOT/services/$service" || exit 1
+    if [ "$SKIP_BUILD" != "true" ]; then
+        build "$service" || { status=1; continue; }
+    fi
+    mkdir -p target/startup
+    baseline=""
+    for mode in $MODES; do
+        times=""
+        sizes=""
+        for run in $(seq 1 "$RUNS"); do
+            result=$(start_once "$service" "$mode" "target/startup/$mode-$run.log") || { status=1; continue; }
+            set -- $result
+            echo "$service $mode run $run: ready in $1 ms, RSS $2 MB"
+            echo "$TIMESTAMP,$COMMIT,$service,$mode,$run,$1,$2" >> "$RESULTS"
+            times="$times $1"
+            sizes="$sizes $2"
+        done
+        [ -n "$times" ] || continue
+        ready=$(echo $times | median)
+        rss=$(echo $sizes | median)
+        [ "$mode" = "jar" ] && baseline=$ready
+        gain=""
+        [ -n "$baseline" ] && [ "$mode" != "jar" ] && gain=$(awk -v b="$baseline" -v r="$ready" 'BEGIN { printf "%+.0f%%", (r - b) * 100 / b }')
+        SUMMARY="$SUMMARY$(printf '%-24s %-5s %8s ms %6s MB %6s' "$service" "$mode" "$ready" "$rss" "$gain")\n"
+    done
+done
+
+echo
+printf '%-24s %-5s %11s %9s %6s\n' "service" "mode" "ready" "RSS" "vs jar"
+printf "%b" "$SUMMARY"
+echo "Results appended to $RESULTS"
+exit $status
@@ -0,0 +1,70 @@
+// k6 scenario for comparing the servlet and reactive patient-service stacks.
+// Mix: 70% cursor listing, 20% get-by-id, 10% create; 1k+ virtual users by default.
+// Run through scripts/bench-patient-stacks.sh, or directly:
+//   k6 run -e BASE_URL=http://localhost:8081 -e VUS=1500 scripts/load/patient-stack.js
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8081';
+const VUS = parseInt(__ENV.VUS || '1000', 10);
+const DURATION = __ENV.DURATION || '2m';
+const AUTH_HEADER = __ENV.AUTH_HEADER || '';
+
+export const options = {
+    scenarios: {
+        mixed: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '30s', target: VUS },
+                { duration: DURATION, target: VUS },
+                { duration: '10s', target: 0 },
+            ],
+            gracefulRampDown: '10s',
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+    thresholds: {
+        http_req_failed: ['rate<0.01'],
+    },
+};
+
+const params = {
+    headers: Object.assign({ 'Content-Type': 'application/json' }, AUTH_HEADER ? { Authorization: AUTH_HEADER } : {}),
+};
+
+export function setup() {
+    const ids = [];
+    for (let i = 0; i < 200; i++) {
+        const res = http.post(`${BASE_URL}/api/v1/patients`, JSON.stringify(newPatient(i)), params);
+        if (res.status === 201) ids.push(res.json('id'));
+    }
+    return { ids };
+}
+
+export default function (data) {
+    const roll = Math.random();
+    if (roll < 0.7) {
+        const res = http.get(`${BASE_URL}/api/v1/patients?size=20&view=summary`, Object.assign({ tags: { op: 'list' } }, params));
+        check(res, { 'list 200': (r) => r.status === 200 });
+    } else if (roll < 0.9 && data.ids.length > 0) {
+        const id = data.ids[Math.floor(Math.random() * data.ids.length)];
+        const res = http.get(`${BASE_URL}/api/v1/patients/${id}`, Object.assign({ tags: { op: 'get' } }, params));
+        check(res, { 'get 200': (r) => r.status === 200 });
+    } else {
+        const res = http.post(`${BASE_URL}/api/v1/patients`, JSON.stringify(newPatient(__VU * 100000 + __ITER)),
+            Object.assign({ tags: { op: 'create' } }, params));
+        check(res, { 'create 201': (r) => r.status === 201 });
+    }
+}
+
+function newPatient(n) {
+    return {
+        firstName: `Load${n % 997}`,
+        lastName: `Tester${n % 7919}`,
+        dateOfBirth: '1980-01-01',
+        gender: n % 2 === 0 ? 'FEMALE' : 'MALE',
+        email: `load.${n}@example.com`,
+        phoneNumber: `555${String(n % 10000000).padStart(7, '0')}`,
+    };
+}
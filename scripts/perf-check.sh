@@ -0,0 +1,43 @@
+#!/bin/bash
+
+# Runs the patient-service JMH benchmarks and the embedded-Mongo load harness (both under
+# services/patient-service/src/jmh) and compares the results with the stored baselines in
+# src/jmh/baselines. Exits non-zero when a metric regresses beyond tolerance or is missing from its
+# suite's baseline; a suite with no baseline file yet (the load harness until one is recorded) only
+# reports. Record a baseline for a new benchmark (only the metrics that ran are rewritten) and commit it.
+# Usage: ./scripts/perf-check.sh                  check against the baselines
+#        UPDATE_BASELINE=true ./scripts/perf-check.sh   record new baselines
+#        UPDATE_BASELINE=true SKIP_LOAD=true JMH_ARGS="PatientEncoding" ./scripts/perf-check.sh
+#        SKIP_LOAD=true JMH_ARGS="PatientMapping" ./scripts/perf-check.sh
+
+THROUGHPUT_TOLERANCE=${THROUGHPUT_TOLERANCE:-0.20}
+LATENCY_TOLERANCE=${LATENCY_TOLERANCE:-0.30}
+UPDATE_BASELINE=${UPDATE_BASELINE:-false}
+SKIP_JMH=${SKIP_JMH:-false}
+SKIP_LOAD=${SKIP_LOAD:-false}
+JMH_ARGS=${JMH_ARGS:-""}
+HARNESS_OPTS=${HARNESS_OPTS:-""}
+
+cd "$(dirname "${BASH_SOURCE[0]}")/../services/patient-service" || exit 1
+
+echo "Building patient-service benchmarks..."
+mvn -B -q -Pbenchmark -DskipTests compile dependency:build-classpath -Dmdep.outputFile=target/perf/classpath.txt || exit 1
+CLASSPATH="target/classes:$(cat target/perf/classpath.txt)"
+PERF_OPTS="-Dperf.throughput-tolerance=$THROUGHPUT_TOLERANCE -Dperf.latency-tolerance=$LATENCY_TOLERANCE -Dperf.update-baseline=$UPDATE_BASELINE"
+status=0
+
+if [ "$SKIP_JMH" != "true" ]; then
+    echo "Running JMH benchmarks..."
+    java -cp "$CLASSPATH" org.openjdk.jmh.Main -rf json -rff target/perf/jmh.json $JMH_ARGS || exit 1
+    java -cp "$CLASSPATH" $PERF_OPTS com.healthcare.patient.benchmark.PerfBaseline target/perf/jmh.json src/jmh/baselines/jmh.json || status=1
+fi
+
+if [ "$SKIP_LOAD" != "true" ]; then
+    echo "Running load harness against embedded MongoDB..."
+    java -cp "$CLASSPATH" $PERF_OPTS $HARNESS_OPTS com.healthcare.patient.benchmark.PatientLoadHarness || status=1
+fi
+
+if [ $status -ne 0 ]; then
+    echo "Performance regression detected, or metrics without a baseline"
+fi
+exit $status
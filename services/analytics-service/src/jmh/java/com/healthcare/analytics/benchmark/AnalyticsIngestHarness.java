@@ -0,0 +1,195 @@
+package com.healthcare.analytics.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.Application;
+import com.healthcare.analytics.window.Metric;
+import org.HdrHistogram.Histogram;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * End-to-end check of analytics-service against an embedded Kafka broker. Publishes
+ * {@code harness.events} (1M) patient and appointment events shaped like the producers' own, starts the
+ * service and measures how long it takes to count them all, then times {@code harness.queries} (2000)
+ * rollup requests over HTTP. It then stops the service, publishes another tenth, and starts it again
+ * on the same checkpoint directory: the restarted service must resume from its checkpoints and end
+ * with exactly the expected totals, with nothing counted twice or lost. Exits non-zero otherwise.
+ */
+public final class AnalyticsIngestHarness {
+    private static final ObjectMapper MAPPER = Jackson2ObjectMapperBuilder.json().build();
+    private static final String PATIENT_TOPIC = "patient-events";
+    private static final String APPOINTMENT_TOPIC = "appointment-slot-events";
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final Map<Metric, Long> expected = new EnumMap<>(Metric.class);
+    private final SplittableRandom random = new SplittableRandom(7);
+    private final Instant today = Instant.now().truncatedTo(ChronoUnit.DAYS);
+    private final Instant from = today.minus(Duration.ofDays(90));
+    private final Instant to = today.plus(Duration.ofDays(90));
+
+    public static void main(String[] args) throws Exception {
+        int events = Integer.getInteger("harness.events", 1_000_000);
+        int queries = Integer.getInteger("harness.queries", 2000);
+        EmbeddedKafkaKraftBroker broker = new EmbeddedKafkaKraftBroker(1, 3, PATIENT_TOPIC, APPOINTMENT_TOPIC);
+        broker.afterPropertiesSet();
+        Path checkpoints = Files.createTempDirectory("analytics-checkpoints");
+        boolean ok;
+        try {
+            AnalyticsIngestHarness harness = new AnalyticsIngestHarness();
+            KafkaTemplate<String, Object> producer = producer(broker.getBrokersAsString());
+            harness.publish(producer, events);
+
+            long started = System.nanoTime();
+            try (ConfigurableApplicationContext app = start(broker.getBrokersAsString(), checkpoints)) {
+                String baseUrl = "http://localhost:" + app.getEnvironment().getProperty("local.server.port");
+                harness.awaitTotals(baseUrl, Duration.ofMinutes(10));
+                double seconds = (System.nanoTime() - started) / 1e9;
+                System.out.printf("counted %d events in %.1f s (%.0f events/s, including startup)%n", events, seconds, events / seconds);
+                harness.timeQueries(baseUrl, queries);
+            }
+
+            int more = events / 10;
+            harness.publish(producer, more);
+            started = System.nanoTime();
+            try (ConfigurableApplicationContext app = start(broker.getBrokersAsString(), checkpoints)) {
+                String baseUrl = "http://localhost:" + app.getEnvironment().getProperty("local.server.port");
+                ok = harness.awaitTotals(baseUrl, Duration.ofMinutes(2));
+                Thread.sleep(2000); // anything replayed twice would show up as an overshoot
+                ok &= harness.totals(baseUrl).equals(harness.expected);
+                System.out.printf("restarted and caught up on %d new events in %.1f s%n", more, (System.nanoTime() - started) / 1e9);
+            }
+            producer.destroy();
+        } finally {
+            broker.destroy();
+        }
+        System.out.println(ok ? "Totals match after restart." : "Totals do not match after restart.");
+        System.exit(ok ? 0 : 1);
+    }
+
+    private static KafkaTemplate<String, Object> producer(String brokers) {
+        Map<String, Object> config = Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, brokers,
+                ProducerConfig.LINGER_MS_CONFIG, 20,
+                ProducerConfig.BATCH_SIZE_CONFIG, 65536);
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(config, new StringSerializer(), new JsonSerializer<>(MAPPER)));
+    }
+
+    private static ConfigurableApplicationContext start(String brokers, Path checkpoints) {
+        // Passed as command-line arguments so they override application.yml.
+        return new SpringApplicationBuilder(Application.class).run(
+                "--server.port=0",
+                "--spring.kafka.bootstrap-servers=" + brokers,
+                "--analytics.checkpoint.dir=" + checkpoints,
+                "--analytics.checkpoint.interval-ms=1000",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN");
+    }
+
+    /**
+     * Publishes {@code count} events, about a third of them patient changes and the rest appointment
+     * slot events, within 90 days either side of today.
+     */
+    private void publish(KafkaTemplate<String, Object> producer, int count) {
+        for (int i = 0; i < count; i++) {
+            if (random.nextInt(3) == 0) {
+                String type = random.nextInt(100) < 70 ? "CREATED" : random.nextInt(2) == 0 ? "UPDATED" : "DELETED";
+                Instant occurredAt = from.plusSeconds(random.nextLong(Duration.between(from, today).toSeconds()));
+                Map<String, Object> event = new LinkedHashMap<>();
+                event.put("eventId", UUID.randomUUID().toString());
+                event.put("type", type);
+                event.put("patientId", "p" + random.nextInt(1_000_000));
+                event.put("patientVersion", 1);
+                event.put("occurredAt", occurredAt);
+                event.put("patient", Map.of("firstName", "Ada", "lastName", "Lovelace"));
+                producer.send(PATIENT_TOPIC, (String) event.get("patientId"), event);
+                if ("CREATED".equals(type)) expected.merge(Metric.PATIENTS_REGISTERED, 1L, Long::sum);
+                if ("DELETED".equals(type)) expected.merge(Metric.PATIENTS_DELETED, 1L, Long::sum);
+            } else {
+                int kind = random.nextInt(100);
+                String type = kind < 10 ? "OPENED" : kind < 75 ? "BOOKED" : kind < 90 ? "RELEASED" : "NO_SHOW";
+                Instant slot = from.plus(Duration.ofMinutes(15L * random.nextInt(180 * 96)));
+                long providerId = 1 + random.nextInt(5000);
+                producer.send(APPOINTMENT_TOPIC, Long.toString(providerId), Map.of("type", type, "providerId", providerId,
+                        "startsAt", slot, "endsAt", slot.plus(Duration.ofMinutes(15)), "origin", "harness"));
+                switch (type) {
+                    case "BOOKED" -> expected.merge(Metric.APPOINTMENTS_BOOKED, 1L, Long::sum);
+                    case "RELEASED" -> expected.merge(Metric.APPOINTMENTS_CANCELLED, 1L, Long::sum);
+                    case "NO_SHOW" -> expected.merge(Metric.APPOINTMENTS_NO_SHOW, 1L, Long::sum);
+                    default -> { }
+                }
+            }
+        }
+        producer.flush();
+    }
+
+    private boolean awaitTotals(String baseUrl, Duration timeout) throws Exception {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        Map<Metric, Long> totals = Map.of();
+        while (System.nanoTime() < deadline) {
+            totals = totals(baseUrl);
+            if (totals.equals(expected)) return true;
+            Thread.sleep(200);
+        }
+        System.out.println("expected " + expected + " but counted " + totals);
+        return false;
+    }
+
+    private Map<Metric, Long> totals(String baseUrl) throws IOException, InterruptedException {
+        JsonNode windows = get(baseUrl + "/api/v1/analytics/rollups?from=" + from + "&to=" + to
+                + "&window=" + Duration.between(from, to));
+        Map<Metric, Long> totals = new EnumMap<>(Metric.class);
+        for (Metric metric : Metric.values()) {
+            long value = windows.get(0).get("values").get(metric.key()).asLong();
+            if (value != 0) totals.put(metric, value);
+        }
+        return totals;
+    }
+
+    private void timeQueries(String baseUrl, int queries) throws IOException, InterruptedException {
+        Histogram latency = new Histogram(3);
+        for (int i = 0; i < queries; i++) {
+            boolean daily = i % 2 == 0;
+            String url = baseUrl + "/api/v1/analytics/rollups?from=" + from + "&to=" + to
+                    + (daily ? "&window=P1D" : "&window=P30D&slide=P1D&metrics=" + Metric.APPOINTMENTS_BOOKED.key() + ",appointments.no_show_rate");
+            long start = System.nanoTime();
+            get(url);
+            latency.recordValue((System.nanoTime() - start) / 1000);
+        }
+        System.out.printf("%d rollup queries (180 daily windows, or 180 sliding 30-day ones): p50 %.2f ms  p99 %.2f ms  max %.2f ms%n",
+                queries, latency.getValueAtPercentile(50) / 1000.0, latency.getValueAtPercentile(99) / 1000.0,
+                latency.getMaxValue() / 1000.0);
+    }
+
+    private JsonNode get(String url) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(URI.create(url)).GET().build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET " + url + " returned HTTP " + response.statusCode() + ": " + new String(response.body()));
+        }
+        return MAPPER.readTree(response.body());
+    }
+}
@@ -0,0 +1,406 @@
+package com.healthcare.analytics.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.Application;
+import com.healthcare.analytics.dto.CohortFilter;
+import com.healthcare.analytics.service.CohortService;
+import com.sun.net.httpserver.HttpServer;
+import org.HdrHistogram.Histogram;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.IntPredicate;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * End-to-end check of the cohort snapshot. Serves {@code harness.patients} (2M) synthetic patients
+ * from a stand-in for patient-service's export, starts analytics-service against an embedded Kafka
+ * broker and times the bootstrap, then publishes {@code harness.changes} (300k) creates, updates and
+ * deletes. Cohort counts, breakdowns and id lists must then match a brute-force evaluation of the
+ * same patients, and {@code harness.queries} (2000) queries are timed over HTTP and in process.
+ * Finally the service is stopped, more changes published, and it is started again on the same
+ * directory: it must answer from the mapped generation at once and converge on the same answers.
+ * Exits non-zero on any mismatch.
+ */
+public final class CohortHarness {
+    private static final ObjectMapper MAPPER = Jackson2ObjectMapperBuilder.json().build();
+    private static final String TOPIC = "patient-events";
+    private static final String[] GENDERS = {"FEMALE", "MALE", "OTHER"};
+    private static final String[] STATUSES = {"ACTIVE", "INACTIVE"};
+    private static final String[] STATES = {"AL", "AK", "AZ", "AR", "CA", "CO", "CT", "DE", "FL", "GA", "HI", "ID", "IL",
+            "IN", "IA", "KS", "KY", "LA", "ME", "MD", "MA", "MI", "MN", "MS", "MO", "MT", "NE", "NV", "NH", "NJ", "NM",
+            "NY", "NC", "ND", "OH", "OK", "OR", "PA", "RI", "SC", "SD", "TN", "TX", "UT", "VT", "VA", "WA", "WV", "WI", "WY"};
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final SplittableRandom random = new SplittableRandom(19);
+    private final LocalDate today = LocalDate.now(ZoneOffset.UTC);
+    // The expected state of every patient ever created, by index; id "p" + index.
+    private int size;
+    private boolean[] alive;
+    private byte[] gender;
+    private byte[] status;
+    private byte[] state;
+    private int[] postalCode;
+    private int[] birthDay;
+    private int[] version;
+
+    public static void main(String[] args) throws Exception {
+        int patients = Integer.getInteger("harness.patients", 2_000_000);
+        int changes = Integer.getInteger("harness.changes", 300_000);
+        int queries = Integer.getInteger("harness.queries", 2000);
+        CohortHarness harness = new CohortHarness(patients + 2 * changes);
+        for (int i = 0; i < patients; i++) harness.create();
+
+        HttpServer export = harness.exportServer();
+        EmbeddedKafkaKraftBroker broker = new EmbeddedKafkaKraftBroker(1, 3, TOPIC);
+        broker.afterPropertiesSet();
+        Path dir = Files.createTempDirectory("cohorts");
+        String exportUrl = "http://localhost:" + export.getAddress().getPort() + "/export";
+        boolean ok;
+        try {
+            KafkaTemplate<String, Object> producer = producer(broker.getBrokersAsString());
+            long started = System.nanoTime();
+            try (ConfigurableApplicationContext app = start(broker.getBrokersAsString(), exportUrl, dir)) {
+                String baseUrl = "http://localhost:" + app.getEnvironment().getProperty("local.server.port");
+                harness.awaitReady(baseUrl, Duration.ofMinutes(10));
+                System.out.printf("bootstrapped %d patients in %.1f s (including startup)%n", patients, (System.nanoTime() - started) / 1e9);
+
+                harness.publish(producer, changes);
+                started = System.nanoTime();
+                ok = harness.awaitMatch(baseUrl, Duration.ofMinutes(5));
+                System.out.printf("applied %d changes in %.1f s%n", changes, (System.nanoTime() - started) / 1e9);
+                ok &= harness.checkPages(baseUrl);
+                harness.timeQueries(baseUrl, app.getBean(CohortService.class), queries);
+                awaitCompaction(dir, Duration.ofMinutes(2));
+            }
+            export.stop(0);
+
+            harness.publish(producer, changes / 10);
+            started = System.nanoTime();
+            try (ConfigurableApplicationContext app = start(broker.getBrokersAsString(), "http://localhost:1/unreachable", dir)) {
+                String baseUrl = "http://localhost:" + app.getEnvironment().getProperty("local.server.port");
+                harness.awaitReady(baseUrl, Duration.ofSeconds(30));
+                System.out.printf("restarted and answering from generation %s in %.2f s (including startup)%n",
+                        Files.readString(dir.resolve("CURRENT")), (System.nanoTime() - started) / 1e9);
+                ok &= harness.awaitMatch(baseUrl, Duration.ofMinutes(2));
+                System.out.printf("caught up on %d changes in %.1f s after restart%n", changes / 10, (System.nanoTime() - started) / 1e9);
+            }
+            producer.destroy();
+        } finally {
+            broker.destroy();
+        }
+        System.out.println(ok ? "Cohorts match." : "Cohorts do not match.");
+        System.exit(ok ? 0 : 1);
+    }
+
+    private CohortHarness(int capacity) {
+        alive = new boolean[capacity];
+        gender = new byte[capacity];
+        status = new byte[capacity];
+        state = new byte[capacity];
+        postalCode = new int[capacity];
+        birthDay = new int[capacity];
+        version = new int[capacity];
+    }
+
+    private static KafkaTemplate<String, Object> producer(String brokers) {
+        Map<String, Object> config = Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, brokers,
+                ProducerConfig.LINGER_MS_CONFIG, 20,
+                ProducerConfig.BATCH_SIZE_CONFIG, 65536);
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(config, new StringSerializer(), new JsonSerializer<>(MAPPER)));
+    }
+
+    private static ConfigurableApplicationContext start(String brokers, String exportUrl, Path dir) {
+        // Passed as command-line arguments so they override application.yml.
+        return new SpringApplicationBuilder(Application.class).run(
+                "--server.port=0",
+                "--spring.kafka.bootstrap-servers=" + brokers,
+                "--analytics.checkpoint.dir=" + dir.resolve("checkpoints"),
+                "--analytics.cohort.dir=" + dir,
+                "--analytics.cohort.bootstrap.url=" + exportUrl,
+                "--analytics.cohort.compact-interval-ms=2000",
+                "--analytics.cohort.compact-threshold=50000",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--logging.level.com.healthcare.analytics.cohort=INFO");
+    }
+
+    private void create() {
+        int i = size++;
+        alive[i] = true;
+        randomize(i);
+    }
+
+    private void randomize(int i) {
+        gender[i] = (byte) (random.nextInt(100) < 51 ? 0 : random.nextInt(100) < 98 ? 1 : 2);
+        status[i] = (byte) (random.nextInt(100) < 85 ? 0 : 1);
+        state[i] = (byte) random.nextInt(STATES.length);
+        postalCode[i] = state[i] * 1000 + random.nextInt(1000);
+        birthDay[i] = (int) (LocalDate.of(1930, 1, 1).toEpochDay() + random.nextInt(90 * 365));
+    }
+
+    private Map<String, Object> patient(int i) {
+        Map<String, Object> patient = new LinkedHashMap<>();
+        patient.put("id", "p" + i);
+        patient.put("firstName", "Ada");
+        patient.put("lastName", "Lovelace");
+        patient.put("dateOfBirth", LocalDate.ofEpochDay(birthDay[i]).toString());
+        patient.put("gender", GENDERS[gender[i]]);
+        patient.put("status", STATUSES[status[i]]);
+        patient.put("address", Map.of("street", "1 Main St", "state", STATES[state[i]], "postalCode", String.format("%05d", postalCode[i])));
+        patient.put("version", version[i]);
+        return patient;
+    }
+
+    /**
+     * Serves the current patients as gzipped NDJSON, the way patient-service's export does.
+     */
+    private HttpServer exportServer() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/export", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "application/x-ndjson");
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(200, 0);
+            try (Writer out = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(exchange.getResponseBody(), 65536), StandardCharsets.UTF_8), 65536)) {
+                for (int i = 0; i < size; i++) {
+                    if (!alive[i]) continue;
+                    out.write(MAPPER.writeValueAsString(patient(i)));
+                    out.write('\n');
+                }
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    /**
+     * Publishes {@code count} changes: about half updates, a third creates and the rest deletes.
+     */
+    private void publish(KafkaTemplate<String, Object> producer, int count) {
+        for (int n = 0; n < count; n++) {
+            int kind = random.nextInt(100);
+            int i;
+            String type;
+            if (kind < 33) {
+                i = size;
+                create();
+                type = "CREATED";
+            } else {
+                do {
+                    i = random.nextInt(size);
+                } while (!alive[i]);
+                version[i]++;
+                if (kind < 85) {
+                    randomize(i);
+                    type = "UPDATED";
+                } else {
+                    alive[i] = false;
+                    type = "DELETED";
+                }
+            }
+            Map<String, Object> event = new LinkedHashMap<>();
+            event.put("eventId", UUID.randomUUID().toString());
+            event.put("type", type);
+            event.put("patientId", "p" + i);
+            event.put("patientVersion", version[i]);
+            event.put("occurredAt", Instant.now());
+            event.put("patient", alive[i] ? patient(i) : null);
+            producer.send(TOPIC, "p" + i, event);
+        }
+        producer.flush();
+    }
+
+    private void awaitReady(String baseUrl, Duration timeout) throws Exception {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (send(baseUrl + "/api/v1/analytics/cohorts/count").statusCode() == 200) return;
+            Thread.sleep(50);
+        }
+        throw new IllegalStateException("Cohort snapshot not ready after " + timeout);
+    }
+
+    private static void awaitCompaction(Path dir, Duration timeout) throws Exception {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (Long.parseLong(Files.readString(dir.resolve("CURRENT")).trim()) > 1) return;
+            Thread.sleep(200);
+        }
+        throw new IllegalStateException("No cohort generation was written after the bootstrap");
+    }
+
+    private boolean awaitMatch(String baseUrl, Duration timeout) throws Exception {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        String mismatch = null;
+        while (System.nanoTime() < deadline) {
+            mismatch = mismatch(baseUrl);
+            if (mismatch == null) return true;
+            Thread.sleep(200);
+        }
+        System.out.println(mismatch);
+        return false;
+    }
+
+    /**
+     * Compares a set of cohort counts and breakdowns with brute force; null when they all agree.
+     */
+    private String mismatch(String baseUrl) throws Exception {
+        for (Query query : queries()) {
+            JsonNode answer = get(baseUrl + "/api/v1/analytics/cohorts/count?" + query.parameters());
+            long expected = 0;
+            Map<String, Long> breakdown = new TreeMap<>();
+            for (int i = 0; i < size; i++) {
+                if (!alive[i] || !query.matches().test(i)) continue;
+                expected++;
+                if (query.groupBy() != null) breakdown.merge(STATES[state[i]], 1L, Long::sum);
+            }
+            if (answer.get("count").asLong() != expected) {
+                return query.parameters() + ": expected " + expected + " but counted " + answer.get("count").asLong();
+            }
+            if (query.groupBy() != null) {
+                Map<String, Long> counted = new TreeMap<>();
+                answer.get("breakdown").fields().forEachRemaining(e -> counted.put(e.getKey(), e.getValue().asLong()));
+                if (!counted.equals(breakdown)) return query.parameters() + ": breakdown " + counted + " instead of " + breakdown;
+            }
+        }
+        return null;
+    }
+
+    private List<Query> queries() {
+        int ca = Arrays.asList(STATES).indexOf("CA");
+        List<Integer> northeast = List.of(Arrays.asList(STATES).indexOf("NY"), Arrays.asList(STATES).indexOf("NJ"), Arrays.asList(STATES).indexOf("CT"));
+        IntPredicate aged40to60 = ages(40, 60);
+        IntPredicate over65 = ages(65, 130);
+        return List.of(
+                new Query("gender=female&status=active&state=CA&minAge=40&maxAge=60", null,
+                        i -> gender[i] == 0 && status[i] == 0 && state[i] == ca && aged40to60.test(i)),
+                new Query("state=NY,NJ,CT&status=ACTIVE&groupBy=state", "state",
+                        i -> northeast.contains((int) state[i]) && status[i] == 0),
+                new Query("postalCode=04000,04001,04002,04003,04004,04005,04006,04007,04008,04009,04010,04011,04012,04013,04014,04015,04016,04017,04018,04019", null,
+                        i -> postalCode[i] >= 4000 && postalCode[i] < 4020),
+                new Query("minAge=65&groupBy=state", "state", over65),
+                new Query("", null, i -> true));
+    }
+
+    /**
+     * The service's own reading of an age range: every birth month that can have the age today.
+     */
+    private IntPredicate ages(int min, int max) {
+        YearMonth first = YearMonth.from(today.minusYears(max + 1L).plusDays(1));
+        YearMonth last = YearMonth.from(today.minusYears(min));
+        return i -> {
+            YearMonth born = YearMonth.from(LocalDate.ofEpochDay(birthDay[i]));
+            return !born.isBefore(first) && !born.isAfter(last);
+        };
+    }
+
+    /**
+     * Pages through one cohort's ids and checks they are exactly the expected set.
+     */
+    private boolean checkPages(String baseUrl) throws Exception {
+        Query query = queries().get(0);
+        List<String> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            JsonNode page = get(baseUrl + "/api/v1/analytics/cohorts/patients?" + query.parameters() + "&limit=500"
+                    + (cursor == null ? "" : "&cursor=" + URLEncoder.encode(cursor, StandardCharsets.UTF_8)));
+            page.get("patientIds").forEach(id -> ids.add(id.asText()));
+            cursor = page.hasNonNull("nextCursor") ? page.get("nextCursor").asText() : null;
+        } while (cursor != null);
+        Map<String, Boolean> expected = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            if (alive[i] && query.matches().test(i)) expected.put("p" + i, true);
+        }
+        boolean ok = ids.size() == expected.size() && ids.stream().allMatch(expected::containsKey);
+        System.out.printf("listed %d ids in pages of 500: %s%n", ids.size(), ok ? "exact" : "MISMATCH");
+        return ok;
+    }
+
+    private void timeQueries(String baseUrl, CohortService cohortService, int queries) throws Exception {
+        List<Query> mix = queries();
+        Histogram overHttp = new Histogram(3);
+        for (int i = 0; i < queries; i++) {
+            String url = baseUrl + "/api/v1/analytics/cohorts/count?" + mix.get(i % mix.size()).parameters();
+            long start = System.nanoTime();
+            get(url);
+            overHttp.recordValue((System.nanoTime() - start) / 1000);
+        }
+        CohortFilter filter = new CohortFilter();
+        filter.setGender(List.of("FEMALE"));
+        filter.setStatus(List.of("ACTIVE"));
+        filter.setState(List.of("CA"));
+        filter.setMinAge(40);
+        filter.setMaxAge(60);
+        CohortFilter wide = new CohortFilter();
+        wide.setMinAge(18);
+        wide.setStatus(List.of("ACTIVE"));
+        Histogram narrow = new Histogram(3);
+        Histogram broad = new Histogram(3);
+        for (int i = 0; i < queries; i++) {
+            long start = System.nanoTime();
+            cohortService.count(filter, null);
+            narrow.recordValue((System.nanoTime() - start) / 1000);
+            start = System.nanoTime();
+            cohortService.count(wide, "state");
+            broad.recordValue((System.nanoTime() - start) / 1000);
+        }
+        print(queries + " cohort counts over HTTP (mixed)", overHttp);
+        print("in process: active female 40-60 in CA", narrow);
+        print("in process: active adults, broken down by state", broad);
+    }
+
+    private static void print(String label, Histogram latency) {
+        System.out.printf("%s: p50 %.2f ms  p99 %.2f ms  max %.2f ms%n", label, latency.getValueAtPercentile(50) / 1000.0,
+                latency.getValueAtPercentile(99) / 1000.0, latency.getMaxValue() / 1000.0);
+    }
+
+    private HttpResponse<byte[]> send(String url) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(URI.create(url)).GET().build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private JsonNode get(String url) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = send(url);
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET " + url + " returned HTTP " + response.statusCode() + ": " + new String(response.body()));
+        }
+        return MAPPER.readTree(response.body());
+    }
+
+    private record Query(String parameters, String groupBy, IntPredicate matches) {
+    }
+}
@@ -0,0 +1,104 @@
+package com.healthcare.analytics.benchmark;
+
+import com.healthcare.analytics.dto.RollupWindow;
+import com.healthcare.analytics.service.RollupService;
+import com.healthcare.analytics.window.Buckets;
+import com.healthcare.analytics.window.Metric;
+import com.healthcare.analytics.window.WindowCheckpoints;
+import com.healthcare.analytics.window.WindowStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.TopicPartition;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rollup queries against a year of history: six partitions (three per topic) holding 20M events
+ * spread over the past year and, for appointments, the year ahead. Measures the dashboard queries
+ * (daily over a year, hourly over a week, a 30-day window sliding daily over a year) and the cost of
+ * counting one poll of 2000 events.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@State(Scope.Benchmark)
+public class RollupQueryBenchmark {
+    private static final int EVENTS = 20_000_000;
+    private static final int POLL = 2000;
+
+    private RollupService rollupService;
+    private WindowStore windowStore;
+    private Instant yearAgo;
+    private Instant now;
+    private long[] pollBuckets;
+    private Metric[] pollMetrics;
+    private long offset;
+
+    @Setup
+    public void setUp() throws Exception {
+        windowStore = new WindowStore(new WindowCheckpoints(Files.createTempDirectory("rollup-benchmark")),
+                new SimpleMeterRegistry(), 400, 370, 10000);
+        rollupService = new RollupService(windowStore, 5000);
+        now = Buckets.startOf(Buckets.of(Instant.now()));
+        yearAgo = now.minus(Duration.ofDays(365));
+        long today = Buckets.of(now);
+        int year = 365 * Buckets.PER_DAY;
+        SplittableRandom random = new SplittableRandom(42);
+        long started = System.nanoTime();
+        for (int p = 0; p < 6; p++) {
+            boolean appointments = p >= 3;
+            TopicPartition partition = new TopicPartition(appointments ? "appointment-slot-events" : "patient-events", p % 3);
+            int events = EVENTS / 6;
+            for (int done = 0; done < events; done += POLL) {
+                long[] buckets = new long[POLL];
+                Metric[] metrics = new Metric[POLL];
+                for (int i = 0; i < POLL; i++) {
+                    if (appointments) {
+                        buckets[i] = today - year + random.nextInt(2 * year);
+                        int kind = random.nextInt(100);
+                        metrics[i] = kind < 80 ? Metric.APPOINTMENTS_BOOKED : kind < 95 ? Metric.APPOINTMENTS_CANCELLED : Metric.APPOINTMENTS_NO_SHOW;
+                    } else {
+                        buckets[i] = today - random.nextInt(year);
+                        metrics[i] = random.nextInt(100) < 98 ? Metric.PATIENTS_REGISTERED : Metric.PATIENTS_DELETED;
+                    }
+                }
+                windowStore.apply(partition, buckets, metrics, POLL, done + POLL);
+            }
+        }
+        System.out.printf("%ncounted %d events in %d ms%n", EVENTS, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+
+        pollBuckets = new long[POLL];
+        pollMetrics = new Metric[POLL];
+        for (int i = 0; i < POLL; i++) {
+            pollBuckets[i] = today - random.nextInt(Buckets.PER_DAY);
+            pollMetrics[i] = Metric.PATIENTS_REGISTERED;
+        }
+    }
+
+    @Benchmark
+    public List<RollupWindow> dailyOverYear() {
+        return rollupService.rollups(List.of(), yearAgo, now, Duration.ofDays(1), null);
+    }
+
+    @Benchmark
+    public List<RollupWindow> hourlyOverWeek() {
+        return rollupService.rollups(List.of(), now.minus(Duration.ofDays(7)), now, Duration.ofHours(1), null);
+    }
+
+    @Benchmark
+    public List<RollupWindow> thirtyDaysSlidingDailyOverYear() {
+        return rollupService.rollups(List.of(), yearAgo, now.minus(Duration.ofDays(30)), Duration.ofDays(30), Duration.ofDays(1));
+    }
+
+    @Benchmark
+    public int countPoll() {
+        return windowStore.apply(new TopicPartition("patient-events", 0), pollBuckets, pollMetrics, POLL, ++offset);
+    }
+}
@@ -0,0 +1,77 @@
+package com.healthcare.analytics.cohort;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Fills the first cohort generation from patient-service's NDJSON export, streamed and parsed one
+ * patient at a time. Change events published from shortly before the export started onwards are
+ * then replayed over it; the versions they carry make the overlap harmless.
+ *
+ * <p>With no {@code analytics.cohort.bootstrap.url} the first generation is empty and the whole
+ * patient topic is replayed instead, which only works while the topic still holds every change.
+ */
+@Component
+class CohortBootstrap {
+    private static final Logger log = LoggerFactory.getLogger(CohortBootstrap.class);
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    private final ObjectReader reader;
+    private final String url;
+    private final String authorization;
+    private final Duration replayMargin;
+
+    CohortBootstrap(ObjectMapper objectMapper,
+                    @Value("${analytics.cohort.bootstrap.url:}") String url,
+                    @Value("${analytics.cohort.bootstrap.username:}") String username,
+                    @Value("${analytics.cohort.bootstrap.password:}") String password,
+                    @Value("${analytics.cohort.bootstrap.replay-margin:5m}") Duration replayMargin) {
+        this.reader = objectMapper.readerFor(PatientRecord.class);
+        this.url = url;
+        this.authorization = username.isEmpty() ? null
+                : "Basic " + Base64.getEncoder().encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+        this.replayMargin = replayMargin;
+    }
+
+    /**
+     * Writes every exported patient to {@code writer} and returns the epoch millis to replay change
+     * events from.
+     */
+    long fill(CohortGenerationWriter writer) throws IOException, InterruptedException {
+        if (url.isBlank()) {
+            log.info("No cohort bootstrap URL; building the cohort snapshot from the whole patient topic");
+            return 0;
+        }
+        long started = System.currentTimeMillis();
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url)).GET();
+        if (authorization != null) request.header("Authorization", authorization);
+        HttpResponse<InputStream> response = client.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+        if (response.statusCode() != 200) {
+            response.body().close();
+            throw new IOException("Patient export " + url + " returned HTTP " + response.statusCode());
+        }
+        boolean gzip = response.headers().firstValue("Content-Encoding").filter("gzip"::equalsIgnoreCase).isPresent();
+        try (InputStream body = gzip ? new GZIPInputStream(response.body(), 64 * 1024) : response.body();
+             MappingIterator<PatientRecord> patients = reader.readValues(body)) {
+            while (patients.hasNextValue()) writer.add(patients.nextValue().toRow());
+        }
+        log.info("Exported {} patients for the cohort snapshot in {} ms", writer.rows(), System.currentTimeMillis() - started);
+        return started - replayMargin.toMillis();
+    }
+}
@@ -0,0 +1,47 @@
+package com.healthcare.analytics.cohort;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * The patient attributes kept in the cohort snapshot. Every column is dictionary-encoded, with one
+ * bitmap of rows per distinct value. Dates of birth are kept to the month ({@code 1984-07}), which
+ * is as fine as an age range needs.
+ */
+public enum CohortColumn {
+    GENDER("gender"),
+    STATUS("status"),
+    STATE("state"),
+    POSTAL_CODE("postalCode"),
+    BIRTH_MONTH("birthMonth");
+
+    private final String key;
+
+    CohortColumn(String key) {
+        this.key = key;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public static Optional<CohortColumn> byKey(String key) {
+        return Arrays.stream(values()).filter(column -> column.key.equals(key)).findFirst();
+    }
+
+    /**
+     * The form values are stored and looked up in: trimmed and upper-cased, postal codes without
+     * spaces. Blank values are not indexed.
+     */
+    public String normalize(String value) {
+        if (value == null || value.isBlank()) return null;
+        String normalized = value.trim().toUpperCase(Locale.ROOT);
+        return this == POSTAL_CODE ? normalized.replace(" ", "") : normalized;
+    }
+
+    static String birthMonth(LocalDate dateOfBirth) {
+        return dateOfBirth == null ? null : String.format("%04d-%02d", dateOfBirth.getYear(), dateOfBirth.getMonthValue());
+    }
+}
@@ -0,0 +1,10 @@
+package com.healthcare.analytics.cohort;
+
+import java.util.Map;
+
+/**
+ * How many patients a cohort holds and, when grouped, how many of them have each value of the
+ * grouping column, largest first.
+ */
+public record CohortCount(long count, Map<String, Long> breakdown) {
+}
@@ -0,0 +1,11 @@
+package com.healthcare.analytics.cohort;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Patients whose every listed column holds one of its listed (normalized) values; no columns
+ * means every patient.
+ */
+public record CohortCriteria(Map<CohortColumn, Set<String>> values) {
+}
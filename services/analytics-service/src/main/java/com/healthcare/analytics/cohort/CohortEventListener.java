@@ -0,0 +1,127 @@
+package com.healthcare.analytics.cohort;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the {@link CohortStore} current from patient change events. It consumes the patient topic
+ * with a group of its own, separate from the rollup ingestion's, and is started by
+ * {@link CohortLoader} once a generation is mapped. On assignment each partition seeks to the offset
+ * the snapshot recorded for it, or, for partitions not read since the bootstrap, to the time the
+ * bootstrap export started.
+ */
+@Component
+public class CohortEventListener implements ConsumerSeekAware {
+    static final String ID = "analytics-cohort-events";
+
+    private final CohortStore cohortStore;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final KafkaListenerEndpointRegistry registry;
+
+    public CohortEventListener(CohortStore cohortStore, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                               KafkaListenerEndpointRegistry registry) {
+        this.cohortStore = cohortStore;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.registry = registry;
+    }
+
+    @KafkaListener(id = ID,
+            topics = "${analytics.ingest.patient-topic:patient-events}",
+            groupId = "${analytics.cohort.group-id}",
+            autoStartup = "false",
+            batch = "true")
+    public void onPatientEvents(List<ConsumerRecord<String, byte[]>> records) {
+        Map<Integer, List<ConsumerRecord<String, byte[]>>> byPartition = new LinkedHashMap<>();
+        for (ConsumerRecord<String, byte[]> record : records) {
+            byPartition.computeIfAbsent(record.partition(), p -> new ArrayList<>()).add(record);
+        }
+        byPartition.forEach((partition, batch) -> {
+            List<PatientRow> changes = new ArrayList<>(batch.size());
+            int ignored = 0;
+            int malformed = 0;
+            for (ConsumerRecord<String, byte[]> record : batch) {
+                PatientRow change;
+                try {
+                    change = record.value() == null ? null : change(record.value());
+                } catch (IOException | RuntimeException e) {
+                    malformed++;
+                    continue;
+                }
+                if (change == null) {
+                    ignored++;
+                } else {
+                    changes.add(change);
+                }
+            }
+            int applied = cohortStore.apply(partition, changes, batch.get(batch.size() - 1).offset() + 1);
+            count("applied", applied);
+            count("stale", changes.size() - applied);
+            count("ignored", ignored);
+            count("malformed", malformed);
+        });
+    }
+
+    /**
+     * Starts consuming; positions come from {@link #onPartitionsAssigned}.
+     */
+    void start() {
+        MessageListenerContainer container = registry.getListenerContainer(ID);
+        if (container != null && !container.isRunning()) container.start();
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        List<TopicPartition> sinceBootstrap = new ArrayList<>();
+        for (TopicPartition partition : assignments.keySet()) {
+            long offset = cohortStore.resumeOffset(partition.partition());
+            if (offset < 0) {
+                sinceBootstrap.add(partition);
+            } else {
+                callback.seek(partition.topic(), partition.partition(), offset);
+            }
+        }
+        if (sinceBootstrap.isEmpty()) return;
+        long timestamp = cohortStore.resumeTimestamp();
+        if (timestamp > 0) {
+            callback.seekToTimestamp(sinceBootstrap, timestamp);
+        } else {
+            callback.seekToBeginning(sinceBootstrap);
+        }
+    }
+
+    private PatientRow change(byte[] value) throws IOException {
+        PatientChangeMessage event = objectMapper.readValue(value, PatientChangeMessage.class);
+        if (event.patientId() == null) throw new IOException("patient event without patientId");
+        return switch (event.type()) {
+            // Deletes published before they carried a version outrank every update.
+            case "DELETED" -> PatientRow.deleted(event.patientId(),
+                    event.patientVersion() != null ? event.patientVersion() : Long.MAX_VALUE);
+            case "CREATED", "UPDATED" -> {
+                if (event.patient() == null) throw new IOException("patient event without patient");
+                PatientRow row = event.patient().toRow();
+                long version = event.patientVersion() != null ? event.patientVersion() : row.version();
+                yield new PatientRow(event.patientId(), version, row.values());
+            }
+            default -> null;
+        };
+    }
+
+    private void count(String outcome, int events) {
+        if (events > 0) meterRegistry.counter("analytics.cohort.events", "outcome", outcome).increment(events);
+    }
+}
@@ -0,0 +1,203 @@
+package com.healthcare.analytics.cohort;
+
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * One immutable, memory-mapped snapshot of patient attributes, written by
+ * {@link CohortGenerationWriter}. Opening it maps the files and reads the dictionaries; rows, ids and
+ * bitmaps are read from the mapping on demand, so a generation of any size is queryable as soon as
+ * it is opened and the page cache, not the heap, holds it.
+ *
+ * <p>Per generation directory:
+ * <ul>
+ *   <li>{@code ids.dat} and {@code ids.off}: the patient ids, UTF-8, with {@code rows + 1} offsets;
+ *       {@code ids.idx}: an open-addressing hash table from id to row.</li>
+ *   <li>{@code versions.dat}: the patient version each row reflects.</li>
+ *   <li>per {@link CohortColumn}: {@code .codes} with each row's dictionary code (-1 for none),
+ *       {@code .dict} with the values, and {@code .bitmaps} with one Roaring bitmap of rows per value.</li>
+ *   <li>{@code meta.properties}: the row count and where the change events resume from.</li>
+ * </ul>
+ *
+ * <p>Reads use absolute positions only, so a generation is safe to share between threads.
+ */
+final class CohortGeneration {
+    static final String META = "meta.properties";
+    static final String IDS = "ids.dat";
+    static final String ID_OFFSETS = "ids.off";
+    static final String ID_INDEX = "ids.idx";
+    static final String VERSIONS = "versions.dat";
+    static final String ROWS = "rows";
+    static final String RESUME_TIMESTAMP = "resume.timestamp";
+    static final String OFFSET_PREFIX = "offset.";
+
+    private static final CohortColumn[] COLUMNS = CohortColumn.values();
+
+    private final Path dir;
+    private final Properties meta;
+    private final int rows;
+    private final ByteBuffer ids;
+    private final LongBuffer idOffsets;
+    private final IntBuffer idIndex;
+    private final int indexMask;
+    private final LongBuffer versions;
+    private final IntBuffer[] codes = new IntBuffer[COLUMNS.length];
+    private final String[][] dictionaries = new String[COLUMNS.length][];
+    private final Map<String, Integer>[] codesByValue;
+    private final long[][] bitmapOffsets = new long[COLUMNS.length][];
+    private final ByteBuffer[] bitmapData = new ByteBuffer[COLUMNS.length];
+
+    @SuppressWarnings("unchecked")
+    private CohortGeneration(Path dir) throws IOException {
+        this.dir = dir;
+        this.meta = new Properties();
+        try (InputStream in = Files.newInputStream(dir.resolve(META))) {
+            meta.load(in);
+        }
+        this.rows = Integer.parseInt(meta.getProperty(ROWS));
+        this.ids = map(IDS);
+        this.idOffsets = map(ID_OFFSETS).asLongBuffer();
+        this.idIndex = map(ID_INDEX).asIntBuffer();
+        this.indexMask = idIndex.capacity() - 1;
+        this.versions = map(VERSIONS).asLongBuffer();
+        this.codesByValue = new Map[COLUMNS.length];
+        for (CohortColumn column : COLUMNS) {
+            int c = column.ordinal();
+            codes[c] = map(codesFile(column)).asIntBuffer();
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(dir.resolve(dictionaryFile(column))), 1 << 16))) {
+                dictionaries[c] = new String[in.readInt()];
+                codesByValue[c] = new HashMap<>(dictionaries[c].length * 2);
+                for (int code = 0; code < dictionaries[c].length; code++) {
+                    dictionaries[c][code] = in.readUTF();
+                    codesByValue[c].put(dictionaries[c][code], code);
+                }
+            }
+            ByteBuffer bitmaps = map(bitmapsFile(column));
+            int count = bitmaps.getInt(0);
+            bitmapOffsets[c] = new long[count + 1];
+            bitmaps.position(4).asLongBuffer().get(bitmapOffsets[c]);
+            bitmapData[c] = bitmaps.slice(4 + 8 * (count + 1), bitmaps.capacity() - 4 - 8 * (count + 1));
+        }
+        if (idOffsets.capacity() != rows + 1 || versions.capacity() != rows) {
+            throw new IOException("Cohort generation " + dir + " is incomplete");
+        }
+    }
+
+    static CohortGeneration open(Path dir) throws IOException {
+        return new CohortGeneration(dir);
+    }
+
+    Path dir() {
+        return dir;
+    }
+
+    Properties meta() {
+        return meta;
+    }
+
+    int rows() {
+        return rows;
+    }
+
+    String id(int row) {
+        int start = (int) idOffsets.get(row);
+        byte[] bytes = new byte[(int) idOffsets.get(row + 1) - start];
+        ids.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    long version(int row) {
+        return versions.get(row);
+    }
+
+    /**
+     * The row holding {@code id}, or -1.
+     */
+    int find(String id) {
+        byte[] wanted = id.getBytes(StandardCharsets.UTF_8);
+        for (int slot = hash(id) & indexMask; ; slot = (slot + 1) & indexMask) {
+            int entry = idIndex.get(slot);
+            if (entry == 0) return -1;
+            if (idEquals(entry - 1, wanted)) return entry - 1;
+        }
+    }
+
+    PatientRow row(int row) {
+        String[] values = new String[COLUMNS.length];
+        for (int c = 0; c < COLUMNS.length; c++) {
+            int code = codes[c].get(row);
+            values[c] = code < 0 ? null : dictionaries[c][code];
+        }
+        return new PatientRow(id(row), version(row), values);
+    }
+
+    /**
+     * The distinct values of {@code column}, in no particular order.
+     */
+    String[] dictionary(CohortColumn column) {
+        return dictionaries[column.ordinal()];
+    }
+
+    /**
+     * The rows whose {@code column} is {@code value}, read in place from the mapping; null when no
+     * row has it.
+     */
+    ImmutableRoaringBitmap bitmap(CohortColumn column, String value) {
+        Integer code = codesByValue[column.ordinal()].get(value);
+        if (code == null) return null;
+        long[] offsets = bitmapOffsets[column.ordinal()];
+        int start = (int) offsets[code];
+        return new ImmutableRoaringBitmap(bitmapData[column.ordinal()].slice(start, (int) offsets[code + 1] - start));
+    }
+
+    static int hash(String id) {
+        int h = id.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    static int indexCapacity(int rows) {
+        return Integer.highestOneBit(Math.max(8, rows) * 2 - 1) << 1;
+    }
+
+    static String codesFile(CohortColumn column) {
+        return column.key() + ".codes";
+    }
+
+    static String dictionaryFile(CohortColumn column) {
+        return column.key() + ".dict";
+    }
+
+    static String bitmapsFile(CohortColumn column) {
+        return column.key() + ".bitmaps";
+    }
+
+    private boolean idEquals(int row, byte[] wanted) {
+        int start = (int) idOffsets.get(row);
+        if ((int) idOffsets.get(row + 1) - start != wanted.length) return false;
+        for (int i = 0; i < wanted.length; i++) {
+            if (ids.get(start + i) != wanted[i]) return false;
+        }
+        return true;
+    }
+
+    private MappedByteBuffer map(String file) throws IOException {
+        try (FileChannel channel = FileChannel.open(dir.resolve(file))) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.healthcare.analytics.cohort;
+
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+/**
+ * Writes a {@link CohortGeneration}. Rows stream straight to the column files; only the
+ * dictionaries and one hash per row are held until {@link #finish}, which builds each column's
+ * bitmaps from its codes file in one counting-sort pass rather than row by row. Ids must be unique.
+ */
+final class CohortGenerationWriter implements Closeable {
+    private static final int BUFFER = 1 << 20;
+    private static final CohortColumn[] COLUMNS = CohortColumn.values();
+
+    private final Path dir;
+    private final DataOutputStream ids;
+    private final DataOutputStream idOffsets;
+    private final DataOutputStream versions;
+    private final DataOutputStream[] codes = new DataOutputStream[COLUMNS.length];
+    private final List<Map<String, Integer>> dictionaries = new ArrayList<>();
+    private int[] hashes = new int[1024];
+    private int rows;
+    private long idBytes;
+    private boolean closed;
+
+    CohortGenerationWriter(Path dir) throws IOException {
+        this.dir = Files.createDirectories(dir);
+        this.ids = open(CohortGeneration.IDS);
+        this.idOffsets = open(CohortGeneration.ID_OFFSETS);
+        this.versions = open(CohortGeneration.VERSIONS);
+        for (CohortColumn column : COLUMNS) {
+            codes[column.ordinal()] = open(CohortGeneration.codesFile(column));
+            dictionaries.add(new HashMap<>());
+        }
+        idOffsets.writeLong(0);
+    }
+
+    void add(PatientRow row) throws IOException {
+        byte[] id = row.id().getBytes(StandardCharsets.UTF_8);
+        ids.write(id);
+        idBytes += id.length;
+        idOffsets.writeLong(idBytes);
+        versions.writeLong(row.version());
+        for (CohortColumn column : COLUMNS) {
+            String value = row.value(column);
+            int code = -1;
+            if (value != null) {
+                Map<String, Integer> dictionary = dictionaries.get(column.ordinal());
+                Integer known = dictionary.get(value);
+                if (known == null) {
+                    known = dictionary.size();
+                    dictionary.put(value, known);
+                }
+                code = known;
+            }
+            codes[column.ordinal()].writeInt(code);
+        }
+        if (rows == hashes.length) hashes = Arrays.copyOf(hashes, rows * 2);
+        hashes[rows++] = CohortGeneration.hash(row.id());
+    }
+
+    int rows() {
+        return rows;
+    }
+
+    /**
+     * Writes the dictionaries, bitmaps, id index and {@code meta}, and forces everything to disk.
+     */
+    void finish(Properties meta) throws IOException {
+        close();
+        for (CohortColumn column : COLUMNS) {
+            writeDictionary(column);
+            writeBitmaps(column);
+        }
+        writeIdIndex();
+        meta.setProperty(CohortGeneration.ROWS, Integer.toString(rows));
+        try (OutputStream out = Files.newOutputStream(dir.resolve(CohortGeneration.META))) {
+            meta.store(out, "cohort generation");
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.toList()) {
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    channel.force(true);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        ids.close();
+        idOffsets.close();
+        versions.close();
+        for (DataOutputStream out : codes) out.close();
+    }
+
+    private void writeDictionary(CohortColumn column) throws IOException {
+        String[] values = new String[dictionaries.get(column.ordinal()).size()];
+        dictionaries.get(column.ordinal()).forEach((value, code) -> values[code] = value);
+        try (DataOutputStream out = open(CohortGeneration.dictionaryFile(column))) {
+            out.writeInt(values.length);
+            for (String value : values) out.writeUTF(value);
+        }
+    }
+
+    /**
+     * An int count, {@code count + 1} long offsets into the data that follows, then each value's
+     * bitmap in the portable Roaring format, which maps back without deserializing.
+     */
+    private void writeBitmaps(CohortColumn column) throws IOException {
+        List<MutableRoaringBitmap> columnBitmaps = buildBitmaps(column);
+        try (DataOutputStream out = open(CohortGeneration.bitmapsFile(column))) {
+            out.writeInt(columnBitmaps.size());
+            long offset = 0;
+            out.writeLong(offset);
+            for (MutableRoaringBitmap bitmap : columnBitmaps) {
+                bitmap.runOptimize();
+                offset += bitmap.serializedSizeInBytes();
+                out.writeLong(offset);
+            }
+            for (MutableRoaringBitmap bitmap : columnBitmaps) bitmap.serialize(out);
+        }
+    }
+
+    /**
+     * Groups the rows by code, in row order, and turns each group into a bitmap at once.
+     */
+    private List<MutableRoaringBitmap> buildBitmaps(CohortColumn column) throws IOException {
+        int values = dictionaries.get(column.ordinal()).size();
+        IntBuffer rowCodes;
+        try (FileChannel channel = FileChannel.open(dir.resolve(CohortGeneration.codesFile(column)))) {
+            rowCodes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).asIntBuffer();
+        }
+        int[] starts = new int[values + 1];
+        for (int row = 0; row < rows; row++) {
+            int code = rowCodes.get(row);
+            if (code >= 0) starts[code + 1]++;
+        }
+        for (int code = 0; code < values; code++) starts[code + 1] += starts[code];
+        int[] grouped = new int[starts[values]];
+        int[] next = Arrays.copyOf(starts, values);
+        for (int row = 0; row < rows; row++) {
+            int code = rowCodes.get(row);
+            if (code >= 0) grouped[next[code]++] = row;
+        }
+        List<MutableRoaringBitmap> columnBitmaps = new ArrayList<>(values);
+        for (int code = 0; code < values; code++) {
+            MutableRoaringBitmap bitmap = new MutableRoaringBitmap();
+            bitmap.addN(grouped, starts[code], starts[code + 1] - starts[code]);
+            columnBitmaps.add(bitmap);
+        }
+        return columnBitmaps;
+    }
+
+    /**
+     * An open-addressing table of {@code row + 1} (0 is empty) with linear probing, sized to stay at
+     * most half full.
+     */
+    private void writeIdIndex() throws IOException {
+        int capacity = CohortGeneration.indexCapacity(rows);
+        int[] table = new int[capacity];
+        for (int row = 0; row < rows; row++) {
+            int slot = hashes[row] & (capacity - 1);
+            while (table[slot] != 0) slot = (slot + 1) & (capacity - 1);
+            table[slot] = row + 1;
+        }
+        try (DataOutputStream out = open(CohortGeneration.ID_INDEX)) {
+            for (int entry : table) out.writeInt(entry);
+        }
+    }
+
+    private DataOutputStream open(String file) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(dir.resolve(file)), BUFFER));
+    }
+}
@@ -0,0 +1,197 @@
+package com.healthcare.analytics.cohort;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+/**
+ * Opens, bootstraps and compacts the generations of the {@link CohortStore} under
+ * {@code analytics.cohort.dir}, one directory per generation with {@code CURRENT} naming the live one.
+ *
+ * <ul>
+ *   <li>At startup the current generation is mapped, which takes milliseconds whatever its size, and
+ *       change events resume from the offsets it recorded. Without one, the first generation is built
+ *       by {@link CohortBootstrap}, retried with backoff until it succeeds; queries answer 503 until
+ *       then.</li>
+ *   <li>Every {@code analytics.cohort.compact-interval-ms}, once the overlay holds
+ *       {@code analytics.cohort.compact-threshold} changes, or any change older than
+ *       {@code analytics.cohort.compact-max-age}, a new generation is written and {@code CURRENT}
+ *       switched to it atomically. The max age bounds how much of the topic a restart replays, so it
+ *       must stay well inside the topic's retention.</li>
+ * </ul>
+ */
+@Component
+public class CohortLoader {
+    private static final Logger log = LoggerFactory.getLogger(CohortLoader.class);
+    private static final String CURRENT = "CURRENT";
+    private static final String PREFIX = "gen-";
+
+    private final CohortStore cohortStore;
+    private final CohortBootstrap bootstrap;
+    private final CohortEventListener cohortEventListener;
+    private final Timer compactions;
+    private final Path root;
+    private final long compactThreshold;
+    private final Duration compactMaxAge;
+    private long generation;
+    private long compactedAt;
+
+    public CohortLoader(CohortStore cohortStore,
+                        CohortBootstrap bootstrap,
+                        CohortEventListener cohortEventListener,
+                        MeterRegistry meterRegistry,
+                        @Value("${analytics.cohort.dir:cohorts}") Path root,
+                        @Value("${analytics.cohort.compact-threshold:100000}") long compactThreshold,
+                        @Value("${analytics.cohort.compact-max-age:1h}") Duration compactMaxAge) {
+        this.cohortStore = cohortStore;
+        this.bootstrap = bootstrap;
+        this.cohortEventListener = cohortEventListener;
+        this.compactions = Timer.builder("analytics.cohort.compactions")
+                .description("Time to write a cohort generation and swap it in")
+                .register(meterRegistry);
+        this.root = root;
+        this.compactThreshold = compactThreshold;
+        this.compactMaxAge = compactMaxAge;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        Thread loader = new Thread(this::loadUntilReady, "cohort-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Maps the current generation, building the first one if there is none, and starts consuming.
+     */
+    synchronized void load() throws IOException, InterruptedException {
+        long started = System.nanoTime();
+        Files.createDirectories(root);
+        long number = currentNumber();
+        if (number < 0) {
+            number = 1;
+            Path dir = generationDir(number);
+            deleteRecursively(dir);
+            Properties meta = new Properties();
+            try (CohortGenerationWriter writer = new CohortGenerationWriter(dir)) {
+                meta.setProperty(CohortGeneration.RESUME_TIMESTAMP, Long.toString(bootstrap.fill(writer)));
+                writer.finish(meta);
+            }
+            publish(number);
+        }
+        CohortGeneration current = CohortGeneration.open(generationDir(number));
+        cohortStore.install(current, number);
+        generation = number;
+        compactedAt = System.nanoTime();
+        removeAllBut(number);
+        log.info("Cohort generation {} mapped: {} patients in {} ms", number, current.rows(),
+                Duration.ofNanos(System.nanoTime() - started).toMillis());
+        cohortEventListener.start();
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.cohort.compact-interval-ms:60000}",
+            initialDelayString = "${analytics.cohort.compact-interval-ms:60000}")
+    public synchronized void compact() {
+        if (!cohortStore.isReady()) return;
+        long changes = cohortStore.overlayChanges();
+        boolean due = changes >= compactThreshold
+                || changes > 0 && System.nanoTime() - compactedAt >= compactMaxAge.toNanos();
+        if (!due) return;
+        long started = System.nanoTime();
+        long number = generation + 1;
+        try {
+            deleteRecursively(generationDir(number));
+            CohortGeneration next = cohortStore.compactInto(generationDir(number), number);
+            publish(number);
+            generation = number;
+            compactedAt = System.nanoTime();
+            removeAllBut(number);
+            compactions.record(Duration.ofNanos(compactedAt - started));
+            log.info("Cohort generation {} written: {} patients, {} changes absorbed, in {} ms", number, next.rows(), changes,
+                    Duration.ofNanos(compactedAt - started).toMillis());
+        } catch (IOException e) {
+            log.warn("Failed to write cohort generation {}: {}", number, e.toString());
+        }
+    }
+
+    private void loadUntilReady() {
+        long backoff = 1000;
+        while (true) {
+            try {
+                load();
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException e) {
+                log.warn("Cohort snapshot not loaded, retrying in {} ms: {}", backoff, e.toString());
+            }
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            backoff = Math.min(backoff * 2, 60_000);
+        }
+    }
+
+    private long currentNumber() throws IOException {
+        Path current = root.resolve(CURRENT);
+        return Files.exists(current) ? Long.parseLong(Files.readString(current).trim()) : -1;
+    }
+
+    /**
+     * Points {@code CURRENT} at generation {@code number}: written beside it, synced, then renamed over it.
+     */
+    private void publish(long number) throws IOException {
+        Path temp = root.resolve(CURRENT + ".tmp");
+        Files.writeString(temp, Long.toString(number));
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temp, root.resolve(CURRENT), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Deletes superseded generations and any left half-written. Mappings still open keep working
+     * until they are collected.
+     */
+    private void removeAllBut(long number) throws IOException {
+        Path keep = generationDir(number);
+        List<Path> others;
+        try (Stream<Path> dirs = Files.list(root)) {
+            others = dirs.filter(dir -> dir.getFileName().toString().startsWith(PREFIX) && !dir.equals(keep)).toList();
+        }
+        for (Path dir : others) deleteRecursively(dir);
+    }
+
+    private Path generationDir(long number) {
+        return root.resolve(String.format("%s%06d", PREFIX, number));
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        if (!Files.exists(dir)) return;
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) Files.delete(path);
+        }
+    }
+}
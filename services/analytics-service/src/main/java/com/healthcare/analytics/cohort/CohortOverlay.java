@@ -0,0 +1,109 @@
+package com.healthcare.analytics.cohort;
+
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The changes applied on top of a {@link CohortGeneration} since it was written, on the heap. A
+ * changed patient's base row is marked removed and its new state becomes an overlay row, numbered
+ * from {@code generation.rows()} up, so base and overlay rows never overlap and a cohort is
+ * {@code (base AND NOT removed) OR overlay}.
+ *
+ * <p>Not thread-safe; {@link CohortStore} guards it.
+ */
+final class CohortOverlay {
+    private final int firstRow;
+    private final MutableRoaringBitmap removed = new MutableRoaringBitmap();
+    private final MutableRoaringBitmap live = new MutableRoaringBitmap();
+    private final List<PatientRow> rows = new ArrayList<>();
+    private final Map<String, Integer> rowsById = new HashMap<>();
+    private final List<Map<String, MutableRoaringBitmap>> bitmaps = new ArrayList<>();
+
+    CohortOverlay(int firstRow) {
+        this.firstRow = firstRow;
+        for (int i = 0; i < CohortColumn.values().length; i++) bitmaps.add(new HashMap<>());
+    }
+
+    /**
+     * The overlay row holding {@code id}, or -1.
+     */
+    int find(String id) {
+        return rowsById.getOrDefault(id, -1);
+    }
+
+    PatientRow row(int row) {
+        return rows.get(row - firstRow);
+    }
+
+    boolean isRemoved(int baseRow) {
+        return removed.contains(baseRow);
+    }
+
+    void removeBase(int baseRow) {
+        removed.add(baseRow);
+    }
+
+    void remove(int row) {
+        PatientRow patient = row(row);
+        live.remove(row);
+        rowsById.remove(patient.id());
+        for (CohortColumn column : CohortColumn.values()) {
+            String value = patient.value(column);
+            if (value == null) continue;
+            Map<String, MutableRoaringBitmap> columnBitmaps = bitmaps.get(column.ordinal());
+            MutableRoaringBitmap bitmap = columnBitmaps.get(value);
+            bitmap.remove(row);
+            if (bitmap.isEmpty()) columnBitmaps.remove(value);
+        }
+    }
+
+    void add(PatientRow patient) {
+        int row = firstRow + rows.size();
+        rows.add(patient);
+        rowsById.put(patient.id(), row);
+        live.add(row);
+        for (CohortColumn column : CohortColumn.values()) {
+            String value = patient.value(column);
+            if (value != null) bitmaps.get(column.ordinal()).computeIfAbsent(value, v -> new MutableRoaringBitmap()).add(row);
+        }
+    }
+
+    /**
+     * The overlay rows whose {@code column} is {@code value}; null when there are none.
+     */
+    MutableRoaringBitmap bitmap(CohortColumn column, String value) {
+        return bitmaps.get(column.ordinal()).get(value);
+    }
+
+    Iterable<String> values(CohortColumn column) {
+        return bitmaps.get(column.ordinal()).keySet();
+    }
+
+    MutableRoaringBitmap removed() {
+        return removed;
+    }
+
+    MutableRoaringBitmap live() {
+        return live;
+    }
+
+    /**
+     * The current overlay rows, in row order.
+     */
+    List<PatientRow> liveRows() {
+        List<PatientRow> current = new ArrayList<>(live.getCardinality());
+        live.forEach((int row) -> current.add(row(row)));
+        return current;
+    }
+
+    /**
+     * Base rows superseded plus overlay rows added; what a new generation would absorb.
+     */
+    long changes() {
+        return removed.getLongCardinality() + rows.size();
+    }
+}
@@ -0,0 +1,9 @@
+package com.healthcare.analytics.cohort;
+
+import java.util.List;
+
+/**
+ * Some of a cohort's patient ids, and the cursor for the rest (null after the last page).
+ */
+public record CohortPage(List<String> patientIds, String nextCursor) {
+}
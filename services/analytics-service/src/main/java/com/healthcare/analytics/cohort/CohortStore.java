@@ -0,0 +1,350 @@
+package com.healthcare.analytics.cohort;
+
+import com.healthcare.analytics.exception.CohortNotReadyException;
+import com.healthcare.analytics.exception.InvalidCohortException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.buffer.BufferFastAggregation;
+import org.roaringbitmap.buffer.BufferParallelAggregation;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * The cohort snapshot: the current mapped {@link CohortGeneration} plus the {@link CohortOverlay} of
+ * changes consumed since it was written. A cohort is evaluated with bitmap operations only: each
+ * column's listed values are ORed (across the common fork-join pool when there are many, as for an
+ * age range or a list of postal codes), the columns ANDed, and the overlay folded in.
+ *
+ * <ul>
+ *   <li>Changes carry the patient's version, and one no newer than the row already held is ignored,
+ *       so replaying events the generation already reflects is harmless. Deletions leave a tombstone
+ *       with their version for the life of the process, so a replayed earlier update cannot bring
+ *       a deleted patient back.</li>
+ *   <li>{@link #compactInto} writes the generation and overlay out as a new generation while
+ *       consumption continues; changes applied meanwhile are replayed onto the new generation when it
+ *       is swapped in.</li>
+ *   <li>Each generation records the offset after the last change it holds per partition, which is
+ *       where consumption resumes after a restart.</li>
+ * </ul>
+ */
+@Component
+public class CohortStore {
+    private static final int PARALLEL_OR = 16;
+
+    private final StampedLock lock = new StampedLock();
+    private CohortGeneration generation;
+    private CohortOverlay overlay;
+    private long generationNumber;
+    private final Map<Integer, Long> offsets = new HashMap<>();
+    private final Map<String, Long> tombstones = new HashMap<>();
+    private long resumeTimestamp;
+    private List<PatientRow> pending;
+    private volatile boolean ready;
+    private volatile long patients;
+    private volatile long overlayChanges;
+
+    public CohortStore(MeterRegistry meterRegistry) {
+        Gauge.builder("analytics.cohort.patients", this, store -> store.patients)
+                .description("Patients held in the cohort snapshot")
+                .register(meterRegistry);
+        Gauge.builder("analytics.cohort.overlay.changes", this, store -> store.overlayChanges)
+                .description("Changes held on the heap until the next cohort generation is written")
+                .register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Replaces the snapshot with {@code next}, numbered {@code number}, and an empty overlay.
+     */
+    void install(CohortGeneration next, long number) {
+        long stamp = lock.writeLock();
+        try {
+            generation = next;
+            generationNumber = number;
+            overlay = new CohortOverlay(next.rows());
+            offsets.clear();
+            Properties meta = next.meta();
+            resumeTimestamp = Long.parseLong(meta.getProperty(CohortGeneration.RESUME_TIMESTAMP, "0"));
+            for (String key : meta.stringPropertyNames()) {
+                if (key.startsWith(CohortGeneration.OFFSET_PREFIX)) {
+                    offsets.put(Integer.parseInt(key.substring(CohortGeneration.OFFSET_PREFIX.length())), Long.parseLong(meta.getProperty(key)));
+                }
+            }
+            updateGauges();
+            ready = true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * The offset to resume {@code partition} from, or -1 when it has not been read since the
+     * snapshot was bootstrapped; then it resumes from {@link #resumeTimestamp()}.
+     */
+    public long resumeOffset(int partition) {
+        long stamp = lock.readLock();
+        try {
+            return offsets.getOrDefault(partition, -1L);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Epoch millis of the earliest change event the bootstrap snapshot may have missed; 0 for all.
+     */
+    public long resumeTimestamp() {
+        long stamp = lock.readLock();
+        try {
+            return resumeTimestamp;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Applies a poll's worth of {@code partition}'s changes, in order, and moves it to
+     * {@code nextOffset}. Returns how many were not stale.
+     */
+    public int apply(int partition, List<PatientRow> changes, long nextOffset) {
+        long stamp = lock.writeLock();
+        try {
+            int applied = 0;
+            for (PatientRow change : changes) {
+                if (applyLocked(change)) applied++;
+            }
+            offsets.put(partition, nextOffset);
+            if (pending != null) pending.addAll(changes);
+            updateGauges();
+            return applied;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Base rows superseded plus overlay rows added since the generation was written.
+     */
+    public long overlayChanges() {
+        return overlayChanges;
+    }
+
+    public CohortCount count(CohortCriteria criteria, CohortColumn groupBy) {
+        long stamp = readLockIfReady();
+        try {
+            MutableRoaringBitmap rows = match(criteria);
+            return new CohortCount(rows.getLongCardinality(), groupBy == null ? null : breakdown(rows, groupBy));
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Up to {@code limit} ids of the cohort's patients after {@code cursor}. Rows are in snapshot
+     * order, and a patient who changes while the pages are read may be listed again or skipped.
+     */
+    public CohortPage page(CohortCriteria criteria, String cursor, int limit) {
+        long stamp = readLockIfReady();
+        try {
+            int after = cursor == null ? -1 : cursorRow(cursor);
+            PeekableIntIterator rows = match(criteria).getIntIterator();
+            rows.advanceIfNeeded(after + 1);
+            List<String> ids = new ArrayList<>(limit);
+            int last = after;
+            while (rows.hasNext() && ids.size() < limit) {
+                last = rows.next();
+                ids.add(last < generation.rows() ? generation.id(last) : overlay.row(last).id());
+            }
+            return new CohortPage(ids, rows.hasNext() ? generationNumber + "-" + last : null);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Writes the snapshot as it stands to a new generation in {@code dir} and swaps it in, numbered
+     * {@code number}. Consumption carries on while the files are written.
+     */
+    CohortGeneration compactInto(Path dir, long number) throws IOException {
+        CohortGeneration base;
+        MutableRoaringBitmap removed;
+        List<PatientRow> added;
+        Properties meta = new Properties();
+        long stamp = lock.writeLock();
+        try {
+            base = generation;
+            removed = overlay.removed().clone();
+            added = overlay.liveRows();
+            meta.setProperty(CohortGeneration.RESUME_TIMESTAMP, Long.toString(resumeTimestamp));
+            offsets.forEach((partition, offset) -> meta.setProperty(CohortGeneration.OFFSET_PREFIX + partition, Long.toString(offset)));
+            pending = new ArrayList<>();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        CohortGeneration next;
+        try {
+            try (CohortGenerationWriter writer = new CohortGenerationWriter(dir)) {
+                for (int row = 0; row < base.rows(); row++) {
+                    if (!removed.contains(row)) writer.add(base.row(row));
+                }
+                for (PatientRow row : added) writer.add(row);
+                writer.finish(meta);
+            }
+            next = CohortGeneration.open(dir);
+        } catch (IOException | RuntimeException e) {
+            stamp = lock.writeLock();
+            pending = null;
+            lock.unlockWrite(stamp);
+            throw e;
+        }
+        stamp = lock.writeLock();
+        try {
+            generation = next;
+            generationNumber = number;
+            overlay = new CohortOverlay(next.rows());
+            for (PatientRow change : pending) applyLocked(change);
+            pending = null;
+            updateGauges();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        return next;
+    }
+
+    private boolean applyLocked(PatientRow change) {
+        int overlayRow = overlay.find(change.id());
+        int baseRow = overlayRow >= 0 ? -1 : generation.find(change.id());
+        if (baseRow >= 0 && overlay.isRemoved(baseRow)) baseRow = -1;
+        if (change.isDeletion()) {
+            tombstones.merge(change.id(), change.version(), Math::max);
+        } else {
+            Long deletedAt = tombstones.get(change.id());
+            if (deletedAt != null && deletedAt >= change.version()) return false;
+        }
+        if (overlayRow < 0 && baseRow < 0) {
+            if (change.isDeletion()) return false;
+        } else if (!change.isDeletion()) {
+            long held = overlayRow >= 0 ? overlay.row(overlayRow).version() : generation.version(baseRow);
+            if (held >= change.version()) return false;
+        }
+        if (overlayRow >= 0) overlay.remove(overlayRow);
+        if (baseRow >= 0) overlay.removeBase(baseRow);
+        if (!change.isDeletion()) overlay.add(change);
+        return true;
+    }
+
+    private MutableRoaringBitmap match(CohortCriteria criteria) {
+        MutableRoaringBitmap base;
+        MutableRoaringBitmap added;
+        if (criteria.values().isEmpty()) {
+            base = new MutableRoaringBitmap();
+            base.add(0L, generation.rows());
+            added = overlay.live().clone();
+        } else {
+            List<ImmutableRoaringBitmap> baseColumns = new ArrayList<>();
+            List<ImmutableRoaringBitmap> overlayColumns = new ArrayList<>();
+            criteria.values().forEach((column, values) -> {
+                List<ImmutableRoaringBitmap> inBase = new ArrayList<>(values.size());
+                List<ImmutableRoaringBitmap> inOverlay = new ArrayList<>();
+                for (String value : values) {
+                    ImmutableRoaringBitmap rows = generation.bitmap(column, value);
+                    if (rows != null) inBase.add(rows);
+                    rows = overlay.bitmap(column, value);
+                    if (rows != null) inOverlay.add(rows);
+                }
+                baseColumns.add(union(inBase));
+                overlayColumns.add(union(inOverlay));
+            });
+            base = intersection(baseColumns);
+            added = intersection(overlayColumns);
+        }
+        base.andNot(overlay.removed());
+        base.or(added);
+        return base;
+    }
+
+    /**
+     * Counts per value of {@code column} among {@code rows}, one intersection per value, spread over
+     * the fork-join pool.
+     */
+    private Map<String, Long> breakdown(MutableRoaringBitmap rows, CohortColumn column) {
+        Set<String> values = new LinkedHashSet<>(Arrays.asList(generation.dictionary(column)));
+        overlay.values(column).forEach(values::add);
+        record Tally(String value, long count) {
+        }
+        Map<String, Long> breakdown = new LinkedHashMap<>();
+        values.parallelStream()
+                .map(value -> {
+                    long count = 0;
+                    ImmutableRoaringBitmap inBase = generation.bitmap(column, value);
+                    if (inBase != null) count += ImmutableRoaringBitmap.andCardinality(rows, inBase);
+                    ImmutableRoaringBitmap inOverlay = overlay.bitmap(column, value);
+                    if (inOverlay != null) count += ImmutableRoaringBitmap.andCardinality(rows, inOverlay);
+                    return new Tally(value, count);
+                })
+                .filter(tally -> tally.count() > 0)
+                .sorted(Comparator.comparingLong(Tally::count).reversed().thenComparing(Tally::value))
+                .forEachOrdered(tally -> breakdown.put(tally.value(), tally.count()));
+        return breakdown;
+    }
+
+    private static ImmutableRoaringBitmap union(List<ImmutableRoaringBitmap> bitmaps) {
+        if (bitmaps.isEmpty()) return new MutableRoaringBitmap();
+        if (bitmaps.size() == 1) return bitmaps.get(0);
+        ImmutableRoaringBitmap[] array = bitmaps.toArray(ImmutableRoaringBitmap[]::new);
+        return bitmaps.size() >= PARALLEL_OR ? BufferParallelAggregation.or(array) : BufferFastAggregation.or(array);
+    }
+
+    private static MutableRoaringBitmap intersection(List<ImmutableRoaringBitmap> bitmaps) {
+        if (bitmaps.size() == 1) {
+            ImmutableRoaringBitmap only = bitmaps.get(0);
+            return only instanceof MutableRoaringBitmap mutable ? mutable.clone() : only.toMutableRoaringBitmap();
+        }
+        return BufferFastAggregation.and(bitmaps.toArray(ImmutableRoaringBitmap[]::new));
+    }
+
+    private int cursorRow(String cursor) {
+        int dash = cursor.indexOf('-');
+        long issuedBy;
+        int row;
+        try {
+            issuedBy = Long.parseLong(cursor.substring(0, Math.max(dash, 0)));
+            row = Integer.parseInt(cursor.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            throw new InvalidCohortException("Malformed cursor " + cursor);
+        }
+        if (issuedBy != generationNumber) {
+            throw new InvalidCohortException("The cohort snapshot was compacted since this cursor was issued; start again without one");
+        }
+        return row;
+    }
+
+    private long readLockIfReady() {
+        if (!ready) throw new CohortNotReadyException("The cohort snapshot is still being built");
+        return lock.readLock();
+    }
+
+    private void updateGauges() {
+        overlayChanges = overlay.changes();
+        patients = generation.rows() - overlay.removed().getLongCardinality() + overlay.live().getLongCardinality();
+    }
+}
@@ -0,0 +1,10 @@
+package com.healthcare.analytics.cohort;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * A patient-service change event, with the patient's state after the change (none for deletions).
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+record PatientChangeMessage(String type, String patientId, Long patientVersion, PatientRecord patient) {
+}
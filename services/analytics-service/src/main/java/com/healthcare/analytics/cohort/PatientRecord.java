@@ -0,0 +1,29 @@
+package com.healthcare.analytics.cohort;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.time.LocalDate;
+
+/**
+ * The parts of patient-service's {@code PatientResponse} the cohort snapshot indexes, as found in
+ * its export stream and in the {@code patient} field of its change events.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+record PatientRecord(String id, Long version, LocalDate dateOfBirth, String gender, String status, Address address) {
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Address(String state, String postalCode) {
+    }
+
+    PatientRow toRow() {
+        String[] values = new String[CohortColumn.values().length];
+        values[CohortColumn.GENDER.ordinal()] = CohortColumn.GENDER.normalize(gender);
+        values[CohortColumn.STATUS.ordinal()] = CohortColumn.STATUS.normalize(status);
+        if (address != null) {
+            values[CohortColumn.STATE.ordinal()] = CohortColumn.STATE.normalize(address.state());
+            values[CohortColumn.POSTAL_CODE.ordinal()] = CohortColumn.POSTAL_CODE.normalize(address.postalCode());
+        }
+        values[CohortColumn.BIRTH_MONTH.ordinal()] = CohortColumn.birthMonth(dateOfBirth);
+        return new PatientRow(id, version == null ? 0 : version, values);
+    }
+}
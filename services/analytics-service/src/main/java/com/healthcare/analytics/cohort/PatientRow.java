@@ -0,0 +1,20 @@
+package com.healthcare.analytics.cohort;
+
+/**
+ * One patient's indexed attributes, normalized and in {@link CohortColumn} order, as of
+ * {@code version}. A row without values stands for the patient's deletion.
+ */
+public record PatientRow(String id, long version, String[] values) {
+
+    public static PatientRow deleted(String id, long version) {
+        return new PatientRow(id, version, null);
+    }
+
+    public boolean isDeletion() {
+        return values == null;
+    }
+
+    public String value(CohortColumn column) {
+        return values[column.ordinal()];
+    }
+}
@@ -0,0 +1,42 @@
+package com.healthcare.analytics.controller;
+
+import com.healthcare.analytics.dto.CohortCountResponse;
+import com.healthcare.analytics.dto.CohortFilter;
+import com.healthcare.analytics.dto.CohortPatientsResponse;
+import com.healthcare.analytics.service.CohortService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/analytics/cohorts")
+public class CohortController {
+
+    private final CohortService cohortService;
+
+    public CohortController(CohortService cohortService) {
+        this.cohortService = cohortService;
+    }
+
+    @GetMapping("/attributes")
+    public ResponseEntity<List<String>> attributes() {
+        return ResponseEntity.ok(cohortService.attributes());
+    }
+
+    @GetMapping("/count")
+    public ResponseEntity<CohortCountResponse> count(CohortFilter filter,
+                                                     @RequestParam(required = false) String groupBy) {
+        return ResponseEntity.ok(cohortService.count(filter, groupBy));
+    }
+
+    @GetMapping("/patients")
+    public ResponseEntity<CohortPatientsResponse> patients(CohortFilter filter,
+                                                           @RequestParam(required = false) String cursor,
+                                                           @RequestParam(defaultValue = "1000") int limit) {
+        return ResponseEntity.ok(cohortService.patients(filter, cursor, limit));
+    }
+}
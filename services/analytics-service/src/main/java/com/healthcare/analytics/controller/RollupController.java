@@ -0,0 +1,40 @@
+package com.healthcare.analytics.controller;
+
+import com.healthcare.analytics.dto.RollupWindow;
+import com.healthcare.analytics.service.RollupService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/analytics")
+public class RollupController {
+
+    private final RollupService rollupService;
+
+    public RollupController(RollupService rollupService) {
+        this.rollupService = rollupService;
+    }
+
+    @GetMapping("/metrics")
+    public ResponseEntity<List<String>> metrics() {
+        return ResponseEntity.ok(rollupService.metricKeys());
+    }
+
+    @GetMapping("/rollups")
+    public ResponseEntity<List<RollupWindow>> rollups(
+            @RequestParam(required = false) List<String> metrics,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) Duration window,
+            @RequestParam(required = false) Duration slide) {
+        return ResponseEntity.ok(rollupService.rollups(metrics, from, to, window, slide));
+    }
+}
@@ -0,0 +1,29 @@
+package com.healthcare.analytics.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Map;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CohortCountResponse {
+    private long count;
+    private String groupBy;
+    private Map<String, Long> breakdown;
+
+    public CohortCountResponse() {
+    }
+
+    public CohortCountResponse(long count, String groupBy, Map<String, Long> breakdown) {
+        this.count = count;
+        this.groupBy = groupBy;
+        this.breakdown = breakdown;
+    }
+
+    // Getters and Setters
+    public long getCount() { return count; }
+    public void setCount(long count) { this.count = count; }
+    public String getGroupBy() { return groupBy; }
+    public void setGroupBy(String groupBy) { this.groupBy = groupBy; }
+    public Map<String, Long> getBreakdown() { return breakdown; }
+    public void setBreakdown(Map<String, Long> breakdown) { this.breakdown = breakdown; }
+}
@@ -0,0 +1,30 @@
+package com.healthcare.analytics.dto;
+
+import java.util.List;
+
+/**
+ * Cohort query parameters. Each attribute matches any of its listed values; attributes are
+ * combined with AND, and those left out match everyone.
+ */
+public class CohortFilter {
+    private List<String> gender;
+    private List<String> status;
+    private List<String> state;
+    private List<String> postalCode;
+    private Integer minAge;
+    private Integer maxAge;
+
+    // Getters and Setters
+    public List<String> getGender() { return gender; }
+    public void setGender(List<String> gender) { this.gender = gender; }
+    public List<String> getStatus() { return status; }
+    public void setStatus(List<String> status) { this.status = status; }
+    public List<String> getState() { return state; }
+    public void setState(List<String> state) { this.state = state; }
+    public List<String> getPostalCode() { return postalCode; }
+    public void setPostalCode(List<String> postalCode) { this.postalCode = postalCode; }
+    public Integer getMinAge() { return minAge; }
+    public void setMinAge(Integer minAge) { this.minAge = minAge; }
+    public Integer getMaxAge() { return maxAge; }
+    public void setMaxAge(Integer maxAge) { this.maxAge = maxAge; }
+}
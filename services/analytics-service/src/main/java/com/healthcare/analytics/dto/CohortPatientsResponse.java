@@ -0,0 +1,22 @@
+package com.healthcare.analytics.dto;
+
+import java.util.List;
+
+public class CohortPatientsResponse {
+    private List<String> patientIds;
+    private String nextCursor;
+
+    public CohortPatientsResponse() {
+    }
+
+    public CohortPatientsResponse(List<String> patientIds, String nextCursor) {
+        this.patientIds = patientIds;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters and Setters
+    public List<String> getPatientIds() { return patientIds; }
+    public void setPatientIds(List<String> patientIds) { this.patientIds = patientIds; }
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
@@ -0,0 +1,27 @@
+package com.healthcare.analytics.dto;
+
+import java.time.Instant;
+import java.util.Map;
+
+public class RollupWindow {
+    private Instant start;
+    private Instant end;
+    private Map<String, Number> values;
+
+    public RollupWindow() {
+    }
+
+    public RollupWindow(Instant start, Instant end, Map<String, Number> values) {
+        this.start = start;
+        this.end = end;
+        this.values = values;
+    }
+
+    // Getters and Setters
+    public Instant getStart() { return start; }
+    public void setStart(Instant start) { this.start = start; }
+    public Instant getEnd() { return end; }
+    public void setEnd(Instant end) { this.end = end; }
+    public Map<String, Number> getValues() { return values; }
+    public void setValues(Map<String, Number> values) { this.values = values; }
+}
@@ -0,0 +1,7 @@
+package com.healthcare.analytics.exception;
+
+public class CohortNotReadyException extends RuntimeException {
+    public CohortNotReadyException(String message) {
+        super(message);
+    }
+}
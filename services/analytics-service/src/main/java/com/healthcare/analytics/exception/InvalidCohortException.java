@@ -0,0 +1,7 @@
+package com.healthcare.analytics.exception;
+
+public class InvalidCohortException extends RuntimeException {
+    public InvalidCohortException(String message) {
+        super(message);
+    }
+}
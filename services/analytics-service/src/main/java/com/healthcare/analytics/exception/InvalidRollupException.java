@@ -0,0 +1,7 @@
+package com.healthcare.analytics.exception;
+
+public class InvalidRollupException extends RuntimeException {
+    public InvalidRollupException(String message) {
+        super(message);
+    }
+}
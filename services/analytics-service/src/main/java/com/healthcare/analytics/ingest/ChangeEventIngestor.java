@@ -0,0 +1,154 @@
+package com.healthcare.analytics.ingest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.analytics.window.Applied;
+import com.healthcare.analytics.window.Buckets;
+import com.healthcare.analytics.window.Metric;
+import com.healthcare.analytics.window.WindowStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Feeds patient and appointment change events into the {@link WindowStore}. Every replica consumes
+ * both topics in full with its own group, {@code analytics.ingest.concurrency} consumer threads per
+ * topic, each owning its partitions' windows outright. Positions come from the checkpoints, not from
+ * committed offsets: on assignment each partition seeks to the offset its restored counts stop at,
+ * or to the beginning when there is no checkpoint.
+ *
+ * <p>Values are parsed here rather than by the consumer's deserializer, so an unreadable event is
+ * counted and skipped instead of stalling its partition. Patient events are deduplicated on their
+ * outbox {@code eventId} (see {@link WindowStore}), so a relay redelivery is counted once.
+ *
+ * <p>Appointment metrics are approximate. {@code appointment-slot-events} is sent best-effort after
+ * the booking commits ({@code SlotEventPublisher}): a send lost to a broker outage or a crash is never
+ * counted, and the events carry no id to deduplicate a retried send. Treat booked, cancelled and
+ * no-show counts as a lower bound that can drift from appointment-service's database, not as a record.
+ */
+@Component
+public class ChangeEventIngestor implements ConsumerSeekAware {
+    private final WindowStore windowStore;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    public ChangeEventIngestor(WindowStore windowStore, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.windowStore = windowStore;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @KafkaListener(id = "analytics-patient-events",
+            topics = "${analytics.ingest.patient-topic:patient-events}",
+            groupId = "${analytics.ingest.group-id}",
+            concurrency = "${analytics.ingest.concurrency:3}",
+            batch = "true")
+    public void onPatientEvents(List<ConsumerRecord<String, byte[]>> records) {
+        ingest(records, this::patientEvent);
+    }
+
+    @KafkaListener(id = "analytics-appointment-events",
+            topics = "${analytics.ingest.appointment-topic:appointment-slot-events}",
+            groupId = "${analytics.ingest.group-id}",
+            concurrency = "${analytics.ingest.concurrency:3}",
+            batch = "true")
+    public void onAppointmentEvents(List<ConsumerRecord<String, byte[]>> records) {
+        ingest(records, this::appointmentEvent);
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        List<TopicPartition> fromStart = new ArrayList<>();
+        for (TopicPartition partition : assignments.keySet()) {
+            long offset = windowStore.open(partition);
+            if (offset < 0) {
+                fromStart.add(partition);
+            } else {
+                callback.seek(partition.topic(), partition.partition(), offset);
+            }
+        }
+        if (!fromStart.isEmpty()) callback.seekToBeginning(fromStart);
+    }
+
+    private void ingest(List<ConsumerRecord<String, byte[]>> records, Classifier classifier) {
+        Map<TopicPartition, List<ConsumerRecord<String, byte[]>>> byPartition = new LinkedHashMap<>();
+        for (ConsumerRecord<String, byte[]> record : records) {
+            byPartition.computeIfAbsent(new TopicPartition(record.topic(), record.partition()), p -> new ArrayList<>()).add(record);
+        }
+        byPartition.forEach((partition, batch) -> {
+            long[] buckets = new long[batch.size()];
+            Metric[] metrics = new Metric[batch.size()];
+            String[] eventIds = new String[batch.size()];
+            int n = 0;
+            int ignored = 0;
+            int malformed = 0;
+            for (ConsumerRecord<String, byte[]> record : batch) {
+                Counted counted;
+                try {
+                    counted = record.value() == null ? null : classifier.classify(record);
+                } catch (IOException | RuntimeException e) {
+                    malformed++;
+                    continue;
+                }
+                if (counted == null) {
+                    ignored++;
+                    continue;
+                }
+                buckets[n] = Buckets.of(counted.at());
+                eventIds[n] = counted.eventId();
+                metrics[n++] = counted.metric();
+            }
+            long nextOffset = batch.get(batch.size() - 1).offset() + 1;
+            Applied applied = windowStore.apply(partition, buckets, metrics, eventIds, n, nextOffset);
+            count(partition.topic(), "counted", n - applied.dropped() - applied.duplicates());
+            count(partition.topic(), "dropped", applied.dropped());
+            count(partition.topic(), "duplicate", applied.duplicates());
+            count(partition.topic(), "ignored", ignored);
+            count(partition.topic(), "malformed", malformed);
+        });
+    }
+
+    private Counted patientEvent(ConsumerRecord<String, byte[]> record) throws IOException {
+        PatientChange event = objectMapper.readValue(record.value(), PatientChange.class);
+        Instant at = event.occurredAt() != null ? event.occurredAt() : Instant.ofEpochMilli(record.timestamp());
+        return switch (event.type()) {
+            case "CREATED" -> new Counted(Metric.PATIENTS_REGISTERED, at, event.eventId());
+            case "DELETED" -> new Counted(Metric.PATIENTS_DELETED, at, event.eventId());
+            default -> null;
+        };
+    }
+
+    private Counted appointmentEvent(ConsumerRecord<String, byte[]> record) throws IOException {
+        SlotChange event = objectMapper.readValue(record.value(), SlotChange.class);
+        Metric metric = switch (event.type()) {
+            case "BOOKED" -> Metric.APPOINTMENTS_BOOKED;
+            case "RELEASED" -> Metric.APPOINTMENTS_CANCELLED;
+            case "NO_SHOW" -> Metric.APPOINTMENTS_NO_SHOW;
+            default -> null; // availability changes
+        };
+        if (metric == null) return null;
+        if (event.startsAt() == null) throw new IOException("slot event without startsAt");
+        return new Counted(metric, event.startsAt(), null);
+    }
+
+    private void count(String topic, String outcome, int events) {
+        if (events > 0) meterRegistry.counter("analytics.events", "topic", topic, "outcome", outcome).increment(events);
+    }
+
+    private record Counted(Metric metric, Instant at, String eventId) {
+    }
+
+    @FunctionalInterface
+    private interface Classifier {
+        Counted classify(ConsumerRecord<String, byte[]> record) throws IOException;
+    }
+}
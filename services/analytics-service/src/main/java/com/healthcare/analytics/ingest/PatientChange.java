@@ -0,0 +1,12 @@
+package com.healthcare.analytics.ingest;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.time.Instant;
+
+/**
+ * The fields analytics reads from patient-service's {@code PatientChangeEvent}.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+record PatientChange(String eventId, String type, String patientId, Instant occurredAt) {
+}
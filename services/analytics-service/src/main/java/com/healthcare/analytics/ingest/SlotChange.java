@@ -0,0 +1,13 @@
+package com.healthcare.analytics.ingest;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.time.Instant;
+
+/**
+ * The fields analytics reads from appointment-service's {@code SlotEvent}. For bookings,
+ * cancellations and no-shows {@code startsAt} is the appointment's slot.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+record SlotChange(String type, Long providerId, Instant startsAt) {
+}
@@ -0,0 +1,101 @@
+package com.healthcare.analytics.service;
+
+import com.healthcare.analytics.cohort.CohortColumn;
+import com.healthcare.analytics.cohort.CohortCount;
+import com.healthcare.analytics.cohort.CohortCriteria;
+import com.healthcare.analytics.cohort.CohortPage;
+import com.healthcare.analytics.cohort.CohortStore;
+import com.healthcare.analytics.dto.CohortCountResponse;
+import com.healthcare.analytics.dto.CohortFilter;
+import com.healthcare.analytics.dto.CohortPatientsResponse;
+import com.healthcare.analytics.exception.InvalidCohortException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Answers cohort queries from the {@link CohortStore}. Ages are turned into the birth months that
+ * can have them today (UTC), so a patient born in a boundary month may be counted a few days early
+ * or late.
+ */
+@Service
+public class CohortService {
+    private static final int OLDEST_AGE = 130;
+
+    private final CohortStore cohortStore;
+    private final int maxPageSize;
+
+    public CohortService(CohortStore cohortStore, @Value("${analytics.cohort.max-page-size:10000}") int maxPageSize) {
+        this.cohortStore = cohortStore;
+        this.maxPageSize = maxPageSize;
+    }
+
+    public List<String> attributes() {
+        return Arrays.stream(CohortColumn.values()).map(CohortColumn::key).toList();
+    }
+
+    public CohortCountResponse count(CohortFilter filter, String groupBy) {
+        CohortColumn column = groupBy == null ? null : CohortColumn.byKey(groupBy).orElseThrow(() ->
+                new InvalidCohortException("Unknown attribute " + groupBy + "; known attributes are " + attributes()));
+        CohortCount count = cohortStore.count(criteria(filter), column);
+        return new CohortCountResponse(count.count(), groupBy, count.breakdown());
+    }
+
+    public CohortPatientsResponse patients(CohortFilter filter, String cursor, int limit) {
+        if (limit < 1 || limit > maxPageSize) {
+            throw new InvalidCohortException("limit must be between 1 and " + maxPageSize);
+        }
+        CohortPage page = cohortStore.page(criteria(filter), cursor, limit);
+        return new CohortPatientsResponse(page.patientIds(), page.nextCursor());
+    }
+
+    private CohortCriteria criteria(CohortFilter filter) {
+        Map<CohortColumn, Set<String>> values = new EnumMap<>(CohortColumn.class);
+        add(values, CohortColumn.GENDER, filter.getGender());
+        add(values, CohortColumn.STATUS, filter.getStatus());
+        add(values, CohortColumn.STATE, filter.getState());
+        add(values, CohortColumn.POSTAL_CODE, filter.getPostalCode());
+        if (filter.getMinAge() != null || filter.getMaxAge() != null) {
+            values.put(CohortColumn.BIRTH_MONTH, birthMonths(filter.getMinAge(), filter.getMaxAge()));
+        }
+        return new CohortCriteria(values);
+    }
+
+    private static void add(Map<CohortColumn, Set<String>> values, CohortColumn column, List<String> listed) {
+        if (listed == null || listed.isEmpty()) return;
+        Set<String> normalized = new LinkedHashSet<>();
+        for (String value : listed) {
+            String key = column.normalize(value);
+            if (key != null) normalized.add(key);
+        }
+        if (normalized.isEmpty()) throw new InvalidCohortException(column.key() + " must not be blank");
+        values.put(column, normalized);
+    }
+
+    /**
+     * Birth months, as {@code yyyy-MM}, of everyone aged {@code minAge} to {@code maxAge} today.
+     */
+    private static Set<String> birthMonths(Integer minAge, Integer maxAge) {
+        int youngest = minAge == null ? 0 : minAge;
+        int oldest = maxAge == null ? OLDEST_AGE : maxAge;
+        if (youngest < 0 || oldest < youngest) {
+            throw new InvalidCohortException("Ages must satisfy 0 <= minAge <= maxAge");
+        }
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        YearMonth last = YearMonth.from(today.minusYears(youngest));
+        Set<String> months = new LinkedHashSet<>();
+        for (YearMonth month = YearMonth.from(today.minusYears(oldest + 1L).plusDays(1)); !month.isAfter(last); month = month.plusMonths(1)) {
+            months.add(month.toString());
+        }
+        return months;
+    }
+}
@@ -0,0 +1,134 @@
+package com.healthcare.analytics.service;
+
+import com.healthcare.analytics.dto.RollupWindow;
+import com.healthcare.analytics.exception.InvalidRollupException;
+import com.healthcare.analytics.window.Buckets;
+import com.healthcare.analytics.window.Metric;
+import com.healthcare.analytics.window.WindowStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Answers rollup queries from the in-memory {@link WindowStore}. The requested range is summed
+ * across partitions once into a prefix-sum array per metric, so each window, tumbling or sliding,
+ * costs two array reads whatever its length.
+ */
+@Service
+public class RollupService {
+    /**
+     * Missed appointments per appointment that was not cancelled, for appointments in the window.
+     */
+    public static final String NO_SHOW_RATE = "appointments.no_show_rate";
+
+    private static final Duration DEFAULT_RANGE = Duration.ofDays(1);
+    private static final Duration DEFAULT_WINDOW = Duration.ofHours(1);
+
+    private final WindowStore windowStore;
+    private final int maxWindows;
+
+    public RollupService(WindowStore windowStore, @Value("${analytics.query.max-windows:5000}") int maxWindows) {
+        this.windowStore = windowStore;
+        this.maxWindows = maxWindows;
+    }
+
+    public List<String> metricKeys() {
+        return Stream.concat(Arrays.stream(Metric.values()).map(Metric::key), Stream.of(NO_SHOW_RATE)).toList();
+    }
+
+    /**
+     * Values of {@code metricKeys} (all when empty) for windows of length {@code window} starting
+     * at {@code from} and every {@code slide} after it while they start before {@code to}. Without
+     * {@code slide} the windows are tumbling; without a range, the last day; without a window, an hour.
+     * Times are rounded out to whole 15-minute buckets.
+     */
+    public List<RollupWindow> rollups(List<String> metricKeys, Instant from, Instant to, Duration window, Duration slide) {
+        List<String> keys = metricKeys == null || metricKeys.isEmpty() ? metricKeys() : metricKeys;
+        Set<Metric> needed = metricsFor(keys);
+        long size = buckets(window == null ? DEFAULT_WINDOW : window, "window");
+        long step = slide == null ? size : buckets(slide, "slide");
+        long end = Buckets.ceil(to == null ? Instant.now() : to);
+        long start = from == null ? end - Buckets.count(DEFAULT_RANGE) : Buckets.of(from);
+        if (start >= end) throw new InvalidRollupException("from must be before to");
+        long windows = (end - start + step - 1) / step;
+        if (windows > maxWindows) {
+            throw new InvalidRollupException("The query spans " + windows + " windows; at most " + maxWindows + " are returned");
+        }
+        long rangeEnd = start + (windows - 1) * step + size;
+        if (start < windowStore.oldestBucket() || rangeEnd > windowStore.endBucket()) {
+            throw new InvalidRollupException("Rollups are kept from " + Buckets.startOf(windowStore.oldestBucket())
+                    + " to " + Buckets.startOf(windowStore.endBucket()));
+        }
+
+        Metric[] summed = needed.toArray(Metric[]::new);
+        long[][] totals = windowStore.totals(summed, start, rangeEnd);
+        Map<Metric, long[]> prefixes = new EnumMap<>(Metric.class);
+        for (int m = 0; m < summed.length; m++) {
+            prefixes.put(summed[m], prefixSums(totals[m]));
+        }
+        List<RollupWindow> rollups = new ArrayList<>((int) windows);
+        for (long w = 0; w < windows; w++) {
+            int first = (int) (w * step);
+            int last = (int) (first + size);
+            Map<String, Number> values = new LinkedHashMap<>();
+            for (String key : keys) {
+                values.put(key, value(key, prefixes, first, last));
+            }
+            rollups.add(new RollupWindow(Buckets.startOf(start + first), Buckets.startOf(start + last), values));
+        }
+        return rollups;
+    }
+
+    private Set<Metric> metricsFor(List<String> keys) {
+        Set<Metric> metrics = new LinkedHashSet<>();
+        for (String key : keys) {
+            if (NO_SHOW_RATE.equals(key)) {
+                metrics.addAll(List.of(Metric.APPOINTMENTS_BOOKED, Metric.APPOINTMENTS_CANCELLED, Metric.APPOINTMENTS_NO_SHOW));
+                continue;
+            }
+            metrics.add(Metric.byKey(key).orElseThrow(() ->
+                    new InvalidRollupException("Unknown metric " + key + "; known metrics are " + metricKeys())));
+        }
+        return metrics;
+    }
+
+    private static Number value(String key, Map<Metric, long[]> prefixes, int from, int to) {
+        if (NO_SHOW_RATE.equals(key)) {
+            long kept = sum(prefixes.get(Metric.APPOINTMENTS_BOOKED), from, to)
+                    - sum(prefixes.get(Metric.APPOINTMENTS_CANCELLED), from, to);
+            return kept > 0 ? (double) sum(prefixes.get(Metric.APPOINTMENTS_NO_SHOW), from, to) / kept : null;
+        }
+        return sum(prefixes.get(Metric.byKey(key).orElseThrow()), from, to);
+    }
+
+    private static long sum(long[] prefix, int from, int to) {
+        return prefix[to] - prefix[from];
+    }
+
+    private static long[] prefixSums(long[] counts) {
+        long[] prefix = new long[counts.length + 1];
+        for (int i = 0; i < counts.length; i++) {
+            prefix[i + 1] = prefix[i] + counts[i];
+        }
+        return prefix;
+    }
+
+    private static long buckets(Duration duration, String name) {
+        long count = Buckets.count(duration);
+        if (count < 0) {
+            throw new InvalidRollupException(name + " must be a positive multiple of " + Buckets.LENGTH.toMinutes() + " minutes");
+        }
+        return count;
+    }
+}
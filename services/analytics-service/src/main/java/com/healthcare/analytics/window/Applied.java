@@ -0,0 +1,8 @@
+package com.healthcare.analytics.window;
+
+/**
+ * Outcome of applying a poll to a partition: events outside the kept range ({@code dropped}) and
+ * events whose id was already counted ({@code duplicates}); neither changed any count.
+ */
+public record Applied(int dropped, int duplicates) {
+}
@@ -0,0 +1,46 @@
+package com.healthcare.analytics.window;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Bucket arithmetic. Events are counted in fixed 15-minute buckets numbered from the epoch, the
+ * finest grain any rollup can ask for; every tumbling or sliding window is a run of whole buckets.
+ * 15 minutes is also the appointment slot length, so an appointment falls in exactly one bucket.
+ */
+public final class Buckets {
+    public static final Duration LENGTH = Duration.ofMinutes(15);
+    public static final int PER_DAY = 96;
+
+    private static final long SECONDS = LENGTH.toSeconds();
+
+    private Buckets() {
+    }
+
+    /**
+     * The bucket containing {@code instant}.
+     */
+    public static long of(Instant instant) {
+        return Math.floorDiv(instant.getEpochSecond(), SECONDS);
+    }
+
+    /**
+     * The first bucket starting at or after {@code instant}.
+     */
+    public static long ceil(Instant instant) {
+        long bucket = of(instant);
+        return startOf(bucket).equals(instant) ? bucket : bucket + 1;
+    }
+
+    public static Instant startOf(long bucket) {
+        return Instant.ofEpochSecond(bucket * SECONDS);
+    }
+
+    /**
+     * How many buckets {@code duration} spans, or -1 when it is not a positive whole number of them.
+     */
+    public static long count(Duration duration) {
+        if (duration.isNegative() || duration.isZero() || duration.toNanos() % LENGTH.toNanos() != 0) return -1;
+        return duration.toSeconds() / SECONDS;
+    }
+}
@@ -0,0 +1,30 @@
+package com.healthcare.analytics.window;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Counters kept per bucket. Patient counts are bucketed by when the change happened; appointment
+ * counts by the appointment's slot, so a window's figures describe the appointments scheduled in it.
+ */
+public enum Metric {
+    PATIENTS_REGISTERED("patients.registered"),
+    PATIENTS_DELETED("patients.deleted"),
+    APPOINTMENTS_BOOKED("appointments.booked"),
+    APPOINTMENTS_CANCELLED("appointments.cancelled"),
+    APPOINTMENTS_NO_SHOW("appointments.no_show");
+
+    private final String key;
+
+    Metric(String key) {
+        this.key = key;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public static Optional<Metric> byKey(String key) {
+        return Arrays.stream(values()).filter(metric -> metric.key.equals(key)).findFirst();
+    }
+}
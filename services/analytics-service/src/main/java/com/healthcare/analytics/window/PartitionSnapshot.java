@@ -0,0 +1,9 @@
+package com.healthcare.analytics.window;
+
+/**
+ * A consistent copy of one partition's windows: the non-empty {@code buckets}, their counts laid out
+ * {@code Metric.values().length} to a bucket in ordinal order, the offset to resume from, and the ids
+ * of the most recently counted events, oldest first.
+ */
+record PartitionSnapshot(long nextOffset, long[] buckets, long[] counts, String[] recentEventIds) {
+}
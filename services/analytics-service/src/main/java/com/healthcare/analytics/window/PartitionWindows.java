@@ -0,0 +1,180 @@
+package com.healthcare.analytics.window;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * One Kafka partition's counts, per {@link Metric} and bucket, in a ring covering {@code behind}
+ * buckets before now and {@code ahead} after it. Each ring position records which bucket it holds,
+ * so a bucket that has aged out simply reads as empty once a later one reuses its position; nothing
+ * has to sweep the ring as time moves on.
+ *
+ * <p>The partition's consumer thread applies each poll in one write-locked step together with the
+ * offset that follows it, so queries and checkpoints never see counts and offset disagree.
+ *
+ * <p>The ids of the last {@code recentEvents} counted events are kept, and checkpointed, with the
+ * counts: a producer redelivering an event (the outbox relay after a lost ack, say) is not counted
+ * twice as long as the copy arrives within that many events of the original.
+ */
+final class PartitionWindows {
+    private static final int METRICS = Metric.values().length;
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final long behind;
+    private final long ahead;
+    private final int size;
+    private final long[] tags;
+    private final long[] counts;
+    private final int recentEvents;
+    private final LinkedHashSet<String> recentEventIds = new LinkedHashSet<>();
+    private final StampedLock lock = new StampedLock();
+    private volatile long nextOffset = -1;
+    private long checkpointedOffset = -1;
+
+    PartitionWindows(long behind, long ahead, int recentEvents) {
+        this.behind = behind;
+        this.ahead = ahead;
+        this.recentEvents = recentEvents;
+        this.size = Math.toIntExact(behind + ahead + 1);
+        this.tags = new long[size];
+        this.counts = new long[size * METRICS];
+        Arrays.fill(tags, EMPTY);
+    }
+
+    /**
+     * Counts one event of {@code metrics[i]} in {@code buckets[i]} for each of the first {@code n}
+     * entries and moves the partition to {@code nextOffset}. An entry whose {@code eventIds[i]} was
+     * counted recently is skipped; a null id (or null array) is always counted. Entries outside the
+     * window around {@code now} are dropped.
+     */
+    Applied apply(long[] buckets, Metric[] metrics, String[] eventIds, int n, long nextOffset, long now) {
+        long stamp = lock.writeLock();
+        try {
+            int dropped = 0;
+            int duplicates = 0;
+            for (int i = 0; i < n; i++) {
+                String eventId = eventIds == null ? null : eventIds[i];
+                if (eventId != null && !remember(eventId)) {
+                    duplicates++;
+                } else if (!add(buckets[i], metrics[i].ordinal(), 1, now)) {
+                    dropped++;
+                }
+            }
+            this.nextOffset = nextOffset;
+            return new Applied(dropped, duplicates);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Adds this partition's counts of {@code metrics[m]} for buckets {@code [from, from + length)}
+     * to {@code out[m]}, walking the ring once for all of them.
+     */
+    void addTo(Metric[] metrics, long from, int length, long[][] out) {
+        long stamp = lock.readLock();
+        try {
+            int pos = position(from);
+            for (int i = 0; i < length; i++) {
+                if (tags[pos] == from + i) {
+                    int row = pos * METRICS;
+                    for (int m = 0; m < metrics.length; m++) out[m][i] += counts[row + metrics[m].ordinal()];
+                }
+                if (++pos == size) pos = 0;
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * The offset of the first record not yet counted, or -1 before the partition has been read.
+     */
+    long nextOffset() {
+        return nextOffset;
+    }
+
+    PartitionSnapshot snapshot() {
+        long stamp = lock.readLock();
+        try {
+            int filled = 0;
+            for (long tag : tags) {
+                if (tag != EMPTY) filled++;
+            }
+            long[] buckets = new long[filled];
+            long[] values = new long[filled * METRICS];
+            int i = 0;
+            for (int pos = 0; pos < size; pos++) {
+                if (tags[pos] == EMPTY) continue;
+                buckets[i] = tags[pos];
+                System.arraycopy(counts, pos * METRICS, values, i * METRICS, METRICS);
+                i++;
+            }
+            return new PartitionSnapshot(nextOffset, buckets, values, recentEventIds.toArray(String[]::new));
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Loads a checkpoint into an empty partition, dropping buckets that have aged out since.
+     */
+    void restore(PartitionSnapshot snapshot, long now) {
+        long stamp = lock.writeLock();
+        try {
+            long[] buckets = snapshot.buckets();
+            for (int i = 0; i < buckets.length; i++) {
+                for (int metric = 0; metric < METRICS; metric++) {
+                    long count = snapshot.counts()[i * METRICS + metric];
+                    if (count != 0) add(buckets[i], metric, count, now);
+                }
+            }
+            for (String eventId : snapshot.recentEventIds()) remember(eventId);
+            nextOffset = snapshot.nextOffset();
+            checkpointedOffset = snapshot.nextOffset();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Whether anything was counted since the last checkpoint. Only the checkpointing thread uses this.
+     */
+    boolean changedSinceCheckpoint() {
+        return nextOffset != checkpointedOffset;
+    }
+
+    void checkpointed(long offset) {
+        checkpointedOffset = offset;
+    }
+
+    // False if the id is already among the recent ones; otherwise adds it, forgetting the oldest past the limit.
+    private boolean remember(String eventId) {
+        if (recentEvents <= 0) return true;
+        if (!recentEventIds.add(eventId)) return false;
+        if (recentEventIds.size() > recentEvents) {
+            Iterator<String> oldest = recentEventIds.iterator();
+            oldest.next();
+            oldest.remove();
+        }
+        return true;
+    }
+
+    private boolean add(long bucket, int metric, long delta, long now) {
+        if (bucket < now - behind || bucket > now + ahead) return false;
+        int pos = position(bucket);
+        if (tags[pos] != bucket) {
+            // Any other bucket at this position is at least a full ring older, so it has aged out.
+            tags[pos] = bucket;
+            Arrays.fill(counts, pos * METRICS, (pos + 1) * METRICS, 0);
+        }
+        counts[pos * METRICS + metric] += delta;
+        return true;
+    }
+
+    private int position(long bucket) {
+        return (int) Math.floorMod(bucket, (long) size);
+    }
+}
@@ -0,0 +1,119 @@
+package com.healthcare.analytics.window;
+
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * One file per partition under {@code analytics.checkpoint.dir}, holding its non-empty buckets and
+ * the offset to resume from. A file is written beside its predecessor and renamed over it, and ends
+ * in a CRC32, so a crash mid-write leaves the previous checkpoint intact and a damaged file is
+ * ignored (the partition is then re-read from the start of the topic). Metrics are stored by key,
+ * so adding a {@link Metric} does not invalidate existing checkpoints. The recent event ids follow
+ * the buckets; checkpoints from before they were kept load with none.
+ */
+@Component
+public class WindowCheckpoints {
+    private static final Logger log = LoggerFactory.getLogger(WindowCheckpoints.class);
+    private static final int MAGIC_V1 = 0x414E5731; // "ANW1", without event ids
+    private static final int MAGIC = 0x414E5732; // "ANW2"
+
+    private final Path directory;
+
+    public WindowCheckpoints(@Value("${analytics.checkpoint.dir:checkpoints}") Path directory) {
+        this.directory = directory;
+    }
+
+    void save(TopicPartition partition, PartitionSnapshot snapshot) throws IOException {
+        Files.createDirectories(directory);
+        Path target = file(partition);
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+        Metric[] metrics = Metric.values();
+        CRC32 crc = new CRC32();
+        try (FileOutputStream file = new FileOutputStream(temp.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(file, crc), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeLong(Buckets.LENGTH.toSeconds());
+            out.writeInt(metrics.length);
+            for (Metric metric : metrics) out.writeUTF(metric.key());
+            out.writeLong(snapshot.nextOffset());
+            out.writeInt(snapshot.buckets().length);
+            for (int i = 0; i < snapshot.buckets().length; i++) {
+                out.writeLong(snapshot.buckets()[i]);
+                for (int m = 0; m < metrics.length; m++) out.writeLong(snapshot.counts()[i * metrics.length + m]);
+            }
+            out.writeInt(snapshot.recentEventIds().length);
+            for (String eventId : snapshot.recentEventIds()) out.writeUTF(eventId);
+            out.flush();
+            out.writeLong(crc.getValue());
+            out.flush();
+            file.getFD().sync();
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    Optional<PartitionSnapshot> load(TopicPartition partition) {
+        Path path = file(partition);
+        CRC32 crc = new CRC32();
+        try (InputStream file = Files.newInputStream(path);
+             DataInputStream in = new DataInputStream(new CheckedInputStream(new BufferedInputStream(file, 1 << 16), crc))) {
+            int magic = in.readInt();
+            if ((magic != MAGIC && magic != MAGIC_V1) || in.readLong() != Buckets.LENGTH.toSeconds()) {
+                log.warn("Ignoring checkpoint {}: unknown format", path);
+                return Optional.empty();
+            }
+            int stored = in.readInt();
+            int[] ordinals = new int[stored];
+            for (int m = 0; m < stored; m++) {
+                ordinals[m] = Metric.byKey(in.readUTF()).map(Metric::ordinal).orElse(-1);
+            }
+            long nextOffset = in.readLong();
+            int buckets = in.readInt();
+            int metrics = Metric.values().length;
+            long[] bucketIds = new long[buckets];
+            long[] counts = new long[buckets * metrics];
+            for (int i = 0; i < buckets; i++) {
+                bucketIds[i] = in.readLong();
+                for (int m = 0; m < stored; m++) {
+                    long count = in.readLong();
+                    if (ordinals[m] >= 0) counts[i * metrics + ordinals[m]] = count;
+                }
+            }
+            String[] recentEventIds = new String[magic == MAGIC ? in.readInt() : 0];
+            for (int i = 0; i < recentEventIds.length; i++) recentEventIds[i] = in.readUTF();
+            long expected = crc.getValue();
+            if (in.readLong() != expected) {
+                log.warn("Ignoring checkpoint {}: checksum mismatch", path);
+                return Optional.empty();
+            }
+            return Optional.of(new PartitionSnapshot(nextOffset, bucketIds, counts, recentEventIds));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            log.warn("Ignoring checkpoint {}: {}", path, e.toString());
+            return Optional.empty();
+        }
+    }
+
+    private Path file(TopicPartition partition) {
+        return directory.resolve(partition.topic() + "-" + partition.partition() + ".ckpt");
+    }
+}
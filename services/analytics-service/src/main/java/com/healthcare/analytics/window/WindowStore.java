@@ -0,0 +1,135 @@
+package com.healthcare.analytics.window;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory windowed counts of every consumed partition. Each partition is written only by the
+ * consumer thread that owns it, so ingestion scales with partitions without any shared lock;
+ * a query adds up the partitions bucket by bucket.
+ *
+ * <ul>
+ *   <li>Buckets are kept from {@code analytics.window.retention-days} ago to
+ *       {@code analytics.window.horizon-days} ahead (appointments are booked up to a year out).
+ *       Events outside that range are dropped.</li>
+ *   <li>Every {@code analytics.checkpoint.interval-ms}, and on shutdown, each partition that changed
+ *       is written to {@link WindowCheckpoints}. A restarted replica reloads them and resumes each
+ *       partition at its checkpointed offset instead of re-reading the topics.</li>
+ *   <li>Events that carry an id are counted once per partition among the last
+ *       {@code analytics.window.dedupe-events}; the recent ids are checkpointed with the counts.</li>
+ * </ul>
+ */
+@Component
+public class WindowStore {
+    private static final Logger log = LoggerFactory.getLogger(WindowStore.class);
+
+    private final Map<TopicPartition, PartitionWindows> partitions = new ConcurrentHashMap<>();
+    private final WindowCheckpoints checkpoints;
+    private final long behind;
+    private final long ahead;
+    private final int recentEvents;
+
+    public WindowStore(WindowCheckpoints checkpoints,
+                       MeterRegistry meterRegistry,
+                       @Value("${analytics.window.retention-days:400}") int retentionDays,
+                       @Value("${analytics.window.horizon-days:370}") int horizonDays,
+                       @Value("${analytics.window.dedupe-events:10000}") int recentEvents) {
+        this.checkpoints = checkpoints;
+        this.recentEvents = recentEvents;
+        this.behind = (long) retentionDays * Buckets.PER_DAY;
+        this.ahead = (long) horizonDays * Buckets.PER_DAY;
+        Gauge.builder("analytics.window.partitions", partitions, Map::size)
+                .description("Kafka partitions aggregated by this replica")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Prepares {@code partition} for consumption, loading its checkpoint the first time it is seen.
+     * Returns the offset to resume from, or -1 to read it from the beginning.
+     */
+    public long open(TopicPartition partition) {
+        return partitions.computeIfAbsent(partition, this::restore).nextOffset();
+    }
+
+    /**
+     * Counts a poll's worth of events for {@code partition}: one of {@code metrics[i]} in
+     * {@code buckets[i]} for each of the first {@code n} entries. {@code nextOffset} follows the
+     * last record of the poll. Returns how many events fell outside the kept range.
+     */
+    public int apply(TopicPartition partition, long[] buckets, Metric[] metrics, int n, long nextOffset) {
+        return apply(partition, buckets, metrics, null, n, nextOffset).dropped();
+    }
+
+    /**
+     * As above, skipping events whose {@code eventIds[i]} is among the partition's last
+     * {@code analytics.window.dedupe-events} counted ids.
+     */
+    public Applied apply(TopicPartition partition, long[] buckets, Metric[] metrics, String[] eventIds, int n, long nextOffset) {
+        return partitions.computeIfAbsent(partition, this::restore)
+                .apply(buckets, metrics, eventIds, n, nextOffset, Buckets.of(Instant.now()));
+    }
+
+    /**
+     * Counts of each of {@code metrics} across all partitions for buckets {@code [from, to)}, one
+     * array per metric.
+     */
+    public long[][] totals(Metric[] metrics, long from, long to) {
+        int length = Math.toIntExact(to - from);
+        long[][] totals = new long[metrics.length][length];
+        for (PartitionWindows windows : partitions.values()) {
+            windows.addTo(metrics, from, length, totals);
+        }
+        return totals;
+    }
+
+    /**
+     * The earliest bucket still kept.
+     */
+    public long oldestBucket() {
+        return Buckets.of(Instant.now()) - behind;
+    }
+
+    /**
+     * The bucket after the latest one kept.
+     */
+    public long endBucket() {
+        return Buckets.of(Instant.now()) + ahead + 1;
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.checkpoint.interval-ms:10000}",
+            initialDelayString = "${analytics.checkpoint.interval-ms:10000}")
+    @PreDestroy
+    public synchronized void checkpoint() {
+        partitions.forEach((partition, windows) -> {
+            if (!windows.changedSinceCheckpoint()) return;
+            PartitionSnapshot snapshot = windows.snapshot();
+            try {
+                checkpoints.save(partition, snapshot);
+                windows.checkpointed(snapshot.nextOffset());
+            } catch (IOException e) {
+                log.warn("Failed to checkpoint {}: {}", partition, e.toString());
+            }
+        });
+    }
+
+    private PartitionWindows restore(TopicPartition partition) {
+        PartitionWindows windows = new PartitionWindows(behind, ahead, recentEvents);
+        checkpoints.load(partition).ifPresent(snapshot -> {
+            windows.restore(snapshot, Buckets.of(Instant.now()));
+            log.info("Restored {} from checkpoint at offset {}", partition, snapshot.nextOffset());
+        });
+        return windows;
+    }
+}
@@ -0,0 +1,293 @@
+package com.healthcare.appointment.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.Application;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Opening-rush test of slot reservation against embedded Postgres and Redis: a few providers open a
+ * handful of slots and {@code harness.clients} clients (2000) released at once race for them, each
+ * retrying until it gets a slot or none are left. Most clients go through hold and confirm; every
+ * {@code harness.direct-every}th (10) books directly, so both paths compete for the same slots.
+ * <p>
+ * Afterwards the database is audited: no slot may have more than one booked appointment, every
+ * hold a client saw CONFIRMED must own exactly the appointment it was told about, and every slot
+ * must be taken, and no client may have failed. Clients back off and retry on 503, which the service
+ * answers when Redis is too busy to reply in time. Exits non-zero on any violation. Hold latency
+ * percentiles are printed for reference.
+ * Settings are system properties: {@code harness.clients}, {@code harness.providers} (5) and
+ * {@code harness.slots-per-provider} (4). Postgres refuses to run as root, so neither may the harness.
+ */
+public final class SlotHoldContentionHarness {
+    private static final ObjectMapper MAPPER = Jackson2ObjectMapperBuilder.json().build();
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    private final String baseUrl;
+    private final AtomicLong unavailable = new AtomicLong();
+
+    private SlotHoldContentionHarness(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.getInteger("harness.clients", 2000);
+        int providers = Integer.getInteger("harness.providers", 5);
+        int slotsPerProvider = Integer.getInteger("harness.slots-per-provider", 4);
+        int directEvery = Integer.getInteger("harness.direct-every", 10);
+
+        List<String> violations = new ArrayList<>();
+        int redisPort = freePort();
+        RedisServer redis = new RedisServer(redisPort);
+        redis.start();
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+             ConfigurableApplicationContext app = start(postgres, redisPort)) {
+            SlotHoldContentionHarness harness = new SlotHoldContentionHarness(
+                    "http://localhost:" + app.getEnvironment().getProperty("local.server.port"));
+            List<Long> providerIds = harness.seed(providers, slotsPerProvider);
+            int slots = providers * slotsPerProvider;
+            System.out.printf("%d clients racing for %d slots of %d providers...%n", clients, slots, providers);
+
+            Map<Long, String> appointmentOwners = new ConcurrentHashMap<>();
+            Map<String, Long> confirmedHolds = new ConcurrentHashMap<>();
+            AtomicLong conflicts = new AtomicLong();
+            Map<String, Throwable> failedClients = new ConcurrentHashMap<>();
+            Histogram holdLatency = new ConcurrentHistogram(3);
+            CountDownLatch go = new CountDownLatch(1);
+            List<Thread> workers = new ArrayList<>();
+            long started = System.nanoTime();
+            for (int c = 0; c < clients; c++) {
+                String patientId = "patient-" + c;
+                boolean direct = directEvery > 0 && c % directEvery == 0;
+                Thread worker = new Thread(() -> {
+                    try {
+                        go.await();
+                        harness.reserve(patientId, providerIds, direct, appointmentOwners, confirmedHolds, conflicts, holdLatency);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } catch (RuntimeException e) {
+                        failedClients.put(patientId, e);
+                    }
+                }, patientId);
+                worker.start();
+                workers.add(worker);
+            }
+            go.countDown();
+            for (Thread worker : workers) worker.join();
+            long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+            System.out.printf("done in %d ms: %d appointments (%d through holds), %d conflicts, %d retried 503s%n", elapsedMillis,
+                    appointmentOwners.size(), confirmedHolds.size(), conflicts.get(), harness.unavailable.get());
+            System.out.printf("hold p50 %.2f ms  p99 %.2f ms  max %.2f ms%n", holdLatency.getValueAtPercentile(50) / 1000.0,
+                    holdLatency.getValueAtPercentile(99) / 1000.0, holdLatency.getMaxValue() / 1000.0);
+            failedClients.forEach((patientId, e) -> violations.add("client " + patientId + " failed: " + e.getMessage()));
+            audit(postgres, slots, appointmentOwners, confirmedHolds, violations);
+        } finally {
+            redis.stop();
+        }
+        violations.forEach(violation -> System.out.println("VIOLATION: " + violation));
+        System.out.println(violations.isEmpty() ? "No double bookings." : violations.size() + " violations");
+        System.exit(violations.isEmpty() ? 0 : 1);
+    }
+
+    private static ConfigurableApplicationContext start(EmbeddedPostgres postgres, int redisPort) {
+        // Passed as command-line arguments so they override application.yml.
+        return new SpringApplicationBuilder(Application.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=",
+                "--spring.data.redis.host=localhost",
+                "--spring.data.redis.port=" + redisPort,
+                "--spring.kafka.bootstrap-servers=localhost:9092",
+                "--appointment.index.events.enabled=false",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                // Losing a race to the unique index is the expected outcome for most direct bookings.
+                "--logging.level.org.hibernate.engine.jdbc.spi.SqlExceptionHelper=OFF");
+    }
+
+    private List<Long> seed(int providers, int slotsPerProvider) {
+        Instant opens = Instant.now().plus(1, ChronoUnit.DAYS).truncatedTo(ChronoUnit.HOURS);
+        List<Long> ids = new ArrayList<>();
+        for (int p = 0; p < providers; p++) {
+            long id = send(post("/api/v1/providers", Map.of("name", "Provider " + p))).get("id").asLong();
+            send(post("/api/v1/providers/" + id + "/availability", Map.of(
+                    "startsAt", opens.toString(),
+                    "endsAt", opens.plus(Duration.ofMinutes(15L * slotsPerProvider)).toString())));
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    /**
+     * One client: look up free slots, try one at random, repeat until it has an appointment or the
+     * search comes back empty.
+     */
+    private void reserve(String patientId, List<Long> providerIds, boolean direct, Map<Long, String> appointmentOwners,
+                         Map<String, Long> confirmedHolds, AtomicLong conflicts, Histogram holdLatency) {
+        String providers = providerIds.stream().map(String::valueOf).reduce((a, b) -> a + "," + b).orElseThrow();
+        while (true) {
+            JsonNode free = send(get("/api/v1/slots/next?count=20&providerIds=" + providers));
+            if (free.isEmpty()) return;
+            JsonNode slot = free.get(ThreadLocalRandom.current().nextInt(free.size()));
+            Map<String, Object> request = Map.of("providerId", slot.get("providerId").asLong(),
+                    "patientId", patientId, "slotStart", slot.get("startsAt").asText());
+            if (direct) {
+                HttpResponse<byte[]> booked = exchange(post("/api/v1/appointments", request));
+                if (booked.statusCode() == 201) {
+                    appointmentOwners.put(json(booked).get("id").asLong(), patientId);
+                    return;
+                }
+                conflicts.incrementAndGet();
+                continue;
+            }
+            long start = System.nanoTime();
+            HttpResponse<byte[]> held = exchange(post("/api/v1/holds", request));
+            holdLatency.recordValue((System.nanoTime() - start) / 1000);
+            if (held.statusCode() != 201) {
+                conflicts.incrementAndGet();
+                continue;
+            }
+            String holdId = json(held).get("holdId").asText();
+            send(post("/api/v1/holds/" + holdId + "/confirm", Map.of()));
+            JsonNode outcome = awaitSettled(holdId);
+            if ("CONFIRMED".equals(outcome.get("status").asText())) {
+                long appointmentId = outcome.get("appointmentId").asLong();
+                confirmedHolds.put(holdId, appointmentId);
+                appointmentOwners.put(appointmentId, patientId);
+                return;
+            }
+            conflicts.incrementAndGet();
+        }
+    }
+
+    private JsonNode awaitSettled(String holdId) {
+        while (true) {
+            JsonNode hold = send(get("/api/v1/holds/" + holdId));
+            String status = hold.get("status").asText();
+            if (!"HELD".equals(status) && !"CONFIRMING".equals(status)) return hold;
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static void audit(EmbeddedPostgres postgres, int slots, Map<Long, String> appointmentOwners,
+                              Map<String, Long> confirmedHolds, List<String> violations) throws Exception {
+        try (Connection connection = postgres.getPostgresDatabase().getConnection();
+             Statement statement = connection.createStatement()) {
+            try (ResultSet doubles = statement.executeQuery("SELECT provider_id, slot_start, count(*) FROM appointments "
+                    + "WHERE status = 'BOOKED' GROUP BY provider_id, slot_start HAVING count(*) > 1")) {
+                while (doubles.next()) {
+                    violations.add("provider " + doubles.getLong(1) + " slot " + doubles.getString(2) + " booked " + doubles.getInt(3) + " times");
+                }
+            }
+            Set<Long> booked = ConcurrentHashMap.newKeySet();
+            try (ResultSet rows = statement.executeQuery("SELECT id, patient_id, hold_id FROM appointments WHERE status = 'BOOKED'")) {
+                while (rows.next()) {
+                    long id = rows.getLong(1);
+                    booked.add(id);
+                    String owner = appointmentOwners.get(id);
+                    if (!rows.getString(2).equals(owner)) {
+                        violations.add("appointment " + id + " belongs to " + rows.getString(2) + " but was reported to " + owner);
+                    }
+                    String holdId = rows.getString(3);
+                    if (holdId != null && !Long.valueOf(id).equals(confirmedHolds.get(holdId))) {
+                        violations.add("appointment " + id + " was booked for hold " + holdId + " that no client saw confirmed");
+                    }
+                }
+            }
+            if (!booked.containsAll(appointmentOwners.keySet())) {
+                violations.add("clients were told about appointments that are not booked");
+            }
+            if (booked.size() != slots) {
+                violations.add(booked.size() + " of " + slots + " slots booked");
+            }
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private JsonNode send(HttpRequest request) {
+        HttpResponse<byte[]> response = exchange(request);
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException(request.method() + " " + request.uri() + " returned HTTP " + response.statusCode());
+        }
+        return json(response);
+    }
+
+    // 503 means the service shed the call under load; retry it after a short, jittered pause.
+    private HttpResponse<byte[]> exchange(HttpRequest request) {
+        try {
+            HttpResponse<byte[]> response;
+            while ((response = client.send(request, HttpResponse.BodyHandlers.ofByteArray())).statusCode() == 503) {
+                unavailable.incrementAndGet();
+                Thread.sleep(ThreadLocalRandom.current().nextLong(50, 250));
+            }
+            return response;
+        } catch (IOException e) {
+            throw new IllegalStateException(request.method() + " " + request.uri() + " failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static JsonNode json(HttpResponse<byte[]> response) {
+        try {
+            return MAPPER.readTree(response.body());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+    }
+
+    private HttpRequest post(String path, Object body) {
+        try {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(MAPPER.writeValueAsBytes(body)))
+                    .build();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
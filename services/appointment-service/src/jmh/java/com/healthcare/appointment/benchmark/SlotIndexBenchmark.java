@@ -0,0 +1,96 @@
+package com.healthcare.appointment.benchmark;
+
+import com.healthcare.appointment.slot.FreeSlot;
+import com.healthcare.appointment.slot.SlotIndex;
+import com.healthcare.appointment.slot.Slots;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Slot index at production scale: 10k providers, each open 08:00-17:00 UTC on weekdays for a
+ * 366-day window, with {@code bookedPercent} of their open slots taken. Measures "next 10 free
+ * slots across N providers" from a random day in the window, and the cost of a booking and its
+ * cancellation as the event listener applies them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@State(Scope.Benchmark)
+public class SlotIndexBenchmark {
+    private static final int PROVIDERS = 10_000;
+    private static final int HORIZON_DAYS = 366;
+    private static final int RESULTS = 10;
+    private static final int QUERIES = 1024;
+
+    @Param({"1", "10", "100"})
+    public int providersPerQuery;
+
+    @Param({"70", "98"})
+    public int bookedPercent;
+
+    private SlotIndex index;
+    private List<List<Long>> providerSets;
+    private long[] queryStarts;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        index = new SlotIndex(HORIZON_DAYS);
+        index.reset(Slots.dayOf(Slots.of(Instant.now())));
+        long windowStart = index.windowStart();
+        long started = System.nanoTime();
+        for (long provider = 1; provider <= PROVIDERS; provider++) {
+            for (int day = 0; day < HORIZON_DAYS; day++) {
+                long dayStart = windowStart + (long) day * Slots.PER_DAY;
+                int weekday = (int) Math.floorMod(Math.floorDiv(dayStart, Slots.PER_DAY) + 3, 7L); // 0 = Monday
+                if (weekday >= 5) continue;
+                long open = dayStart + 8 * 4;
+                long close = dayStart + 17 * 4;
+                index.open(provider, open, close);
+                for (long slot = open; slot < close; slot++) {
+                    if (random.nextInt(100) < bookedPercent) index.book(provider, slot);
+                }
+            }
+        }
+        index.markReady();
+        System.out.printf("%nindexed %d providers x %d days in %d ms, %d MB of bitsets%n", PROVIDERS, HORIZON_DAYS,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started),
+                2L * PROVIDERS * (index.windowEnd() - windowStart) / 8 / (1024 * 1024));
+
+        providerSets = new ArrayList<>(QUERIES);
+        queryStarts = new long[QUERIES];
+        for (int q = 0; q < QUERIES; q++) {
+            List<Long> set = new ArrayList<>(providersPerQuery);
+            for (int p = 0; p < providersPerQuery; p++) {
+                set.add(1L + random.nextInt(PROVIDERS));
+            }
+            providerSets.add(set);
+            queryStarts[q] = windowStart + random.nextInt(300) * (long) Slots.PER_DAY + random.nextInt(Slots.PER_DAY);
+        }
+    }
+
+    @Benchmark
+    public List<FreeSlot> nextFreeSlots() {
+        int q = next++ & (QUERIES - 1);
+        return index.nextFree(providerSets.get(q), queryStarts[q], index.windowEnd(), RESULTS);
+    }
+
+    @Benchmark
+    public boolean bookAndRelease() {
+        int q = next++ & (QUERIES - 1);
+        long provider = providerSets.get(q).get(0);
+        // 03:00 UTC is never open or booked, so the pair leaves the calendar as it found it.
+        long slot = Slots.dayOf(queryStarts[q]) + 3 * 4;
+        index.book(provider, slot);
+        index.release(provider, slot);
+        return index.isFree(provider, slot);
+    }
+}
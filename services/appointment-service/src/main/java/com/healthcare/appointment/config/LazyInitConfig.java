@@ -0,0 +1,30 @@
+package com.healthcare.appointment.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+
+/** Keeps Kafka listeners and scheduled jobs eager under lazy initialization; see "Fast Startup" in README.md. */
+@Configuration
+public class LazyInitConfig {
+
+    @Bean
+    public static LazyInitializationExcludeFilter backgroundWorkIsEager() {
+        return (beanName, definition, beanType) -> beanType != null && runsInBackground(beanType);
+    }
+
+    private static boolean runsInBackground(Class<?> beanType) {
+        if (AnnotatedElementUtils.hasAnnotation(beanType, KafkaListener.class)) return true;
+        for (Method method : ReflectionUtils.getUniqueDeclaredMethods(beanType)) {
+            if (AnnotatedElementUtils.hasAnnotation(method, Scheduled.class)
+                    || AnnotatedElementUtils.hasAnnotation(method, KafkaListener.class)) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,40 @@
+package com.healthcare.appointment.controller;
+
+import com.healthcare.appointment.dto.AppointmentRequest;
+import com.healthcare.appointment.dto.AppointmentResponse;
+import com.healthcare.appointment.service.AppointmentService;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/appointments")
+public class AppointmentController {
+
+    private final AppointmentService appointmentService;
+
+    public AppointmentController(AppointmentService appointmentService) {
+        this.appointmentService = appointmentService;
+    }
+
+    @PostMapping
+    public ResponseEntity<AppointmentResponse> book(@Valid @RequestBody AppointmentRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(appointmentService.book(request));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<AppointmentResponse> getAppointment(@PathVariable Long id) {
+        return ResponseEntity.ok(appointmentService.getAppointment(id));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<AppointmentResponse> cancel(@PathVariable Long id) {
+        return ResponseEntity.ok(appointmentService.cancel(id));
+    }
+
+    @PostMapping("/{id}/no-show")
+    public ResponseEntity<AppointmentResponse> markNoShow(@PathVariable Long id) {
+        return ResponseEntity.ok(appointmentService.markNoShow(id));
+    }
+}
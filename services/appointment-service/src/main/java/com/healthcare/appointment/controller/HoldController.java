@@ -0,0 +1,43 @@
+package com.healthcare.appointment.controller;
+
+import com.healthcare.appointment.dto.HoldRequest;
+import com.healthcare.appointment.dto.HoldResponse;
+import com.healthcare.appointment.service.SlotHoldService;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/holds")
+public class HoldController {
+
+    private final SlotHoldService slotHoldService;
+
+    public HoldController(SlotHoldService slotHoldService) {
+        this.slotHoldService = slotHoldService;
+    }
+
+    @PostMapping
+    public ResponseEntity<HoldResponse> hold(@Valid @RequestBody HoldRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(slotHoldService.hold(request));
+    }
+
+    @GetMapping("/{holdId}")
+    public ResponseEntity<HoldResponse> getHold(@PathVariable UUID holdId) {
+        return ResponseEntity.ok(slotHoldService.getHold(holdId));
+    }
+
+    @PostMapping("/{holdId}/confirm")
+    public ResponseEntity<HoldResponse> confirm(@PathVariable UUID holdId) {
+        return ResponseEntity.accepted().body(slotHoldService.confirm(holdId));
+    }
+
+    @DeleteMapping("/{holdId}")
+    public ResponseEntity<Void> release(@PathVariable UUID holdId) {
+        slotHoldService.release(holdId);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,59 @@
+package com.healthcare.appointment.controller;
+
+import com.healthcare.appointment.dto.AvailabilityRequest;
+import com.healthcare.appointment.dto.AvailabilityResponse;
+import com.healthcare.appointment.dto.ProviderRequest;
+import com.healthcare.appointment.dto.ProviderResponse;
+import com.healthcare.appointment.service.ProviderService;
+import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/providers")
+public class ProviderController {
+
+    private final ProviderService providerService;
+
+    public ProviderController(ProviderService providerService) {
+        this.providerService = providerService;
+    }
+
+    @PostMapping
+    public ResponseEntity<ProviderResponse> createProvider(@Valid @RequestBody ProviderRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(providerService.createProvider(request));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ProviderResponse> getProvider(@PathVariable Long id) {
+        return ResponseEntity.ok(providerService.getProvider(id));
+    }
+
+    @PostMapping("/{id}/availability")
+    public ResponseEntity<AvailabilityResponse> addAvailability(@PathVariable Long id,
+                                                                @Valid @RequestBody AvailabilityRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(providerService.addAvailability(id, request));
+    }
+
+    @GetMapping("/{id}/availability")
+    public ResponseEntity<List<AvailabilityResponse>> getAvailability(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+        Instant start = from != null ? from : Instant.now();
+        Instant end = to != null ? to : start.plus(Duration.ofDays(30));
+        return ResponseEntity.ok(providerService.getAvailability(id, start, end));
+    }
+
+    @DeleteMapping("/{id}/availability/{availabilityId}")
+    public ResponseEntity<Void> removeAvailability(@PathVariable Long id, @PathVariable Long availabilityId) {
+        providerService.removeAvailability(id, availabilityId);
+        return ResponseEntity.noContent().build();
+    }
+}
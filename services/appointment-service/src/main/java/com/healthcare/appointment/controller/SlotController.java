@@ -0,0 +1,33 @@
+package com.healthcare.appointment.controller;
+
+import com.healthcare.appointment.dto.AvailableSlotResponse;
+import com.healthcare.appointment.service.SlotSearchService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/slots")
+public class SlotController {
+
+    private final SlotSearchService slotSearchService;
+
+    public SlotController(SlotSearchService slotSearchService) {
+        this.slotSearchService = slotSearchService;
+    }
+
+    @GetMapping("/next")
+    public ResponseEntity<List<AvailableSlotResponse>> nextFreeSlots(
+            @RequestParam List<Long> providerIds,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(defaultValue = "10") int count) {
+        return ResponseEntity.ok(slotSearchService.findNextFree(providerIds, from, to, count));
+    }
+}
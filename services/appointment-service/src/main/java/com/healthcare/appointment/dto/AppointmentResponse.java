@@ -0,0 +1,35 @@
+package com.healthcare.appointment.dto;
+
+import java.time.Instant;
+
+public class AppointmentResponse {
+    private Long id;
+    private Long providerId;
+    private String patientId;
+    private Instant slotStart;
+    private Instant slotEnd;
+    private String status;
+    private Long version;
+    private Instant createdAt;
+    private Instant updatedAt;
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Long getProviderId() { return providerId; }
+    public void setProviderId(Long providerId) { this.providerId = providerId; }
+    public String getPatientId() { return patientId; }
+    public void setPatientId(String patientId) { this.patientId = patientId; }
+    public Instant getSlotStart() { return slotStart; }
+    public void setSlotStart(Instant slotStart) { this.slotStart = slotStart; }
+    public Instant getSlotEnd() { return slotEnd; }
+    public void setSlotEnd(Instant slotEnd) { this.slotEnd = slotEnd; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+}
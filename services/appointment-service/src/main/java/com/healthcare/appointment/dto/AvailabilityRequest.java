@@ -0,0 +1,17 @@
+package com.healthcare.appointment.dto;
+
+import jakarta.validation.constraints.NotNull;
+import java.time.Instant;
+
+public class AvailabilityRequest {
+    @NotNull
+    private Instant startsAt;
+    @NotNull
+    private Instant endsAt;
+
+    // Getters and Setters
+    public Instant getStartsAt() { return startsAt; }
+    public void setStartsAt(Instant startsAt) { this.startsAt = startsAt; }
+    public Instant getEndsAt() { return endsAt; }
+    public void setEndsAt(Instant endsAt) { this.endsAt = endsAt; }
+}
@@ -0,0 +1,20 @@
+package com.healthcare.appointment.dto;
+
+import java.time.Instant;
+
+public class AvailabilityResponse {
+    private Long id;
+    private Long providerId;
+    private Instant startsAt;
+    private Instant endsAt;
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Long getProviderId() { return providerId; }
+    public void setProviderId(Long providerId) { this.providerId = providerId; }
+    public Instant getStartsAt() { return startsAt; }
+    public void setStartsAt(Instant startsAt) { this.startsAt = startsAt; }
+    public Instant getEndsAt() { return endsAt; }
+    public void setEndsAt(Instant endsAt) { this.endsAt = endsAt; }
+}
@@ -0,0 +1,26 @@
+package com.healthcare.appointment.dto;
+
+import java.time.Instant;
+
+public class AvailableSlotResponse {
+    private Long providerId;
+    private Instant startsAt;
+    private Instant endsAt;
+
+    public AvailableSlotResponse() {
+    }
+
+    public AvailableSlotResponse(Long providerId, Instant startsAt, Instant endsAt) {
+        this.providerId = providerId;
+        this.startsAt = startsAt;
+        this.endsAt = endsAt;
+    }
+
+    // Getters and Setters
+    public Long getProviderId() { return providerId; }
+    public void setProviderId(Long providerId) { this.providerId = providerId; }
+    public Instant getStartsAt() { return startsAt; }
+    public void setStartsAt(Instant startsAt) { this.startsAt = startsAt; }
+    public Instant getEndsAt() { return endsAt; }
+    public void setEndsAt(Instant endsAt) { this.endsAt = endsAt; }
+}
@@ -0,0 +1,26 @@
+package com.healthcare.appointment.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import java.time.Instant;
+
+public class HoldRequest {
+    @NotNull
+    private Long providerId;
+    @NotBlank
+    @Size(max = 64)
+    @Pattern(regexp = "\\S+", message = "must not contain whitespace")
+    private String patientId;
+    @NotNull
+    private Instant slotStart;
+
+    // Getters and Setters
+    public Long getProviderId() { return providerId; }
+    public void setProviderId(Long providerId) { this.providerId = providerId; }
+    public String getPatientId() { return patientId; }
+    public void setPatientId(String patientId) { this.patientId = patientId; }
+    public Instant getSlotStart() { return slotStart; }
+    public void setSlotStart(Instant slotStart) { this.slotStart = slotStart; }
+}
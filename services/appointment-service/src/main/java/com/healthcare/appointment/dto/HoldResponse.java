@@ -0,0 +1,30 @@
+package com.healthcare.appointment.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public class HoldResponse {
+    private UUID holdId;
+    private Long providerId;
+    private String patientId;
+    private Instant slotStart;
+    private String status;
+    private Long appointmentId;
+    private Instant expiresAt;
+
+    // Getters and Setters
+    public UUID getHoldId() { return holdId; }
+    public void setHoldId(UUID holdId) { this.holdId = holdId; }
+    public Long getProviderId() { return providerId; }
+    public void setProviderId(Long providerId) { this.providerId = providerId; }
+    public String getPatientId() { return patientId; }
+    public void setPatientId(String patientId) { this.patientId = patientId; }
+    public Instant getSlotStart() { return slotStart; }
+    public void setSlotStart(Instant slotStart) { this.slotStart = slotStart; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public Long getAppointmentId() { return appointmentId; }
+    public void setAppointmentId(Long appointmentId) { this.appointmentId = appointmentId; }
+    public Instant getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(Instant expiresAt) { this.expiresAt = expiresAt; }
+}
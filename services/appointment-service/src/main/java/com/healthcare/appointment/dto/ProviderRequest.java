@@ -0,0 +1,14 @@
+package com.healthcare.appointment.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+public class ProviderRequest {
+    @NotBlank
+    @Size(max = 200)
+    private String name;
+
+    // Getters and Setters
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+}
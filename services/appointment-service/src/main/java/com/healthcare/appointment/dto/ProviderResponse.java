@@ -0,0 +1,17 @@
+package com.healthcare.appointment.dto;
+
+import java.time.Instant;
+
+public class ProviderResponse {
+    private Long id;
+    private String name;
+    private Instant createdAt;
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+}
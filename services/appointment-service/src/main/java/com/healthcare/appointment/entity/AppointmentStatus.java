@@ -0,0 +1,7 @@
+package com.healthcare.appointment.entity;
+
+public enum AppointmentStatus {
+    BOOKED,
+    CANCELLED,
+    NO_SHOW
+}
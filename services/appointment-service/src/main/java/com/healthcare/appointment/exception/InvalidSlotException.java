@@ -0,0 +1,7 @@
+package com.healthcare.appointment.exception;
+
+public class InvalidSlotException extends RuntimeException {
+    public InvalidSlotException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.healthcare.appointment.exception;
+
+public class SchedulingConflictException extends RuntimeException {
+    public SchedulingConflictException(String message) {
+        super(message);
+    }
+}
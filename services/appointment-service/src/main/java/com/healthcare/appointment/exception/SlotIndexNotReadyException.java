@@ -0,0 +1,7 @@
+package com.healthcare.appointment.exception;
+
+public class SlotIndexNotReadyException extends RuntimeException {
+    public SlotIndexNotReadyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,83 @@
+package com.healthcare.appointment.hold;
+
+import com.healthcare.appointment.service.AppointmentService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Second phase of a reservation: drains queued confirmations in batches of
+ * {@code appointment.holds.confirm.batch-size}, books each batch with a single insert, then settles
+ * every hold in Redis as CONFIRMED or REJECTED. Every replica runs one; a confirmation popped by a
+ * replica that dies before settling it is queued again by {@link HoldReclaimer}.
+ */
+@Component
+@ConditionalOnProperty(name = "appointment.holds.confirm.enabled", havingValue = "true", matchIfMissing = true)
+public class HoldConfirmationWorker {
+    private static final Logger log = LoggerFactory.getLogger(HoldConfirmationWorker.class);
+
+    private final SlotHoldStore slotHoldStore;
+    private final AppointmentService appointmentService;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Timer batchTimer;
+    private final DistributionSummary batchSizes;
+    private final Counter confirmed;
+    private final Counter rejected;
+
+    public HoldConfirmationWorker(SlotHoldStore slotHoldStore,
+                                  AppointmentService appointmentService,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${appointment.holds.confirm.batch-size:200}") int batchSize,
+                                  @Value("${appointment.holds.confirm.max-batches-per-run:20}") int maxBatchesPerRun) {
+        this.slotHoldStore = slotHoldStore;
+        this.appointmentService = appointmentService;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.batchTimer = Timer.builder("appointment.holds.confirm.batch")
+                .description("Time to book and settle one batch of confirmed holds")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("appointment.holds.confirm.batch.size")
+                .description("Confirmed holds booked per insert")
+                .register(meterRegistry);
+        this.confirmed = Counter.builder("appointment.holds.settled").tag("outcome", "confirmed").register(meterRegistry);
+        this.rejected = Counter.builder("appointment.holds.settled").tag("outcome", "rejected").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${appointment.holds.confirm.interval-ms:50}")
+    public void drain() {
+        try {
+            for (int run = 0; run < maxBatchesPerRun; run++) {
+                List<PendingConfirmation> batch = slotHoldStore.takeConfirmations(batchSize);
+                if (batch.isEmpty()) return;
+                batchTimer.record(() -> confirm(batch));
+                if (batch.size() < batchSize) return;
+            }
+        } catch (DataAccessException e) {
+            // Popped confirmations stay CONFIRMING and are queued again once their deadline passes.
+            log.warn("Hold confirmation batch failed: {}", e.getMessage());
+        }
+    }
+
+    private void confirm(List<PendingConfirmation> batch) {
+        batchSizes.record(batch.size());
+        Map<UUID, Long> appointments = appointmentService.confirmHolds(batch);
+        for (PendingConfirmation confirmation : batch) {
+            Long appointmentId = appointments.get(confirmation.holdId());
+            slotHoldStore.settle(confirmation, appointmentId != null ? HoldStatus.CONFIRMED : HoldStatus.REJECTED, appointmentId);
+            (appointmentId != null ? confirmed : rejected).increment();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.healthcare.appointment.hold;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Sweeps holds past their deadline: unconfirmed holds become EXPIRED (their slot key has already
+ * lapsed through its TTL, so the slot itself is free without waiting for this), and confirmations
+ * that were never settled are queued again. Safe to run on every replica at once.
+ */
+@Component
+@ConditionalOnProperty(name = "appointment.holds.reclaim.enabled", havingValue = "true", matchIfMissing = true)
+public class HoldReclaimer {
+    private static final Logger log = LoggerFactory.getLogger(HoldReclaimer.class);
+
+    private final SlotHoldStore slotHoldStore;
+    private final MeterRegistry meterRegistry;
+    private final int batchSize;
+
+    public HoldReclaimer(SlotHoldStore slotHoldStore, MeterRegistry meterRegistry,
+                         @Value("${appointment.holds.reclaim.batch-size:500}") int batchSize) {
+        this.slotHoldStore = slotHoldStore;
+        this.meterRegistry = meterRegistry;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${appointment.holds.reclaim.interval-ms:1000}")
+    public void reclaim() {
+        try {
+            Instant now = Instant.now();
+            for (String holdId : slotHoldStore.dueForReclaim(now, batchSize)) {
+                String outcome = slotHoldStore.reclaim(holdId, now);
+                if ("EXPIRED".equals(outcome) || "REQUEUED".equals(outcome)) {
+                    meterRegistry.counter("appointment.holds.reclaimed", "outcome", outcome.toLowerCase()).increment();
+                }
+            }
+        } catch (DataAccessException e) {
+            log.warn("Hold reclaim failed: {}", e.getMessage());
+        }
+    }
+}
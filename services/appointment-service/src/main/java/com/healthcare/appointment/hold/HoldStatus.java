@@ -0,0 +1,10 @@
+package com.healthcare.appointment.hold;
+
+public enum HoldStatus {
+    HELD,
+    CONFIRMING,
+    CONFIRMED,
+    REJECTED,
+    EXPIRED,
+    RELEASED
+}
@@ -0,0 +1,15 @@
+package com.healthcare.appointment.hold;
+
+import java.util.UUID;
+
+/**
+ * A confirmed hold waiting for its appointment row, as queued by {@code confirm.lua}:
+ * {@code "<holdId> <providerId> <slot> <patientId>"}.
+ */
+public record PendingConfirmation(UUID holdId, long providerId, long slot, String patientId) {
+
+    static PendingConfirmation parse(String queued) {
+        String[] parts = queued.split(" ", 4);
+        return new PendingConfirmation(UUID.fromString(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2]), parts[3]);
+    }
+}
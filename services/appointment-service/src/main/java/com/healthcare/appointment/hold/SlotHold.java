@@ -0,0 +1,8 @@
+package com.healthcare.appointment.hold;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record SlotHold(UUID holdId, long providerId, long slot, String patientId, HoldStatus status,
+                       Long appointmentId, Instant expiresAt) {
+}
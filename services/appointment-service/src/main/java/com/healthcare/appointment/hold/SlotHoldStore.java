@@ -0,0 +1,159 @@
+package com.healthcare.appointment.hold;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Slot holds in Redis. Every state change is one Lua script (under {@code resources/redis}), so
+ * it is atomic without locks or WATCH retries and costs a single round trip on the shared Lettuce
+ * connection, however many clients race for the same slot.
+ *
+ * <ul>
+ *   <li>{@code appointment:slot:<provider>:<slot>}: the id of the hold that owns the slot, with the hold TTL.</li>
+ *   <li>{@code appointment:hold:<holdId>}: hash with the hold's details and status, kept for
+ *       {@code appointment.holds.retention} after it settles so clients can read the outcome.</li>
+ *   <li>{@code appointment:holds:expiring}: sorted set of open holds by deadline, swept by {@link HoldReclaimer}.</li>
+ *   <li>{@code appointment:holds:confirming}: list of confirmations waiting for {@link HoldConfirmationWorker}.</li>
+ * </ul>
+ *
+ * Scripts touch several keys, so they assume a single Redis primary rather than a cluster.
+ */
+@Component
+public class SlotHoldStore {
+    static final String EXPIRING_KEY = "appointment:holds:expiring";
+    static final String QUEUE_KEY = "appointment:holds:confirming";
+
+    private static final RedisScript<String> HOLD = script("hold");
+    private static final RedisScript<String> CONFIRM = script("confirm");
+    private static final RedisScript<String> SETTLE = script("settle");
+    private static final RedisScript<String> RELEASE = script("release");
+    private static final RedisScript<String> RECLAIM = script("reclaim");
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration ttl;
+    private final Duration confirmTimeout;
+    private final Duration retention;
+
+    public SlotHoldStore(StringRedisTemplate redisTemplate,
+                         @Value("${appointment.holds.ttl:2m}") Duration ttl,
+                         @Value("${appointment.holds.confirm-timeout:1m}") Duration confirmTimeout,
+                         @Value("${appointment.holds.retention:15m}") Duration retention) {
+        this.redisTemplate = redisTemplate;
+        this.ttl = ttl;
+        this.confirmTimeout = confirmTimeout;
+        this.retention = retention;
+    }
+
+    /**
+     * Holds the slot for {@code appointment.holds.ttl}, or returns empty when another hold has it.
+     */
+    public Optional<SlotHold> hold(long providerId, long slot, String patientId) {
+        UUID holdId = UUID.randomUUID();
+        Instant expiresAt = Instant.now().plus(ttl);
+        String result = redisTemplate.execute(HOLD, List.of(slotKey(providerId, slot), holdKey(holdId), EXPIRING_KEY),
+                holdId.toString(), Long.toString(providerId), Long.toString(slot), patientId,
+                Long.toString(ttl.toMillis()), Long.toString(expiresAt.toEpochMilli()), Long.toString(retention.toMillis()));
+        if (!"HELD".equals(result)) return Optional.empty();
+        return Optional.of(new SlotHold(holdId, providerId, slot, patientId, HoldStatus.HELD, null, expiresAt));
+    }
+
+    public Optional<SlotHold> find(UUID holdId) {
+        Map<Object, Object> fields = redisTemplate.opsForHash().entries(holdKey(holdId));
+        if (fields.isEmpty()) return Optional.empty();
+        Object appointmentId = fields.get("appointmentId");
+        return Optional.of(new SlotHold(holdId,
+                Long.parseLong((String) fields.get("providerId")),
+                Long.parseLong((String) fields.get("slot")),
+                (String) fields.get("patientId"),
+                HoldStatus.valueOf((String) fields.get("status")),
+                appointmentId == null || ((String) appointmentId).isEmpty() ? null : Long.valueOf((String) appointmentId),
+                Instant.ofEpochMilli(Long.parseLong((String) fields.get("expiresAt")))));
+    }
+
+    /**
+     * Queues a live hold for confirmation. Returns the hold's status afterwards: CONFIRMING when
+     * queued now or before, otherwise the state that prevented it. Null when the hold is unknown.
+     */
+    public HoldStatus confirm(SlotHold hold) {
+        String result = redisTemplate.execute(CONFIRM,
+                List.of(slotKey(hold.providerId(), hold.slot()), holdKey(hold.holdId()), EXPIRING_KEY, QUEUE_KEY),
+                hold.holdId().toString(), Long.toString(confirmTimeout.toMillis()),
+                Long.toString(Instant.now().plus(confirmTimeout).toEpochMilli()), Long.toString(retention.toMillis()));
+        return status(result);
+    }
+
+    public HoldStatus release(SlotHold hold) {
+        String result = redisTemplate.execute(RELEASE,
+                List.of(slotKey(hold.providerId(), hold.slot()), holdKey(hold.holdId()), EXPIRING_KEY),
+                hold.holdId().toString(), Long.toString(retention.toMillis()));
+        return status(result);
+    }
+
+    void settle(PendingConfirmation confirmation, HoldStatus outcome, Long appointmentId) {
+        redisTemplate.execute(SETTLE,
+                List.of(slotKey(confirmation.providerId(), confirmation.slot()), holdKey(confirmation.holdId()), EXPIRING_KEY),
+                confirmation.holdId().toString(), outcome.name(), appointmentId == null ? "" : appointmentId.toString(),
+                Long.toString(retention.toMillis()));
+    }
+
+    /**
+     * Takes up to {@code max} queued confirmations, oldest first.
+     */
+    List<PendingConfirmation> takeConfirmations(int max) {
+        List<String> queued = redisTemplate.opsForList().rightPop(QUEUE_KEY, max);
+        return queued == null ? List.of() : queued.stream().map(PendingConfirmation::parse).toList();
+    }
+
+    Set<String> dueForReclaim(Instant now, int max) {
+        Set<String> due = redisTemplate.opsForZSet().rangeByScore(EXPIRING_KEY, 0, now.toEpochMilli(), 0, max);
+        return due == null ? Set.of() : due;
+    }
+
+    /**
+     * Expires or requeues one overdue hold (see {@code reclaim.lua}) and returns what was done.
+     */
+    String reclaim(String holdId, Instant now) {
+        List<Object> slot = redisTemplate.opsForHash().multiGet(holdKey(UUID.fromString(holdId)), List.of("providerId", "slot"));
+        if (slot.get(0) == null) {
+            // The hold's details are gone with its retention; its slot key has a TTL of its own.
+            redisTemplate.opsForZSet().remove(EXPIRING_KEY, holdId);
+            return "UNKNOWN";
+        }
+        return redisTemplate.execute(RECLAIM,
+                List.of(slotKey(Long.parseLong((String) slot.get(0)), Long.parseLong((String) slot.get(1))),
+                        holdKey(UUID.fromString(holdId)), EXPIRING_KEY, QUEUE_KEY),
+                holdId, Long.toString(now.toEpochMilli()), Long.toString(confirmTimeout.toMillis()),
+                Long.toString(now.plus(confirmTimeout).toEpochMilli()), Long.toString(retention.toMillis()));
+    }
+
+    public boolean isHeld(long providerId, long slot) {
+        return Boolean.TRUE.equals(redisTemplate.hasKey(slotKey(providerId, slot)));
+    }
+
+    private static HoldStatus status(String result) {
+        return "UNKNOWN".equals(result) ? null : HoldStatus.valueOf(result);
+    }
+
+    private static String slotKey(long providerId, long slot) {
+        return "appointment:slot:" + providerId + ":" + slot;
+    }
+
+    private static String holdKey(UUID holdId) {
+        return "appointment:hold:" + holdId;
+    }
+
+    private static RedisScript<String> script(String name) {
+        return RedisScript.of(new ClassPathResource("redis/" + name + ".lua"), String.class);
+    }
+}
@@ -0,0 +1,99 @@
+package com.healthcare.appointment.repository;
+
+import com.healthcare.appointment.hold.PendingConfirmation;
+import com.healthcare.appointment.slot.Slots;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Set-based writes for confirmed slot holds. A whole batch is one statement over {@code unnest}ed
+ * arrays, so it is one round trip and one plan whatever the batch size, and it reports exactly which
+ * rows went in (JDBC batch counts do not survive the driver's insert rewriting). Callers run it
+ * inside their transaction.
+ */
+@Repository
+public class AppointmentBatchRepository {
+    private static final String INSERT_HELD = """
+            INSERT INTO appointments (provider_id, patient_id, slot_start, status, hold_id)
+            SELECT h.provider_id, h.patient_id, h.slot_start, 'BOOKED', h.hold_id
+            FROM unnest(?::bigint[], ?::varchar[], ?::timestamptz[], ?::uuid[]) AS h(provider_id, patient_id, slot_start, hold_id)
+            WHERE EXISTS (SELECT 1 FROM provider_availability a
+                          WHERE a.provider_id = h.provider_id AND NOT a.deleted
+                            AND a.starts_at <= h.slot_start AND a.ends_at >= h.slot_start + ?::interval)
+            ON CONFLICT DO NOTHING
+            RETURNING hold_id, id""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AppointmentBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Takes a shared lock on the providers, in id order, so availability cannot be withdrawn under
+     * the insert (see {@code ProviderRepository#findByIdForShare}).
+     */
+    public void lockProvidersForShare(Collection<Long> providerIds) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT id FROM providers WHERE id = ANY(?) ORDER BY id FOR SHARE");
+            ps.setArray(1, con.createArrayOf("bigint", providerIds.toArray()));
+            return ps;
+        }, rs -> {
+        });
+    }
+
+    /**
+     * Inserts a BOOKED appointment per hold whose slot lies in the provider's availability and is
+     * not already booked; any other hold is skipped. Returns the new appointment id per hold.
+     */
+    public Map<UUID, Long> insertHeld(List<PendingConfirmation> holds) {
+        Long[] providerIds = new Long[holds.size()];
+        String[] patientIds = new String[holds.size()];
+        Timestamp[] slotStarts = new Timestamp[holds.size()];
+        UUID[] holdIds = new UUID[holds.size()];
+        for (int i = 0; i < holds.size(); i++) {
+            PendingConfirmation hold = holds.get(i);
+            providerIds[i] = hold.providerId();
+            patientIds[i] = hold.patientId();
+            slotStarts[i] = Timestamp.from(Slots.startOf(hold.slot()));
+            holdIds[i] = hold.holdId();
+        }
+        Map<UUID, Long> inserted = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(INSERT_HELD);
+            ps.setArray(1, con.createArrayOf("bigint", providerIds));
+            ps.setArray(2, con.createArrayOf("varchar", patientIds));
+            ps.setArray(3, con.createArrayOf("timestamptz", slotStarts));
+            ps.setArray(4, con.createArrayOf("uuid", holdIds));
+            ps.setString(5, Slots.LENGTH.toMinutes() + " minutes");
+            return ps;
+        }, rs -> {
+            inserted.put(rs.getObject(1, UUID.class), rs.getLong(2));
+        });
+        return inserted;
+    }
+
+    /**
+     * Appointments already created for any of {@code holdIds}, by hold id.
+     */
+    public Map<UUID, Long> findByHoldIds(Collection<UUID> holdIds) {
+        Map<UUID, Long> found = new HashMap<>();
+        if (holdIds.isEmpty()) return found;
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT hold_id, id FROM appointments WHERE hold_id = ANY(?)");
+            ps.setArray(1, con.createArrayOf("uuid", holdIds.toArray()));
+            return ps;
+        }, rs -> {
+            found.put(rs.getObject(1, UUID.class), rs.getLong(2));
+        });
+        return found;
+    }
+}
@@ -0,0 +1,18 @@
+package com.healthcare.appointment.repository;
+
+import com.healthcare.appointment.entity.Appointment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+
+public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
+
+    @Query("select count(a) > 0 from Appointment a where a.providerId = :providerId " +
+            "and a.status = com.healthcare.appointment.entity.AppointmentStatus.BOOKED " +
+            "and a.slotStart >= :from and a.slotStart < :to")
+    boolean existsBookedBetween(@Param("providerId") Long providerId,
+                                @Param("from") Instant from,
+                                @Param("to") Instant to);
+}
@@ -0,0 +1,27 @@
+package com.healthcare.appointment.repository;
+
+import com.healthcare.appointment.entity.ProviderAvailability;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+public interface ProviderAvailabilityRepository extends JpaRepository<ProviderAvailability, Long> {
+
+    Optional<ProviderAvailability> findByIdAndProviderIdAndDeletedFalse(Long id, Long providerId);
+
+    @Query("select a from ProviderAvailability a where a.providerId = :providerId and a.deleted = false " +
+            "and a.endsAt > :from and a.startsAt < :to order by a.startsAt")
+    List<ProviderAvailability> findOverlapping(@Param("providerId") Long providerId,
+                                               @Param("from") Instant from,
+                                               @Param("to") Instant to);
+
+    @Query("select count(a) > 0 from ProviderAvailability a where a.providerId = :providerId and a.deleted = false " +
+            "and a.startsAt <= :from and a.endsAt >= :to")
+    boolean existsCovering(@Param("providerId") Long providerId,
+                           @Param("from") Instant from,
+                           @Param("to") Instant to);
+}
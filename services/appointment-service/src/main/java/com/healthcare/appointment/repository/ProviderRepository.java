@@ -0,0 +1,28 @@
+package com.healthcare.appointment.repository;
+
+import com.healthcare.appointment.entity.Provider;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface ProviderRepository extends JpaRepository<Provider, Long> {
+
+    /**
+     * Shared row lock on the provider ({@code FOR SHARE}): bookings hold it so that availability
+     * cannot be withdrawn under them, without serializing bookings against each other.
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("select p from Provider p where p.id = :id")
+    Optional<Provider> findByIdForShare(@Param("id") Long id);
+
+    /**
+     * Exclusive row lock on the provider ({@code FOR UPDATE}), held while its availability changes.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from Provider p where p.id = :id")
+    Optional<Provider> findByIdForUpdate(@Param("id") Long id);
+}
@@ -0,0 +1,92 @@
+package com.healthcare.appointment.repository;
+
+import com.healthcare.appointment.slot.SlotRows;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+
+/**
+ * Plain JDBC reads that fill the slot index. Each method runs in one repeatable-read transaction,
+ * so the rows it streams and the database time it returns describe the same snapshot; that time
+ * becomes the watermark for the next incremental refresh. Rows are streamed with the
+ * {@code spring.jdbc.template.fetch-size} cursor rather than materialized.
+ */
+@Repository
+public class SlotSnapshotRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    public SlotSnapshotRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Every live availability interval overlapping {@code [from, to)} and every booking inside it.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public Instant streamWindow(Instant from, Instant to, SlotRows rows) {
+        Instant snapshot = databaseNow();
+        jdbcTemplate.query("SELECT provider_id, starts_at, ends_at FROM provider_availability " +
+                        "WHERE NOT deleted AND ends_at > ? AND starts_at < ?",
+                rs -> {
+                    rows.availability(rs.getLong(1), instant(rs, 2), instant(rs, 3));
+                }, Timestamp.from(from), Timestamp.from(to));
+        jdbcTemplate.query("SELECT provider_id, slot_start FROM appointments " +
+                        "WHERE status = 'BOOKED' AND slot_start >= ? AND slot_start < ?",
+                rs -> {
+                    rows.booking(rs.getLong(1), instant(rs, 2));
+                }, Timestamp.from(from), Timestamp.from(to));
+        return snapshot;
+    }
+
+    /**
+     * The same as {@link #streamWindow} for a single provider.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public Instant streamProvider(long providerId, Instant from, Instant to, SlotRows rows) {
+        Instant snapshot = databaseNow();
+        jdbcTemplate.query("SELECT provider_id, starts_at, ends_at FROM provider_availability " +
+                        "WHERE provider_id = ? AND NOT deleted AND ends_at > ? AND starts_at < ?",
+                rs -> {
+                    rows.availability(rs.getLong(1), instant(rs, 2), instant(rs, 3));
+                }, providerId, Timestamp.from(from), Timestamp.from(to));
+        jdbcTemplate.query("SELECT provider_id, slot_start FROM appointments " +
+                        "WHERE provider_id = ? AND status = 'BOOKED' AND slot_start >= ? AND slot_start < ?",
+                rs -> {
+                    rows.booking(rs.getLong(1), instant(rs, 2));
+                }, providerId, Timestamp.from(from), Timestamp.from(to));
+        return snapshot;
+    }
+
+    /**
+     * Availability intervals and appointment slots whose rows changed at or after {@code since},
+     * deleted and cancelled ones included: these are the ranges the index has to re-read.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public Instant streamChangedSince(Instant since, SlotRows rows) {
+        Instant snapshot = databaseNow();
+        jdbcTemplate.query("SELECT provider_id, starts_at, ends_at FROM provider_availability WHERE updated_at >= ?",
+                rs -> {
+                    rows.availability(rs.getLong(1), instant(rs, 2), instant(rs, 3));
+                }, Timestamp.from(since));
+        jdbcTemplate.query("SELECT provider_id, slot_start FROM appointments WHERE updated_at >= ?",
+                rs -> {
+                    rows.booking(rs.getLong(1), instant(rs, 2));
+                }, Timestamp.from(since));
+        return snapshot;
+    }
+
+    private Instant databaseNow() {
+        return jdbcTemplate.queryForObject("SELECT now()", OffsetDateTime.class).toInstant();
+    }
+
+    private static Instant instant(ResultSet rs, int column) throws SQLException {
+        return rs.getObject(column, OffsetDateTime.class).toInstant();
+    }
+}
@@ -0,0 +1,189 @@
+package com.healthcare.appointment.service;
+
+import com.healthcare.appointment.dto.AppointmentRequest;
+import com.healthcare.appointment.dto.AppointmentResponse;
+import com.healthcare.appointment.entity.Appointment;
+import com.healthcare.appointment.entity.AppointmentStatus;
+import com.healthcare.appointment.exception.InvalidSlotException;
+import com.healthcare.appointment.exception.ResourceNotFoundException;
+import com.healthcare.appointment.exception.SchedulingConflictException;
+import com.healthcare.appointment.hold.PendingConfirmation;
+import com.healthcare.appointment.hold.SlotHoldStore;
+import com.healthcare.appointment.repository.AppointmentBatchRepository;
+import com.healthcare.appointment.repository.AppointmentRepository;
+import com.healthcare.appointment.repository.ProviderAvailabilityRepository;
+import com.healthcare.appointment.repository.ProviderRepository;
+import com.healthcare.appointment.slot.SlotEventPublisher;
+import com.healthcare.appointment.slot.Slots;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+
+@Service
+public class AppointmentService {
+    private static final Logger log = LoggerFactory.getLogger(AppointmentService.class);
+
+    private final AppointmentRepository appointmentRepository;
+    private final AppointmentBatchRepository appointmentBatchRepository;
+    private final ProviderRepository providerRepository;
+    private final ProviderAvailabilityRepository availabilityRepository;
+    private final SlotHoldStore slotHoldStore;
+    private final SlotEventPublisher slotEvents;
+
+    public AppointmentService(AppointmentRepository appointmentRepository,
+                              AppointmentBatchRepository appointmentBatchRepository,
+                              ProviderRepository providerRepository,
+                              ProviderAvailabilityRepository availabilityRepository,
+                              SlotHoldStore slotHoldStore,
+                              SlotEventPublisher slotEvents) {
+        this.appointmentRepository = appointmentRepository;
+        this.appointmentBatchRepository = appointmentBatchRepository;
+        this.providerRepository = providerRepository;
+        this.availabilityRepository = availabilityRepository;
+        this.slotHoldStore = slotHoldStore;
+        this.slotEvents = slotEvents;
+    }
+
+    /**
+     * Books one slot. Postgres decides, not the slot index: the slot must lie inside the provider's
+     * availability (read under a shared lock on the provider, so it cannot be withdrawn meanwhile)
+     * and the partial unique index on booked slots lets exactly one of any concurrent bookings win.
+     * A slot someone holds in Redis is refused rather than taken from under the hold.
+     */
+    @Transactional
+    public AppointmentResponse book(AppointmentRequest request) {
+        Instant slotStart = request.getSlotStart();
+        if (!Slots.isAligned(slotStart)) {
+            throw new InvalidSlotException("Appointments start on a " + Slots.LENGTH.toMinutes() + "-minute boundary");
+        }
+        if (slotStart.isBefore(Instant.now())) {
+            throw new InvalidSlotException("Slot " + slotStart + " has already started");
+        }
+        Long providerId = request.getProviderId();
+        if (isHeld(providerId, slotStart)) {
+            throw new SchedulingConflictException("Slot " + slotStart + " of provider " + providerId + " is held by another patient");
+        }
+        providerRepository.findByIdForShare(providerId)
+                .orElseThrow(() -> new ResourceNotFoundException("Provider not found with id: " + providerId));
+        if (!availabilityRepository.existsCovering(providerId, slotStart, slotStart.plus(Slots.LENGTH))) {
+            throw new SchedulingConflictException("Provider " + providerId + " is not available at " + slotStart);
+        }
+        Appointment appointment = new Appointment();
+        appointment.setProviderId(providerId);
+        appointment.setPatientId(request.getPatientId());
+        appointment.setSlotStart(slotStart);
+        appointment.setStatus(AppointmentStatus.BOOKED);
+        try {
+            appointment = appointmentRepository.saveAndFlush(appointment);
+        } catch (DataIntegrityViolationException e) {
+            throw new SchedulingConflictException("Slot " + slotStart + " of provider " + providerId + " is already booked");
+        }
+        slotEvents.booked(providerId, slotStart);
+        return toResponse(appointment);
+    }
+
+    /**
+     * Books the slots of a batch of confirmed holds with one insert, and returns the appointment id
+     * of every hold that now has one, including holds a previous attempt already inserted. A hold
+     * left out lost its slot: it was booked directly meanwhile or the availability was withdrawn.
+     */
+    @Transactional
+    public Map<UUID, Long> confirmHolds(List<PendingConfirmation> holds) {
+        Map<UUID, PendingConfirmation> byHold = new LinkedHashMap<>();
+        holds.forEach(hold -> byHold.putIfAbsent(hold.holdId(), hold));
+        List<PendingConfirmation> unique = List.copyOf(byHold.values());
+        appointmentBatchRepository.lockProvidersForShare(new TreeSet<>(unique.stream().map(PendingConfirmation::providerId).toList()));
+        Map<UUID, Long> inserted = appointmentBatchRepository.insertHeld(unique);
+        inserted.keySet().forEach(holdId -> {
+            PendingConfirmation hold = byHold.get(holdId);
+            slotEvents.booked(hold.providerId(), Slots.startOf(hold.slot()));
+        });
+        Map<UUID, Long> confirmed = new HashMap<>(inserted);
+        if (inserted.size() < unique.size()) {
+            confirmed.putAll(appointmentBatchRepository.findByHoldIds(
+                    byHold.keySet().stream().filter(holdId -> !inserted.containsKey(holdId)).toList()));
+        }
+        return confirmed;
+    }
+
+    @Transactional(readOnly = true)
+    public AppointmentResponse getAppointment(Long id) {
+        return toResponse(findAppointment(id));
+    }
+
+    /**
+     * Cancels an appointment and frees its slot. Cancelling twice is a no-op.
+     */
+    @Transactional
+    public AppointmentResponse cancel(Long id) {
+        Appointment appointment = findAppointment(id);
+        if (appointment.getStatus() == AppointmentStatus.CANCELLED) return toResponse(appointment);
+        if (appointment.getStatus() == AppointmentStatus.NO_SHOW) {
+            throw new SchedulingConflictException("Appointment " + id + " was missed and can no longer be cancelled");
+        }
+        appointment.setStatus(AppointmentStatus.CANCELLED);
+        appointment = appointmentRepository.saveAndFlush(appointment);
+        slotEvents.released(appointment.getProviderId(), appointment.getSlotStart());
+        return toResponse(appointment);
+    }
+
+    /**
+     * Records that the patient did not attend. Only a booked appointment whose slot has started can
+     * be marked; marking it again is a no-op.
+     */
+    @Transactional
+    public AppointmentResponse markNoShow(Long id) {
+        Appointment appointment = findAppointment(id);
+        if (appointment.getStatus() == AppointmentStatus.NO_SHOW) return toResponse(appointment);
+        if (appointment.getStatus() != AppointmentStatus.BOOKED) {
+            throw new SchedulingConflictException("Appointment " + id + " is " + appointment.getStatus().name().toLowerCase());
+        }
+        if (appointment.getSlotStart().isAfter(Instant.now())) {
+            throw new SchedulingConflictException("Appointment " + id + " has not started yet");
+        }
+        appointment.setStatus(AppointmentStatus.NO_SHOW);
+        appointment = appointmentRepository.saveAndFlush(appointment);
+        slotEvents.noShow(appointment.getProviderId(), appointment.getSlotStart());
+        return toResponse(appointment);
+    }
+
+    private boolean isHeld(Long providerId, Instant slotStart) {
+        try {
+            return slotHoldStore.isHeld(providerId, Slots.of(slotStart));
+        } catch (DataAccessException e) {
+            // The unique index still arbitrates; at worst a hold confirmed later is rejected.
+            log.warn("Slot hold lookup failed for provider {}: {}", providerId, e.getMessage());
+            return false;
+        }
+    }
+
+    private Appointment findAppointment(Long id) {
+        return appointmentRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Appointment not found with id: " + id));
+    }
+
+    private AppointmentResponse toResponse(Appointment appointment) {
+        AppointmentResponse response = new AppointmentResponse();
+        response.setId(appointment.getId());
+        response.setProviderId(appointment.getProviderId());
+        response.setPatientId(appointment.getPatientId());
+        response.setSlotStart(appointment.getSlotStart());
+        response.setSlotEnd(appointment.getSlotStart().plus(Slots.LENGTH));
+        response.setStatus(appointment.getStatus().name());
+        response.setVersion(appointment.getVersion());
+        response.setCreatedAt(appointment.getCreatedAt());
+        response.setUpdatedAt(appointment.getUpdatedAt());
+        return response;
+    }
+}
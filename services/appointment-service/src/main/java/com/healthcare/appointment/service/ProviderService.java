@@ -0,0 +1,129 @@
+package com.healthcare.appointment.service;
+
+import com.healthcare.appointment.dto.AvailabilityRequest;
+import com.healthcare.appointment.dto.AvailabilityResponse;
+import com.healthcare.appointment.dto.ProviderRequest;
+import com.healthcare.appointment.dto.ProviderResponse;
+import com.healthcare.appointment.entity.Provider;
+import com.healthcare.appointment.entity.ProviderAvailability;
+import com.healthcare.appointment.exception.InvalidSlotException;
+import com.healthcare.appointment.exception.ResourceNotFoundException;
+import com.healthcare.appointment.exception.SchedulingConflictException;
+import com.healthcare.appointment.repository.AppointmentRepository;
+import com.healthcare.appointment.repository.ProviderAvailabilityRepository;
+import com.healthcare.appointment.repository.ProviderRepository;
+import com.healthcare.appointment.slot.SlotEventPublisher;
+import com.healthcare.appointment.slot.Slots;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Service
+public class ProviderService {
+
+    private final ProviderRepository providerRepository;
+    private final ProviderAvailabilityRepository availabilityRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final SlotEventPublisher slotEvents;
+
+    public ProviderService(ProviderRepository providerRepository,
+                           ProviderAvailabilityRepository availabilityRepository,
+                           AppointmentRepository appointmentRepository,
+                           SlotEventPublisher slotEvents) {
+        this.providerRepository = providerRepository;
+        this.availabilityRepository = availabilityRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.slotEvents = slotEvents;
+    }
+
+    @Transactional
+    public ProviderResponse createProvider(ProviderRequest request) {
+        Provider provider = new Provider();
+        provider.setName(request.getName());
+        return toResponse(providerRepository.saveAndFlush(provider));
+    }
+
+    @Transactional(readOnly = true)
+    public ProviderResponse getProvider(Long id) {
+        return providerRepository.findById(id)
+                .map(this::toResponse)
+                .orElseThrow(() -> new ResourceNotFoundException("Provider not found with id: " + id));
+    }
+
+    /**
+     * Offers {@code [startsAt, endsAt)} for booking. Intervals must lie on slot boundaries and may not
+     * overlap the provider's other intervals, so that withdrawing one never closes slots another offers.
+     */
+    @Transactional
+    public AvailabilityResponse addAvailability(Long providerId, AvailabilityRequest request) {
+        Instant startsAt = request.getStartsAt();
+        Instant endsAt = request.getEndsAt();
+        if (!Slots.isAligned(startsAt) || !Slots.isAligned(endsAt)) {
+            throw new InvalidSlotException("Availability must start and end on a " + Slots.LENGTH.toMinutes() + "-minute boundary");
+        }
+        if (!endsAt.isAfter(startsAt)) {
+            throw new InvalidSlotException("Availability must end after it starts");
+        }
+        lockProvider(providerId);
+        if (!availabilityRepository.findOverlapping(providerId, startsAt, endsAt).isEmpty()) {
+            throw new SchedulingConflictException("Availability overlaps an existing interval of provider " + providerId);
+        }
+        ProviderAvailability availability = new ProviderAvailability();
+        availability.setProviderId(providerId);
+        availability.setStartsAt(startsAt);
+        availability.setEndsAt(endsAt);
+        ProviderAvailability saved = availabilityRepository.saveAndFlush(availability);
+        slotEvents.opened(providerId, startsAt, endsAt);
+        return toResponse(saved);
+    }
+
+    /**
+     * Withdraws an interval. Refused while it still holds booked appointments.
+     */
+    @Transactional
+    public void removeAvailability(Long providerId, Long availabilityId) {
+        lockProvider(providerId);
+        ProviderAvailability availability = availabilityRepository.findByIdAndProviderIdAndDeletedFalse(availabilityId, providerId)
+                .orElseThrow(() -> new ResourceNotFoundException("Availability not found with id: " + availabilityId));
+        if (appointmentRepository.existsBookedBetween(providerId, availability.getStartsAt(), availability.getEndsAt())) {
+            throw new SchedulingConflictException("Availability " + availabilityId + " has booked appointments; cancel them first");
+        }
+        availability.setDeleted(true);
+        availabilityRepository.saveAndFlush(availability);
+        slotEvents.closed(providerId, availability.getStartsAt(), availability.getEndsAt());
+    }
+
+    @Transactional(readOnly = true)
+    public List<AvailabilityResponse> getAvailability(Long providerId, Instant from, Instant to) {
+        if (!providerRepository.existsById(providerId)) {
+            throw new ResourceNotFoundException("Provider not found with id: " + providerId);
+        }
+        return availabilityRepository.findOverlapping(providerId, from, to).stream()
+                .map(this::toResponse)
+                .toList();
+    }
+
+    private void lockProvider(Long providerId) {
+        providerRepository.findByIdForUpdate(providerId)
+                .orElseThrow(() -> new ResourceNotFoundException("Provider not found with id: " + providerId));
+    }
+
+    private ProviderResponse toResponse(Provider provider) {
+        ProviderResponse response = new ProviderResponse();
+        response.setId(provider.getId());
+        response.setName(provider.getName());
+        response.setCreatedAt(provider.getCreatedAt());
+        return response;
+    }
+
+    private AvailabilityResponse toResponse(ProviderAvailability availability) {
+        AvailabilityResponse response = new AvailabilityResponse();
+        response.setId(availability.getId());
+        response.setProviderId(availability.getProviderId());
+        response.setStartsAt(availability.getStartsAt());
+        response.setEndsAt(availability.getEndsAt());
+        return response;
+    }
+}
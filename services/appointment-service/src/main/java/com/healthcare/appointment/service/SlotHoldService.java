@@ -0,0 +1,109 @@
+package com.healthcare.appointment.service;
+
+import com.healthcare.appointment.dto.HoldRequest;
+import com.healthcare.appointment.dto.HoldResponse;
+import com.healthcare.appointment.exception.InvalidSlotException;
+import com.healthcare.appointment.exception.ResourceNotFoundException;
+import com.healthcare.appointment.exception.SchedulingConflictException;
+import com.healthcare.appointment.hold.HoldStatus;
+import com.healthcare.appointment.hold.SlotHold;
+import com.healthcare.appointment.hold.SlotHoldStore;
+import com.healthcare.appointment.slot.SlotIndex;
+import com.healthcare.appointment.slot.Slots;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Two-phase reservation for contended slots. A hold is taken in Redis without touching Postgres,
+ * so a rush on one calendar costs one script call per attempt instead of a row lock and a pooled
+ * connection; confirming only queues the hold, and {@code HoldConfirmationWorker} books queued
+ * holds in batches. The unique index on booked slots remains the final arbiter.
+ */
+@Service
+public class SlotHoldService {
+
+    private final SlotHoldStore slotHoldStore;
+    private final SlotIndex slotIndex;
+    private final MeterRegistry meterRegistry;
+
+    public SlotHoldService(SlotHoldStore slotHoldStore, SlotIndex slotIndex, MeterRegistry meterRegistry) {
+        this.slotHoldStore = slotHoldStore;
+        this.slotIndex = slotIndex;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Holds a free slot for {@code appointment.holds.ttl}. Slots the index knows to be closed or
+     * booked are refused before Redis is asked.
+     */
+    public HoldResponse hold(HoldRequest request) {
+        Instant slotStart = request.getSlotStart();
+        if (!Slots.isAligned(slotStart)) {
+            throw new InvalidSlotException("Appointments start on a " + Slots.LENGTH.toMinutes() + "-minute boundary");
+        }
+        if (slotStart.isBefore(Instant.now())) {
+            throw new InvalidSlotException("Slot " + slotStart + " has already started");
+        }
+        long providerId = request.getProviderId();
+        long slot = Slots.of(slotStart);
+        if (slotIndex.isReady() && !slotIndex.isFree(providerId, slot)) {
+            count("unavailable");
+            throw new SchedulingConflictException("Provider " + providerId + " is not available at " + slotStart);
+        }
+        SlotHold hold = slotHoldStore.hold(providerId, slot, request.getPatientId()).orElseThrow(() -> {
+            count("taken");
+            return new SchedulingConflictException("Slot " + slotStart + " of provider " + providerId + " is held by another patient");
+        });
+        count("held");
+        return toResponse(hold);
+    }
+
+    public HoldResponse getHold(UUID holdId) {
+        return toResponse(findHold(holdId));
+    }
+
+    /**
+     * Queues a live hold for booking. The response is CONFIRMING until the batch it joins has been
+     * written; poll the hold for CONFIRMED with its appointment id, or REJECTED.
+     */
+    public HoldResponse confirm(UUID holdId) {
+        SlotHold hold = findHold(holdId);
+        HoldStatus status = slotHoldStore.confirm(hold);
+        if (status == null) throw new ResourceNotFoundException("Hold not found with id: " + holdId);
+        if (status == HoldStatus.EXPIRED || status == HoldStatus.RELEASED) {
+            throw new SchedulingConflictException("Hold " + holdId + " is " + status.name().toLowerCase() + "; hold the slot again");
+        }
+        return toResponse(findHold(holdId));
+    }
+
+    public void release(UUID holdId) {
+        HoldStatus status = slotHoldStore.release(findHold(holdId));
+        if (status == HoldStatus.CONFIRMING || status == HoldStatus.CONFIRMED) {
+            throw new SchedulingConflictException("Hold " + holdId + " is already confirmed; cancel the appointment instead");
+        }
+    }
+
+    private SlotHold findHold(UUID holdId) {
+        return slotHoldStore.find(holdId)
+                .orElseThrow(() -> new ResourceNotFoundException("Hold not found with id: " + holdId));
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("appointment.holds", "outcome", outcome).increment();
+    }
+
+    private HoldResponse toResponse(SlotHold hold) {
+        HoldResponse response = new HoldResponse();
+        response.setHoldId(hold.holdId());
+        response.setProviderId(hold.providerId());
+        response.setPatientId(hold.patientId());
+        response.setSlotStart(Slots.startOf(hold.slot()));
+        response.setStatus(hold.status().name());
+        response.setAppointmentId(hold.appointmentId());
+        response.setExpiresAt(hold.expiresAt());
+        return response;
+    }
+}
@@ -0,0 +1,58 @@
+package com.healthcare.appointment.service;
+
+import com.healthcare.appointment.dto.AvailableSlotResponse;
+import com.healthcare.appointment.exception.InvalidSlotException;
+import com.healthcare.appointment.exception.SlotIndexNotReadyException;
+import com.healthcare.appointment.slot.FreeSlot;
+import com.healthcare.appointment.slot.SlotIndex;
+import com.healthcare.appointment.slot.Slots;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Answers free-slot searches from the in-memory {@link SlotIndex} without touching Postgres.
+ * Results reflect committed changes as soon as this replica has applied them; a slot taken
+ * elsewhere a moment ago may still be offered, and booking it then fails with 409.
+ */
+@Service
+public class SlotSearchService {
+
+    private final SlotIndex slotIndex;
+    private final int maxProviders;
+    private final int maxResults;
+
+    public SlotSearchService(SlotIndex slotIndex,
+                             @Value("${appointment.search.max-providers:200}") int maxProviders,
+                             @Value("${appointment.search.max-results:100}") int maxResults) {
+        this.slotIndex = slotIndex;
+        this.maxProviders = maxProviders;
+        this.maxResults = maxResults;
+    }
+
+    /**
+     * The earliest {@code count} free slots across {@code providerIds} starting at or after
+     * {@code from} (now when null) and before {@code to} (the end of the index window when null).
+     */
+    public List<AvailableSlotResponse> findNextFree(List<Long> providerIds, Instant from, Instant to, int count) {
+        if (providerIds.isEmpty() || providerIds.size() > maxProviders) {
+            throw new InvalidSlotException("Between 1 and " + maxProviders + " provider IDs are required");
+        }
+        if (count < 1 || count > maxResults) {
+            throw new InvalidSlotException("count must be between 1 and " + maxResults);
+        }
+        if (!slotIndex.isReady()) {
+            throw new SlotIndexNotReadyException("Slot index is still loading");
+        }
+        Instant now = Instant.now();
+        long start = Slots.ceil(from == null || from.isBefore(now) ? now : from);
+        long end = to == null ? slotIndex.windowEnd() : Slots.ceil(to);
+        List<FreeSlot> free = slotIndex.nextFree(new LinkedHashSet<>(providerIds), start, end, count);
+        return free.stream()
+                .map(slot -> new AvailableSlotResponse(slot.providerId(), slot.startsAt(), slot.startsAt().plus(Slots.LENGTH)))
+                .toList();
+    }
+}
@@ -0,0 +1,10 @@
+package com.healthcare.appointment.slot;
+
+import java.time.Instant;
+
+public record FreeSlot(long providerId, long slot) {
+
+    public Instant startsAt() {
+        return Slots.startOf(slot);
+    }
+}
@@ -0,0 +1,152 @@
+package com.healthcare.appointment.slot;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * One provider's calendar over the index window: an {@code open} bit per slot the provider offers
+ * and a {@code booked} bit per slot taken, both stored as a ring of {@code capacity} slots addressed
+ * by {@code slot mod capacity}. A slot is free when it is open and not booked, so a search is a scan
+ * of {@code open & ~booked} one 64-slot word at a time.
+ *
+ * <p>Writers take the write lock; searches run under an optimistic read and retry under the read
+ * lock only if a writer got in, so concurrent bookings never block each other's lookups.
+ */
+final class ProviderSlots {
+    private final int capacity;
+    private final long[] open;
+    private final long[] booked;
+    private final StampedLock lock = new StampedLock();
+
+    ProviderSlots(int capacity) {
+        this.capacity = capacity;
+        this.open = new long[capacity >>> 6];
+        this.booked = new long[capacity >>> 6];
+    }
+
+    /**
+     * Sets or clears the open bits of {@code [from, to)}; the range must fit in the ring.
+     */
+    void setOpen(long from, long to, boolean value) {
+        long stamp = lock.writeLock();
+        try {
+            fillRing(open, from, to, value);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    void setBooked(long slot, boolean value) {
+        long stamp = lock.writeLock();
+        try {
+            fillRing(booked, slot, slot + 1, value);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Replaces everything known about {@code [from, to)} in one step, so no search sees the range
+     * half rebuilt. {@code openRanges} holds {@code [start, end)} slot pairs, already clipped to the range.
+     */
+    void replace(long from, long to, long[] openRanges, long[] bookedSlots) {
+        long stamp = lock.writeLock();
+        try {
+            fillRing(open, from, to, false);
+            fillRing(booked, from, to, false);
+            for (int i = 0; i < openRanges.length; i += 2) {
+                fillRing(open, openRanges[i], openRanges[i + 1], true);
+            }
+            for (long slot : bookedSlots) {
+                fillRing(booked, slot, slot + 1, true);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Clears {@code [from, to)} so the ring positions can be reused for the days after the window.
+     */
+    void clear(long from, long to) {
+        replace(from, to, new long[0], new long[0]);
+    }
+
+    boolean isFree(long slot) {
+        return nextFree(slot, slot + 1) == slot;
+    }
+
+    /**
+     * The first free slot in {@code [from, to)}, or -1.
+     */
+    long nextFree(long from, long to) {
+        long stamp = lock.tryOptimisticRead();
+        long found = scanRing(from, to);
+        if (lock.validate(stamp)) return found;
+        stamp = lock.readLock();
+        try {
+            return scanRing(from, to);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private long scanRing(long from, long to) {
+        if (from >= to) return -1;
+        int start = (int) Math.floorMod(from, (long) capacity);
+        long length = to - from;
+        if (start + length <= capacity) {
+            int pos = scan(start, (int) (start + length));
+            return pos < 0 ? -1 : from + (pos - start);
+        }
+        int pos = scan(start, capacity);
+        if (pos >= 0) return from + (pos - start);
+        pos = scan(0, (int) (start + length - capacity));
+        return pos < 0 ? -1 : from + (capacity - start) + pos;
+    }
+
+    private int scan(int from, int to) {
+        int w = from >>> 6;
+        int last = (to - 1) >>> 6;
+        long word = open[w] & ~booked[w] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                int pos = (w << 6) + Long.numberOfTrailingZeros(word);
+                return pos < to ? pos : -1;
+            }
+            if (++w > last) return -1;
+            word = open[w] & ~booked[w];
+        }
+    }
+
+    private void fillRing(long[] bits, long from, long to, boolean value) {
+        if (from >= to) return;
+        int start = (int) Math.floorMod(from, (long) capacity);
+        long length = to - from;
+        if (start + length <= capacity) {
+            fill(bits, start, (int) (start + length), value);
+        } else {
+            fill(bits, start, capacity, value);
+            fill(bits, 0, (int) (start + length - capacity), value);
+        }
+    }
+
+    private static void fill(long[] bits, int from, int to, boolean value) {
+        int first = from >>> 6;
+        int last = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+        if (first == last) {
+            apply(bits, first, firstMask & lastMask, value);
+            return;
+        }
+        apply(bits, first, firstMask, value);
+        for (int w = first + 1; w < last; w++) {
+            bits[w] = value ? -1L : 0L;
+        }
+        apply(bits, last, lastMask, value);
+    }
+
+    private static void apply(long[] bits, int word, long mask, boolean value) {
+        bits[word] = value ? bits[word] | mask : bits[word] & ~mask;
+    }
+}
@@ -0,0 +1,32 @@
+package com.healthcare.appointment.slot;
+
+import java.time.Instant;
+
+/**
+ * A committed change to a provider's calendar, broadcast so every replica can update its
+ * {@link SlotIndex} without waiting for the next refresh from Postgres. {@code origin} identifies
+ * the replica that made the change, which has already applied it.
+ */
+public record SlotEvent(Type type, long providerId, Instant startsAt, Instant endsAt, String origin) {
+
+    public enum Type {
+        OPENED,
+        CLOSED,
+        BOOKED,
+        RELEASED,
+        NO_SHOW
+    }
+
+    void applyTo(SlotIndex index) {
+        long from = Slots.of(startsAt);
+        switch (type) {
+            case OPENED -> index.open(providerId, from, Slots.of(endsAt));
+            case CLOSED -> index.close(providerId, from, Slots.of(endsAt));
+            case BOOKED -> index.book(providerId, from);
+            case RELEASED -> index.release(providerId, from);
+            case NO_SHOW -> {
+                // The slot has passed; it stays taken. Sent for analytics.
+            }
+        }
+    }
+}
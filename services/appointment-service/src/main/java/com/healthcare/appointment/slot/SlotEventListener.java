@@ -0,0 +1,61 @@
+package com.healthcare.appointment.slot;
+
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Applies other replicas' {@link SlotEvent}s to the local index. Every replica consumes the topic
+ * with its own group; the container is started by {@link SlotIndexLoader} once the index is loaded,
+ * and on assignment seeks back to shortly before the load's snapshot so that changes committed while
+ * the snapshot was being read are replayed rather than lost. Events only set or clear bits, so
+ * replaying one the snapshot already reflects is harmless.
+ */
+@Component
+public class SlotEventListener implements ConsumerSeekAware {
+    static final String ID = "slot-index-events";
+
+    private final SlotIndex slotIndex;
+    private final SlotEventPublisher slotEventPublisher;
+    private final KafkaListenerEndpointRegistry registry;
+    private volatile Instant replayFrom;
+
+    public SlotEventListener(SlotIndex slotIndex, SlotEventPublisher slotEventPublisher,
+                             KafkaListenerEndpointRegistry registry) {
+        this.slotIndex = slotIndex;
+        this.slotEventPublisher = slotEventPublisher;
+        this.registry = registry;
+    }
+
+    @KafkaListener(id = ID,
+            topics = "${appointment.index.events.topic:appointment-slot-events}",
+            groupId = "${appointment.index.events.group-id}",
+            autoStartup = "false",
+            properties = "auto.offset.reset=latest")
+    public void onEvent(SlotEvent event) {
+        if (!slotEventPublisher.origin().equals(event.origin())) {
+            event.applyTo(slotIndex);
+        }
+    }
+
+    /**
+     * Starts consuming, from {@code replayFrom} on every partition.
+     */
+    void start(Instant replayFrom) {
+        this.replayFrom = replayFrom;
+        MessageListenerContainer container = registry.getListenerContainer(ID);
+        if (container != null && !container.isRunning()) container.start();
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        Instant from = replayFrom;
+        if (from != null) callback.seekToTimestamp(assignments.keySet(), from.toEpochMilli());
+    }
+}
@@ -0,0 +1,79 @@
+package com.healthcare.appointment.slot;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Records calendar changes made inside a transaction and, once it commits, applies them to the
+ * local {@link SlotIndex} and sends them to the other replicas on a Kafka topic keyed by provider.
+ * A rolled-back change is never applied or sent. Sends are best effort: a replica that misses one
+ * picks the change up on its next refresh from Postgres.
+ */
+@Component
+public class SlotEventPublisher {
+    private static final Logger log = LoggerFactory.getLogger(SlotEventPublisher.class);
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final SlotIndex slotIndex;
+    private final String topic;
+    private final boolean enabled;
+    private final String origin = UUID.randomUUID().toString();
+
+    public SlotEventPublisher(ApplicationEventPublisher applicationEventPublisher,
+                              KafkaTemplate<String, Object> kafkaTemplate,
+                              SlotIndex slotIndex,
+                              @Value("${appointment.index.events.topic:appointment-slot-events}") String topic,
+                              @Value("${appointment.index.events.enabled:true}") boolean enabled) {
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.kafkaTemplate = kafkaTemplate;
+        this.slotIndex = slotIndex;
+        this.topic = topic;
+        this.enabled = enabled;
+    }
+
+    public void opened(long providerId, Instant startsAt, Instant endsAt) {
+        publish(SlotEvent.Type.OPENED, providerId, startsAt, endsAt);
+    }
+
+    public void closed(long providerId, Instant startsAt, Instant endsAt) {
+        publish(SlotEvent.Type.CLOSED, providerId, startsAt, endsAt);
+    }
+
+    public void booked(long providerId, Instant slotStart) {
+        publish(SlotEvent.Type.BOOKED, providerId, slotStart, slotStart.plus(Slots.LENGTH));
+    }
+
+    public void released(long providerId, Instant slotStart) {
+        publish(SlotEvent.Type.RELEASED, providerId, slotStart, slotStart.plus(Slots.LENGTH));
+    }
+
+    public void noShow(long providerId, Instant slotStart) {
+        publish(SlotEvent.Type.NO_SHOW, providerId, slotStart, slotStart.plus(Slots.LENGTH));
+    }
+
+    String origin() {
+        return origin;
+    }
+
+    private void publish(SlotEvent.Type type, long providerId, Instant startsAt, Instant endsAt) {
+        applicationEventPublisher.publishEvent(new SlotEvent(type, providerId, startsAt, endsAt, origin));
+    }
+
+    @TransactionalEventListener
+    public void onCommitted(SlotEvent event) {
+        event.applyTo(slotIndex);
+        if (!enabled) return;
+        kafkaTemplate.send(topic, Long.toString(event.providerId()), event).whenComplete((result, error) -> {
+            if (error != null) log.warn("Failed to broadcast {} for provider {}: {}", event.type(), event.providerId(), error.getMessage());
+        });
+    }
+}
@@ -0,0 +1,181 @@
+package com.healthcare.appointment.slot;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory availability of every provider over a rolling window of
+ * {@code appointment.index.horizon-days} days starting at today's UTC midnight, one bit per
+ * 15-minute slot (see {@link ProviderSlots}). Postgres stays the source of truth: the index is
+ * filled and kept current by {@code SlotIndexLoader} and {@code SlotEventListener}, and is only
+ * used to answer searches, never to decide a booking.
+ *
+ * <p>Updates outside the window are ignored.
+ */
+@Component
+public class SlotIndex {
+    private final int capacity;
+    private final ConcurrentHashMap<Long, ProviderSlots> providers = new ConcurrentHashMap<>();
+    private volatile long windowStart;
+    private volatile boolean ready;
+
+    public SlotIndex(@Value("${appointment.index.horizon-days:366}") int horizonDays) {
+        // 96 slots a day, so an even number of days fills whole 64-bit words.
+        int days = horizonDays + (horizonDays & 1);
+        this.capacity = days * Slots.PER_DAY;
+    }
+
+    public long windowStart() {
+        return windowStart;
+    }
+
+    public long windowEnd() {
+        return windowStart + capacity;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int providerCount() {
+        return providers.size();
+    }
+
+    /**
+     * Drops all providers and starts an empty window at {@code windowStart}, ahead of a full load.
+     */
+    public synchronized void reset(long windowStart) {
+        ready = false;
+        providers.clear();
+        this.windowStart = windowStart;
+    }
+
+    public void markReady() {
+        ready = true;
+    }
+
+    public void open(long providerId, long from, long to) {
+        setOpen(providerId, from, to, true);
+    }
+
+    public void close(long providerId, long from, long to) {
+        setOpen(providerId, from, to, false);
+    }
+
+    public void book(long providerId, long slot) {
+        setBooked(providerId, slot, true);
+    }
+
+    public void release(long providerId, long slot) {
+        setBooked(providerId, slot, false);
+    }
+
+    /**
+     * Rebuilds {@code [from, to)} of one provider from authoritative rows: {@code openRanges} as
+     * {@code [start, end)} slot pairs and the booked slots.
+     */
+    public void replace(long providerId, long from, long to, long[] openRanges, long[] bookedSlots) {
+        long start = Math.max(from, windowStart);
+        long end = Math.min(to, windowStart + capacity);
+        if (start >= end) return;
+        long[] clipped = new long[openRanges.length];
+        for (int i = 0; i < openRanges.length; i += 2) {
+            clipped[i] = Math.max(openRanges[i], start);
+            clipped[i + 1] = Math.min(openRanges[i + 1], end);
+        }
+        long[] inRange = Arrays.stream(bookedSlots).filter(slot -> slot >= start && slot < end).toArray();
+        slots(providerId).replace(start, end, clipped, inRange);
+    }
+
+    public boolean isFree(long providerId, long slot) {
+        ProviderSlots slots = providers.get(providerId);
+        return slots != null && inWindow(slot) && slots.isFree(slot);
+    }
+
+    /**
+     * The first {@code count} free slots in {@code [from, to)} across {@code providerIds}, earliest
+     * first, ties in the order the providers were given. Each provider contributes its next free slot
+     * to a heap and is advanced past it only when that slot is taken, so a query costs
+     * {@code count} word scans plus one per provider regardless of how far away the slots are.
+     */
+    public List<FreeSlot> nextFree(Collection<Long> providerIds, long from, long to, int count) {
+        long window = windowStart;
+        long start = Math.max(from, window);
+        long end = Math.min(to, window + capacity);
+        List<FreeSlot> found = new ArrayList<>(count);
+        if (start >= end || count <= 0) return found;
+        PriorityQueue<Cursor> heads = new PriorityQueue<>(Math.max(1, providerIds.size()));
+        int order = 0;
+        for (Long providerId : providerIds) {
+            ProviderSlots slots = providers.get(providerId);
+            if (slots == null) continue;
+            long next = slots.nextFree(start, end);
+            if (next >= 0) heads.add(new Cursor(providerId, slots, next, order++));
+        }
+        while (found.size() < count && !heads.isEmpty()) {
+            Cursor head = heads.poll();
+            found.add(new FreeSlot(head.providerId, head.next));
+            head.next = head.slots.nextFree(head.next + 1, end);
+            if (head.next >= 0) heads.add(head);
+        }
+        return found;
+    }
+
+    /**
+     * Moves the window forward to {@code newStart}, clearing the days that fall out of it so their
+     * ring positions come back empty for the days that enter it. The caller then loads those days.
+     */
+    public synchronized void advanceTo(long newStart) {
+        long oldStart = windowStart;
+        if (newStart <= oldStart) return;
+        long expired = Math.min(newStart, oldStart + capacity);
+        providers.values().forEach(slots -> slots.clear(oldStart, expired));
+        windowStart = newStart;
+    }
+
+    private void setOpen(long providerId, long from, long to, boolean value) {
+        long start = Math.max(from, windowStart);
+        long end = Math.min(to, windowStart + capacity);
+        if (start < end) slots(providerId).setOpen(start, end, value);
+    }
+
+    private void setBooked(long providerId, long slot, boolean value) {
+        if (inWindow(slot)) slots(providerId).setBooked(slot, value);
+    }
+
+    private boolean inWindow(long slot) {
+        long window = windowStart;
+        return slot >= window && slot < window + capacity;
+    }
+
+    private ProviderSlots slots(long providerId) {
+        return providers.computeIfAbsent(providerId, id -> new ProviderSlots(capacity));
+    }
+
+    private static final class Cursor implements Comparable<Cursor> {
+        private final long providerId;
+        private final ProviderSlots slots;
+        private final int order;
+        private long next;
+
+        private Cursor(long providerId, ProviderSlots slots, long next, int order) {
+            this.providerId = providerId;
+            this.slots = slots;
+            this.next = next;
+            this.order = order;
+        }
+
+        @Override
+        public int compareTo(Cursor other) {
+            int bySlot = Long.compare(next, other.next);
+            return bySlot != 0 ? bySlot : Integer.compare(order, other.order);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.healthcare.appointment.slot;
+
+import com.healthcare.appointment.repository.SlotSnapshotRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the {@link SlotIndex} from Postgres and keeps it current.
+ *
+ * <ul>
+ *   <li>At startup, one snapshot read of the whole window; the service reports ready only after it.</li>
+ *   <li>Every {@code appointment.index.refresh-interval-ms}, the availability and appointment rows
+ *       changed since the last snapshot (less {@code appointment.index.refresh-overlap}, for
+ *       transactions that committed late) mark per-provider ranges that are re-read and replaced.
+ *       This reconciles anything the Kafka events missed or applied out of order.</li>
+ *   <li>When the UTC day changes, the window moves forward and the day entering it is loaded.</li>
+ * </ul>
+ */
+@Component
+public class SlotIndexLoader {
+    private static final Logger log = LoggerFactory.getLogger(SlotIndexLoader.class);
+
+    private final SlotIndex slotIndex;
+    private final SlotSnapshotRepository snapshots;
+    private final SlotEventListener slotEventListener;
+    private final Duration refreshOverlap;
+    private final Duration replayMargin;
+    private final boolean eventsEnabled;
+    private volatile Instant watermark;
+
+    public SlotIndexLoader(SlotIndex slotIndex,
+                           SlotSnapshotRepository snapshots,
+                           SlotEventListener slotEventListener,
+                           MeterRegistry meterRegistry,
+                           @Value("${appointment.index.refresh-overlap:1m}") Duration refreshOverlap,
+                           @Value("${appointment.index.events.replay-margin:1m}") Duration replayMargin,
+                           @Value("${appointment.index.events.enabled:true}") boolean eventsEnabled) {
+        this.slotIndex = slotIndex;
+        this.snapshots = snapshots;
+        this.slotEventListener = slotEventListener;
+        this.refreshOverlap = refreshOverlap;
+        this.replayMargin = replayMargin;
+        this.eventsEnabled = eventsEnabled;
+        Gauge.builder("appointment.slot.index.providers", slotIndex, SlotIndex::providerCount)
+                .description("Providers held in the in-memory slot index")
+                .register(meterRegistry);
+        Gauge.builder("appointment.slot.index.staleness", this, SlotIndexLoader::stalenessSeconds)
+                .description("Seconds since the snapshot the slot index was last reconciled with")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        load();
+        if (eventsEnabled) slotEventListener.start(watermark.minus(replayMargin));
+    }
+
+    /**
+     * Rebuilds the whole index from a single snapshot.
+     */
+    public synchronized void load() {
+        long started = System.nanoTime();
+        slotIndex.reset(Slots.dayOf(Slots.of(Instant.now())));
+        Instant snapshot = snapshots.streamWindow(Slots.startOf(slotIndex.windowStart()),
+                Slots.startOf(slotIndex.windowEnd()), new IndexRows());
+        watermark = snapshot;
+        slotIndex.markReady();
+        log.info("Slot index loaded: {} providers in {} ms", slotIndex.providerCount(),
+                Duration.ofNanos(System.nanoTime() - started).toMillis());
+    }
+
+    @Scheduled(fixedDelayString = "${appointment.index.refresh-interval-ms:30000}",
+            initialDelayString = "${appointment.index.refresh-interval-ms:30000}")
+    public synchronized void refresh() {
+        if (!slotIndex.isReady()) return;
+        long today = Slots.dayOf(Slots.of(Instant.now()));
+        if (today > slotIndex.windowStart()) roll(today);
+        ChangedRanges changed = new ChangedRanges();
+        Instant snapshot = snapshots.streamChangedSince(watermark.minus(refreshOverlap), changed);
+        changed.ranges.forEach((providerId, range) -> {
+            long from = Math.max(range[0], slotIndex.windowStart());
+            long to = Math.min(range[1], slotIndex.windowEnd());
+            if (from < to) reload(providerId, from, to);
+        });
+        watermark = snapshot;
+    }
+
+    private void roll(long today) {
+        long previousEnd = slotIndex.windowEnd();
+        if (today >= previousEnd) {
+            load();
+            return;
+        }
+        slotIndex.advanceTo(today);
+        snapshots.streamWindow(Slots.startOf(previousEnd), Slots.startOf(slotIndex.windowEnd()), new IndexRows());
+        log.info("Slot index window moved to {}", Slots.startOf(today));
+    }
+
+    private void reload(long providerId, long from, long to) {
+        List<long[]> open = new ArrayList<>();
+        List<Long> booked = new ArrayList<>();
+        snapshots.streamProvider(providerId, Slots.startOf(from), Slots.startOf(to), new SlotRows() {
+            @Override
+            public void availability(long id, Instant startsAt, Instant endsAt) {
+                open.add(new long[]{Slots.ceil(startsAt), Slots.of(endsAt)});
+            }
+
+            @Override
+            public void booking(long id, Instant slotStart) {
+                booked.add(Slots.of(slotStart));
+            }
+        });
+        long[] ranges = new long[open.size() * 2];
+        for (int i = 0; i < open.size(); i++) {
+            ranges[2 * i] = open.get(i)[0];
+            ranges[2 * i + 1] = open.get(i)[1];
+        }
+        slotIndex.replace(providerId, from, to, ranges, booked.stream().mapToLong(Long::longValue).toArray());
+    }
+
+    private double stalenessSeconds() {
+        Instant last = watermark;
+        return last == null ? Double.NaN : Duration.between(last, Instant.now()).toMillis() / 1000.0;
+    }
+
+    /**
+     * Applies streamed rows straight to the index.
+     */
+    private final class IndexRows implements SlotRows {
+        @Override
+        public void availability(long providerId, Instant startsAt, Instant endsAt) {
+            slotIndex.open(providerId, Slots.ceil(startsAt), Slots.of(endsAt));
+        }
+
+        @Override
+        public void booking(long providerId, Instant slotStart) {
+            slotIndex.book(providerId, Slots.of(slotStart));
+        }
+    }
+
+    /**
+     * Collapses changed rows into one {@code [from, to)} slot range per provider.
+     */
+    private static final class ChangedRanges implements SlotRows {
+        private final Map<Long, long[]> ranges = new HashMap<>();
+
+        @Override
+        public void availability(long providerId, Instant startsAt, Instant endsAt) {
+            touch(providerId, Slots.of(startsAt), Slots.ceil(endsAt));
+        }
+
+        @Override
+        public void booking(long providerId, Instant slotStart) {
+            long slot = Slots.of(slotStart);
+            touch(providerId, slot, slot + 1);
+        }
+
+        private void touch(long providerId, long from, long to) {
+            long[] range = ranges.computeIfAbsent(providerId, id -> new long[]{from, to});
+            range[0] = Math.min(range[0], from);
+            range[1] = Math.max(range[1], to);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.healthcare.appointment.slot;
+
+import java.time.Instant;
+
+/**
+ * Receives availability and booking rows as {@code SlotSnapshotRepository} streams them.
+ */
+public interface SlotRows {
+
+    void availability(long providerId, Instant startsAt, Instant endsAt);
+
+    void booking(long providerId, Instant slotStart);
+}
@@ -0,0 +1,48 @@
+package com.healthcare.appointment.slot;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Slot arithmetic. Time is cut into fixed 15-minute slots numbered from the epoch, so a slot number
+ * identifies the same instant on every replica and in every time zone.
+ */
+public final class Slots {
+    public static final Duration LENGTH = Duration.ofMinutes(15);
+    public static final int PER_DAY = 96;
+
+    private static final long SECONDS = LENGTH.toSeconds();
+
+    private Slots() {
+    }
+
+    /**
+     * The slot containing {@code instant}.
+     */
+    public static long of(Instant instant) {
+        return Math.floorDiv(instant.getEpochSecond(), SECONDS);
+    }
+
+    /**
+     * The first slot starting at or after {@code instant}.
+     */
+    public static long ceil(Instant instant) {
+        long slot = of(instant);
+        return startOf(slot).equals(instant) ? slot : slot + 1;
+    }
+
+    public static Instant startOf(long slot) {
+        return Instant.ofEpochSecond(slot * SECONDS);
+    }
+
+    public static boolean isAligned(Instant instant) {
+        return startOf(of(instant)).equals(instant);
+    }
+
+    /**
+     * First slot of the UTC day containing {@code slot}.
+     */
+    public static long dayOf(long slot) {
+        return Math.floorDiv(slot, PER_DAY) * PER_DAY;
+    }
+}
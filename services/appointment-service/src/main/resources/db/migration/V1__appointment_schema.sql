@@ -0,0 +1,36 @@
+CREATE TABLE providers (
+    id         BIGSERIAL PRIMARY KEY,
+    name       VARCHAR(200) NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+-- Soft-deleted so the slot index refresh sees removals through updated_at.
+CREATE TABLE provider_availability (
+    id          BIGSERIAL PRIMARY KEY,
+    provider_id BIGINT NOT NULL REFERENCES providers (id),
+    starts_at   TIMESTAMPTZ NOT NULL,
+    ends_at     TIMESTAMPTZ NOT NULL,
+    deleted     BOOLEAN NOT NULL DEFAULT FALSE,
+    updated_at  TIMESTAMPTZ NOT NULL DEFAULT now(),
+    CONSTRAINT provider_availability_range CHECK (ends_at > starts_at)
+);
+
+CREATE INDEX provider_availability_provider_ends ON provider_availability (provider_id, ends_at) WHERE NOT deleted;
+CREATE INDEX provider_availability_ends ON provider_availability (ends_at) WHERE NOT deleted;
+CREATE INDEX provider_availability_updated_at ON provider_availability (updated_at);
+
+CREATE TABLE appointments (
+    id          BIGSERIAL PRIMARY KEY,
+    provider_id BIGINT NOT NULL REFERENCES providers (id),
+    patient_id  VARCHAR(64) NOT NULL,
+    slot_start  TIMESTAMPTZ NOT NULL,
+    status      VARCHAR(16) NOT NULL,
+    version     BIGINT NOT NULL DEFAULT 0,
+    created_at  TIMESTAMPTZ NOT NULL DEFAULT now(),
+    updated_at  TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+-- The booking arbiter: one BOOKED row per provider slot, however many replicas race for it.
+CREATE UNIQUE INDEX appointments_booked_slot ON appointments (provider_id, slot_start) WHERE status = 'BOOKED';
+CREATE INDEX appointments_booked_slot_start ON appointments (slot_start) WHERE status = 'BOOKED';
+CREATE INDEX appointments_updated_at ON appointments (updated_at);
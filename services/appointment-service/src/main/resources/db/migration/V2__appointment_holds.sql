@@ -0,0 +1,4 @@
+-- Set on appointments confirmed from a Redis slot hold; unique so a confirmation retried after a
+-- crash inserts nothing the second time.
+ALTER TABLE appointments ADD COLUMN hold_id UUID;
+CREATE UNIQUE INDEX appointments_hold_id ON appointments (hold_id) WHERE hold_id IS NOT NULL;
@@ -0,0 +1,21 @@
+-- Moves a live hold to CONFIRMING and queues it for the batched insert. The slot key is kept (and
+-- its TTL extended to the confirm timeout) so nobody else can hold the slot meanwhile.
+-- KEYS: slot, hold, expiring, queue   ARGV: holdId, confirmTimeoutMillis, deadlineMillis, retentionMillis
+local hold = redis.call('HMGET', KEYS[2], 'status', 'providerId', 'slot', 'patientId')
+if not hold[1] then
+    return 'UNKNOWN'
+end
+if hold[1] ~= 'HELD' then
+    return hold[1]
+end
+if redis.call('GET', KEYS[1]) ~= ARGV[1] then
+    redis.call('HSET', KEYS[2], 'status', 'EXPIRED')
+    redis.call('ZREM', KEYS[3], ARGV[1])
+    return 'EXPIRED'
+end
+redis.call('HSET', KEYS[2], 'status', 'CONFIRMING')
+redis.call('PEXPIRE', KEYS[1], ARGV[2])
+redis.call('PEXPIRE', KEYS[2], tonumber(ARGV[2]) + tonumber(ARGV[4]))
+redis.call('ZADD', KEYS[3], ARGV[3], ARGV[1])
+redis.call('LPUSH', KEYS[4], ARGV[1] .. ' ' .. hold[2] .. ' ' .. hold[3] .. ' ' .. hold[4])
+return 'CONFIRMING'
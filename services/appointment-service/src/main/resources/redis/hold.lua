@@ -0,0 +1,11 @@
+-- Takes a slot for a new hold. One SET NX per slot key: of any number of concurrent callers exactly
+-- one wins, and the slot frees itself when the TTL lapses unless the hold is confirmed first.
+-- KEYS: slot, hold, expiring   ARGV: holdId, providerId, slot, patientId, ttlMillis, expiresAtMillis, retentionMillis
+if not redis.call('SET', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[5]) then
+    return 'TAKEN'
+end
+redis.call('HSET', KEYS[2], 'providerId', ARGV[2], 'slot', ARGV[3], 'patientId', ARGV[4],
+        'status', 'HELD', 'expiresAt', ARGV[6])
+redis.call('PEXPIRE', KEYS[2], tonumber(ARGV[5]) + tonumber(ARGV[7]))
+redis.call('ZADD', KEYS[3], ARGV[6], ARGV[1])
+return 'HELD'
@@ -0,0 +1,28 @@
+-- Settles a hold whose deadline has passed. A HELD hold expires (its slot key has normally lapsed
+-- already); a CONFIRMING one was dequeued by a worker that never settled it, so it is queued again.
+-- Running it twice for the same deadline does nothing the second time.
+-- KEYS: slot, hold, expiring, queue   ARGV: holdId, nowMillis, confirmTimeoutMillis, deadlineMillis, retentionMillis
+local due = redis.call('ZSCORE', KEYS[3], ARGV[1])
+if not due or tonumber(due) > tonumber(ARGV[2]) then
+    return 'NOT_DUE'
+end
+local hold = redis.call('HMGET', KEYS[2], 'status', 'providerId', 'slot', 'patientId')
+if hold[1] == 'CONFIRMING' then
+    if redis.call('GET', KEYS[1]) == ARGV[1] then
+        redis.call('PEXPIRE', KEYS[1], ARGV[3])
+    end
+    redis.call('PEXPIRE', KEYS[2], tonumber(ARGV[3]) + tonumber(ARGV[5]))
+    redis.call('ZADD', KEYS[3], ARGV[4], ARGV[1])
+    redis.call('LPUSH', KEYS[4], ARGV[1] .. ' ' .. hold[2] .. ' ' .. hold[3] .. ' ' .. hold[4])
+    return 'REQUEUED'
+end
+redis.call('ZREM', KEYS[3], ARGV[1])
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    redis.call('DEL', KEYS[1])
+end
+if hold[1] == 'HELD' then
+    redis.call('HSET', KEYS[2], 'status', 'EXPIRED')
+    redis.call('PEXPIRE', KEYS[2], ARGV[5])
+    return 'EXPIRED'
+end
+return hold[1] or 'UNKNOWN'
@@ -0,0 +1,13 @@
+-- Gives up a hold that has not been confirmed.
+-- KEYS: slot, hold, expiring   ARGV: holdId, retentionMillis
+local status = redis.call('HGET', KEYS[2], 'status')
+if status ~= 'HELD' then
+    return status or 'UNKNOWN'
+end
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    redis.call('DEL', KEYS[1])
+end
+redis.call('HSET', KEYS[2], 'status', 'RELEASED')
+redis.call('PEXPIRE', KEYS[2], ARGV[2])
+redis.call('ZREM', KEYS[3], ARGV[1])
+return 'RELEASED'
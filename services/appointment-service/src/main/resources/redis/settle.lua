@@ -0,0 +1,13 @@
+-- Records the outcome of a confirmation and gives the slot key up: from here on Postgres and the
+-- slot index say whether the slot is taken.
+-- KEYS: slot, hold, expiring   ARGV: holdId, outcome, appointmentId, retentionMillis
+if redis.call('HGET', KEYS[2], 'status') == 'CONFIRMED' then
+    return 'CONFIRMED'
+end
+redis.call('HSET', KEYS[2], 'status', ARGV[2], 'appointmentId', ARGV[3])
+redis.call('PEXPIRE', KEYS[2], ARGV[4])
+redis.call('ZREM', KEYS[3], ARGV[1])
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    redis.call('DEL', KEYS[1])
+end
+return ARGV[2]
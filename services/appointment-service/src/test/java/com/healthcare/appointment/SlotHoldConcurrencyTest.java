@@ -0,0 +1,189 @@
+package com.healthcare.appointment;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Clients racing for a few slots through both hold-and-confirm and direct booking must never book
+ * a slot twice, and every hold reported CONFIRMED must own the appointment it was told about.
+ * The opening rush of {@code SlotHoldContentionHarness} (benchmark profile) at the same client count,
+ * with fewer slots; clients back off and retry when the service sheds a call with 503. Runs against
+ * embedded Postgres and Redis; Postgres refuses to start as root.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.kafka.bootstrap-servers=localhost:9092",
+        "appointment.index.events.enabled=false"
+})
+class SlotHoldConcurrencyTest {
+    private static final int CLIENTS = 2000;
+    private static final int PROVIDERS = 3;
+    private static final int SLOTS_PER_PROVIDER = 2;
+
+    private static EmbeddedPostgres postgres;
+    private static RedisServer redis;
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @DynamicPropertySource
+    static void infrastructure(DynamicPropertyRegistry registry) throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+        int redisPort = freePort();
+        redis = new RedisServer(redisPort);
+        redis.start();
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+        registry.add("spring.data.redis.host", () -> "localhost");
+        registry.add("spring.data.redis.port", () -> redisPort);
+    }
+
+    @AfterAll
+    static void stopInfrastructure() throws IOException {
+        if (redis != null) redis.stop();
+        if (postgres != null) postgres.close();
+    }
+
+    @Test
+    @Timeout(600)
+    void racingClientsNeverDoubleBookASlot() throws InterruptedException {
+        String providers = seedProviders();
+        Map<Long, String> appointmentOwners = new ConcurrentHashMap<>();
+        Map<String, Long> confirmedHolds = new ConcurrentHashMap<>();
+        List<Throwable> failures = new ArrayList<>();
+        CountDownLatch go = new CountDownLatch(1);
+        List<Thread> clients = new ArrayList<>();
+        for (int c = 0; c < CLIENTS; c++) {
+            String patientId = "patient-" + c;
+            boolean direct = c % 4 == 0;
+            Thread client = new Thread(() -> {
+                try {
+                    go.await();
+                    reserve(patientId, providers, direct, appointmentOwners, confirmedHolds);
+                } catch (Throwable e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                }
+            }, patientId);
+            client.start();
+            clients.add(client);
+        }
+        go.countDown();
+        for (Thread client : clients) client.join();
+
+        assertThat(failures).isEmpty();
+        assertThat(jdbc.queryForList("SELECT provider_id, slot_start FROM appointments WHERE status = 'BOOKED' "
+                + "GROUP BY provider_id, slot_start HAVING count(*) > 1")).as("double-booked slots").isEmpty();
+        List<Map<String, Object>> booked = jdbc.queryForList("SELECT id, patient_id, hold_id FROM appointments WHERE status = 'BOOKED'");
+        assertThat(booked).hasSize(PROVIDERS * SLOTS_PER_PROVIDER);
+        for (Map<String, Object> row : booked) {
+            long id = ((Number) row.get("id")).longValue();
+            assertThat(row.get("patient_id")).as("owner of appointment %d", id).isEqualTo(appointmentOwners.get(id));
+            if (row.get("hold_id") != null) {
+                assertThat(confirmedHolds.get(row.get("hold_id").toString())).as("hold of appointment %d", id).isEqualTo(id);
+            }
+        }
+        assertThat(appointmentOwners).hasSameSizeAs(booked);
+    }
+
+    private String seedProviders() {
+        Instant opens = Instant.now().plus(1, ChronoUnit.DAYS).truncatedTo(ChronoUnit.HOURS);
+        List<String> ids = new ArrayList<>();
+        for (int p = 0; p < PROVIDERS; p++) {
+            long id = rest.postForObject("/api/v1/providers", Map.of("name", "Provider " + p), JsonNode.class).get("id").asLong();
+            rest.postForObject("/api/v1/providers/" + id + "/availability", Map.of(
+                    "startsAt", opens.toString(),
+                    "endsAt", opens.plus(Duration.ofMinutes(15L * SLOTS_PER_PROVIDER)).toString()), JsonNode.class);
+            ids.add(String.valueOf(id));
+        }
+        return String.join(",", ids);
+    }
+
+    // Tries free slots at random until the client has an appointment or none are left.
+    private void reserve(String patientId, String providers, boolean direct,
+                         Map<Long, String> appointmentOwners, Map<String, Long> confirmedHolds) throws InterruptedException {
+        while (true) {
+            JsonNode free = retried(() -> rest.getForEntity("/api/v1/slots/next?count=20&providerIds=" + providers, JsonNode.class)).getBody();
+            if (free.isEmpty()) return;
+            JsonNode slot = free.get(ThreadLocalRandom.current().nextInt(free.size()));
+            Map<String, Object> request = Map.of("providerId", slot.get("providerId").asLong(),
+                    "patientId", patientId, "slotStart", slot.get("startsAt").asText());
+            if (direct) {
+                ResponseEntity<JsonNode> booked = retried(() -> rest.postForEntity("/api/v1/appointments", request, JsonNode.class));
+                if (booked.getStatusCode() == HttpStatus.CREATED) {
+                    appointmentOwners.put(booked.getBody().get("id").asLong(), patientId);
+                    return;
+                }
+                continue;
+            }
+            ResponseEntity<JsonNode> held = retried(() -> rest.postForEntity("/api/v1/holds", request, JsonNode.class));
+            if (held.getStatusCode() != HttpStatus.CREATED) continue;
+            String holdId = held.getBody().get("holdId").asText();
+            retried(() -> rest.postForEntity("/api/v1/holds/" + holdId + "/confirm", Map.of(), JsonNode.class));
+            JsonNode outcome = awaitSettled(holdId);
+            if ("CONFIRMED".equals(outcome.get("status").asText())) {
+                long appointmentId = outcome.get("appointmentId").asLong();
+                confirmedHolds.put(holdId, appointmentId);
+                appointmentOwners.put(appointmentId, patientId);
+                return;
+            }
+        }
+    }
+
+    private JsonNode awaitSettled(String holdId) throws InterruptedException {
+        while (true) {
+            JsonNode hold = retried(() -> rest.getForEntity("/api/v1/holds/" + holdId, JsonNode.class)).getBody();
+            String status = hold.get("status").asText();
+            if (!"HELD".equals(status) && !"CONFIRMING".equals(status)) return hold;
+            Thread.sleep(20);
+        }
+    }
+
+    private static ResponseEntity<JsonNode> retried(Supplier<ResponseEntity<JsonNode>> call) throws InterruptedException {
+        ResponseEntity<JsonNode> response;
+        while ((response = call.get()).getStatusCode() == HttpStatus.SERVICE_UNAVAILABLE) {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(50, 250));
+        }
+        return response;
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package com.healthcare.billing.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.Application;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Month-end billing against embedded Postgres, with the service in a child JVM so it can be killed.
+ * <p>
+ * {@code harness.encounters} (1,000,000) synthetic encounters of {@code harness.patients} (250,000)
+ * patients are generated for September 2026, a seventh of them self-pay and the rest spread over
+ * twenty payers, and the month is billed with {@code harness.partitions} (64) partitions; encounters
+ * and invoices per second are reported from submission to completion. The first few thousand
+ * encounters go through the ingest endpoint, twice, to check a resent batch is ignored.
+ * <p>
+ * Then {@code harness.resume-encounters} (300,000) are generated for August, its run is started and
+ * the service is killed with SIGKILL once {@code harness.crash-after} (16) partitions are done. The
+ * invoices on disk must match the DONE partitions exactly; a new service instance must resume the
+ * run on startup and complete it. Both months are audited against the encounters: one invoice per
+ * patient, one claim per insured encounter, and charges, claims and patient balances adding up.
+ * Submitting a completed month again must change nothing. Exits non-zero on any violation.
+ * Postgres refuses to run as root, so neither may the harness.
+ */
+public final class MonthEndBillingHarness {
+    private static final ObjectMapper MAPPER = Jackson2ObjectMapperBuilder.json().build();
+    private static final int PAYERS = 20;
+    private static final int INGESTED = 5_000;
+    private static final LocalDate BENCHMARK_MONTH = LocalDate.of(2026, 9, 1);
+    private static final LocalDate RESUME_MONTH = LocalDate.of(2026, 8, 1);
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    private final EmbeddedPostgres postgres;
+    private final int port;
+    private final List<String> violations = new ArrayList<>();
+    private final List<Long> payerIds = new ArrayList<>();
+
+    private MonthEndBillingHarness(EmbeddedPostgres postgres, int port) {
+        this.postgres = postgres;
+        this.port = port;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int encounters = Integer.getInteger("harness.encounters", 1_000_000);
+        int patients = Integer.getInteger("harness.patients", 250_000);
+        int partitions = Integer.getInteger("harness.partitions", 64);
+        int resumeEncounters = Integer.getInteger("harness.resume-encounters", 300_000);
+        int crashAfter = Integer.getInteger("harness.crash-after", 16);
+
+        List<String> violations;
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start()) {
+            MonthEndBillingHarness harness = new MonthEndBillingHarness(postgres, freePort());
+            Process service = harness.startService();
+            try {
+                harness.seedPayers();
+                harness.ingestThroughApi(Math.min(INGESTED, encounters), patients);
+                long started = System.nanoTime();
+                harness.generate(BENCHMARK_MONTH, "sep-", Math.min(INGESTED, encounters), encounters, patients);
+                System.out.printf("generated %,d encounters of %,d patients in %d ms%n", encounters, patients,
+                        (System.nanoTime() - started) / 1_000_000);
+                harness.benchmark(partitions);
+
+                harness.generate(RESUME_MONTH, "aug-", 0, resumeEncounters, patients);
+                long runId = harness.submit(RESUME_MONTH, partitions).get("id").asLong();
+                harness.awaitPartitions(runId, crashAfter);
+                service.destroyForcibly().waitFor();
+                harness.checkCheckpoint(runId);
+                service = harness.startService();
+                JsonNode resumed = harness.awaitCompletion(runId);
+                System.out.printf("resumed after a kill: %s with %d of %d partitions done, %,d invoices%n",
+                        resumed.get("status").asText(), resumed.get("partitionsDone").asInt(), partitions,
+                        resumed.get("invoices").asLong());
+                harness.audit(runId, RESUME_MONTH);
+                harness.resubmit(RESUME_MONTH, resumed);
+            } finally {
+                service.destroyForcibly().waitFor();
+            }
+            violations = harness.violations;
+        }
+        violations.forEach(violation -> System.out.println("VIOLATION: " + violation));
+        System.out.println(violations.isEmpty() ? "Every encounter billed exactly once." : violations.size() + " violations");
+        System.exit(violations.isEmpty() ? 0 : 1);
+    }
+
+    private void benchmark(int partitions) throws Exception {
+        long started = System.nanoTime();
+        long runId = submit(BENCHMARK_MONTH, partitions).get("id").asLong();
+        JsonNode run = awaitCompletion(runId);
+        double seconds = (System.nanoTime() - started) / 1e9;
+        long encounters = run.get("encounters").asLong();
+        long invoices = run.get("invoices").asLong();
+        long claims = run.get("claims").asLong();
+        System.out.printf("billed %s: %,d encounters -> %,d invoices, %,d claims in %.1f s%n",
+                run.get("period").asText(), encounters, invoices, claims, seconds);
+        System.out.printf("%,.0f encounters/s  %,.0f invoices/s  %,.0f claims/s%n",
+                encounters / seconds, invoices / seconds, claims / seconds);
+        audit(runId, BENCHMARK_MONTH);
+        resubmit(BENCHMARK_MONTH, run);
+    }
+
+    private Process startService() throws Exception {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        List<String> command = new ArrayList<>(List.of(java, "-Xmx1g", "-cp", System.getProperty("java.class.path"),
+                Application.class.getName()));
+        // Passed as command-line arguments so they override application.yml.
+        command.addAll(List.of(
+                "--server.port=" + port,
+                "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--logging.level.com.healthcare.billing=INFO"));
+        Process process = new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.INHERIT)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .directory(new File(System.getProperty("user.dir")))
+                .start();
+        long deadline = System.nanoTime() + Duration.ofMinutes(2).toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) throw new IllegalStateException("billing-service exited with " + process.exitValue());
+            try {
+                if (exchange(get("/actuator/health")).statusCode() == 200) return process;
+            } catch (IllegalStateException e) {
+                // Not listening yet.
+            }
+            Thread.sleep(250);
+        }
+        process.destroyForcibly();
+        throw new IllegalStateException("billing-service did not start");
+    }
+
+    private void seedPayers() {
+        for (int p = 0; p < PAYERS; p++) {
+            payerIds.add(send(post("/api/v1/billing/payers", Map.of(
+                    "name", "Payer " + p,
+                    "coverageBp", 6000 + 200 * p,
+                    "copayCents", 500L * (p % 5)))).get("id").asLong());
+        }
+    }
+
+    /**
+     * Sends the first encounters of the benchmark month through the API, then sends the same batch
+     * again, which must insert nothing.
+     */
+    private void ingestThroughApi(int count, int patients) {
+        List<Map<String, Object>> batch = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Long payerId = i % 7 == 0 ? null : payerIds.get(i % PAYERS);
+            Map<String, Object> encounter = new HashMap<>();
+            encounter.put("encounterRef", "sep-" + i);
+            encounter.put("patientId", "patient-" + (i * 7919L % patients));
+            encounter.put("payerId", payerId);
+            encounter.put("providerId", 1 + i % 500);
+            encounter.put("serviceDate", BENCHMARK_MONTH.plusDays(i % 30).toString());
+            encounter.put("procedureCode", "99" + (211 + i % 5));
+            encounter.put("units", 1 + i % 3);
+            encounter.put("unitPriceCents", 5_000 + (i * 37L % 20_000));
+            batch.add(encounter);
+        }
+        int inserted = send(post("/api/v1/billing/encounters", Map.of("encounters", batch))).get("inserted").asInt();
+        int again = send(post("/api/v1/billing/encounters", Map.of("encounters", batch))).get("inserted").asInt();
+        if (inserted != count) violations.add("ingest inserted " + inserted + " of " + count + " encounters");
+        if (again != 0) violations.add("resending an ingested batch inserted " + again + " encounters");
+    }
+
+    /**
+     * Generates encounters {@code [from, to)} of the month in one statement, from a fixed seed.
+     */
+    private void generate(LocalDate month, String refPrefix, int from, int to, int patients) throws Exception {
+        try (Connection connection = postgres.getPostgresDatabase().getConnection()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SELECT setseed(0.21)");
+            }
+            try (PreparedStatement insert = connection.prepareStatement("""
+                    INSERT INTO encounters (encounter_ref, patient_id, payer_id, provider_id, service_date, procedure_code,
+                                            units, unit_price_cents, billing_period)
+                    SELECT ? || g, 'patient-' || floor(random() * ?)::int,
+                           CASE WHEN g % 7 = 0 THEN NULL ELSE (?::bigint[])[1 + g % ?] END,
+                           1 + floor(random() * 500)::int,
+                           ?::date + floor(random() * extract(day FROM (?::date + interval '1 month' - interval '1 day')))::int,
+                           '99' || (211 + floor(random() * 5)::int), 1 + floor(random() * 3)::int,
+                           5000 + floor(random() * 20000)::int, ?::date
+                    FROM generate_series(?, ? - 1) AS g""")) {
+                insert.setString(1, refPrefix);
+                insert.setInt(2, patients);
+                insert.setArray(3, connection.createArrayOf("bigint", payerIds.toArray()));
+                insert.setInt(4, PAYERS);
+                insert.setObject(5, month);
+                insert.setObject(6, month);
+                insert.setObject(7, month);
+                insert.setInt(8, from);
+                insert.setInt(9, to);
+                insert.executeUpdate();
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ANALYZE encounters");
+            }
+        }
+    }
+
+    private JsonNode submit(LocalDate month, int partitions) {
+        return send(post("/api/v1/billing/runs", Map.of("period", month.toString().substring(0, 7), "partitions", partitions)));
+    }
+
+    private void awaitPartitions(long runId, int partitionsDone) throws InterruptedException {
+        while (true) {
+            JsonNode run = send(get("/api/v1/billing/runs/" + runId));
+            if (run.get("partitionsDone").asInt() >= partitionsDone) return;
+            if (!"RUNNING".equals(run.get("status").asText())) {
+                throw new IllegalStateException("Run " + runId + " ended before the crash: " + run);
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    private JsonNode awaitCompletion(long runId) throws InterruptedException {
+        while (true) {
+            JsonNode run = send(get("/api/v1/billing/runs/" + runId));
+            String status = run.get("status").asText();
+            if ("COMPLETED".equals(status)) return run;
+            if ("FAILED".equals(status)) {
+                violations.add("run " + runId + " failed: " + run);
+                return run;
+            }
+            Thread.sleep(100);
+        }
+    }
+
+    /**
+     * After a kill, exactly the DONE partitions' invoices and claims may be on disk.
+     */
+    private void checkCheckpoint(long runId) throws Exception {
+        try (Connection connection = postgres.getPostgresDatabase().getConnection();
+             PreparedStatement statement = connection.prepareStatement("""
+                     SELECT (SELECT count(*) FILTER (WHERE status = 'DONE') FROM billing_run_partitions WHERE run_id = ?),
+                            (SELECT coalesce(sum(invoices), 0) FROM billing_run_partitions WHERE run_id = ? AND status = 'DONE'),
+                            (SELECT count(*) FROM invoices WHERE run_id = ?),
+                            (SELECT coalesce(sum(claims), 0) FROM billing_run_partitions WHERE run_id = ? AND status = 'DONE'),
+                            (SELECT count(*) FROM claims WHERE run_id = ?)""")) {
+            for (int i = 1; i <= 5; i++) statement.setLong(i, runId);
+            try (ResultSet rs = statement.executeQuery()) {
+                rs.next();
+                System.out.printf("killed with %d partitions done: %,d invoices and %,d claims on disk%n",
+                        rs.getInt(1), rs.getLong(3), rs.getLong(5));
+                if (rs.getLong(2) != rs.getLong(3)) {
+                    violations.add("after the kill, " + rs.getLong(3) + " invoices on disk but DONE partitions account for " + rs.getLong(2));
+                }
+                if (rs.getLong(4) != rs.getLong(5)) {
+                    violations.add("after the kill, " + rs.getLong(5) + " claims on disk but DONE partitions account for " + rs.getLong(4));
+                }
+            }
+        }
+    }
+
+    private void audit(long runId, LocalDate month) throws Exception {
+        try (Connection connection = postgres.getPostgresDatabase().getConnection();
+             PreparedStatement statement = connection.prepareStatement("""
+                     WITH e AS (SELECT * FROM encounters WHERE billing_period = ?)
+                     SELECT (SELECT count(DISTINCT patient_id) FROM e),
+                            (SELECT count(*) FROM invoices WHERE run_id = ?),
+                            (SELECT count(*) FROM e WHERE payer_id IS NOT NULL),
+                            (SELECT count(*) FROM claims WHERE run_id = ?),
+                            (SELECT sum(units * unit_price_cents) FROM e),
+                            (SELECT sum(charges_cents) FROM invoices WHERE run_id = ?),
+                            (SELECT sum(claimed_cents) FROM claims WHERE run_id = ?),
+                            (SELECT sum(insurance_cents) FROM invoices WHERE run_id = ?),
+                            (SELECT count(*) FROM invoices WHERE run_id = ? AND charges_cents <> insurance_cents + patient_due_cents),
+                            (SELECT count(*) FROM e LEFT JOIN claims c ON c.encounter_id = e.id
+                             WHERE e.payer_id IS NOT NULL AND c.id IS NULL)""")) {
+            statement.setObject(1, month);
+            for (int i = 2; i <= 7; i++) statement.setLong(i, runId);
+            try (ResultSet rs = statement.executeQuery()) {
+                rs.next();
+                expect(month + " invoices", rs.getLong(1), rs.getLong(2));
+                expect(month + " claims", rs.getLong(3), rs.getLong(4));
+                expect(month + " invoiced charges", rs.getLong(5), rs.getLong(6));
+                expect(month + " insurance on invoices", rs.getLong(7), rs.getLong(8));
+                expect(month + " invoices not adding up", 0, rs.getLong(9));
+                expect(month + " insured encounters without a claim", 0, rs.getLong(10));
+            }
+        }
+    }
+
+    /**
+     * Submitting a completed month again must return the same run and bill nothing more.
+     */
+    private void resubmit(LocalDate month, JsonNode completed) {
+        JsonNode again = submit(month, 8);
+        if (again.get("id").asLong() != completed.get("id").asLong()
+                || !"COMPLETED".equals(again.get("status").asText())
+                || again.get("invoices").asLong() != completed.get("invoices").asLong()) {
+            violations.add("resubmitting " + month + " changed its run: " + again);
+        }
+    }
+
+    private void expect(String what, long expected, long actual) {
+        if (expected != actual) violations.add(what + ": expected " + expected + ", found " + actual);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private JsonNode send(HttpRequest request) {
+        HttpResponse<byte[]> response = exchange(request);
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException(request.method() + " " + request.uri() + " returned HTTP " + response.statusCode()
+                    + ": " + new String(response.body()));
+        }
+        try {
+            return MAPPER.readTree(response.body());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private HttpResponse<byte[]> exchange(HttpRequest request) {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            throw new IllegalStateException(request.method() + " " + request.uri() + " failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build();
+    }
+
+    private HttpRequest post(String path, Object body) {
+        try {
+            return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(MAPPER.writeValueAsBytes(body)))
+                    .build();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.healthcare.billing.batch;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+/**
+ * Loads a partition's invoices and claims with {@code COPY FROM STDIN} on the caller's transaction:
+ * one streamed statement per table instead of a round trip or a bound statement per batch of rows.
+ * COPY cannot skip conflicting rows, so a partition that was already billed fails on the unique keys
+ * instead of being billed twice.
+ */
+@Component
+public class BillingCopyWriter {
+    private static final String COPY_INVOICES = """
+            COPY invoices (run_id, patient_id, period, encounters, charges_cents, insurance_cents, patient_due_cents)
+            FROM STDIN""";
+    private static final String COPY_CLAIMS = """
+            COPY claims (run_id, encounter_id, payer_id, patient_id, charge_cents, copay_cents, claimed_cents)
+            FROM STDIN""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BillingCopyWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    void write(long runId, LocalDate period, PartitionBill bill) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+            CopyManager copyManager = con.unwrap(PGConnection.class).getCopyAPI();
+            writeInvoices(new CopyRows(copyManager.copyIn(COPY_INVOICES)), runId, period, bill);
+            writeClaims(new CopyRows(copyManager.copyIn(COPY_CLAIMS)), runId, bill);
+            return null;
+        });
+    }
+
+    private static void writeInvoices(CopyRows rows, long runId, LocalDate period, PartitionBill bill) throws SQLException {
+        try {
+            for (PartitionBill.Invoice invoice : bill.invoices()) {
+                rows.add(runId).add(invoice.patientId).add(period).add(invoice.encounters)
+                        .add(invoice.chargesCents).add(invoice.insuranceCents).add(invoice.patientDueCents())
+                        .endRow();
+            }
+            rows.finish();
+        } catch (SQLException | RuntimeException e) {
+            rows.cancel();
+            throw e;
+        }
+    }
+
+    private static void writeClaims(CopyRows rows, long runId, PartitionBill bill) throws SQLException {
+        try {
+            for (PartitionBill.Claim claim : bill.claims()) {
+                rows.add(runId).add(claim.encounterId()).add(claim.payerId()).add(claim.patientId())
+                        .add(claim.chargeCents()).add(claim.copayCents()).add(claim.claimedCents())
+                        .endRow();
+            }
+            rows.finish();
+        } catch (SQLException | RuntimeException e) {
+            rows.cancel();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.healthcare.billing.batch;
+
+import com.healthcare.billing.repository.BillingRunRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs billing runs on a fixed pool of {@code billing.batch.workers} threads. Each started run gets
+ * one task per worker; a task bills the run's partitions one after another until none is left to
+ * take, so the partitions spread over the pool, and over every replica running the same run, with
+ * no coordination beyond the partition row locks. When a run's tasks are done the run is finished,
+ * if no partition is still pending elsewhere.
+ *
+ * <p>Runs left RUNNING by a crash or a shutdown are resumed on startup, and swept for every
+ * {@code billing.batch.sweep-interval-ms} after; their DONE partitions are not billed again. On shutdown, workers stop taking partitions and those in progress get
+ * {@code billing.batch.shutdown-timeout} to commit.
+ */
+@Component
+public class BillingEngine {
+    private static final Logger log = LoggerFactory.getLogger(BillingEngine.class);
+
+    private final PartitionBiller biller;
+    private final BillingRunRepository runRepository;
+    private final int workerCount;
+    private final Duration shutdownTimeout;
+    private final ThreadPoolExecutor workers;
+    /** Runs this instance is working on, each with whether it was started again in the meantime. */
+    private final Map<Long, Boolean> active = new ConcurrentHashMap<>();
+    private final Timer partitionTimer;
+    private final Counter failedPartitions;
+    private final Counter encounters;
+    private final Counter invoices;
+    private final Counter claims;
+    private volatile boolean stopping;
+
+    public BillingEngine(PartitionBiller biller,
+                         BillingRunRepository runRepository,
+                         MeterRegistry meterRegistry,
+                         @Value("${billing.batch.workers:4}") int workerCount,
+                         @Value("${billing.batch.shutdown-timeout:30s}") Duration shutdownTimeout) {
+        this.biller = biller;
+        this.runRepository = runRepository;
+        this.workerCount = workerCount;
+        this.shutdownTimeout = shutdownTimeout;
+        AtomicInteger threads = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                runnable -> new Thread(runnable, "billing-worker-" + threads.incrementAndGet()));
+        this.partitionTimer = Timer.builder("billing.partition.duration")
+                .description("Time to bill one partition, from claiming it to commit")
+                .register(meterRegistry);
+        this.failedPartitions = meterRegistry.counter("billing.partitions.failed");
+        this.encounters = meterRegistry.counter("billing.encounters");
+        this.invoices = meterRegistry.counter("billing.invoices");
+        this.claims = meterRegistry.counter("billing.claims");
+    }
+
+    /**
+     * Starts billing the run's pending partitions. If this instance is already working on the run,
+     * it makes another pass once the current one ends, to pick up partitions put back to PENDING
+     * since its workers last looked.
+     */
+    public void start(BillingRun run) {
+        if (stopping) return;
+        boolean[] started = new boolean[1];
+        active.compute(run.id(), (id, again) -> {
+            started[0] = again == null;
+            return again != null;
+        });
+        if (!started[0]) return;
+        CompletableFuture<?>[] tasks = new CompletableFuture<?>[workerCount];
+        try {
+            for (int i = 0; i < workerCount; i++) tasks[i] = CompletableFuture.runAsync(() -> drain(run), workers);
+        } catch (RejectedExecutionException e) {
+            active.remove(run.id());
+            return;
+        }
+        CompletableFuture.allOf(tasks).whenComplete((ignored, error) -> {
+            boolean again = active.remove(run.id());
+            if (stopping) return;
+            if (again) {
+                start(run);
+            } else {
+                finish(run);
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinished() {
+        for (BillingRun run : runRepository.findRunning()) {
+            log.info("Resuming billing run {} for {}: {} of {} partitions done", run.id(), run.period(),
+                    run.partitionsDone(), run.partitions());
+            start(run);
+        }
+    }
+
+    /**
+     * Starts this instance's workers on every unfinished run again. Picks up partitions that stayed
+     * locked by a database session whose worker died after this instance's startup resume skipped
+     * them, and runs whose finishing was lost with the replica that was to finish them.
+     */
+    @Scheduled(fixedDelayString = "${billing.batch.sweep-interval-ms:60000}",
+            initialDelayString = "${billing.batch.sweep-interval-ms:60000}")
+    public void sweep() {
+        if (stopping) return;
+        for (BillingRun run : runRepository.findRunning()) start(run);
+    }
+
+    @PreDestroy
+    public void stop() {
+        stopping = true;
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Billing partitions still in progress after {}; they will be billed again on resume", shutdownTimeout);
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drain(BillingRun run) {
+        while (!stopping) {
+            long started = System.nanoTime();
+            PartitionBiller.PartitionResult result;
+            try {
+                result = biller.billNext(run);
+            } catch (PartitionBiller.PartitionFailedException e) {
+                log.error("Billing run {}: {}", run.id(), e.getMessage(), e.getCause());
+                failedPartitions.increment();
+                if (!markFailed(run, e)) return;
+                continue;
+            } catch (RuntimeException e) {
+                // Could not take a partition at all, a transient error, or the commit failed; it stays
+                // PENDING for the next sweep or resume.
+                log.warn("Billing run {} worker stopped: {}", run.id(), e.toString());
+                return;
+            }
+            if (result == null) return;
+            partitionTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            encounters.increment(result.encounters());
+            invoices.increment(result.invoices());
+            claims.increment(result.claims());
+        }
+    }
+
+    /**
+     * Records the failure so no worker takes the partition again until the run is resubmitted.
+     * Returns false if even that failed, leaving the partition PENDING.
+     */
+    private boolean markFailed(BillingRun run, PartitionBiller.PartitionFailedException e) {
+        try {
+            runRepository.failPartition(run.id(), e.partition(), String.valueOf(e.getCause()));
+            return true;
+        } catch (RuntimeException markError) {
+            log.warn("Could not mark partition {} of billing run {} failed: {}", e.partition(), run.id(), markError.toString());
+            return false;
+        }
+    }
+
+    private void finish(BillingRun run) {
+        try {
+            if (runRepository.finishIfSettled(run.id())) {
+                runRepository.findById(run.id()).ifPresent(finished -> log.info(
+                        "Billing run {} for {} {}: {} invoices and {} claims from {} encounters", finished.id(),
+                        finished.period(), finished.status(), finished.invoices(), finished.claims(), finished.encounters()));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not finish billing run {}: {}", run.id(), e.toString());
+        }
+    }
+}
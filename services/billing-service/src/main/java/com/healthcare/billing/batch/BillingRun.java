@@ -0,0 +1,22 @@
+package com.healthcare.billing.batch;
+
+import com.healthcare.billing.dto.BillingRunStatus;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * A billing run with its progress summed over its partitions.
+ */
+public record BillingRun(long id,
+                         LocalDate period,
+                         int partitions,
+                         BillingRunStatus status,
+                         Instant startedAt,
+                         Instant finishedAt,
+                         int partitionsDone,
+                         int partitionsFailed,
+                         long encounters,
+                         long invoices,
+                         long claims) {
+}
@@ -0,0 +1,25 @@
+package com.healthcare.billing.batch;
+
+/**
+ * Patients are hashed into {@link #COUNT} fixed buckets by the {@code encounters.bucket} column, and
+ * a run with {@code n} partitions gives partition {@code p} the contiguous buckets
+ * {@code [p * COUNT / n, (p + 1) * COUNT / n)}. A patient therefore lands in exactly one partition of
+ * any run, whatever its partition count.
+ */
+public final class Buckets {
+    public static final int COUNT = 1024;
+
+    private Buckets() {
+    }
+
+    public static Short[] ofPartition(int partition, int partitions) {
+        if (partitions < 1 || partitions > COUNT || partition < 0 || partition >= partitions) {
+            throw new IllegalArgumentException("No partition " + partition + " of " + partitions);
+        }
+        int from = partition * COUNT / partitions;
+        int to = (partition + 1) * COUNT / partitions;
+        Short[] buckets = new Short[to - from];
+        for (int i = 0; i < buckets.length; i++) buckets[i] = (short) (from + i);
+        return buckets;
+    }
+}
@@ -0,0 +1,78 @@
+package com.healthcare.billing.batch;
+
+import org.postgresql.copy.CopyIn;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+/**
+ * Encodes rows in {@code COPY ... FROM STDIN} text format and streams them to the server in chunks,
+ * so a partition's output never exists as one large buffer.
+ */
+final class CopyRows {
+    private static final int FLUSH_CHARS = 1 << 16;
+
+    private final CopyIn copyIn;
+    private final StringBuilder chunk = new StringBuilder(FLUSH_CHARS + 512);
+    private boolean rowStarted;
+
+    CopyRows(CopyIn copyIn) {
+        this.copyIn = copyIn;
+    }
+
+    CopyRows add(long value) {
+        separate();
+        chunk.append(value);
+        return this;
+    }
+
+    CopyRows add(Object value) {
+        separate();
+        String text = value.toString();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\' -> chunk.append("\\\\");
+                case '\t' -> chunk.append("\\t");
+                case '\n' -> chunk.append("\\n");
+                case '\r' -> chunk.append("\\r");
+                default -> chunk.append(c);
+            }
+        }
+        return this;
+    }
+
+    void endRow() throws SQLException {
+        chunk.append('\n');
+        rowStarted = false;
+        if (chunk.length() >= FLUSH_CHARS) flush();
+    }
+
+    /**
+     * Sends what is left and ends the copy. Returns the number of rows the server took.
+     */
+    long finish() throws SQLException {
+        flush();
+        return copyIn.endCopy();
+    }
+
+    void cancel() {
+        try {
+            if (copyIn.isActive()) copyIn.cancelCopy();
+        } catch (SQLException e) {
+            // The transaction is rolling back anyway.
+        }
+    }
+
+    private void separate() {
+        if (rowStarted) chunk.append('\t');
+        rowStarted = true;
+    }
+
+    private void flush() throws SQLException {
+        if (chunk.isEmpty()) return;
+        byte[] bytes = chunk.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        chunk.setLength(0);
+    }
+}
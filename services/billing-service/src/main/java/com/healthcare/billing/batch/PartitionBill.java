@@ -0,0 +1,67 @@
+package com.healthcare.billing.batch;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The invoices and claims of one partition, accumulated as its encounters stream in. Amounts are in
+ * cents. An insured encounter is claimed from its payer: the copay, at most the charge, is the
+ * patient's, and the payer is claimed its coverage share of the rest, rounded half up. A self-pay
+ * encounter is the patient's alone. Each patient gets one invoice for the period, totalling what
+ * their encounters charged, what was claimed from payers and what is left for them to pay.
+ */
+final class PartitionBill {
+    private final Map<String, Invoice> invoices = new HashMap<>();
+    private final List<Claim> claims = new ArrayList<>();
+    private int encounters;
+
+    void add(long encounterId, String patientId, Long payerId, long chargeCents, int coverageBp, long copayCents) {
+        encounters++;
+        long claimed = 0;
+        if (payerId != null) {
+            long copay = Math.min(copayCents, chargeCents);
+            claimed = ((chargeCents - copay) * coverageBp + 5_000) / 10_000;
+            claims.add(new Claim(encounterId, payerId, patientId, chargeCents, copay, claimed));
+        }
+        invoices.computeIfAbsent(patientId, Invoice::new).add(chargeCents, claimed);
+    }
+
+    int encounters() {
+        return encounters;
+    }
+
+    Collection<Invoice> invoices() {
+        return invoices.values();
+    }
+
+    List<Claim> claims() {
+        return claims;
+    }
+
+    static final class Invoice {
+        final String patientId;
+        int encounters;
+        long chargesCents;
+        long insuranceCents;
+
+        private Invoice(String patientId) {
+            this.patientId = patientId;
+        }
+
+        private void add(long chargeCents, long claimedCents) {
+            encounters++;
+            chargesCents += chargeCents;
+            insuranceCents += claimedCents;
+        }
+
+        long patientDueCents() {
+            return chargesCents - insuranceCents;
+        }
+    }
+
+    record Claim(long encounterId, long payerId, String patientId, long chargeCents, long copayCents, long claimedCents) {
+    }
+}
@@ -0,0 +1,86 @@
+package com.healthcare.billing.batch;
+
+import com.healthcare.billing.repository.BillingRunRepository;
+import com.healthcare.billing.repository.EncounterRepository;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.OptionalInt;
+
+/**
+ * Bills one partition per transaction: locks the run's next pending partition, reads its
+ * encounters for the month, loads the resulting invoices and claims and marks the partition DONE,
+ * all in one commit. A worker that dies part way leaves nothing behind but the partition, still
+ * PENDING and unlocked for the next worker to take. So does a transient error: a lost connection,
+ * a deadlock, a serialization failure or a timeout.
+ */
+@Component
+public class PartitionBiller {
+    private final BillingRunRepository runRepository;
+    private final EncounterRepository encounterRepository;
+    private final BillingCopyWriter copyWriter;
+    private final TransactionTemplate transactionTemplate;
+
+    public PartitionBiller(BillingRunRepository runRepository,
+                           EncounterRepository encounterRepository,
+                           BillingCopyWriter copyWriter,
+                           TransactionTemplate transactionTemplate) {
+        this.runRepository = runRepository;
+        this.encounterRepository = encounterRepository;
+        this.copyWriter = copyWriter;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Bills the run's next pending partition. Returns null once there is none left to take, and
+     * throws {@link PartitionFailedException}, with nothing written, if the partition could not be billed.
+     * Transient errors are rethrown as they are, leaving the partition PENDING.
+     */
+    PartitionResult billNext(BillingRun run) {
+        return transactionTemplate.execute(status -> {
+            OptionalInt claimed = runRepository.claimNextPartition(run.id());
+            if (claimed.isEmpty()) return null;
+            int partition = claimed.getAsInt();
+            try {
+                PartitionBill bill = new PartitionBill();
+                encounterRepository.forEachBillable(Buckets.ofPartition(partition, run.partitions()),
+                        run.period(), bill::add);
+                copyWriter.write(run.id(), run.period(), bill);
+                int invoices = bill.invoices().size();
+                int claims = bill.claims().size();
+                runRepository.completePartition(run.id(), partition, bill.encounters(), invoices, claims);
+                return new PartitionResult(partition, bill.encounters(), invoices, claims);
+            } catch (RuntimeException e) {
+                if (isTransient(e)) throw e;
+                throw new PartitionFailedException(partition, e);
+            }
+        });
+    }
+
+    // Lost connections are translated to DataAccessResourceFailureException, which Spring counts
+    // as non-transient; billing the partition again on a new connection is still worth it.
+    static boolean isTransient(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException;
+    }
+
+    record PartitionResult(int partition, int encounters, int invoices, int claims) {
+    }
+
+    static final class PartitionFailedException extends RuntimeException {
+        private final int partition;
+
+        PartitionFailedException(int partition, RuntimeException cause) {
+            super("Partition " + partition + " failed: " + cause.getMessage(), cause);
+            this.partition = partition;
+        }
+
+        int partition() {
+            return partition;
+        }
+    }
+}
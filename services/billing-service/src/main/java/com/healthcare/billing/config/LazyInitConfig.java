@@ -0,0 +1,27 @@
+package com.healthcare.billing.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+
+/** Keeps scheduled jobs eager under lazy initialization; see "Fast Startup" in README.md. */
+@Configuration
+public class LazyInitConfig {
+
+    @Bean
+    public static LazyInitializationExcludeFilter scheduledJobsAreEager() {
+        return (beanName, definition, beanType) -> beanType != null && schedules(beanType);
+    }
+
+    private static boolean schedules(Class<?> beanType) {
+        for (Method method : ReflectionUtils.getUniqueDeclaredMethods(beanType)) {
+            if (AnnotatedElementUtils.hasAnnotation(method, Scheduled.class)) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,33 @@
+package com.healthcare.billing.controller;
+
+import com.healthcare.billing.dto.BillingRunRequest;
+import com.healthcare.billing.dto.BillingRunResponse;
+import com.healthcare.billing.dto.BillingRunStatus;
+import com.healthcare.billing.service.BillingRunService;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/billing/runs")
+public class BillingRunController {
+
+    private final BillingRunService billingRunService;
+
+    public BillingRunController(BillingRunService billingRunService) {
+        this.billingRunService = billingRunService;
+    }
+
+    @PostMapping
+    public ResponseEntity<BillingRunResponse> submitRun(@Valid @RequestBody BillingRunRequest request) {
+        BillingRunResponse run = billingRunService.submitRun(request);
+        HttpStatus status = run.getStatus() == BillingRunStatus.RUNNING ? HttpStatus.ACCEPTED : HttpStatus.OK;
+        return ResponseEntity.status(status).body(run);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<BillingRunResponse> getRun(@PathVariable Long id) {
+        return ResponseEntity.ok(billingRunService.getRun(id));
+    }
+}
@@ -0,0 +1,24 @@
+package com.healthcare.billing.controller;
+
+import com.healthcare.billing.dto.EncounterBatchRequest;
+import com.healthcare.billing.dto.EncounterBatchResponse;
+import com.healthcare.billing.service.EncounterService;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/billing/encounters")
+public class EncounterController {
+
+    private final EncounterService encounterService;
+
+    public EncounterController(EncounterService encounterService) {
+        this.encounterService = encounterService;
+    }
+
+    @PostMapping
+    public ResponseEntity<EncounterBatchResponse> addEncounters(@Valid @RequestBody EncounterBatchRequest request) {
+        return ResponseEntity.ok(encounterService.addEncounters(request));
+    }
+}
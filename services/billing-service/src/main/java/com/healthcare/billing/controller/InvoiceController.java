@@ -0,0 +1,29 @@
+package com.healthcare.billing.controller;
+
+import com.healthcare.billing.dto.InvoiceResponse;
+import com.healthcare.billing.exception.InvalidBillingRequestException;
+import com.healthcare.billing.service.InvoiceService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/billing/invoices")
+public class InvoiceController {
+
+    private final InvoiceService invoiceService;
+
+    public InvoiceController(InvoiceService invoiceService) {
+        this.invoiceService = invoiceService;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<InvoiceResponse>> getInvoices(@RequestParam String patientId,
+                                                             @RequestParam(defaultValue = "12") int limit) {
+        if (limit < 1 || limit > 120) {
+            throw new InvalidBillingRequestException("limit must be between 1 and 120");
+        }
+        return ResponseEntity.ok(invoiceService.getInvoices(patientId, limit));
+    }
+}
@@ -0,0 +1,30 @@
+package com.healthcare.billing.controller;
+
+import com.healthcare.billing.dto.PayerRequest;
+import com.healthcare.billing.dto.PayerResponse;
+import com.healthcare.billing.service.PayerService;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/billing/payers")
+public class PayerController {
+
+    private final PayerService payerService;
+
+    public PayerController(PayerService payerService) {
+        this.payerService = payerService;
+    }
+
+    @PostMapping
+    public ResponseEntity<PayerResponse> createPayer(@Valid @RequestBody PayerRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(payerService.createPayer(request));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<PayerResponse> getPayer(@PathVariable Long id) {
+        return ResponseEntity.ok(payerService.getPayer(id));
+    }
+}
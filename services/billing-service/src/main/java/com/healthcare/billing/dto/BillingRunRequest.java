@@ -0,0 +1,23 @@
+package com.healthcare.billing.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.YearMonth;
+
+public class BillingRunRequest {
+    @NotNull
+    private YearMonth period;
+
+    /** Defaults to billing.batch.partitions; ignored when the period already has a run. */
+    @Min(1)
+    @Max(1024)
+    private Integer partitions;
+
+    // Getters and Setters
+    public YearMonth getPeriod() { return period; }
+    public void setPeriod(YearMonth period) { this.period = period; }
+    public Integer getPartitions() { return partitions; }
+    public void setPartitions(Integer partitions) { this.partitions = partitions; }
+}
@@ -0,0 +1,42 @@
+package com.healthcare.billing.dto;
+
+import java.time.Instant;
+import java.time.YearMonth;
+
+public class BillingRunResponse {
+    private Long id;
+    private YearMonth period;
+    private BillingRunStatus status;
+    private int partitions;
+    private int partitionsDone;
+    private int partitionsFailed;
+    private long encounters;
+    private long invoices;
+    private long claims;
+    private Instant startedAt;
+    private Instant finishedAt;
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public YearMonth getPeriod() { return period; }
+    public void setPeriod(YearMonth period) { this.period = period; }
+    public BillingRunStatus getStatus() { return status; }
+    public void setStatus(BillingRunStatus status) { this.status = status; }
+    public int getPartitions() { return partitions; }
+    public void setPartitions(int partitions) { this.partitions = partitions; }
+    public int getPartitionsDone() { return partitionsDone; }
+    public void setPartitionsDone(int partitionsDone) { this.partitionsDone = partitionsDone; }
+    public int getPartitionsFailed() { return partitionsFailed; }
+    public void setPartitionsFailed(int partitionsFailed) { this.partitionsFailed = partitionsFailed; }
+    public long getEncounters() { return encounters; }
+    public void setEncounters(long encounters) { this.encounters = encounters; }
+    public long getInvoices() { return invoices; }
+    public void setInvoices(long invoices) { this.invoices = invoices; }
+    public long getClaims() { return claims; }
+    public void setClaims(long claims) { this.claims = claims; }
+    public Instant getStartedAt() { return startedAt; }
+    public void setStartedAt(Instant startedAt) { this.startedAt = startedAt; }
+    public Instant getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(Instant finishedAt) { this.finishedAt = finishedAt; }
+}
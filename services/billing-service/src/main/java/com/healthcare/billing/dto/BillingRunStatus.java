@@ -0,0 +1,9 @@
+package com.healthcare.billing.dto;
+
+public enum BillingRunStatus {
+    /** Partitions are still pending, possibly on another replica or waiting for a restart. */
+    RUNNING,
+    COMPLETED,
+    /** Every partition has settled and some failed; submitting the period again retries them. */
+    FAILED
+}
@@ -0,0 +1,16 @@
+package com.healthcare.billing.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+public class EncounterBatchRequest {
+    @NotEmpty
+    @Valid
+    private List<EncounterRequest> encounters;
+
+    // Getters and Setters
+    public List<EncounterRequest> getEncounters() { return encounters; }
+    public void setEncounters(List<EncounterRequest> encounters) { this.encounters = encounters; }
+}
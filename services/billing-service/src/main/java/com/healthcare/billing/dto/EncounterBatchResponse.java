@@ -0,0 +1,20 @@
+package com.healthcare.billing.dto;
+
+import java.util.List;
+
+public class EncounterBatchResponse {
+    private int received;
+    private int inserted;
+    private int late;
+    private List<String> lateRefs;
+
+    // Getters and Setters
+    public int getReceived() { return received; }
+    public void setReceived(int received) { this.received = received; }
+    public int getInserted() { return inserted; }
+    public void setInserted(int inserted) { this.inserted = inserted; }
+    public int getLate() { return late; }
+    public void setLate(int late) { this.late = late; }
+    public List<String> getLateRefs() { return lateRefs; }
+    public void setLateRefs(List<String> lateRefs) { this.lateRefs = lateRefs; }
+}
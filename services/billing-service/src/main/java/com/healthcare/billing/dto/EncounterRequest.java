@@ -0,0 +1,58 @@
+package com.healthcare.billing.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDate;
+
+public class EncounterRequest {
+    /** The reporting service's id for the encounter; a second report with the same ref is ignored. */
+    @NotBlank
+    @Size(max = 64)
+    private String encounterRef;
+
+    @NotBlank
+    @Size(max = 64)
+    private String patientId;
+
+    /** Null for self-pay. */
+    private Long payerId;
+
+    @NotNull
+    private Long providerId;
+
+    @NotNull
+    private LocalDate serviceDate;
+
+    @NotBlank
+    @Size(max = 16)
+    private String procedureCode;
+
+    @NotNull
+    @Min(1)
+    private Integer units;
+
+    @NotNull
+    @Min(0)
+    private Long unitPriceCents;
+
+    // Getters and Setters
+    public String getEncounterRef() { return encounterRef; }
+    public void setEncounterRef(String encounterRef) { this.encounterRef = encounterRef; }
+    public String getPatientId() { return patientId; }
+    public void setPatientId(String patientId) { this.patientId = patientId; }
+    public Long getPayerId() { return payerId; }
+    public void setPayerId(Long payerId) { this.payerId = payerId; }
+    public Long getProviderId() { return providerId; }
+    public void setProviderId(Long providerId) { this.providerId = providerId; }
+    public LocalDate getServiceDate() { return serviceDate; }
+    public void setServiceDate(LocalDate serviceDate) { this.serviceDate = serviceDate; }
+    public String getProcedureCode() { return procedureCode; }
+    public void setProcedureCode(String procedureCode) { this.procedureCode = procedureCode; }
+    public Integer getUnits() { return units; }
+    public void setUnits(Integer units) { this.units = units; }
+    public Long getUnitPriceCents() { return unitPriceCents; }
+    public void setUnitPriceCents(Long unitPriceCents) { this.unitPriceCents = unitPriceCents; }
+}
@@ -0,0 +1,36 @@
+package com.healthcare.billing.dto;
+
+import java.time.Instant;
+import java.time.YearMonth;
+
+public class InvoiceResponse {
+    private Long id;
+    private Long runId;
+    private String patientId;
+    private YearMonth period;
+    private int encounters;
+    private long chargesCents;
+    private long insuranceCents;
+    private long patientDueCents;
+    private Instant createdAt;
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Long getRunId() { return runId; }
+    public void setRunId(Long runId) { this.runId = runId; }
+    public String getPatientId() { return patientId; }
+    public void setPatientId(String patientId) { this.patientId = patientId; }
+    public YearMonth getPeriod() { return period; }
+    public void setPeriod(YearMonth period) { this.period = period; }
+    public int getEncounters() { return encounters; }
+    public void setEncounters(int encounters) { this.encounters = encounters; }
+    public long getChargesCents() { return chargesCents; }
+    public void setChargesCents(long chargesCents) { this.chargesCents = chargesCents; }
+    public long getInsuranceCents() { return insuranceCents; }
+    public void setInsuranceCents(long insuranceCents) { this.insuranceCents = insuranceCents; }
+    public long getPatientDueCents() { return patientDueCents; }
+    public void setPatientDueCents(long patientDueCents) { this.patientDueCents = patientDueCents; }
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,30 @@
+package com.healthcare.billing.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+public class PayerRequest {
+    @NotBlank
+    @Size(max = 200)
+    private String name;
+
+    /** Share of the charge after copay that the payer covers, in basis points. */
+    @NotNull
+    @Min(0)
+    @Max(10000)
+    private Integer coverageBp;
+
+    @Min(0)
+    private long copayCents;
+
+    // Getters and Setters
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public Integer getCoverageBp() { return coverageBp; }
+    public void setCoverageBp(Integer coverageBp) { this.coverageBp = coverageBp; }
+    public long getCopayCents() { return copayCents; }
+    public void setCopayCents(long copayCents) { this.copayCents = copayCents; }
+}
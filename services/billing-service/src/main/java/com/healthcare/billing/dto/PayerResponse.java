@@ -0,0 +1,23 @@
+package com.healthcare.billing.dto;
+
+import java.time.Instant;
+
+public class PayerResponse {
+    private Long id;
+    private String name;
+    private int coverageBp;
+    private long copayCents;
+    private Instant createdAt;
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public int getCoverageBp() { return coverageBp; }
+    public void setCoverageBp(int coverageBp) { this.coverageBp = coverageBp; }
+    public long getCopayCents() { return copayCents; }
+    public void setCopayCents(long copayCents) { this.copayCents = copayCents; }
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,7 @@
+package com.healthcare.billing.exception;
+
+public class InvalidBillingRequestException extends RuntimeException {
+    public InvalidBillingRequestException(String message) {
+        super(message);
+    }
+}
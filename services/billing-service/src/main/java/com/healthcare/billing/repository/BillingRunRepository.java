@@ -0,0 +1,131 @@
+package com.healthcare.billing.repository;
+
+import com.healthcare.billing.batch.BillingRun;
+import com.healthcare.billing.dto.BillingRunStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+/**
+ * Billing runs and their partitions, which are the run's checkpoint: PENDING until a worker bills
+ * them, then DONE in the same transaction as their invoices and claims, or FAILED with the error.
+ */
+@Repository
+public class BillingRunRepository {
+    private static final String SELECT_RUN = """
+            SELECT r.id, r.period, r.partitions, r.status, r.started_at, r.finished_at,
+                   count(*) FILTER (WHERE p.status = 'DONE'), count(*) FILTER (WHERE p.status = 'FAILED'),
+                   coalesce(sum(p.encounters), 0), coalesce(sum(p.invoices), 0), coalesce(sum(p.claims), 0)
+            FROM billing_runs r JOIN billing_run_partitions p ON p.run_id = r.id
+            """;
+    private static final String FINISH_IF_SETTLED = """
+            UPDATE billing_runs r
+            SET status = CASE WHEN p.failed > 0 THEN 'FAILED' ELSE 'COMPLETED' END, finished_at = now()
+            FROM (SELECT count(*) FILTER (WHERE status = 'PENDING') AS pending,
+                         count(*) FILTER (WHERE status = 'FAILED') AS failed
+                  FROM billing_run_partitions WHERE run_id = ?) p
+            WHERE r.id = ? AND r.status = 'RUNNING' AND p.pending = 0""";
+
+    private static final RowMapper<BillingRun> RUN_MAPPER = (rs, rowNum) -> new BillingRun(
+            rs.getLong(1),
+            rs.getObject(2, LocalDate.class),
+            rs.getInt(3),
+            BillingRunStatus.valueOf(rs.getString(4)),
+            instant(rs.getTimestamp(5)),
+            instant(rs.getTimestamp(6)),
+            rs.getInt(7),
+            rs.getInt(8),
+            rs.getLong(9),
+            rs.getLong(10),
+            rs.getLong(11));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BillingRunRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Creates the period's run with all its partitions PENDING, unless the period already has one.
+     * Returns whether it was created. Call inside a transaction.
+     *
+     * <p>Holds off encounter inserts until the transaction ends, so a batch either commits before the
+     * run exists, and is billed by it, or sees the run and is deferred to a later period.
+     */
+    public boolean createIfAbsent(LocalDate period, int partitions) {
+        jdbcTemplate.execute("LOCK TABLE encounters IN SHARE MODE");
+        List<Long> ids = jdbcTemplate.queryForList(
+                "INSERT INTO billing_runs (period, partitions, status) VALUES (?, ?, 'RUNNING') ON CONFLICT (period) DO NOTHING RETURNING id",
+                Long.class, period, partitions);
+        if (ids.isEmpty()) return false;
+        jdbcTemplate.update("""
+                INSERT INTO billing_run_partitions (run_id, partition, status)
+                SELECT ?, p, 'PENDING' FROM generate_series(0, ? - 1) AS p""", ids.get(0), partitions);
+        return true;
+    }
+
+    public Optional<BillingRun> findById(long id) {
+        return jdbcTemplate.query(SELECT_RUN + "WHERE r.id = ? GROUP BY r.id", RUN_MAPPER, id).stream().findFirst();
+    }
+
+    public Optional<BillingRun> findByPeriod(LocalDate period) {
+        return jdbcTemplate.query(SELECT_RUN + "WHERE r.period = ? GROUP BY r.id", RUN_MAPPER, period).stream().findFirst();
+    }
+
+    public List<BillingRun> findRunning() {
+        return jdbcTemplate.query(SELECT_RUN + "WHERE r.status = 'RUNNING' GROUP BY r.id ORDER BY r.period", RUN_MAPPER);
+    }
+
+    /**
+     * Locks the run's next PENDING partition for the caller's transaction, skipping those other
+     * workers, here or on other replicas, have locked. Empty once none is left to take.
+     */
+    public OptionalInt claimNextPartition(long runId) {
+        List<Integer> partitions = jdbcTemplate.queryForList("""
+                SELECT partition FROM billing_run_partitions
+                WHERE run_id = ? AND status = 'PENDING'
+                ORDER BY partition LIMIT 1
+                FOR UPDATE SKIP LOCKED""", Integer.class, runId);
+        return partitions.isEmpty() ? OptionalInt.empty() : OptionalInt.of(partitions.get(0));
+    }
+
+    public void completePartition(long runId, int partition, int encounters, int invoices, int claims) {
+        jdbcTemplate.update("""
+                UPDATE billing_run_partitions
+                SET status = 'DONE', encounters = ?, invoices = ?, claims = ?, error = NULL, completed_at = now()
+                WHERE run_id = ? AND partition = ?""", encounters, invoices, claims, runId, partition);
+    }
+
+    public void failPartition(long runId, int partition, String error) {
+        jdbcTemplate.update("UPDATE billing_run_partitions SET status = 'FAILED', error = ? WHERE run_id = ? AND partition = ? AND status = 'PENDING'",
+                error, runId, partition);
+    }
+
+    /**
+     * Puts a run's FAILED partitions back to PENDING and the run back to RUNNING. Call inside a
+     * transaction.
+     */
+    public void retryFailed(long runId) {
+        jdbcTemplate.update("UPDATE billing_run_partitions SET status = 'PENDING', error = NULL WHERE run_id = ? AND status = 'FAILED'", runId);
+        jdbcTemplate.update("UPDATE billing_runs SET status = 'RUNNING', finished_at = NULL WHERE id = ? AND status = 'FAILED'", runId);
+    }
+
+    /**
+     * Marks the run COMPLETED, or FAILED if any partition failed, once none is PENDING. Returns
+     * whether this call finished it.
+     */
+    public boolean finishIfSettled(long runId) {
+        return jdbcTemplate.update(FINISH_IF_SETTLED, runId, runId) > 0;
+    }
+
+    private static Instant instant(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toInstant();
+    }
+}
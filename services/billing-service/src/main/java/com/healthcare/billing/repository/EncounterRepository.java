@@ -0,0 +1,139 @@
+package com.healthcare.billing.repository;
+
+import com.healthcare.billing.dto.EncounterRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public class EncounterRepository {
+    // An encounter is billed in its service month unless that month already has a billing run, which
+    // may have billed its patient already; then it waits for the first later month without one.
+    // Every month after the latest run is open, so the series always contains one.
+    private static final String INSERT_BATCH = """
+            WITH input AS (
+                SELECT u.*, (SELECT min(m)::date
+                             FROM generate_series(date_trunc('month', u.service_date::timestamp),
+                                                  greatest(date_trunc('month', u.service_date::timestamp),
+                                                           (SELECT max(period) FROM billing_runs) + interval '1 month'),
+                                                  interval '1 month') AS m
+                             WHERE NOT EXISTS (SELECT 1 FROM billing_runs r WHERE r.period = m::date)) AS billing_period
+                FROM unnest(?::varchar[], ?::varchar[], ?::bigint[], ?::bigint[], ?::date[], ?::varchar[],
+                            ?::integer[], ?::bigint[])
+                     AS u(encounter_ref, patient_id, payer_id, provider_id, service_date, procedure_code,
+                          units, unit_price_cents)),
+            inserted AS (
+                INSERT INTO encounters (encounter_ref, patient_id, payer_id, provider_id, service_date, procedure_code,
+                                        units, unit_price_cents, billing_period)
+                SELECT encounter_ref, patient_id, payer_id, provider_id, service_date, procedure_code,
+                       units, unit_price_cents, billing_period
+                FROM input
+                ON CONFLICT (encounter_ref) DO NOTHING
+                RETURNING encounter_ref, service_date, billing_period)
+            SELECT count(*),
+                   array_agg(encounter_ref ORDER BY encounter_ref) FILTER (WHERE billing_period > service_date)
+            FROM inserted""";
+    private static final String SELECT_BILLABLE = """
+            SELECT e.id, e.patient_id, e.payer_id, e.units * e.unit_price_cents, p.coverage_bp, p.copay_cents
+            FROM encounters e LEFT JOIN payers p ON p.id = e.payer_id
+            WHERE e.bucket = ANY(?::smallint[]) AND e.billing_period = ?""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public EncounterRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts the encounters in one statement over {@code unnest}ed arrays, skipping any whose
+     * {@code encounterRef} is already stored. Each new encounter gets its billing period; returns how
+     * many were new and the refs of those deferred to a later period because theirs was already billed.
+     */
+    public BatchResult insertBatch(List<EncounterRequest> encounters) {
+        int n = encounters.size();
+        String[] refs = new String[n];
+        String[] patientIds = new String[n];
+        Long[] payerIds = new Long[n];
+        Long[] providerIds = new Long[n];
+        Date[] serviceDates = new Date[n];
+        String[] procedureCodes = new String[n];
+        Integer[] units = new Integer[n];
+        Long[] unitPrices = new Long[n];
+        for (int i = 0; i < n; i++) {
+            EncounterRequest encounter = encounters.get(i);
+            refs[i] = encounter.getEncounterRef();
+            patientIds[i] = encounter.getPatientId();
+            payerIds[i] = encounter.getPayerId();
+            providerIds[i] = encounter.getProviderId();
+            serviceDates[i] = Date.valueOf(encounter.getServiceDate());
+            procedureCodes[i] = encounter.getProcedureCode();
+            units[i] = encounter.getUnits();
+            unitPrices[i] = encounter.getUnitPriceCents();
+        }
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(INSERT_BATCH);
+            ps.setArray(1, con.createArrayOf("varchar", refs));
+            ps.setArray(2, con.createArrayOf("varchar", patientIds));
+            ps.setArray(3, con.createArrayOf("bigint", payerIds));
+            ps.setArray(4, con.createArrayOf("bigint", providerIds));
+            ps.setArray(5, con.createArrayOf("date", serviceDates));
+            ps.setArray(6, con.createArrayOf("varchar", procedureCodes));
+            ps.setArray(7, con.createArrayOf("integer", units));
+            ps.setArray(8, con.createArrayOf("bigint", unitPrices));
+            return ps;
+        }, (rs, rowNum) -> {
+            Array late = rs.getArray(2);
+            return new BatchResult(rs.getInt(1), late == null ? List.of() : List.of((String[]) late.getArray()));
+        }).get(0);
+    }
+
+    public List<Long> findMissingPayers(Collection<Long> payerIds) {
+        List<Long> missing = new ArrayList<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "SELECT u.id FROM unnest(?::bigint[]) AS u(id) WHERE NOT EXISTS (SELECT 1 FROM payers p WHERE p.id = u.id)");
+            ps.setArray(1, con.createArrayOf("bigint", payerIds.toArray()));
+            return ps;
+        }, rs -> {
+            missing.add(rs.getLong(1));
+        });
+        return missing;
+    }
+
+    /**
+     * Streams the encounters of the given buckets billed in {@code period}, each with its charge and
+     * its payer's terms. Runs through a cursor when called inside a transaction.
+     */
+    public void forEachBillable(Short[] buckets, LocalDate period, BillableEncounterHandler handler) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SELECT_BILLABLE);
+            ps.setArray(1, con.createArrayOf("smallint", buckets));
+            ps.setObject(2, period);
+            return ps;
+        }, rs -> {
+            handler.accept(rs.getLong(1), rs.getString(2), rs.getObject(3, Long.class), rs.getLong(4), rs.getInt(5), rs.getLong(6));
+        });
+    }
+
+    /**
+     * {@code lateRefs} are the new encounters whose service month had already been billed, sorted.
+     */
+    public record BatchResult(int inserted, List<String> lateRefs) {
+    }
+
+    /**
+     * Receives one billable encounter. Coverage and copay are zero for a self-pay encounter, whose
+     * payer is null.
+     */
+    @FunctionalInterface
+    public interface BillableEncounterHandler {
+        void accept(long encounterId, String patientId, Long payerId, long chargeCents, int coverageBp, long copayCents);
+    }
+}
@@ -0,0 +1,41 @@
+package com.healthcare.billing.repository;
+
+import com.healthcare.billing.dto.InvoiceResponse;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+@Repository
+public class InvoiceRepository {
+    private static final RowMapper<InvoiceResponse> INVOICE_MAPPER = (rs, rowNum) -> {
+        InvoiceResponse invoice = new InvoiceResponse();
+        invoice.setId(rs.getLong("id"));
+        invoice.setRunId(rs.getLong("run_id"));
+        invoice.setPatientId(rs.getString("patient_id"));
+        invoice.setPeriod(YearMonth.from(rs.getObject("period", LocalDate.class)));
+        invoice.setEncounters(rs.getInt("encounters"));
+        invoice.setChargesCents(rs.getLong("charges_cents"));
+        invoice.setInsuranceCents(rs.getLong("insurance_cents"));
+        invoice.setPatientDueCents(rs.getLong("patient_due_cents"));
+        invoice.setCreatedAt(rs.getTimestamp("created_at").toInstant());
+        return invoice;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public InvoiceRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * The patient's most recent invoices, newest period first.
+     */
+    public List<InvoiceResponse> findByPatient(String patientId, int limit) {
+        return jdbcTemplate.query("SELECT * FROM invoices WHERE patient_id = ? ORDER BY period DESC LIMIT ?",
+                INVOICE_MAPPER, patientId, limit);
+    }
+}
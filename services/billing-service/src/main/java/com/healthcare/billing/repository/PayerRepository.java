@@ -0,0 +1,38 @@
+package com.healthcare.billing.repository;
+
+import com.healthcare.billing.dto.PayerRequest;
+import com.healthcare.billing.dto.PayerResponse;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public class PayerRepository {
+    private static final RowMapper<PayerResponse> PAYER_MAPPER = (rs, rowNum) -> {
+        PayerResponse payer = new PayerResponse();
+        payer.setId(rs.getLong("id"));
+        payer.setName(rs.getString("name"));
+        payer.setCoverageBp(rs.getInt("coverage_bp"));
+        payer.setCopayCents(rs.getLong("copay_cents"));
+        payer.setCreatedAt(rs.getTimestamp("created_at").toInstant());
+        return payer;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PayerRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public PayerResponse insert(PayerRequest request) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO payers (name, coverage_bp, copay_cents) VALUES (?, ?, ?) RETURNING *",
+                PAYER_MAPPER, request.getName(), request.getCoverageBp(), request.getCopayCents());
+    }
+
+    public Optional<PayerResponse> findById(long id) {
+        return jdbcTemplate.query("SELECT * FROM payers WHERE id = ?", PAYER_MAPPER, id).stream().findFirst();
+    }
+}
@@ -0,0 +1,76 @@
+package com.healthcare.billing.service;
+
+import com.healthcare.billing.batch.BillingEngine;
+import com.healthcare.billing.batch.BillingRun;
+import com.healthcare.billing.dto.BillingRunRequest;
+import com.healthcare.billing.dto.BillingRunResponse;
+import com.healthcare.billing.dto.BillingRunStatus;
+import com.healthcare.billing.exception.ResourceNotFoundException;
+import com.healthcare.billing.repository.BillingRunRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+@Service
+public class BillingRunService {
+
+    private final BillingRunRepository runRepository;
+    private final BillingEngine engine;
+    private final TransactionTemplate transactionTemplate;
+    private final int defaultPartitions;
+
+    public BillingRunService(BillingRunRepository runRepository,
+                             BillingEngine engine,
+                             TransactionTemplate transactionTemplate,
+                             @Value("${billing.batch.partitions:64}") int defaultPartitions) {
+        this.runRepository = runRepository;
+        this.engine = engine;
+        this.transactionTemplate = transactionTemplate;
+        this.defaultPartitions = defaultPartitions;
+    }
+
+    /**
+     * Bills a month. The first submission creates the month's run; submitting the month again
+     * returns the same run, retrying its failed partitions if it has any and resuming it if it is
+     * not yet finished. A completed month is never billed twice.
+     */
+    public BillingRunResponse submitRun(BillingRunRequest request) {
+        LocalDate period = request.getPeriod().atDay(1);
+        int partitions = request.getPartitions() != null ? request.getPartitions() : defaultPartitions;
+        // Committed before the workers start, since each of them bills in a transaction of its own.
+        BillingRun run = transactionTemplate.execute(status -> {
+            runRepository.createIfAbsent(period, partitions);
+            BillingRun existing = runRepository.findByPeriod(period).orElseThrow();
+            if (existing.status() != BillingRunStatus.FAILED) return existing;
+            runRepository.retryFailed(existing.id());
+            return runRepository.findById(existing.id()).orElseThrow();
+        });
+        if (run.status() == BillingRunStatus.RUNNING) engine.start(run);
+        return toResponse(run);
+    }
+
+    public BillingRunResponse getRun(Long id) {
+        return runRepository.findById(id)
+                .map(this::toResponse)
+                .orElseThrow(() -> new ResourceNotFoundException("Billing run not found with id: " + id));
+    }
+
+    private BillingRunResponse toResponse(BillingRun run) {
+        BillingRunResponse response = new BillingRunResponse();
+        response.setId(run.id());
+        response.setPeriod(YearMonth.from(run.period()));
+        response.setStatus(run.status());
+        response.setPartitions(run.partitions());
+        response.setPartitionsDone(run.partitionsDone());
+        response.setPartitionsFailed(run.partitionsFailed());
+        response.setEncounters(run.encounters());
+        response.setInvoices(run.invoices());
+        response.setClaims(run.claims());
+        response.setStartedAt(run.startedAt());
+        response.setFinishedAt(run.finishedAt());
+        return response;
+    }
+}
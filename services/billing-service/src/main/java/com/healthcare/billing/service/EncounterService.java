@@ -0,0 +1,68 @@
+package com.healthcare.billing.service;
+
+import com.healthcare.billing.dto.EncounterBatchRequest;
+import com.healthcare.billing.dto.EncounterBatchResponse;
+import com.healthcare.billing.dto.EncounterRequest;
+import com.healthcare.billing.exception.InvalidBillingRequestException;
+import com.healthcare.billing.repository.EncounterRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+public class EncounterService {
+
+    private final EncounterRepository encounterRepository;
+    private final int maxBatchSize;
+    private final Counter late;
+
+    public EncounterService(EncounterRepository encounterRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${billing.encounters.max-batch-size:10000}") int maxBatchSize) {
+        this.encounterRepository = encounterRepository;
+        this.maxBatchSize = maxBatchSize;
+        this.late = Counter.builder("billing.encounters.late")
+                .description("Encounters deferred to a later billing period because their month already has a billing run")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Stores a batch of encounters in one statement. Encounters already stored under the same
+     * {@code encounterRef} are skipped, so a batch can be resent safely. An encounter is billed by
+     * the run for its service month; one that arrives after that run was submitted is billed by the
+     * first later month without a run instead, and is listed as late in the response and counted in
+     * {@code billing.encounters.late}.
+     */
+    @Transactional
+    public EncounterBatchResponse addEncounters(EncounterBatchRequest request) {
+        List<EncounterRequest> encounters = request.getEncounters();
+        if (encounters.size() > maxBatchSize) {
+            throw new InvalidBillingRequestException("At most " + maxBatchSize + " encounters per batch");
+        }
+        Set<Long> payerIds = encounters.stream()
+                .map(EncounterRequest::getPayerId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (!payerIds.isEmpty()) {
+            List<Long> missing = encounterRepository.findMissingPayers(payerIds);
+            if (!missing.isEmpty()) {
+                throw new InvalidBillingRequestException("Unknown payers: " + missing);
+            }
+        }
+        EncounterBatchResponse response = new EncounterBatchResponse();
+        response.setReceived(encounters.size());
+        EncounterRepository.BatchResult result = encounterRepository.insertBatch(encounters);
+        response.setInserted(result.inserted());
+        response.setLate(result.lateRefs().size());
+        response.setLateRefs(result.lateRefs());
+        late.increment(result.lateRefs().size());
+        return response;
+    }
+}
@@ -0,0 +1,21 @@
+package com.healthcare.billing.service;
+
+import com.healthcare.billing.dto.InvoiceResponse;
+import com.healthcare.billing.repository.InvoiceRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+public class InvoiceService {
+
+    private final InvoiceRepository invoiceRepository;
+
+    public InvoiceService(InvoiceRepository invoiceRepository) {
+        this.invoiceRepository = invoiceRepository;
+    }
+
+    public List<InvoiceResponse> getInvoices(String patientId, int limit) {
+        return invoiceRepository.findByPatient(patientId, limit);
+    }
+}
@@ -0,0 +1,26 @@
+package com.healthcare.billing.service;
+
+import com.healthcare.billing.dto.PayerRequest;
+import com.healthcare.billing.dto.PayerResponse;
+import com.healthcare.billing.exception.ResourceNotFoundException;
+import com.healthcare.billing.repository.PayerRepository;
+import org.springframework.stereotype.Service;
+
+@Service
+public class PayerService {
+
+    private final PayerRepository payerRepository;
+
+    public PayerService(PayerRepository payerRepository) {
+        this.payerRepository = payerRepository;
+    }
+
+    public PayerResponse createPayer(PayerRequest request) {
+        return payerRepository.insert(request);
+    }
+
+    public PayerResponse getPayer(Long id) {
+        return payerRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Payer not found with id: " + id));
+    }
+}
@@ -0,0 +1,85 @@
+CREATE TABLE payers (
+    id          BIGSERIAL PRIMARY KEY,
+    name        VARCHAR(200) NOT NULL,
+    coverage_bp INTEGER NOT NULL,
+    copay_cents BIGINT NOT NULL DEFAULT 0,
+    created_at  TIMESTAMPTZ NOT NULL DEFAULT now(),
+    CONSTRAINT payers_coverage CHECK (coverage_bp BETWEEN 0 AND 10000),
+    CONSTRAINT payers_copay CHECK (copay_cents >= 0)
+);
+
+-- One billable service as reported by the clinical services; encounter_ref is their id for it, so
+-- a redelivered encounter is ignored. Patients are hashed into 1024 fixed buckets and a billing
+-- partition is a set of buckets, so all of a patient's encounters fall in one partition and a
+-- partition's month is a handful of index range scans.
+CREATE TABLE encounters (
+    id               BIGSERIAL PRIMARY KEY,
+    encounter_ref    VARCHAR(64) NOT NULL UNIQUE,
+    patient_id       VARCHAR(64) NOT NULL,
+    payer_id         BIGINT REFERENCES payers (id),
+    provider_id      BIGINT NOT NULL,
+    service_date     DATE NOT NULL,
+    procedure_code   VARCHAR(16) NOT NULL,
+    units            INTEGER NOT NULL,
+    unit_price_cents BIGINT NOT NULL,
+    bucket           SMALLINT GENERATED ALWAYS AS ((hashtext(patient_id) & 1023)::smallint) STORED,
+    created_at       TIMESTAMPTZ NOT NULL DEFAULT now(),
+    CONSTRAINT encounters_units CHECK (units > 0),
+    CONSTRAINT encounters_price CHECK (unit_price_cents >= 0)
+);
+
+CREATE INDEX encounters_bucket_service_date ON encounters (bucket, service_date);
+
+-- One run per calendar month. Its partitions are the checkpoint: a partition's invoices and claims
+-- are written in the same transaction that marks it DONE, so a run that stops part way resumes
+-- with the partitions still PENDING.
+CREATE TABLE billing_runs (
+    id          BIGSERIAL PRIMARY KEY,
+    period      DATE NOT NULL UNIQUE,
+    partitions  INTEGER NOT NULL,
+    status      VARCHAR(16) NOT NULL,
+    started_at  TIMESTAMPTZ NOT NULL DEFAULT now(),
+    finished_at TIMESTAMPTZ,
+    CONSTRAINT billing_runs_partitions CHECK (partitions BETWEEN 1 AND 1024)
+);
+
+CREATE TABLE billing_run_partitions (
+    run_id       BIGINT NOT NULL REFERENCES billing_runs (id),
+    partition    INTEGER NOT NULL,
+    status       VARCHAR(16) NOT NULL,
+    encounters   INTEGER NOT NULL DEFAULT 0,
+    invoices     INTEGER NOT NULL DEFAULT 0,
+    claims       INTEGER NOT NULL DEFAULT 0,
+    error        TEXT,
+    completed_at TIMESTAMPTZ,
+    PRIMARY KEY (run_id, partition)
+);
+
+-- Invoices and claims are bulk-loaded by the billing engine from rows it has just read, so they
+-- carry no foreign keys to check row by row; the unique keys still refuse a second billing.
+CREATE TABLE invoices (
+    id                BIGSERIAL PRIMARY KEY,
+    run_id            BIGINT NOT NULL,
+    patient_id        VARCHAR(64) NOT NULL,
+    period            DATE NOT NULL,
+    encounters        INTEGER NOT NULL,
+    charges_cents     BIGINT NOT NULL,
+    insurance_cents   BIGINT NOT NULL,
+    patient_due_cents BIGINT NOT NULL,
+    created_at        TIMESTAMPTZ NOT NULL DEFAULT now(),
+    CONSTRAINT invoices_patient_period UNIQUE (patient_id, period)
+);
+
+CREATE TABLE claims (
+    id            BIGSERIAL PRIMARY KEY,
+    run_id        BIGINT NOT NULL,
+    encounter_id  BIGINT NOT NULL UNIQUE,
+    payer_id      BIGINT NOT NULL,
+    patient_id    VARCHAR(64) NOT NULL,
+    charge_cents  BIGINT NOT NULL,
+    copay_cents   BIGINT NOT NULL,
+    claimed_cents BIGINT NOT NULL,
+    created_at    TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX claims_payer_run ON claims (payer_id, run_id);
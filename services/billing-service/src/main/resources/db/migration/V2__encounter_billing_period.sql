@@ -0,0 +1,10 @@
+-- The month whose run bills an encounter: its service month, or, when that month's run had already
+-- been submitted at ingest, the first later month without a run. Fixed at ingest, so a run never
+-- gains encounters after it starts, and a late encounter is billed by the next open run instead of
+-- being dropped.
+ALTER TABLE encounters ADD COLUMN billing_period DATE;
+UPDATE encounters SET billing_period = date_trunc('month', service_date)::date;
+ALTER TABLE encounters ALTER COLUMN billing_period SET NOT NULL;
+
+DROP INDEX encounters_bucket_service_date;
+CREATE INDEX encounters_bucket_billing_period ON encounters (bucket, billing_period);
@@ -0,0 +1,391 @@
+package com.healthcare.inventory.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.Application;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ward rush on inventory-service against embedded Postgres, with the service in a child JVM so it
+ * can be killed. {@code harness.threads} (64) clients reserve 1-3 units at a time, {@code
+ * harness.hot-share} (80) percent of them on {@code harness.hot-skus} (4) SKUs stocked with only
+ * {@code harness.hot-stock} (1,000) units each, the rest over {@code harness.cold-skus} (500) well
+ * stocked ones. Half the reservations are committed, four in ten released and the rest left open.
+ * <p>
+ * Load runs for {@code harness.seconds} (20) and reports operations per second and latency; then
+ * it runs again and the service is killed with SIGKILL after {@code harness.crash-after-seconds}
+ * (5). A new instance must recover from Postgres and its write-ahead log, and once it has stopped
+ * cleanly the database is audited: for every SKU, units on hand plus units committed must equal
+ * units received, reserved units must equal the open reservations, and every reservation a client
+ * was told about must be there, committed or released if the client was told so. Exits non-zero on
+ * any violation. Postgres refuses to run as root, so neither may the harness.
+ */
+public final class StockContentionHarness {
+    private static final ObjectMapper MAPPER = Jackson2ObjectMapperBuilder.json().build();
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    private final EmbeddedPostgres postgres;
+    private final Path walDir;
+    private final int port;
+    private final List<String> violations = Collections.synchronizedList(new ArrayList<>());
+    private final Map<String, Long> received = new HashMap<>();
+    private final Map<UUID, Acked> acked = new ConcurrentHashMap<>();
+    private final List<String> hotKeys = new ArrayList<>();
+    private final List<String> coldKeys = new ArrayList<>();
+
+    private StockContentionHarness(EmbeddedPostgres postgres, Path walDir, int port) {
+        this.postgres = postgres;
+        this.walDir = walDir;
+        this.port = port;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = Integer.getInteger("harness.threads", 64);
+        int hotSkus = Integer.getInteger("harness.hot-skus", 4);
+        int hotStock = Integer.getInteger("harness.hot-stock", 1_000);
+        int coldSkus = Integer.getInteger("harness.cold-skus", 500);
+        int hotShare = Integer.getInteger("harness.hot-share", 80);
+        int seconds = Integer.getInteger("harness.seconds", 20);
+        int crashAfter = Integer.getInteger("harness.crash-after-seconds", 5);
+
+        Path walDir = Files.createTempDirectory("inventory-wal");
+        List<String> violations;
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start()) {
+            StockContentionHarness harness = new StockContentionHarness(postgres, walDir, freePort());
+            Process service = harness.startService();
+            try {
+                harness.seed(hotSkus, hotStock, coldSkus);
+                harness.checkRetries();
+                Load load = harness.run(threads, hotShare, seconds, null);
+                load.print("load");
+
+                Load crashed = harness.run(threads, hotShare, crashAfter, service);
+                crashed.print("killed mid-load");
+                long restarting = System.nanoTime();
+                service = harness.startService();
+                System.out.printf("restarted and recovered in %d ms%n", (System.nanoTime() - restarting) / 1_000_000);
+                harness.checkRecovered();
+                service.destroy();
+                service.waitFor();
+                harness.audit();
+            } finally {
+                service.destroyForcibly().waitFor();
+            }
+            violations = harness.violations;
+        }
+        violations.forEach(violation -> System.out.println("VIOLATION: " + violation));
+        System.out.println(violations.isEmpty() ? "No stock lost, oversold or double counted." : violations.size() + " violations");
+        System.exit(violations.isEmpty() ? 0 : 1);
+    }
+
+    private Process startService() throws Exception {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        List<String> command = new ArrayList<>(List.of(java, "-Xmx1g", "-cp", System.getProperty("java.class.path"),
+                Application.class.getName()));
+        // Passed as command-line arguments so they override application.yml.
+        command.addAll(List.of(
+                "--server.port=" + port,
+                "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=",
+                "--inventory.wal.dir=" + walDir,
+                "--inventory.flush.interval-ms=200",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--logging.level.com.healthcare.inventory=INFO"));
+        Process process = new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.INHERIT)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .directory(new File(System.getProperty("user.dir")))
+                .start();
+        long deadline = System.nanoTime() + Duration.ofMinutes(2).toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) throw new IllegalStateException("inventory-service exited with " + process.exitValue());
+            try {
+                if (exchange(get("/actuator/health")).statusCode() == 200) return process;
+            } catch (IllegalStateException e) {
+                // Not listening yet.
+            }
+            Thread.sleep(250);
+        }
+        process.destroyForcibly();
+        throw new IllegalStateException("inventory-service did not start");
+    }
+
+    private void seed(int hotSkus, int hotStock, int coldSkus) {
+        for (int s = 0; s < hotSkus; s++) {
+            hotKeys.add("MED-HOT-" + s + "/WARD-A");
+            receive(hotKeys.get(s), hotStock);
+        }
+        for (int s = 0; s < coldSkus; s++) {
+            coldKeys.add("SUP-" + s + "/WARD-" + (char) ('A' + s % 8));
+            receive(coldKeys.get(s), 1_000_000);
+        }
+    }
+
+    private void receive(String key, long quantity) {
+        send(post("/api/v1/inventory/stock/" + key + "/receipts", Map.of("quantity", quantity)));
+        received.merge(key, quantity, Long::sum);
+    }
+
+    /**
+     * Retried requests must get the first request's answer.
+     */
+    private void checkRetries() {
+        UUID id = UUID.randomUUID();
+        String key = coldKeys.get(0);
+        Map<String, Object> request = reservationRequest(id, key, 2);
+        JsonNode first = send(post("/api/v1/inventory/reservations", request));
+        JsonNode again = send(post("/api/v1/inventory/reservations", request));
+        if (!first.equals(again)) violations.add("a retried reservation got " + again + " after " + first);
+        send(post("/api/v1/inventory/reservations/" + id + "/commit", Map.of()));
+        JsonNode committed = send(post("/api/v1/inventory/reservations/" + id + "/commit", Map.of()));
+        if (!"COMMITTED".equals(committed.get("status").asText())) violations.add("a retried commit got " + committed);
+        acked.put(id, new Acked(key, 2, "COMMITTED"));
+        int released = exchange(HttpRequest.newBuilder(uri("/api/v1/inventory/reservations/" + id)).DELETE().build()).statusCode();
+        if (released != 409) violations.add("releasing a committed reservation returned HTTP " + released);
+        int conflicting = exchange(post("/api/v1/inventory/reservations", reservationRequest(id, key, 3))).statusCode();
+        if (conflicting != 409) violations.add("reusing a reservation id for another quantity returned HTTP " + conflicting);
+    }
+
+    /**
+     * Runs the clients for {@code seconds}; if {@code victim} is given, kills it then instead and
+     * lets the clients stop at their first failed request.
+     */
+    private Load run(int threads, int hotShare, int seconds, Process victim) throws InterruptedException {
+        Load load = new Load();
+        AtomicBoolean stop = new AtomicBoolean();
+        CountDownLatch go = new CountDownLatch(1);
+        List<Thread> clients = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    go.await();
+                    while (!stop.get()) operate(hotShare, load);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (IllegalStateException e) {
+                    if (victim == null) violations.add("client failed: " + e.getMessage());
+                }
+            }, "ward-client-" + t);
+            thread.start();
+            clients.add(thread);
+        }
+        long started = System.nanoTime();
+        go.countDown();
+        Thread.sleep(seconds * 1000L);
+        if (victim != null) victim.destroyForcibly().waitFor();
+        stop.set(true);
+        for (Thread thread : clients) thread.join();
+        load.nanos = System.nanoTime() - started;
+        return load;
+    }
+
+    private void operate(int hotShare, Load load) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String key = random.nextInt(100) < hotShare ? hotKeys.get(random.nextInt(hotKeys.size())) : coldKeys.get(random.nextInt(coldKeys.size()));
+        int quantity = 1 + random.nextInt(3);
+        UUID id = new UUID(random.nextLong(), random.nextLong());
+        long started = System.nanoTime();
+        HttpResponse<byte[]> reserved = exchange(post("/api/v1/inventory/reservations", reservationRequest(id, key, quantity)));
+        load.reserveLatency.recordValue((System.nanoTime() - started) / 1000);
+        if (reserved.statusCode() == 409) {
+            load.insufficient.incrementAndGet();
+            return;
+        }
+        expectOk(reserved, "reserve");
+        acked.put(id, new Acked(key, quantity, "RESERVED"));
+        load.reserved.incrementAndGet();
+        int choice = random.nextInt(10);
+        if (choice >= 9) return;
+        boolean commit = choice < 5;
+        started = System.nanoTime();
+        HttpResponse<byte[]> settled = exchange(commit
+                ? post("/api/v1/inventory/reservations/" + id + "/commit", Map.of())
+                : HttpRequest.newBuilder(uri("/api/v1/inventory/reservations/" + id)).DELETE().build());
+        load.settleLatency.recordValue((System.nanoTime() - started) / 1000);
+        expectOk(settled, commit ? "commit" : "release");
+        acked.put(id, new Acked(key, quantity, commit ? "COMMITTED" : "RELEASED"));
+        (commit ? load.committed : load.released).incrementAndGet();
+    }
+
+    /**
+     * The recovered instance must know the reservations clients were told about.
+     */
+    private void checkRecovered() {
+        int checked = 0;
+        for (var entry : acked.entrySet()) {
+            if (checked++ == 200) break;
+            JsonNode reservation = send(get("/api/v1/inventory/reservations/" + entry.getKey()));
+            if (!entry.getValue().allows(reservation.get("status").asText())) {
+                violations.add("after recovery " + entry.getKey() + " is " + reservation.get("status").asText()
+                        + " but a client was told " + entry.getValue().status());
+            }
+        }
+    }
+
+    private void audit() throws Exception {
+        Map<UUID, String> statuses = new HashMap<>();
+        try (Connection connection = postgres.getPostgresDatabase().getConnection();
+             Statement statement = connection.createStatement()) {
+            try (ResultSet rs = statement.executeQuery("""
+                    SELECT l.sku || '/' || l.location, l.on_hand, l.reserved,
+                           coalesce(sum(r.quantity) FILTER (WHERE r.status = 'COMMITTED'), 0),
+                           coalesce(sum(r.quantity) FILTER (WHERE r.status = 'RESERVED'), 0)
+                    FROM stock_levels l LEFT JOIN stock_reservations r ON r.sku = l.sku AND r.location = l.location
+                    GROUP BY l.sku, l.location, l.on_hand, l.reserved""")) {
+                int keys = 0;
+                while (rs.next()) {
+                    keys++;
+                    String key = rs.getString(1);
+                    long onHand = rs.getLong(2);
+                    long reserved = rs.getLong(3);
+                    long committed = rs.getLong(4);
+                    long open = rs.getLong(5);
+                    Long expected = received.get(key);
+                    if (expected == null || onHand + committed != expected) {
+                        violations.add(key + ": " + onHand + " on hand + " + committed + " committed, received " + expected);
+                    }
+                    if (reserved != open) violations.add(key + ": " + reserved + " reserved but open reservations hold " + open);
+                    if (hotKeys.contains(key)) {
+                        System.out.printf("%s: %,d received, %,d committed, %,d on hand, %,d reserved%n", key, expected, committed, onHand, reserved);
+                    }
+                }
+                if (keys != received.size()) violations.add(keys + " stock levels in Postgres for " + received.size() + " SKUs");
+            }
+            try (ResultSet rs = statement.executeQuery("SELECT id, status FROM stock_reservations")) {
+                while (rs.next()) statuses.put(rs.getObject(1, UUID.class), rs.getString(2));
+            }
+        }
+        int missing = 0;
+        int regressed = 0;
+        for (var entry : acked.entrySet()) {
+            String status = statuses.get(entry.getKey());
+            if (status == null) {
+                missing++;
+            } else if (!entry.getValue().allows(status)) {
+                regressed++;
+            }
+        }
+        System.out.printf("audited %,d reservations clients were told about, %,d in Postgres%n", acked.size(), statuses.size());
+        if (missing > 0) violations.add(missing + " acknowledged reservations missing");
+        if (regressed > 0) violations.add(regressed + " acknowledged commits or releases lost");
+    }
+
+    private static Map<String, Object> reservationRequest(UUID id, String key, int quantity) {
+        String[] parts = key.split("/");
+        return Map.of("reservationId", id.toString(), "sku", parts[0], "location", parts[1], "quantity", quantity);
+    }
+
+    private void expectOk(HttpResponse<byte[]> response, String what) {
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException(what + " returned HTTP " + response.statusCode() + ": " + new String(response.body()));
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private JsonNode send(HttpRequest request) {
+        HttpResponse<byte[]> response = exchange(request);
+        expectOk(response, request.method() + " " + request.uri());
+        try {
+            return MAPPER.readTree(response.body());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private HttpResponse<byte[]> exchange(HttpRequest request) {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            throw new IllegalStateException(request.method() + " " + request.uri() + " failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).GET().build();
+    }
+
+    private HttpRequest post(String path, Object body) {
+        try {
+            return HttpRequest.newBuilder(uri(path))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(MAPPER.writeValueAsBytes(body)))
+                    .build();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The last outcome a client was told about.
+     */
+    private record Acked(String key, int quantity, String status) {
+        /** A later settlement the client was not told about may have gone through. */
+        boolean allows(String found) {
+            return status.equals("RESERVED") ? !found.equals("PENDING") : status.equals(found);
+        }
+    }
+
+    private static final class Load {
+        final AtomicLong reserved = new AtomicLong();
+        final AtomicLong insufficient = new AtomicLong();
+        final AtomicLong committed = new AtomicLong();
+        final AtomicLong released = new AtomicLong();
+        final Histogram reserveLatency = new ConcurrentHistogram(3);
+        final Histogram settleLatency = new ConcurrentHistogram(3);
+        long nanos;
+
+        void print(String phase) {
+            double seconds = nanos / 1e9;
+            long operations = reserved.get() + insufficient.get() + committed.get() + released.get();
+            System.out.printf("%s: %,d reserved (%,d refused for lack of stock), %,d committed, %,d released in %.1f s: %,.0f ops/s%n",
+                    phase, reserved.get(), insufficient.get(), committed.get(), released.get(), seconds, operations / seconds);
+            System.out.printf("  reserve p50 %.2f ms  p99 %.2f ms  max %.2f ms; settle p50 %.2f ms  p99 %.2f ms%n",
+                    reserveLatency.getValueAtPercentile(50) / 1000.0, reserveLatency.getValueAtPercentile(99) / 1000.0,
+                    reserveLatency.getMaxValue() / 1000.0, settleLatency.getValueAtPercentile(50) / 1000.0,
+                    settleLatency.getValueAtPercentile(99) / 1000.0);
+        }
+    }
+}
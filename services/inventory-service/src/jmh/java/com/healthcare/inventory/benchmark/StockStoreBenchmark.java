@@ -0,0 +1,97 @@
+package com.healthcare.inventory.benchmark;
+
+import com.healthcare.Application;
+import com.healthcare.inventory.stock.ReservationSnapshot;
+import com.healthcare.inventory.stock.StockKey;
+import com.healthcare.inventory.stock.StockStore;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Reserve-then-settle throughput of the stock store with 64 threads on {@code hotKeys} SKUs, from
+ * all of them on one counter to spread over a thousand. Runs the whole service in process against
+ * embedded Postgres, so every operation goes through the write-ahead log and the flusher runs
+ * alongside; {@code fsync} false shows the cost of the counters and the log without the disk.
+ * Postgres refuses to run as root, so neither may the benchmark.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgs = "-Xmx1g")
+@Threads(64)
+@State(Scope.Benchmark)
+public class StockStoreBenchmark {
+    private static final long STOCK = 1_000_000_000_000L;
+
+    @Param({"1", "16", "1024"})
+    public int hotKeys;
+
+    @Param({"true", "false"})
+    public boolean fsync;
+
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext app;
+    private Path walDir;
+    private StockStore store;
+    private StockKey[] keys;
+
+    @Setup
+    public void setUp() throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+        walDir = Files.createTempDirectory("inventory-wal");
+        // Passed as command-line arguments so they override application.yml.
+        app = new SpringApplicationBuilder(Application.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=",
+                "--inventory.wal.dir=" + walDir,
+                "--inventory.wal.fsync=" + fsync,
+                // Forget settled reservations quickly, or millions of them pile up over a run.
+                "--inventory.reservations.retention=2s",
+                "--inventory.reservations.expiry-interval-ms=1000",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN");
+        store = app.getBean(StockStore.class);
+        keys = new StockKey[hotKeys];
+        for (int k = 0; k < hotKeys; k++) {
+            keys[k] = new StockKey("SKU-" + k, "WARD-" + k % 8);
+            store.receive(keys[k], STOCK);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        app.close();
+        postgres.close();
+        try (Stream<Path> files = Files.walk(walDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public ReservationSnapshot reserveAndRelease() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        ReservationSnapshot reserved = store.reserve(new UUID(random.nextLong(), random.nextLong()), keys[random.nextInt(hotKeys)], 1);
+        return store.release(reserved.id());
+    }
+
+    @Benchmark
+    public ReservationSnapshot reserveAndCommit() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        ReservationSnapshot reserved = store.reserve(new UUID(random.nextLong(), random.nextLong()), keys[random.nextInt(hotKeys)], 1);
+        return store.commit(reserved.id());
+    }
+}
@@ -0,0 +1,42 @@
+package com.healthcare.inventory.controller;
+
+import com.healthcare.inventory.dto.ReservationRequest;
+import com.healthcare.inventory.dto.ReservationResponse;
+import com.healthcare.inventory.service.ReservationService;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/inventory/reservations")
+public class ReservationController {
+
+    private final ReservationService reservationService;
+
+    public ReservationController(ReservationService reservationService) {
+        this.reservationService = reservationService;
+    }
+
+    @PostMapping
+    public ResponseEntity<ReservationResponse> reserve(@Valid @RequestBody ReservationRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(reservationService.reserve(request));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ReservationResponse> getReservation(@PathVariable UUID id) {
+        return ResponseEntity.ok(reservationService.getReservation(id));
+    }
+
+    @PostMapping("/{id}/commit")
+    public ResponseEntity<ReservationResponse> commit(@PathVariable UUID id) {
+        return ResponseEntity.ok(reservationService.commit(id));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<ReservationResponse> release(@PathVariable UUID id) {
+        return ResponseEntity.ok(reservationService.release(id));
+    }
+}
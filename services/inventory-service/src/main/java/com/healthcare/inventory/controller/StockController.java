@@ -0,0 +1,30 @@
+package com.healthcare.inventory.controller;
+
+import com.healthcare.inventory.dto.ReceiptRequest;
+import com.healthcare.inventory.dto.StockLevelResponse;
+import com.healthcare.inventory.service.StockService;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/inventory/stock")
+public class StockController {
+
+    private final StockService stockService;
+
+    public StockController(StockService stockService) {
+        this.stockService = stockService;
+    }
+
+    @GetMapping("/{sku}/{location}")
+    public ResponseEntity<StockLevelResponse> getStock(@PathVariable String sku, @PathVariable String location) {
+        return ResponseEntity.ok(stockService.getStock(sku, location));
+    }
+
+    @PostMapping("/{sku}/{location}/receipts")
+    public ResponseEntity<StockLevelResponse> receive(@PathVariable String sku, @PathVariable String location,
+                                                      @Valid @RequestBody ReceiptRequest request) {
+        return ResponseEntity.ok(stockService.receive(sku, location, request.getQuantity()));
+    }
+}
@@ -0,0 +1,16 @@
+package com.healthcare.inventory.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+public class ReceiptRequest {
+    @NotNull
+    @Min(1)
+    @Max(1_000_000_000)
+    private Long quantity;
+
+    // Getters and Setters
+    public Long getQuantity() { return quantity; }
+    public void setQuantity(Long quantity) { this.quantity = quantity; }
+}
@@ -0,0 +1,37 @@
+package com.healthcare.inventory.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.UUID;
+
+public class ReservationRequest {
+    /** Optional; a retried request with the same id gets the first request's reservation. */
+    private UUID reservationId;
+
+    @NotBlank
+    @Size(max = 64)
+    private String sku;
+
+    @NotBlank
+    @Size(max = 64)
+    private String location;
+
+    @NotNull
+    @Min(1)
+    @Max(1_000_000)
+    private Integer quantity;
+
+    // Getters and Setters
+    public UUID getReservationId() { return reservationId; }
+    public void setReservationId(UUID reservationId) { this.reservationId = reservationId; }
+    public String getSku() { return sku; }
+    public void setSku(String sku) { this.sku = sku; }
+    public String getLocation() { return location; }
+    public void setLocation(String location) { this.location = location; }
+    public Integer getQuantity() { return quantity; }
+    public void setQuantity(Integer quantity) { this.quantity = quantity; }
+}
@@ -0,0 +1,27 @@
+package com.healthcare.inventory.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public class ReservationResponse {
+    private UUID reservationId;
+    private String sku;
+    private String location;
+    private int quantity;
+    private ReservationStatus status;
+    private Instant expiresAt;
+
+    // Getters and Setters
+    public UUID getReservationId() { return reservationId; }
+    public void setReservationId(UUID reservationId) { this.reservationId = reservationId; }
+    public String getSku() { return sku; }
+    public void setSku(String sku) { this.sku = sku; }
+    public String getLocation() { return location; }
+    public void setLocation(String location) { this.location = location; }
+    public int getQuantity() { return quantity; }
+    public void setQuantity(int quantity) { this.quantity = quantity; }
+    public ReservationStatus getStatus() { return status; }
+    public void setStatus(ReservationStatus status) { this.status = status; }
+    public Instant getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(Instant expiresAt) { this.expiresAt = expiresAt; }
+}
@@ -0,0 +1,18 @@
+package com.healthcare.inventory.dto;
+
+/**
+ * Written to the inventory write-ahead log by ordinal: add new values at the end only.
+ */
+public enum ReservationStatus {
+    /** Being placed; not yet holding stock. */
+    PENDING,
+    RESERVED,
+    COMMITTED,
+    RELEASED,
+    /** Released because it was not committed within inventory.reservations.ttl. */
+    EXPIRED;
+
+    public boolean isSettled() {
+        return this == COMMITTED || this == RELEASED || this == EXPIRED;
+    }
+}
@@ -0,0 +1,21 @@
+package com.healthcare.inventory.dto;
+
+public class StockLevelResponse {
+    private String sku;
+    private String location;
+    private long onHand;
+    private long reserved;
+    private long available;
+
+    // Getters and Setters
+    public String getSku() { return sku; }
+    public void setSku(String sku) { this.sku = sku; }
+    public String getLocation() { return location; }
+    public void setLocation(String location) { this.location = location; }
+    public long getOnHand() { return onHand; }
+    public void setOnHand(long onHand) { this.onHand = onHand; }
+    public long getReserved() { return reserved; }
+    public void setReserved(long reserved) { this.reserved = reserved; }
+    public long getAvailable() { return available; }
+    public void setAvailable(long available) { this.available = available; }
+}
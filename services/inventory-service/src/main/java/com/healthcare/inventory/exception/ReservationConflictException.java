@@ -0,0 +1,7 @@
+package com.healthcare.inventory.exception;
+
+public class ReservationConflictException extends RuntimeException {
+    public ReservationConflictException(String message) {
+        super(message);
+    }
+}
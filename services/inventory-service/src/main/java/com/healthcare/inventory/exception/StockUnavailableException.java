@@ -0,0 +1,11 @@
+package com.healthcare.inventory.exception;
+
+public class StockUnavailableException extends RuntimeException {
+    public StockUnavailableException(String message) {
+        super(message);
+    }
+
+    public StockUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
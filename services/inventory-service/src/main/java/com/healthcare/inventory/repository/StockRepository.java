@@ -0,0 +1,174 @@
+package com.healthcare.inventory.repository;
+
+import com.healthcare.inventory.dto.ReservationStatus;
+import com.healthcare.inventory.stock.ReservationSnapshot;
+import com.healthcare.inventory.stock.StockKey;
+import com.healthcare.inventory.stock.StockLevel;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * The durable copy of the stock counters and reservations. Only the flusher writes, a batch of
+ * changed rows per statement over {@code unnest}ed arrays; the writes never move a row backwards, so
+ * a batch that raced a later one, or is written again after a crash, changes nothing it should not.
+ */
+@Repository
+public class StockRepository {
+    private static final String UPSERT_LEVELS = """
+            INSERT INTO stock_levels (sku, location, on_hand, reserved, version)
+            SELECT * FROM unnest(?::varchar[], ?::varchar[], ?::bigint[], ?::bigint[], ?::bigint[])
+            ON CONFLICT (sku, location) DO UPDATE
+            SET on_hand = excluded.on_hand, reserved = excluded.reserved, version = excluded.version, updated_at = now()
+            WHERE stock_levels.version < excluded.version""";
+    private static final String UPSERT_RESERVATIONS = """
+            INSERT INTO stock_reservations (id, sku, location, quantity, status, expires_at)
+            SELECT * FROM unnest(?::uuid[], ?::varchar[], ?::varchar[], ?::integer[], ?::varchar[], ?::timestamptz[])
+            ON CONFLICT (id) DO UPDATE
+            SET status = excluded.status, updated_at = now()
+            WHERE stock_reservations.status = 'RESERVED' AND excluded.status <> 'RESERVED'""";
+
+    private static final RowMapper<ReservationSnapshot> RESERVATION_MAPPER = (rs, rowNum) -> new ReservationSnapshot(
+            rs.getObject("id", UUID.class),
+            new StockKey(rs.getString("sku"), rs.getString("location")),
+            rs.getInt("quantity"),
+            rs.getTimestamp("expires_at").toInstant(),
+            ReservationStatus.valueOf(rs.getString("status")));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public StockRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Takes the session-level advisory lock that marks the stock's owner, on a connection of its own
+     * that holds it until closed. Empty if another instance holds the lock.
+     */
+    public Optional<Connection> tryLockOwnership() throws SQLException {
+        Connection connection = jdbcTemplate.getDataSource().getConnection();
+        try (PreparedStatement ps = connection.prepareStatement("SELECT pg_try_advisory_lock(hashtext('inventory.stock.owner'))");
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            if (rs.getBoolean(1)) return Optional.of(connection);
+        } catch (SQLException | RuntimeException e) {
+            connection.close();
+            throw e;
+        }
+        connection.close();
+        return Optional.empty();
+    }
+
+    /**
+     * Streams every level. Read-only transaction, since the driver only uses a cursor, and so
+     * {@code spring.jdbc.template.fetch-size}, with autocommit off.
+     */
+    @Transactional(readOnly = true)
+    public void forEachLevel(BiConsumer<StockKey, StockLevel> handler) {
+        jdbcTemplate.query("SELECT sku, location, on_hand, reserved, version FROM stock_levels", rs -> {
+            handler.accept(new StockKey(rs.getString(1), rs.getString(2)), new StockLevel(rs.getLong(3), rs.getLong(4), rs.getLong(5)));
+        });
+    }
+
+    public List<ReservationSnapshot> findOpenReservations() {
+        return jdbcTemplate.query("SELECT * FROM stock_reservations WHERE status = 'RESERVED'", RESERVATION_MAPPER);
+    }
+
+    public Optional<ReservationSnapshot> findReservation(UUID id) {
+        return jdbcTemplate.query("SELECT * FROM stock_reservations WHERE id = ?", RESERVATION_MAPPER, id).stream().findFirst();
+    }
+
+    /**
+     * The status of each of {@code ids} that is settled in the database.
+     */
+    public Map<UUID, ReservationStatus> findSettled(Collection<UUID> ids) {
+        Map<UUID, ReservationStatus> settled = new HashMap<>();
+        if (ids.isEmpty()) return settled;
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT id, status FROM stock_reservations WHERE id = ANY(?) AND status <> 'RESERVED'");
+            ps.setArray(1, con.createArrayOf("uuid", ids.toArray()));
+            return ps;
+        }, rs -> {
+            settled.put(rs.getObject(1, UUID.class), ReservationStatus.valueOf(rs.getString(2)));
+        });
+        return settled;
+    }
+
+    /**
+     * Writes each level over its row unless the row is already at the same or a later version.
+     */
+    public int upsertLevels(Map<StockKey, StockLevel> levels) {
+        if (levels.isEmpty()) return 0;
+        int size = levels.size();
+        String[] skus = new String[size];
+        String[] locations = new String[size];
+        Long[] onHand = new Long[size];
+        Long[] reserved = new Long[size];
+        Long[] versions = new Long[size];
+        int i = 0;
+        for (var entry : levels.entrySet()) {
+            skus[i] = entry.getKey().sku();
+            locations[i] = entry.getKey().location();
+            onHand[i] = entry.getValue().onHand();
+            reserved[i] = entry.getValue().reserved();
+            versions[i] = entry.getValue().version();
+            i++;
+        }
+        return jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(UPSERT_LEVELS);
+            ps.setArray(1, con.createArrayOf("varchar", skus));
+            ps.setArray(2, con.createArrayOf("varchar", locations));
+            ps.setArray(3, con.createArrayOf("bigint", onHand));
+            ps.setArray(4, con.createArrayOf("bigint", reserved));
+            ps.setArray(5, con.createArrayOf("bigint", versions));
+            return ps;
+        });
+    }
+
+    /**
+     * Inserts the reservations, or settles their rows; a settled row is left as it is.
+     */
+    public int upsertReservations(List<ReservationSnapshot> reservations) {
+        if (reservations.isEmpty()) return 0;
+        int size = reservations.size();
+        UUID[] ids = new UUID[size];
+        String[] skus = new String[size];
+        String[] locations = new String[size];
+        Integer[] quantities = new Integer[size];
+        String[] statuses = new String[size];
+        Timestamp[] expiresAt = new Timestamp[size];
+        for (int i = 0; i < size; i++) {
+            ReservationSnapshot reservation = reservations.get(i);
+            ids[i] = reservation.id();
+            skus[i] = reservation.key().sku();
+            locations[i] = reservation.key().location();
+            quantities[i] = reservation.quantity();
+            statuses[i] = reservation.status().name();
+            expiresAt[i] = Timestamp.from(reservation.expiresAt());
+        }
+        return jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(UPSERT_RESERVATIONS);
+            ps.setArray(1, con.createArrayOf("uuid", ids));
+            ps.setArray(2, con.createArrayOf("varchar", skus));
+            ps.setArray(3, con.createArrayOf("varchar", locations));
+            ps.setArray(4, con.createArrayOf("integer", quantities));
+            ps.setArray(5, con.createArrayOf("varchar", statuses));
+            ps.setArray(6, con.createArrayOf("timestamptz", expiresAt));
+            return ps;
+        });
+    }
+}
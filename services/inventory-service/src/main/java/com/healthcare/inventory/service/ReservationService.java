@@ -0,0 +1,48 @@
+package com.healthcare.inventory.service;
+
+import com.healthcare.inventory.dto.ReservationRequest;
+import com.healthcare.inventory.dto.ReservationResponse;
+import com.healthcare.inventory.stock.ReservationSnapshot;
+import com.healthcare.inventory.stock.StockKey;
+import com.healthcare.inventory.stock.StockStore;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+@Service
+public class ReservationService {
+
+    private final StockStore stockStore;
+
+    public ReservationService(StockStore stockStore) {
+        this.stockStore = stockStore;
+    }
+
+    public ReservationResponse reserve(ReservationRequest request) {
+        UUID id = request.getReservationId() != null ? request.getReservationId() : UUID.randomUUID();
+        return toResponse(stockStore.reserve(id, new StockKey(request.getSku(), request.getLocation()), request.getQuantity()));
+    }
+
+    public ReservationResponse commit(UUID id) {
+        return toResponse(stockStore.commit(id));
+    }
+
+    public ReservationResponse release(UUID id) {
+        return toResponse(stockStore.release(id));
+    }
+
+    public ReservationResponse getReservation(UUID id) {
+        return toResponse(stockStore.reservation(id));
+    }
+
+    private ReservationResponse toResponse(ReservationSnapshot reservation) {
+        ReservationResponse response = new ReservationResponse();
+        response.setReservationId(reservation.id());
+        response.setSku(reservation.key().sku());
+        response.setLocation(reservation.key().location());
+        response.setQuantity(reservation.quantity());
+        response.setStatus(reservation.status());
+        response.setExpiresAt(reservation.expiresAt());
+        return response;
+    }
+}
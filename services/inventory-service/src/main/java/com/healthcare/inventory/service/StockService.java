@@ -0,0 +1,37 @@
+package com.healthcare.inventory.service;
+
+import com.healthcare.inventory.dto.StockLevelResponse;
+import com.healthcare.inventory.stock.StockKey;
+import com.healthcare.inventory.stock.StockLevel;
+import com.healthcare.inventory.stock.StockStore;
+import org.springframework.stereotype.Service;
+
+@Service
+public class StockService {
+
+    private final StockStore stockStore;
+
+    public StockService(StockStore stockStore) {
+        this.stockStore = stockStore;
+    }
+
+    public StockLevelResponse getStock(String sku, String location) {
+        StockKey key = new StockKey(sku, location);
+        return toResponse(key, stockStore.level(key));
+    }
+
+    public StockLevelResponse receive(String sku, String location, long quantity) {
+        StockKey key = new StockKey(sku, location);
+        return toResponse(key, stockStore.receive(key, quantity));
+    }
+
+    private StockLevelResponse toResponse(StockKey key, StockLevel level) {
+        StockLevelResponse response = new StockLevelResponse();
+        response.setSku(key.sku());
+        response.setLocation(key.location());
+        response.setOnHand(level.onHand());
+        response.setReserved(level.reserved());
+        response.setAvailable(level.available());
+        return response;
+    }
+}
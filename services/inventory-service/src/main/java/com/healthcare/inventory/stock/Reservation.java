@@ -0,0 +1,108 @@
+package com.healthcare.inventory.stock;
+
+import com.healthcare.inventory.dto.ReservationStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Units of one {@link StockKey} set aside until they are committed (used) or released. The status
+ * moves by compare-and-set, so of a commit, a release and the expiry racing for the same
+ * reservation exactly one settles it. Each status comes with the future of its log record, so a
+ * caller told about a change some other caller made can wait until it is durable before answering.
+ */
+final class Reservation {
+    private final UUID id;
+    private final StockKey key;
+    private final int quantity;
+    private final Instant expiresAt;
+    private final AtomicReference<State> state;
+    private volatile Instant settledAt;
+    private volatile boolean persistedSettled;
+
+    Reservation(UUID id, StockKey key, int quantity, Instant expiresAt, ReservationStatus status) {
+        this.id = id;
+        this.key = key;
+        this.quantity = quantity;
+        this.expiresAt = expiresAt;
+        CompletableFuture<Void> logged = status == ReservationStatus.PENDING ? new CompletableFuture<>() : CompletableFuture.completedFuture(null);
+        this.state = new AtomicReference<>(new State(status, logged));
+        if (status.isSettled()) settledAt = Instant.now();
+    }
+
+    UUID id() {
+        return id;
+    }
+
+    StockKey key() {
+        return key;
+    }
+
+    int quantity() {
+        return quantity;
+    }
+
+    Instant expiresAt() {
+        return expiresAt;
+    }
+
+    ReservationStatus status() {
+        return state.get().status();
+    }
+
+    /**
+     * Completes once the change to the current status is durable. For a PENDING reservation it
+     * completes when the reservation is placed, or exceptionally when it cannot be.
+     */
+    CompletableFuture<Void> logged() {
+        return state.get().logged();
+    }
+
+    ReservationSnapshot snapshot() {
+        return snapshot(status());
+    }
+
+    ReservationSnapshot snapshot(ReservationStatus status) {
+        return new ReservationSnapshot(id, key, quantity, expiresAt, status);
+    }
+
+    /**
+     * Moves the reservation from {@code from} to {@code to}. Returns the future to complete once the
+     * change is logged, or null if the reservation was not in {@code from}.
+     */
+    CompletableFuture<Void> transition(ReservationStatus from, ReservationStatus to) {
+        State current = state.get();
+        if (current.status() != from) return null;
+        State next = new State(to, new CompletableFuture<>());
+        if (!state.compareAndSet(current, next)) return null;
+        if (to.isSettled()) settledAt = Instant.now();
+        return next.logged();
+    }
+
+    Instant settledAt() {
+        return settledAt;
+    }
+
+    boolean persistedSettled() {
+        return persistedSettled;
+    }
+
+    void persistedSettled(boolean persistedSettled) {
+        this.persistedSettled = persistedSettled;
+    }
+
+    /**
+     * Recovery only: a settled status read back from the log or the database wins over an open one,
+     * whatever order the records were read in.
+     */
+    void restore(ReservationStatus replayed) {
+        if (!replayed.isSettled() || status().isSettled()) return;
+        state.set(new State(replayed, CompletableFuture.completedFuture(null)));
+        settledAt = Instant.now();
+    }
+
+    private record State(ReservationStatus status, CompletableFuture<Void> logged) {
+    }
+}
@@ -0,0 +1,9 @@
+package com.healthcare.inventory.stock;
+
+import com.healthcare.inventory.dto.ReservationStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record ReservationSnapshot(UUID id, StockKey key, int quantity, Instant expiresAt, ReservationStatus status) {
+}
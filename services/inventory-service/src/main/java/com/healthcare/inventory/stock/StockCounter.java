@@ -0,0 +1,100 @@
+package com.healthcare.inventory.stock;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Stock of one {@link StockKey}, changed by compare-and-set on an immutable {@link StockLevel}: no
+ * lock is taken, a reader always sees a consistent pair of on-hand and reserved, and no change can
+ * take available stock below zero however many threads race for the last units.
+ *
+ * <p>The log records of a counter's changes must reach the log in version order: each carries the
+ * whole level, so a durable record implies every earlier change to the counter, and the records of
+ * those changes, which carry the reservations they settled, must be durable before it. Queueing the
+ * record is the one step threads changing the same counter take in turn, see {@link #inOrder}.
+ */
+final class StockCounter {
+    private static final int SPINS = 64;
+
+    private final AtomicReference<StockLevel> level;
+    /** Version of the latest change whose log record is queued. */
+    private final AtomicLong sequenced;
+
+    StockCounter(StockLevel level) {
+        this.level = new AtomicReference<>(level);
+        this.sequenced = new AtomicLong(level.version());
+    }
+
+    StockLevel current() {
+        return level.get();
+    }
+
+    /**
+     * Sets {@code quantity} units aside. Returns the new level, or null if fewer are available.
+     */
+    StockLevel reserve(long quantity) {
+        while (true) {
+            StockLevel current = level.get();
+            if (current.available() < quantity) return null;
+            StockLevel next = new StockLevel(current.onHand(), current.reserved() + quantity, current.version() + 1);
+            if (level.compareAndSet(current, next)) return next;
+        }
+    }
+
+    /**
+     * Ends a reservation of {@code quantity} units, taking them out of stock if {@code consume},
+     * otherwise making them available again.
+     */
+    StockLevel settle(long quantity, boolean consume) {
+        while (true) {
+            StockLevel current = level.get();
+            if (current.reserved() < quantity) {
+                throw new IllegalStateException("Settling " + quantity + " units with only " + current.reserved() + " reserved");
+            }
+            long onHand = consume ? current.onHand() - quantity : current.onHand();
+            StockLevel next = new StockLevel(onHand, current.reserved() - quantity, current.version() + 1);
+            if (level.compareAndSet(current, next)) return next;
+        }
+    }
+
+    StockLevel receive(long quantity) {
+        while (true) {
+            StockLevel current = level.get();
+            StockLevel next = new StockLevel(Math.addExact(current.onHand(), quantity), current.reserved(), current.version() + 1);
+            if (level.compareAndSet(current, next)) return next;
+        }
+    }
+
+    /**
+     * Runs {@code write}, which queues the log record of the change that produced {@code changed},
+     * once the records of all earlier changes are queued. Every successful change must be followed
+     * by exactly one call, or later changes to the counter wait forever.
+     */
+    <T> T inOrder(StockLevel changed, Supplier<T> write) {
+        long previous = changed.version() - 1;
+        for (int spins = 0; sequenced.get() != previous; spins++) {
+            // The change before is between its compare-and-set and queueing its record: a few
+            // instructions, unless its thread was descheduled in between.
+            if (spins < SPINS) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+        try {
+            return write.get();
+        } finally {
+            sequenced.set(changed.version());
+        }
+    }
+
+    /**
+     * Recovery only: adopts {@code replayed} if it is a later version than the current level.
+     */
+    void restore(StockLevel replayed) {
+        StockLevel restored = level.accumulateAndGet(replayed,
+                (current, candidate) -> candidate.version() > current.version() ? candidate : current);
+        sequenced.set(restored.version());
+    }
+}
@@ -0,0 +1,7 @@
+package com.healthcare.inventory.stock;
+
+/**
+ * A stocked item at one location: a ward, pharmacy or store room.
+ */
+public record StockKey(String sku, String location) {
+}
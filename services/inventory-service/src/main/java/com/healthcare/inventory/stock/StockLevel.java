@@ -0,0 +1,13 @@
+package com.healthcare.inventory.stock;
+
+/**
+ * One state of a counter. {@code reserved} units are promised to open reservations and are still
+ * part of {@code onHand}; {@code version} counts the changes that led here.
+ */
+public record StockLevel(long onHand, long reserved, long version) {
+    static final StockLevel EMPTY = new StockLevel(0, 0, 0);
+
+    public long available() {
+        return onHand - reserved;
+    }
+}
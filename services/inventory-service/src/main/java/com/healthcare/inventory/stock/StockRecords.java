@@ -0,0 +1,67 @@
+package com.healthcare.inventory.stock;
+
+import com.healthcare.inventory.dto.ReservationStatus;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * The write-ahead log's records. Each carries the counter's whole {@link StockLevel} after the
+ * change rather than the delta, and a reservation change carries the whole reservation, so replay
+ * keeps the highest version of each counter and the settled state of each reservation whatever
+ * order concurrent changes reached the log in.
+ */
+final class StockRecords {
+    private static final byte LEVEL = 1;
+    private static final byte RESERVATION = 2;
+    private static final ReservationStatus[] STATUSES = ReservationStatus.values();
+
+    private StockRecords() {
+    }
+
+    static byte[] encode(StockKey key, StockLevel level, ReservationSnapshot reservation) {
+        byte[] sku = key.sku().getBytes(StandardCharsets.UTF_8);
+        byte[] location = key.location().getBytes(StandardCharsets.UTF_8);
+        int size = 1 + 2 + sku.length + 2 + location.length + 3 * Long.BYTES;
+        if (reservation != null) size += 2 * Long.BYTES + Integer.BYTES + Long.BYTES + 1;
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(reservation == null ? LEVEL : RESERVATION);
+        buffer.putShort((short) sku.length).put(sku);
+        buffer.putShort((short) location.length).put(location);
+        buffer.putLong(level.onHand()).putLong(level.reserved()).putLong(level.version());
+        if (reservation != null) {
+            buffer.putLong(reservation.id().getMostSignificantBits()).putLong(reservation.id().getLeastSignificantBits());
+            buffer.putInt(reservation.quantity());
+            buffer.putLong(reservation.expiresAt().toEpochMilli());
+            buffer.put((byte) reservation.status().ordinal());
+        }
+        return buffer.array();
+    }
+
+    static Decoded decode(ByteBuffer buffer) {
+        byte type = buffer.get();
+        StockKey key = new StockKey(string(buffer), string(buffer));
+        StockLevel level = new StockLevel(buffer.getLong(), buffer.getLong(), buffer.getLong());
+        ReservationSnapshot reservation = null;
+        if (type == RESERVATION) {
+            UUID id = new UUID(buffer.getLong(), buffer.getLong());
+            int quantity = buffer.getInt();
+            Instant expiresAt = Instant.ofEpochMilli(buffer.getLong());
+            reservation = new ReservationSnapshot(id, key, quantity, expiresAt, STATUSES[buffer.get()]);
+        } else if (type != LEVEL) {
+            throw new IllegalArgumentException("Unknown stock record type " + type);
+        }
+        return new Decoded(key, level, reservation);
+    }
+
+    private static String string(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    record Decoded(StockKey key, StockLevel level, ReservationSnapshot reservation) {
+    }
+}
@@ -0,0 +1,519 @@
+package com.healthcare.inventory.stock;
+
+import com.healthcare.inventory.dto.ReservationStatus;
+import com.healthcare.inventory.exception.InsufficientStockException;
+import com.healthcare.inventory.exception.ReservationConflictException;
+import com.healthcare.inventory.exception.ResourceNotFoundException;
+import com.healthcare.inventory.exception.StockUnavailableException;
+import com.healthcare.inventory.repository.StockRepository;
+import com.healthcare.inventory.wal.WriteAheadLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The stock of every SKU at every location, held in memory and changed without locks: each
+ * {@link StockCounter} moves by compare-and-set, and each {@link Reservation} settles by
+ * compare-and-set, so requests for the same hot SKU only ever retry, never wait for one another.
+ *
+ * <p>A change is acknowledged once its record is in the {@link WriteAheadLog}, which commits the
+ * records of concurrent changes with one fsync. Every {@code inventory.flush.interval-ms} the
+ * flusher writes the latest durable state of each counter and reservation changed since the last
+ * flush to Postgres in one transaction, however many times each changed, and then deletes the log
+ * segments that flush covers. Only durable state is flushed, so Postgres never holds a change the
+ * log could lose. On startup the store loads Postgres and replays what is left of the log.
+ *
+ * <p>The counters are only correct while one instance owns the stock: run a single replica, with
+ * {@code inventory.wal.dir} on a volume that survives it. A second instance against the same
+ * database refuses to start, since the owner holds a Postgres advisory lock while it runs.
+ */
+@Component
+public class StockStore implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(StockStore.class);
+
+    private final StockRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Path walDir;
+    private final boolean fsync;
+    private final long flushIntervalMillis;
+    private final Duration reservationTtl;
+    private final Duration retention;
+    private final long expiryIntervalMillis;
+
+    private final Map<StockKey, StockCounter> counters = new ConcurrentHashMap<>();
+    private final Map<UUID, Reservation> reservations = new ConcurrentHashMap<>();
+    /** Durable changes not yet flushed: the latest logged level of each counter and state of each reservation. */
+    private final Map<StockKey, StockLevel> unflushedLevels = new ConcurrentHashMap<>();
+    private final Map<UUID, ReservationSnapshot> unflushedReservations = new ConcurrentHashMap<>();
+    private final Timer logTimer;
+    private final Timer flushTimer;
+    private final Counter receipts;
+    private WriteAheadLog wal;
+    private Connection ownerLock;
+    private ScheduledThreadPoolExecutor scheduler;
+    private volatile boolean running;
+
+    public StockStore(StockRepository repository,
+                      TransactionTemplate transactionTemplate,
+                      MeterRegistry meterRegistry,
+                      @Value("${inventory.wal.dir}") Path walDir,
+                      @Value("${inventory.wal.fsync:true}") boolean fsync,
+                      @Value("${inventory.flush.interval-ms:1000}") long flushIntervalMillis,
+                      @Value("${inventory.reservations.ttl:15m}") Duration reservationTtl,
+                      @Value("${inventory.reservations.retention:15m}") Duration retention,
+                      @Value("${inventory.reservations.expiry-interval-ms:5000}") long expiryIntervalMillis) {
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.walDir = walDir;
+        this.fsync = fsync;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.reservationTtl = reservationTtl;
+        this.retention = retention;
+        this.expiryIntervalMillis = expiryIntervalMillis;
+        this.logTimer = Timer.builder("inventory.wal.commit")
+                .description("Time from queueing a stock change's log record to it being durable")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("inventory.flush.duration")
+                .description("Time to write the changed counters and reservations to Postgres")
+                .register(meterRegistry);
+        this.receipts = meterRegistry.counter("inventory.receipts");
+        Gauge.builder("inventory.reservations.tracked", reservations, Map::size)
+                .description("Reservations held in memory: open ones, and settled ones within inventory.reservations.retention")
+                .register(meterRegistry);
+        Gauge.builder("inventory.flush.pending", unflushedLevels, Map::size)
+                .description("Counters changed since the last flush")
+                .register(meterRegistry);
+    }
+
+    public StockLevel level(StockKey key) {
+        StockCounter counter = counters.get(key);
+        if (counter == null) throw new ResourceNotFoundException("No stock recorded for " + key);
+        return counter.current();
+    }
+
+    /**
+     * Adds received units to the stock, creating its counter on first receipt.
+     */
+    public StockLevel receive(StockKey key, long quantity) {
+        checkRunning();
+        StockCounter counter = counters.computeIfAbsent(key, k -> new StockCounter(StockLevel.EMPTY));
+        StockLevel level = counter.receive(quantity);
+        CompletableFuture<Void> logged = new CompletableFuture<>();
+        write(counter, key, level, null, null, logged);
+        await(logged);
+        receipts.increment(quantity);
+        return level;
+    }
+
+    /**
+     * Sets {@code quantity} units aside under {@code id}, or answers for the reservation already
+     * placed under it, which must be for the same stock and quantity.
+     */
+    public ReservationSnapshot reserve(UUID id, StockKey key, int quantity) {
+        checkRunning();
+        Reservation reservation = new Reservation(id, key, quantity, Instant.now().plus(reservationTtl), ReservationStatus.PENDING);
+        Reservation existing = reservations.putIfAbsent(id, reservation);
+        if (existing != null) return duplicate(existing, key, quantity);
+        CompletableFuture<Void> placed = reservation.logged();
+        StockCounter counter = counters.get(key);
+        StockLevel level = counter == null ? null : counter.reserve(quantity);
+        if (level == null) {
+            reservations.remove(id, reservation);
+            long available = counter == null ? 0 : counter.current().available();
+            InsufficientStockException e = new InsufficientStockException(
+                    "Cannot reserve " + quantity + " of " + key + ": " + available + " available");
+            placed.completeExceptionally(e);
+            count("insufficient");
+            throw e;
+        }
+        CompletableFuture<Void> logged = reservation.transition(ReservationStatus.PENDING, ReservationStatus.RESERVED);
+        write(counter, key, level, reservation, ReservationStatus.RESERVED, logged);
+        placed.complete(null);
+        await(logged);
+        count("reserved");
+        return reservation.snapshot();
+    }
+
+    /**
+     * Takes the reserved units out of stock. Committing a committed reservation again is a no-op.
+     */
+    public ReservationSnapshot commit(UUID id) {
+        return settle(id, ReservationStatus.COMMITTED);
+    }
+
+    /**
+     * Makes the reserved units available again. Releasing a released or expired reservation again
+     * is a no-op.
+     */
+    public ReservationSnapshot release(UUID id) {
+        return settle(id, ReservationStatus.RELEASED);
+    }
+
+    public ReservationSnapshot reservation(UUID id) {
+        Reservation reservation = reservations.get(id);
+        if (reservation == null) {
+            return repository.findReservation(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Reservation not found: " + id));
+        }
+        if (reservation.status() == ReservationStatus.PENDING && !awaitPlaced(reservation)) {
+            throw new ResourceNotFoundException("Reservation not found: " + id);
+        }
+        await(reservation.logged());
+        return reservation.snapshot();
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) return;
+        try {
+            ownerLock = repository.tryLockOwnership().orElseThrow(() -> new IllegalStateException(
+                    "Another instance owns the stock; run a single inventory-service replica"));
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not take the stock owner lock", e);
+        }
+        try {
+            recover();
+        } catch (IOException e) {
+            releaseOwnerLock();
+            throw new UncheckedIOException("Could not recover the stock write-ahead log in " + walDir, e);
+        } catch (RuntimeException e) {
+            releaseOwnerLock();
+            throw e;
+        }
+        scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "inventory-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::scheduledFlush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::expire, expiryIntervalMillis, expiryIntervalMillis, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    /**
+     * Stops taking changes, flushes everything logged to Postgres and closes the log.
+     */
+    @Override
+    public synchronized void stop() {
+        if (!running) return;
+        running = false;
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Final stock flush failed, the write-ahead log still has the changes: {}", e.toString());
+        }
+        try {
+            wal.close();
+        } catch (IOException e) {
+            log.warn("Closing the stock write-ahead log failed: {}", e.toString());
+        }
+        releaseOwnerLock();
+        log.info("Stock store stopped");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Before the web server starts taking requests, and after it stops.
+     */
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE - 2048;
+    }
+
+    /**
+     * Writes every counter and reservation changed since the last flush to Postgres and deletes the
+     * log segments this made redundant. Runs on the flusher thread, and once more on stop.
+     */
+    public synchronized void flush() {
+        long started = System.nanoTime();
+        // Completes after every record queued before it is durable and recorded as unflushed, so
+        // the state read below covers the segments before the new one.
+        long segment = wal.rotate().join();
+        Map<StockKey, StockLevel> levels = new HashMap<>();
+        for (var entry : unflushedLevels.entrySet()) {
+            levels.put(entry.getKey(), entry.getValue());
+            // Kept if a later change replaced it meanwhile.
+            unflushedLevels.remove(entry.getKey(), entry.getValue());
+        }
+        List<ReservationSnapshot> snapshots = new ArrayList<>();
+        for (var entry : unflushedReservations.entrySet()) {
+            snapshots.add(entry.getValue());
+            unflushedReservations.remove(entry.getKey(), entry.getValue());
+        }
+        if (levels.isEmpty() && snapshots.isEmpty()) return;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                repository.upsertLevels(levels);
+                repository.upsertReservations(snapshots);
+            });
+        } catch (RuntimeException e) {
+            levels.forEach(this::unflushed);
+            snapshots.forEach(this::unflushed);
+            throw e;
+        }
+        for (ReservationSnapshot snapshot : snapshots) {
+            Reservation reservation = reservations.get(snapshot.id());
+            if (reservation != null && snapshot.status().isSettled()) reservation.persistedSettled(true);
+        }
+        try {
+            wal.deleteBefore(segment);
+        } catch (IOException e) {
+            log.warn("Could not delete flushed stock log segments, they are replayed harmlessly: {}", e.toString());
+        }
+        flushTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        log.debug("Flushed {} stock levels and {} reservations", levels.size(), snapshots.size());
+    }
+
+    /**
+     * Releases the reservations not committed within {@code inventory.reservations.ttl}, and forgets
+     * settled ones that are flushed and past {@code inventory.reservations.retention}.
+     */
+    void expire() {
+        Instant now = Instant.now();
+        Instant forgetBefore = now.minus(retention);
+        int expired = 0;
+        for (Reservation reservation : reservations.values()) {
+            ReservationStatus status = reservation.status();
+            if (status == ReservationStatus.RESERVED && reservation.expiresAt().isBefore(now)) {
+                CompletableFuture<Void> logged = reservation.transition(ReservationStatus.RESERVED, ReservationStatus.EXPIRED);
+                if (logged == null) continue;
+                StockCounter counter = counters.get(reservation.key());
+                write(counter, reservation.key(), counter.settle(reservation.quantity(), false), reservation, ReservationStatus.EXPIRED, logged);
+                expired++;
+            } else if (status.isSettled() && reservation.persistedSettled() && reservation.settledAt().isBefore(forgetBefore)) {
+                reservations.remove(reservation.id(), reservation);
+            }
+        }
+        if (expired > 0) {
+            meterRegistry.counter("inventory.reservations.settled", "status", ReservationStatus.EXPIRED.name()).increment(expired);
+            log.info("Expired {} stock reservations", expired);
+        }
+    }
+
+    private ReservationSnapshot settle(UUID id, ReservationStatus target) {
+        checkRunning();
+        Reservation reservation = reservations.get(id);
+        if (reservation == null) return settledInDatabase(id, target);
+        while (true) {
+            ReservationStatus status = reservation.status();
+            if (status == ReservationStatus.PENDING) {
+                if (!awaitPlaced(reservation)) throw new ResourceNotFoundException("Reservation not found: " + id);
+                continue;
+            }
+            if (status == ReservationStatus.RESERVED) {
+                CompletableFuture<Void> logged = reservation.transition(ReservationStatus.RESERVED, target);
+                if (logged == null) continue;
+                StockCounter counter = counters.get(reservation.key());
+                StockLevel level = counter.settle(reservation.quantity(), target == ReservationStatus.COMMITTED);
+                write(counter, reservation.key(), level, reservation, target, logged);
+                await(logged);
+                meterRegistry.counter("inventory.reservations.settled", "status", target.name()).increment();
+                return reservation.snapshot(target);
+            }
+            if (!isSettledAs(status, target)) {
+                throw new ReservationConflictException("Reservation " + id + " is already " + status);
+            }
+            await(reservation.logged());
+            return reservation.snapshot();
+        }
+    }
+
+    /**
+     * A reservation no longer in memory was settled and flushed long enough ago to be forgotten.
+     */
+    private ReservationSnapshot settledInDatabase(UUID id, ReservationStatus target) {
+        ReservationSnapshot reservation = repository.findReservation(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Reservation not found: " + id));
+        if (!isSettledAs(reservation.status(), target)) {
+            throw new ReservationConflictException("Reservation " + id + " is already " + reservation.status());
+        }
+        return reservation;
+    }
+
+    private static boolean isSettledAs(ReservationStatus status, ReservationStatus target) {
+        return status == target || (target == ReservationStatus.RELEASED && status == ReservationStatus.EXPIRED);
+    }
+
+    private ReservationSnapshot duplicate(Reservation existing, StockKey key, int quantity) {
+        if (!existing.key().equals(key) || existing.quantity() != quantity) {
+            throw new ReservationConflictException("Reservation " + existing.id() + " is for " + existing.quantity()
+                    + " of " + existing.key());
+        }
+        if (existing.status() == ReservationStatus.PENDING) {
+            try {
+                existing.logged().join();
+            } catch (CompletionException e) {
+                // The same answer the first request got.
+                if (e.getCause() instanceof InsufficientStockException insufficient) throw insufficient;
+                throw unavailable(e.getCause());
+            }
+        }
+        await(existing.logged());
+        count("duplicate");
+        return existing.snapshot();
+    }
+
+    /**
+     * Waits for a PENDING reservation to be placed; false if it could not be.
+     */
+    private boolean awaitPlaced(Reservation reservation) {
+        try {
+            reservation.logged().join();
+            return true;
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof InsufficientStockException) return false;
+            throw unavailable(e.getCause());
+        }
+    }
+
+    /**
+     * Queues the change's log record. Call straight after the counter's compare-and-set, see
+     * {@link StockCounter#inOrder}; {@code logged} completes when the record is durable, after the
+     * change is recorded for the next flush.
+     */
+    private void write(StockCounter counter, StockKey key, StockLevel level, Reservation reservation,
+                       ReservationStatus status, CompletableFuture<Void> logged) {
+        // The status this change set, not the current one: a later change has its own record.
+        ReservationSnapshot snapshot = reservation == null ? null : reservation.snapshot(status);
+        byte[] record = StockRecords.encode(key, level, snapshot);
+        long queued = System.nanoTime();
+        CompletableFuture<Void> durable = new CompletableFuture<>();
+        durable.whenComplete((ignored, error) -> {
+            if (error != null) {
+                logged.completeExceptionally(error);
+                return;
+            }
+            unflushed(key, level);
+            if (snapshot != null) unflushed(snapshot);
+            logTimer.record(System.nanoTime() - queued, TimeUnit.NANOSECONDS);
+            logged.complete(null);
+        });
+        counter.inOrder(level, () -> wal.append(record, durable));
+    }
+
+    private void unflushed(StockKey key, StockLevel level) {
+        unflushedLevels.merge(key, level, (current, candidate) -> candidate.version() > current.version() ? candidate : current);
+    }
+
+    private void unflushed(ReservationSnapshot reservation) {
+        unflushedReservations.merge(reservation.id(), reservation,
+                (current, candidate) -> current.status().isSettled() ? current : candidate);
+    }
+
+    private void await(CompletableFuture<Void> logged) {
+        try {
+            logged.join();
+        } catch (CompletionException e) {
+            throw unavailable(e.getCause());
+        }
+    }
+
+    private StockUnavailableException unavailable(Throwable cause) {
+        return new StockUnavailableException("Stock change could not be made durable", cause);
+    }
+
+    private void checkRunning() {
+        if (!running) throw new StockUnavailableException("Stock store is not running");
+        if (wal.failed()) throw new StockUnavailableException("Stock write-ahead log has failed; restart the service to recover");
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("inventory.reservations", "outcome", outcome).increment();
+    }
+
+    // Closing the session releases the advisory lock.
+    private void releaseOwnerLock() {
+        try {
+            ownerLock.close();
+        } catch (SQLException e) {
+            log.warn("Closing the stock owner lock connection failed: {}", e.toString());
+        }
+        ownerLock = null;
+    }
+
+    private void scheduledFlush() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Stock flush failed, retrying next interval: {}", e.toString());
+        }
+    }
+
+    /**
+     * Loads the flushed state, replays the log over it and opens a new log segment. Records carry
+     * whole counter levels and reservation states, so each counter ends at its latest logged version
+     * and each reservation at its settled status if any record or row has one.
+     */
+    private void recover() throws IOException {
+        long started = System.nanoTime();
+        counters.clear();
+        reservations.clear();
+        unflushedLevels.clear();
+        unflushedReservations.clear();
+        repository.forEachLevel((key, level) -> counters.put(key, new StockCounter(level)));
+        for (ReservationSnapshot open : repository.findOpenReservations()) {
+            reservations.put(open.id(), new Reservation(open.id(), open.key(), open.quantity(), open.expiresAt(), open.status()));
+        }
+        int loaded = counters.size();
+        wal = new WriteAheadLog(walDir, fsync);
+        int records = wal.replay(buffer -> {
+            StockRecords.Decoded record = StockRecords.decode(buffer);
+            counters.computeIfAbsent(record.key(), key -> new StockCounter(StockLevel.EMPTY)).restore(record.level());
+            unflushed(record.key(), record.level());
+            ReservationSnapshot replayed = record.reservation();
+            if (replayed != null) {
+                reservations.computeIfAbsent(replayed.id(), id -> new Reservation(id, replayed.key(), replayed.quantity(),
+                        replayed.expiresAt(), replayed.status())).restore(replayed.status());
+                unflushed(replayed);
+            }
+        });
+        // A reservation replayed as RESERVED may have been settled by a flush whose segments were not
+        // yet deleted when the service stopped.
+        List<UUID> open = new ArrayList<>();
+        for (ReservationSnapshot replayed : unflushedReservations.values()) {
+            if (!replayed.status().isSettled()) open.add(replayed.id());
+        }
+        repository.findSettled(open).forEach((id, status) -> reservations.get(id).restore(status));
+        wal.start();
+        log.info("Stock recovered in {} ms: {} counters from Postgres, {} log records replayed over {} counters and {} reservations",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), loaded, records, unflushedLevels.size(), unflushedReservations.size());
+    }
+}
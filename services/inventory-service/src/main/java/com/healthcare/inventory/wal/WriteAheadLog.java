@@ -0,0 +1,300 @@
+package com.healthcare.inventory.wal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * An append-only log of opaque records in numbered segment files, with group commit: appenders
+ * queue their records and one writer thread writes everything queued, forces it to disk once and
+ * completes the whole group, so each fsync is shared by every change made while the previous one
+ * was running.
+ *
+ * <p>Records are framed by their length and a CRC32C. Segments are only ever appended to, and one is
+ * forced before the next is started, so after a crash only the tail of the last segment can be torn;
+ * {@link #replay} drops it. {@link #rotate} and {@link #deleteBefore} let the owner discard segments
+ * whose records it has made durable elsewhere.
+ */
+public final class WriteAheadLog implements AutoCloseable {
+    private static final String PREFIX = "wal-";
+    private static final String SUFFIX = ".log";
+    private static final int HEADER_BYTES = 8;
+    private static final int MAX_GROUP = 8192;
+
+    private final Path dir;
+    private final boolean fsync;
+    private final LinkedBlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private final CRC32C crc = new CRC32C();
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+    private FileChannel channel;
+    private long segment;
+    private volatile IOException failure;
+    private volatile boolean closed;
+
+    public WriteAheadLog(Path dir, boolean fsync) throws IOException {
+        this.dir = dir;
+        this.fsync = fsync;
+        Files.createDirectories(dir);
+        this.writer = new Thread(this::write, "inventory-wal-writer");
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * Hands every record of every segment to {@code handler}, oldest first, and cuts a torn tail off
+     * the last segment. Call before {@link #start}.
+     */
+    public int replay(Consumer<ByteBuffer> handler) throws IOException {
+        TreeMap<Long, Path> segments = segments();
+        int records = 0;
+        for (var entry : segments.entrySet()) {
+            ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(entry.getValue()));
+            int valid = 0;
+            while (bytes.remaining() >= HEADER_BYTES) {
+                int length = bytes.getInt();
+                int checksum = bytes.getInt();
+                if (length < 0 || length > bytes.remaining()) break;
+                ByteBuffer record = bytes.slice(bytes.position(), length);
+                if (checksum != checksum(record.duplicate())) break;
+                bytes.position(bytes.position() + length);
+                handler.accept(record);
+                records++;
+                valid = bytes.position();
+            }
+            if (valid < bytes.capacity()) {
+                if (!entry.getKey().equals(segments.lastKey())) {
+                    throw new IOException("Corrupt record at byte " + valid + " of " + entry.getValue());
+                }
+                try (FileChannel torn = FileChannel.open(entry.getValue(), StandardOpenOption.WRITE)) {
+                    torn.truncate(valid);
+                    torn.force(true);
+                }
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Opens a new segment after any existing ones and starts the writer.
+     */
+    public void start() throws IOException {
+        TreeMap<Long, Path> segments = segments();
+        segment = segments.isEmpty() ? 1 : segments.lastKey() + 1;
+        channel = open(segment);
+        writer.start();
+    }
+
+    /**
+     * Queues a record. The future completes once it is written, and forced to disk if the log was
+     * opened with fsync, or completes exceptionally if it could not be.
+     */
+    public CompletableFuture<Void> append(byte[] record) {
+        return append(record, new CompletableFuture<>());
+    }
+
+    /**
+     * Queues a record and completes {@code durable} as {@link #append(byte[])} would its future.
+     * Actions the caller made dependent on {@code durable} beforehand run on the writer thread
+     * before any later {@link #rotate} completes.
+     */
+    public CompletableFuture<Void> append(byte[] record, CompletableFuture<Void> durable) {
+        Entry entry = new Entry(Kind.RECORD, record, durable);
+        enqueue(entry);
+        return durable;
+    }
+
+    /**
+     * Starts a new segment once every record queued before this call is durable, and returns its
+     * number: all of those records are in earlier segments.
+     */
+    public CompletableFuture<Long> rotate() {
+        Entry entry = new Entry(Kind.ROTATE, null, new CompletableFuture<>());
+        enqueue(entry);
+        return entry.rotated;
+    }
+
+    /**
+     * Deletes the segments numbered below {@code segment}.
+     */
+    public void deleteBefore(long segment) throws IOException {
+        for (var entry : segments().headMap(segment).entrySet()) Files.deleteIfExists(entry.getValue());
+    }
+
+    /**
+     * Whether a write has failed; every append since fails with the same error.
+     */
+    public boolean failed() {
+        return failure != null;
+    }
+
+    /**
+     * Makes everything queued so far durable and stops the writer.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        enqueue(new Entry(Kind.CLOSE, null, new CompletableFuture<>()));
+        closed = true;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) throw failure;
+    }
+
+    private void enqueue(Entry entry) {
+        if (closed) {
+            entry.fail(new IOException("Write-ahead log is closed"));
+        } else if (failure != null) {
+            entry.fail(failure);
+        } else {
+            queue.add(entry);
+        }
+    }
+
+    private void write() {
+        List<Entry> group = new ArrayList<>();
+        List<Entry> written = new ArrayList<>();
+        while (true) {
+            try {
+                group.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(group, MAX_GROUP);
+            for (int i = 0; i < group.size(); i++) {
+                Entry entry = group.get(i);
+                if (failure != null) {
+                    entry.fail(failure);
+                    continue;
+                }
+                try {
+                    if (entry.kind == Kind.RECORD) {
+                        frame(entry.record);
+                        written.add(entry);
+                        continue;
+                    }
+                    sync(written);
+                    channel.close();
+                    if (entry.kind == Kind.CLOSE) {
+                        IOException closedLog = new IOException("Write-ahead log is closed");
+                        for (Entry late : group.subList(i + 1, group.size())) late.fail(closedLog);
+                        failAll(closedLog);
+                        return;
+                    }
+                    channel = open(++segment);
+                    entry.rotated.complete(segment);
+                } catch (IOException e) {
+                    failure = e;
+                    entry.fail(e);
+                    for (Entry pending : written) pending.fail(e);
+                    written.clear();
+                }
+            }
+            try {
+                sync(written);
+            } catch (IOException e) {
+                failure = e;
+                for (Entry pending : written) pending.fail(e);
+                written.clear();
+            }
+            group.clear();
+        }
+    }
+
+    private void frame(byte[] record) throws IOException {
+        if (buffer.remaining() < HEADER_BYTES + record.length) {
+            drainBuffer();
+            if (buffer.capacity() < HEADER_BYTES + record.length) buffer = ByteBuffer.allocateDirect(HEADER_BYTES + record.length);
+        }
+        buffer.putInt(record.length);
+        buffer.putInt(checksum(ByteBuffer.wrap(record)));
+        buffer.put(record);
+    }
+
+    private void sync(List<Entry> written) throws IOException {
+        if (written.isEmpty()) return;
+        drainBuffer();
+        if (fsync) channel.force(false);
+        for (Entry entry : written) entry.appended.complete(null);
+        written.clear();
+    }
+
+    private void drainBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+
+    private void failAll(IOException e) {
+        List<Entry> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        for (Entry entry : rest) entry.fail(e);
+    }
+
+    private int checksum(ByteBuffer record) {
+        crc.reset();
+        crc.update(record);
+        return (int) crc.getValue();
+    }
+
+    private FileChannel open(long number) throws IOException {
+        FileChannel opened = FileChannel.open(dir.resolve(name(number)), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        // Make the new file's directory entry durable before anything in it is acknowledged.
+        if (fsync) {
+            try (FileChannel directory = FileChannel.open(dir, StandardOpenOption.READ)) {
+                directory.force(true);
+            } catch (IOException e) {
+                // Not every platform can open a directory for syncing.
+            }
+        }
+        return opened;
+    }
+
+    private TreeMap<Long, Path> segments() throws IOException {
+        TreeMap<Long, Path> segments = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                segments.put(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())), file);
+            }
+        }
+        return segments;
+    }
+
+    private static String name(long number) {
+        return String.format("%s%016d%s", PREFIX, number, SUFFIX);
+    }
+
+    private enum Kind { RECORD, ROTATE, CLOSE }
+
+    private static final class Entry {
+        final Kind kind;
+        final byte[] record;
+        final CompletableFuture<Void> appended;
+        final CompletableFuture<Long> rotated = new CompletableFuture<>();
+
+        Entry(Kind kind, byte[] record, CompletableFuture<Void> appended) {
+            this.kind = kind;
+            this.record = record;
+            this.appended = appended;
+        }
+
+        void fail(IOException e) {
+            appended.completeExceptionally(e);
+            rotated.completeExceptionally(e);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+-- The durable copy of the in-memory stock counters, written in batches by the flusher. version
+-- counts changes to the counter, so a replayed log record older than the row is ignored.
+CREATE TABLE stock_levels (
+    sku        VARCHAR(64) NOT NULL,
+    location   VARCHAR(64) NOT NULL,
+    on_hand    BIGINT NOT NULL,
+    reserved   BIGINT NOT NULL,
+    version    BIGINT NOT NULL,
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    PRIMARY KEY (sku, location),
+    CONSTRAINT stock_levels_not_negative CHECK (reserved >= 0 AND on_hand >= reserved)
+);
+
+CREATE TABLE stock_reservations (
+    id         UUID PRIMARY KEY,
+    sku        VARCHAR(64) NOT NULL,
+    location   VARCHAR(64) NOT NULL,
+    quantity   INTEGER NOT NULL,
+    status     VARCHAR(16) NOT NULL,
+    expires_at TIMESTAMPTZ NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+-- Loaded on startup: the reservations still holding stock.
+CREATE INDEX stock_reservations_open ON stock_reservations (expires_at) WHERE status = 'RESERVED';
@@ -0,0 +1,358 @@
+package com.healthcare.records.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.Application;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * End-to-end check of the document store against an embedded mongod, in the same JVM as the
+ * service so that {@code -Xmx} bounds both. Run it with a heap smaller than the large document
+ * (e.g. {@code -Xmx256m}): the upload and download of {@code harness.large-mb} (512) MB only
+ * succeed if neither side buffers the content.
+ * <ul>
+ * <li>streams the large document up and back down and compares hashes;</li>
+ * <li>reads {@code harness.ranges} (200) random byte ranges of it and checks each, plus the edge
+ * cases (suffix and open ranges, past the end, several ranges, stale If-Range, If-None-Match);</li>
+ * <li>stores a document, a grown version of it, copies under other patients and the first version
+ * again, and checks that each is a new document and only the new chunks took space;</li>
+ * <li>seeds {@code harness.patients} (20000) patients with histories of up to
+ * {@code harness.history-kb} (32) KB, migrates them, and checks that every patient is untouched,
+ * every history is stored intact, and a second run stores nothing new.</li>
+ * </ul>
+ * Exits non-zero if any check fails.
+ */
+public final class DocumentStoreHarness {
+    private static final String RECORDS = "/api/v1/records";
+    private static final int BLOCK = 64 * 1024;
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final String baseUrl;
+    private final List<String> failures = new ArrayList<>();
+
+    private DocumentStoreHarness(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public static void main(String[] args) throws Exception {
+        long largeBytes = Long.getLong("harness.large-mb", 512) << 20;
+        int ranges = Integer.getInteger("harness.ranges", 200);
+        int patients = Integer.getInteger("harness.patients", 20_000);
+        int historyKb = Integer.getInteger("harness.history-kb", 32);
+
+        List<String> failures;
+        try (ConfigurableApplicationContext app = start()) {
+            DocumentStoreHarness harness = new DocumentStoreHarness("http://localhost:" + app.getEnvironment().getProperty("local.server.port"));
+            MongoClient mongo = app.getBean(MongoClient.class);
+            MongoDatabase records = mongo.getDatabase(app.getEnvironment().getProperty("spring.data.mongodb.database"));
+            System.out.printf("Heap limit %d MB%n", Runtime.getRuntime().maxMemory() >> 20);
+
+            String large = harness.streaming(largeBytes);
+            harness.ranges(large, largeBytes, ranges);
+            harness.deduplication(records.getCollection("record_chunks"));
+            harness.migration(mongo.getDatabase("patient_db").getCollection("patients"),
+                    records.getCollection("clinical_documents"), patients, historyKb);
+            failures = harness.failures;
+        }
+        failures.forEach(failure -> System.out.println("FAILED: " + failure));
+        System.out.println(failures.isEmpty() ? "All checks passed" : failures.size() + " checks failed");
+        System.exit(failures.isEmpty() ? 0 : 1);
+    }
+
+    private static ConfigurableApplicationContext start() throws IOException {
+        int mongoPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            mongoPort = socket.getLocalPort();
+        }
+        // Passed as command-line arguments so they override application.yml.
+        return new SpringApplicationBuilder(Application.class).run(
+                "--server.port=0",
+                "--de.flapdoodle.mongodb.embedded.version=" + System.getProperty("harness.mongo-version", "6.0.11"),
+                "--spring.data.mongodb.port=" + mongoPort,
+                "--spring.data.mongodb.host=localhost",
+                "--spring.data.mongodb.database=records_harness",
+                "--records.migration.patient-database=patient_db",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN");
+    }
+
+    private String streaming(long length) throws Exception {
+        System.out.printf("Uploading a %d MB document as a chunked stream...%n", length >> 20);
+        long started = System.nanoTime();
+        HttpResponse<byte[]> uploaded = send(HttpRequest.newBuilder(URI.create(baseUrl + RECORDS + "/patients/large/documents?kind=IMAGING"))
+                .header("Content-Type", "application/dicom")
+                .POST(HttpRequest.BodyPublishers.ofInputStream(() -> new Generated(1, length)))
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+        double uploadSeconds = (System.nanoTime() - started) / 1e9;
+        check(uploaded.statusCode() == 201, "large upload returned HTTP " + uploaded.statusCode());
+        JsonNode document = mapper.readTree(uploaded.body());
+        String expected = sha256(new Generated(1, length));
+        check(document.get("length").asLong() == length, "large document length " + document.get("length"));
+        check(expected.equals(document.get("sha256").asText()), "large document hash differs from the uploaded content");
+
+        started = System.nanoTime();
+        HttpResponse<InputStream> download = send(get(RECORDS + "/documents/" + document.get("id").asText() + "/content").build(),
+                HttpResponse.BodyHandlers.ofInputStream());
+        String downloaded = sha256(download.body());
+        double downloadSeconds = (System.nanoTime() - started) / 1e9;
+        check(download.statusCode() == 200, "large download returned HTTP " + download.statusCode());
+        check(expected.equals(downloaded), "large download differs from the upload");
+        System.out.printf("Upload %.1f MB/s, download %.1f MB/s, %d chunks%n",
+                (length >> 20) / uploadSeconds, (length >> 20) / downloadSeconds, document.get("chunks").asInt());
+        return document.get("id").asText();
+    }
+
+    private void ranges(String id, long length, int count) throws Exception {
+        String content = RECORDS + "/documents/" + id + "/content";
+        SplittableRandom random = new SplittableRandom(7);
+        long started = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            long first = random.nextLong(length);
+            long last = Math.min(length - 1, first + random.nextInt(1 << 20));
+            HttpResponse<byte[]> response = send(get(content).header("Range", "bytes=" + first + "-" + last).build(),
+                    HttpResponse.BodyHandlers.ofByteArray());
+            check(response.statusCode() == 206, "range " + first + "-" + last + " returned HTTP " + response.statusCode());
+            check(("bytes " + first + "-" + last + "/" + length).equals(response.headers().firstValue("Content-Range").orElse(null)),
+                    "range " + first + "-" + last + " has Content-Range " + response.headers().firstValue("Content-Range"));
+            check(Arrays.equals(expected(1, first, last), response.body()), "range " + first + "-" + last + " has the wrong bytes");
+        }
+        System.out.printf("%d random ranges in %.1f ms each%n", count, (System.nanoTime() - started) / 1e6 / count);
+
+        HttpResponse<byte[]> suffix = send(get(content).header("Range", "bytes=-1000").build(), HttpResponse.BodyHandlers.ofByteArray());
+        check(suffix.statusCode() == 206 && Arrays.equals(expected(1, length - 1000, length - 1), suffix.body()), "suffix range");
+        HttpResponse<byte[]> open = send(get(content).header("Range", "bytes=" + (length - 5000) + "-").build(), HttpResponse.BodyHandlers.ofByteArray());
+        check(open.statusCode() == 206 && Arrays.equals(expected(1, length - 5000, length - 1), open.body()), "open-ended range");
+        HttpResponse<byte[]> past = send(get(content).header("Range", "bytes=" + length + "-").build(), HttpResponse.BodyHandlers.ofByteArray());
+        check(past.statusCode() == 416 && ("bytes */" + length).equals(past.headers().firstValue("Content-Range").orElse(null)),
+                "range past the end returned HTTP " + past.statusCode());
+        String etag = suffix.headers().firstValue("ETag").orElse("");
+        HttpResponse<Void> notModified = send(get(content).header("If-None-Match", etag).build(), HttpResponse.BodyHandlers.discarding());
+        check(notModified.statusCode() == 304, "If-None-Match with the ETag returned HTTP " + notModified.statusCode());
+
+        // Several ranges and a stale If-Range both get the whole content; use a small document for them.
+        byte[] small = expected(2, 0, 300_000 - 1);
+        HttpResponse<byte[]> stored = send(HttpRequest.newBuilder(URI.create(baseUrl + RECORDS + "/patients/ranges/documents?kind=LAB_REPORT"))
+                .header("Content-Type", "application/pdf")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(small)).build(), HttpResponse.BodyHandlers.ofByteArray());
+        String smallContent = RECORDS + "/documents/" + mapper.readTree(stored.body()).get("id").asText() + "/content";
+        HttpResponse<byte[]> multiple = send(get(smallContent).header("Range", "bytes=0-10,20-30").build(), HttpResponse.BodyHandlers.ofByteArray());
+        check(multiple.statusCode() == 200 && Arrays.equals(small, multiple.body()), "several ranges returned HTTP " + multiple.statusCode());
+        HttpResponse<byte[]> stale = send(get(smallContent).header("Range", "bytes=0-10").header("If-Range", "\"stale\"").build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        check(stale.statusCode() == 200 && Arrays.equals(small, stale.body()), "stale If-Range returned HTTP " + stale.statusCode());
+        HttpResponse<byte[]> whole = send(get(smallContent).build(), HttpResponse.BodyHandlers.ofByteArray());
+        check("bytes".equals(whole.headers().firstValue("Accept-Ranges").orElse(null)), "Accept-Ranges missing");
+    }
+
+    private void deduplication(MongoCollection<Document> chunks) throws Exception {
+        byte[] base = expected(3, 0, (8 << 20) - 1);
+        byte[] grown = Arrays.copyOf(base, base.length + 300_000);
+        System.arraycopy(expected(4, 0, 300_000 - 1), 0, grown, base.length, 300_000);
+
+        long before = chunks.countDocuments();
+        int baseStatus = upload("dedup-a", "CLINICAL_NOTE", base);
+        long afterBase = chunks.countDocuments();
+        int grownStatus = upload("dedup-a", "CLINICAL_NOTE", grown);
+        long afterGrown = chunks.countDocuments();
+        int copyStatus = upload("dedup-b", "CLINICAL_NOTE", base);
+        int againStatus = upload("dedup-a", "CLINICAL_NOTE", base);
+        long afterCopies = chunks.countDocuments();
+
+        check(baseStatus == 201 && grownStatus == 201 && copyStatus == 201, "dedup uploads returned " + baseStatus + ", " + grownStatus + ", " + copyStatus);
+        check(againStatus == 201, "re-uploading a patient's earlier version returned HTTP " + againStatus + ", not a new version");
+        check(afterBase - before == 32, "an 8 MB document took " + (afterBase - before) + " chunks, not 32");
+        check(afterGrown - afterBase == 2, "growing it by 300 KB added " + (afterGrown - afterBase) + " chunks, not 2");
+        check(afterCopies == afterGrown, "copies of stored content added " + (afterCopies - afterGrown) + " chunks");
+        long logical = 3L * base.length + grown.length;
+        long stored = (afterCopies - before) * (256 << 10);
+        System.out.printf("Deduplication: %d MB uploaded in 4 documents, about %d MB stored (%.1fx)%n",
+                logical >> 20, stored >> 20, (double) logical / stored);
+    }
+
+    private void migration(MongoCollection<Document> patients, MongoCollection<Document> documents, int count, int historyKb) throws Exception {
+        System.out.printf("Seeding %d patients with medical histories...%n", count);
+        SplittableRandom random = new SplittableRandom(11);
+        Map<String, String> histories = new HashMap<>();
+        List<Document> batch = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ObjectId id = new ObjectId();
+            Document patient = new Document("_id", id)
+                    .append("first_name", "First" + i)
+                    .append("last_name", "Last" + i)
+                    .append("email", "patient" + i + "@example.com")
+                    .append("status", "ACTIVE")
+                    .append("updated_at", new Date())
+                    .append("version", 0L);
+            if (i % 10 != 0) {
+                String history = history(random, random.nextInt(historyKb * 1024));
+                histories.put(id.toHexString(), history);
+                patient.append("medical_history", history);
+            }
+            batch.add(patient);
+            if (batch.size() == 1000 || i == count - 1) {
+                patients.insertMany(batch);
+                batch.clear();
+            }
+        }
+
+        HttpResponse<byte[]> migrated = send(HttpRequest.newBuilder(URI.create(baseUrl + RECORDS + "/migrations/medical-history"))
+                .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofByteArray());
+        JsonNode result = mapper.readTree(migrated.body());
+        System.out.printf("Migration: %s%n", result);
+        check(result.get("copied").asLong() == histories.size(), "migration copied " + result.get("copied") + " of " + histories.size());
+
+        check(patients.countDocuments(Filters.exists("medical_history")) == histories.size(), "patients lost medical_history");
+        check(patients.countDocuments(Filters.eq("version", 0L)) == count, "migrated patients got a new version");
+        int verified = 0;
+        for (Document document : documents.find(Filters.eq("kind", "MEDICAL_HISTORY"))) {
+            String history = histories.get(document.getString("patient_id"));
+            if (history != null && sha256(history.getBytes(StandardCharsets.UTF_8)).equals(document.getString("sha256"))) verified++;
+        }
+        check(verified == histories.size(), verified + " of " + histories.size() + " histories stored intact");
+        int sampled = 0;
+        for (Map.Entry<String, String> entry : histories.entrySet()) {
+            if (sampled++ == 200) break;
+            HttpResponse<byte[]> listed = send(get(RECORDS + "/patients/" + entry.getKey() + "/documents?kind=MEDICAL_HISTORY").build(),
+                    HttpResponse.BodyHandlers.ofByteArray());
+            String id = mapper.readTree(listed.body()).get(0).get("id").asText();
+            HttpResponse<String> content = send(get(RECORDS + "/documents/" + id + "/content").build(), HttpResponse.BodyHandlers.ofString());
+            check(entry.getValue().equals(content.body()), "history of patient " + entry.getKey() + " reads back differently");
+        }
+
+        HttpResponse<byte[]> again = send(HttpRequest.newBuilder(URI.create(baseUrl + RECORDS + "/migrations/medical-history"))
+                .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofByteArray());
+        JsonNode rerun = mapper.readTree(again.body());
+        check(rerun.get("copied").asLong() == 0 && rerun.get("unchanged").asLong() == histories.size(),
+                "a second migration stored histories again: " + rerun);
+    }
+
+    private int upload(String patientId, String kind, byte[] content) {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + RECORDS + "/patients/" + patientId + "/documents?kind=" + kind))
+                .header("Content-Type", "text/plain")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(content)).build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static String history(SplittableRandom random, int length) {
+        String[] words = {"hypertension", "diabetes", "asthma", "allergy", "penicillin", "appendectomy", "2019", "follow-up",
+                "prescribed", "metformin", "reports", "no", "changes", "café", "ß-blocker", "—", "stable"};
+        StringBuilder history = new StringBuilder(length + 16);
+        while (history.length() < length) history.append(words[random.nextInt(words.length)]).append(random.nextInt(8) == 0 ? ".\n" : " ");
+        return history.toString();
+    }
+
+    private void check(boolean condition, String failure) {
+        if (!condition) failures.add(failure);
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET();
+    }
+
+    private <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+        try {
+            return client.send(request, handler);
+        } catch (IOException e) {
+            throw new IllegalStateException(request.method() + " " + request.uri() + " failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String sha256(InputStream content) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        byte[] buffer = new byte[BLOCK];
+        try (content) {
+            for (int read; (read = content.read(buffer)) > 0; ) digest.update(buffer, 0, read);
+        }
+        return HEX.formatHex(digest.digest());
+    }
+
+    private static String sha256(byte[] content) throws Exception {
+        return HEX.formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+
+    /**
+     * Bytes {@code first} to {@code last}, inclusive, of the {@link Generated} content for {@code seed}.
+     */
+    private static byte[] expected(long seed, long first, long last) {
+        byte[] range = new byte[(int) (last - first + 1)];
+        byte[] block = new byte[BLOCK];
+        for (long b = first / BLOCK; b <= last / BLOCK; b++) {
+            Generated.fill(seed, b, block);
+            long blockStart = b * BLOCK;
+            int from = (int) Math.max(first, blockStart);
+            int to = (int) Math.min(last + 1, blockStart + BLOCK);
+            System.arraycopy(block, (int) (from - blockStart), range, (int) (from - first), to - from);
+        }
+        return range;
+    }
+
+    /**
+     * Pseudo-random content generated a block at a time, so any part of it can be regenerated to
+     * check a download without keeping the whole document around.
+     */
+    private static final class Generated extends InputStream {
+        private final long seed;
+        private final long length;
+        private final byte[] block = new byte[BLOCK];
+        private long position;
+
+        Generated(long seed, long length) {
+            this.seed = seed;
+            this.length = length;
+        }
+
+        static void fill(long seed, long index, byte[] block) {
+            new SplittableRandom(seed * 1_000_003 + index).nextBytes(block);
+        }
+
+        @Override
+        public int read() {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int count) {
+            if (position >= length) return -1;
+            int inBlock = (int) (position % BLOCK);
+            if (inBlock == 0) fill(seed, position / BLOCK, block);
+            int read = (int) Math.min(Math.min(count, BLOCK - inBlock), length - position);
+            System.arraycopy(block, inBlock, target, offset, read);
+            position += read;
+            return read;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.healthcare.records.controller;
+
+import com.healthcare.records.dto.ClinicalDocumentResponse;
+import com.healthcare.records.dto.DocumentKind;
+import com.healthcare.records.service.ClinicalDocumentService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/records")
+public class ClinicalDocumentController {
+
+    private final ClinicalDocumentService documentService;
+
+    public ClinicalDocumentController(ClinicalDocumentService documentService) {
+        this.documentService = documentService;
+    }
+
+    /**
+     * Stores the raw request body as a new document of the patient, sharing the chunks of any stored
+     * content it repeats.
+     */
+    @PostMapping(value = "/patients/{patientId}/documents", consumes = MediaType.ALL_VALUE)
+    public ResponseEntity<ClinicalDocumentResponse> upload(@PathVariable String patientId,
+                                                           @RequestParam DocumentKind kind,
+                                                           @RequestHeader(value = HttpHeaders.CONTENT_TYPE, defaultValue = MediaType.APPLICATION_OCTET_STREAM_VALUE) String contentType,
+                                                           @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) Long contentLength,
+                                                           InputStream body) throws IOException {
+        ClinicalDocumentResponse document = documentService.upload(patientId, kind, contentType, contentLength, body);
+        return ResponseEntity.created(ServletUriComponentsBuilder.fromCurrentContextPath()
+                        .path("/api/v1/records/documents/{id}").buildAndExpand(document.getId()).toUri())
+                .body(document);
+    }
+
+    @GetMapping("/patients/{patientId}/documents")
+    public ResponseEntity<List<ClinicalDocumentResponse>> getPatientDocuments(@PathVariable String patientId,
+                                                                              @RequestParam(required = false) DocumentKind kind,
+                                                                              @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(documentService.getPatientDocuments(patientId, kind, limit));
+    }
+
+    @GetMapping("/documents/{id}")
+    public ResponseEntity<ClinicalDocumentResponse> getDocument(@PathVariable String id) {
+        return ResponseEntity.ok(documentService.getDocument(id));
+    }
+
+    /**
+     * Streams the content, or the single byte range asked for with 206. A Range naming several ranges
+     * or an If-Range that no longer matches gets the whole content; a range past the end gets 416.
+     */
+    @GetMapping("/documents/{id}/content")
+    public ResponseEntity<StreamingResponseBody> getContent(@PathVariable String id,
+                                                            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+                                                            @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange) {
+        ClinicalDocumentResponse document = documentService.getDocument(id);
+        long length = document.getLength();
+        // Content never changes, so its hash is a strong validator.
+        String etag = "\"" + document.getSha256() + "\"";
+        HttpRange requested = range == null || length == 0 || (ifRange != null && !ifRange.equals(etag)) ? null : singleRange(range);
+
+        long first = 0;
+        long last = length - 1;
+        if (requested != null) {
+            first = requested.getRangeStart(length);
+            last = requested.getRangeEnd(length);
+            if (first >= length) {
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + length)
+                        .build();
+            }
+        }
+        long from = first;
+        long to = last;
+        StreamingResponseBody body = out -> documentService.copyContent(id, from, to, out);
+        ResponseEntity.BodyBuilder response = requested == null
+                ? ResponseEntity.ok()
+                : ResponseEntity.status(HttpStatus.PARTIAL_CONTENT).header(HttpHeaders.CONTENT_RANGE, "bytes " + first + "-" + last + "/" + length);
+        return response
+                .contentType(MediaType.parseMediaType(document.getContentType()))
+                .contentLength(last - first + 1)
+                .eTag(etag)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .body(body);
+    }
+
+    private static HttpRange singleRange(String header) {
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(header);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null; // a malformed Range is ignored
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.healthcare.records.controller;
+
+import com.healthcare.records.dto.MigrationResult;
+import com.healthcare.records.migration.MedicalHistoryMigration;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/records/migrations")
+public class MigrationController {
+
+    private final MedicalHistoryMigration medicalHistoryMigration;
+
+    public MigrationController(MedicalHistoryMigration medicalHistoryMigration) {
+        this.medicalHistoryMigration = medicalHistoryMigration;
+    }
+
+    /**
+     * Copies every patient's medical history into the document store, returning when done; 409 if a
+     * run is already in progress.
+     */
+    @PostMapping("/medical-history")
+    public ResponseEntity<MigrationResult> migrateMedicalHistory() {
+        MigrationResult result = medicalHistoryMigration.migrate();
+        return result == null ? ResponseEntity.status(HttpStatus.CONFLICT).build() : ResponseEntity.ok(result);
+    }
+}
@@ -0,0 +1,35 @@
+package com.healthcare.records.dto;
+
+import java.time.Instant;
+
+public class ClinicalDocumentResponse {
+    private String id;
+    private String patientId;
+    private DocumentKind kind;
+    private String contentType;
+    private long length;
+    private String sha256;
+    private int chunks;
+    private String source;
+    private Instant createdAt;
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getPatientId() { return patientId; }
+    public void setPatientId(String patientId) { this.patientId = patientId; }
+    public DocumentKind getKind() { return kind; }
+    public void setKind(DocumentKind kind) { this.kind = kind; }
+    public String getContentType() { return contentType; }
+    public void setContentType(String contentType) { this.contentType = contentType; }
+    public long getLength() { return length; }
+    public void setLength(long length) { this.length = length; }
+    public String getSha256() { return sha256; }
+    public void setSha256(String sha256) { this.sha256 = sha256; }
+    public int getChunks() { return chunks; }
+    public void setChunks(int chunks) { this.chunks = chunks; }
+    public String getSource() { return source; }
+    public void setSource(String source) { this.source = source; }
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,10 @@
+package com.healthcare.records.dto;
+
+public enum DocumentKind {
+    MEDICAL_HISTORY,
+    CLINICAL_NOTE,
+    LAB_REPORT,
+    IMAGING,
+    DISCHARGE_SUMMARY,
+    OTHER
+}
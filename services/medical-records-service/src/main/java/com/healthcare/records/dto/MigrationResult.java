@@ -0,0 +1,21 @@
+package com.healthcare.records.dto;
+
+public class MigrationResult {
+    private long scanned;
+    private long copied;
+    private long unchanged; // already the patient's latest history document, e.g. from an earlier run
+    private long bytesCopied;
+    private long elapsedMillis;
+
+    // Getters and Setters
+    public long getScanned() { return scanned; }
+    public void setScanned(long scanned) { this.scanned = scanned; }
+    public long getCopied() { return copied; }
+    public void setCopied(long copied) { this.copied = copied; }
+    public long getUnchanged() { return unchanged; }
+    public void setUnchanged(long unchanged) { this.unchanged = unchanged; }
+    public long getBytesCopied() { return bytesCopied; }
+    public void setBytesCopied(long bytesCopied) { this.bytesCopied = bytesCopied; }
+    public long getElapsedMillis() { return elapsedMillis; }
+    public void setElapsedMillis(long elapsedMillis) { this.elapsedMillis = elapsedMillis; }
+}
@@ -0,0 +1,62 @@
+package com.healthcare.records.entity;
+
+import com.healthcare.records.dto.DocumentKind;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A stored document's metadata; its bytes are the {@link DocumentChunk}s named by {@code chunks}, in
+ * order. Written once and never updated: a new version of a document is a new document, even if it
+ * repeats an older version's content.
+ */
+@Document(collection = "clinical_documents")
+@CompoundIndex(name = "patient_created", def = "{'patient_id': 1, 'created_at': -1}") // a patient's documents, newest first
+public class ClinicalDocument {
+    @Id
+    private String id;
+    @Field("patient_id")
+    private String patientId;
+    @Field("kind")
+    private DocumentKind kind;
+    @Field("content_type")
+    private String contentType;
+    @Field("length")
+    private long length;
+    @Field("sha256")
+    private String sha256; // hex, of the whole content
+    @Field("chunk_size")
+    private int chunkSize; // every chunk but the last is exactly this long
+    @Field("chunks")
+    private List<String> chunks; // DocumentChunk ids
+    @Field("source")
+    private String source; // where the content came from when not uploaded, e.g. a migration
+    @Field("created_at")
+    private Instant createdAt;
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getPatientId() { return patientId; }
+    public void setPatientId(String patientId) { this.patientId = patientId; }
+    public DocumentKind getKind() { return kind; }
+    public void setKind(DocumentKind kind) { this.kind = kind; }
+    public String getContentType() { return contentType; }
+    public void setContentType(String contentType) { this.contentType = contentType; }
+    public long getLength() { return length; }
+    public void setLength(long length) { this.length = length; }
+    public String getSha256() { return sha256; }
+    public void setSha256(String sha256) { this.sha256 = sha256; }
+    public int getChunkSize() { return chunkSize; }
+    public void setChunkSize(int chunkSize) { this.chunkSize = chunkSize; }
+    public List<String> getChunks() { return chunks; }
+    public void setChunks(List<String> chunks) { this.chunks = chunks; }
+    public String getSource() { return source; }
+    public void setSource(String source) { this.source = source; }
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+}
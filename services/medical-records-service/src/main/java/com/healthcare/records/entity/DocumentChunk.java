@@ -0,0 +1,31 @@
+package com.healthcare.records.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+/**
+ * A piece of document content, keyed by the hex SHA-256 of its bytes, so identical chunks of any
+ * documents (and of successive versions of one) are stored once.
+ */
+@Document(collection = "record_chunks")
+public class DocumentChunk {
+    @Id
+    private String id;
+    @Field("data")
+    private byte[] data;
+
+    public DocumentChunk() {
+    }
+
+    public DocumentChunk(String id, byte[] data) {
+        this.id = id;
+        this.data = data;
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public byte[] getData() { return data; }
+    public void setData(byte[] data) { this.data = data; }
+}
@@ -0,0 +1,7 @@
+package com.healthcare.records.exception;
+
+public class DocumentTooLargeException extends RuntimeException {
+    public DocumentTooLargeException(long maxSize) {
+        super("Document exceeds the maximum size of " + maxSize + " bytes");
+    }
+}
@@ -0,0 +1,120 @@
+package com.healthcare.records.migration;
+
+import com.healthcare.records.dto.DocumentKind;
+import com.healthcare.records.dto.MigrationResult;
+import com.healthcare.records.store.DocumentStore;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Copies each patient's {@code medical_history} string from patient-service's {@code patients}
+ * collection into the document store, as a {@code MEDICAL_HISTORY} text document. Safe to stop and
+ * run again: a history that is already the patient's latest history document is not stored again,
+ * and one edited since the last run is stored as a new version.
+ *
+ * <p>The field is left on the patient: only a change made through patient-service reaches its outbox
+ * and caches, so patient-service unsets each history itself once a document with the same content is
+ * stored here.
+ */
+@Component
+public class MedicalHistoryMigration {
+    private static final Logger log = LoggerFactory.getLogger(MedicalHistoryMigration.class);
+    private static final String FIELD = "medical_history";
+    static final String SOURCE = "patients.medical_history";
+
+    private final DocumentStore documentStore;
+    private final MongoCollection<Document> patients;
+    private final int batchSize;
+    private final boolean onStartup;
+    private final ReentrantLock running = new ReentrantLock();
+
+    public MedicalHistoryMigration(DocumentStore documentStore, MongoClient mongoClient,
+                                   @Value("${records.migration.patient-database:patient_db}") String patientDatabase,
+                                   @Value("${records.migration.batch-size:500}") int batchSize,
+                                   @Value("${records.migration.on-startup:false}") boolean onStartup) {
+        this.documentStore = documentStore;
+        this.patients = mongoClient.getDatabase(patientDatabase).getCollection("patients");
+        this.batchSize = batchSize;
+        this.onStartup = onStartup;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateOnStartup() {
+        if (onStartup) migrate();
+    }
+
+    /**
+     * Runs the migration to the end, unless a run is already in progress, in which case it returns
+     * null at once.
+     */
+    public MigrationResult migrate() {
+        if (!running.tryLock()) return null;
+        try {
+            return run();
+        } finally {
+            running.unlock();
+        }
+    }
+
+    private MigrationResult run() {
+        long started = System.nanoTime();
+        MigrationResult result = new MigrationResult();
+        Object after = null;
+        while (true) {
+            // Page by _id rather than keeping one cursor open for a run that may take hours.
+            Bson filter = Filters.exists(FIELD);
+            if (after != null) filter = Filters.and(Filters.gt("_id", after), filter);
+            List<Document> batch = patients.find(filter)
+                    .projection(Projections.include(FIELD))
+                    .sort(Sorts.ascending("_id"))
+                    .limit(batchSize)
+                    .into(new ArrayList<>(batchSize));
+            if (batch.isEmpty()) break;
+            for (Document patient : batch) copy(patient, result);
+            after = batch.get(batch.size() - 1).get("_id");
+        }
+        result.setElapsedMillis((System.nanoTime() - started) / 1_000_000);
+        log.info("Medical history migration: scanned {}, copied {} ({} bytes), {} unchanged in {} ms",
+                result.getScanned(), result.getCopied(), result.getBytesCopied(), result.getUnchanged(), result.getElapsedMillis());
+        return result;
+    }
+
+    private void copy(Document patient, MigrationResult result) {
+        result.setScanned(result.getScanned() + 1);
+        // Null and empty histories have nothing to keep.
+        if (!(patient.get(FIELD) instanceof String text) || text.isEmpty()) return;
+        byte[] content = text.getBytes(StandardCharsets.UTF_8);
+        boolean created;
+        try {
+            created = documentStore.storeIfChanged(patient.get("_id").toString(), DocumentKind.MEDICAL_HISTORY,
+                    "text/plain;charset=UTF-8", new ByteArrayInputStream(content), SOURCE).created();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (created) {
+            result.setCopied(result.getCopied() + 1);
+            result.setBytesCopied(result.getBytesCopied() + content.length);
+        } else {
+            result.setUnchanged(result.getUnchanged() + 1);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.healthcare.records.repository;
+
+import com.healthcare.records.dto.DocumentKind;
+import com.healthcare.records.entity.ClinicalDocument;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ClinicalDocumentRepository extends MongoRepository<ClinicalDocument, String> {
+    // Listings leave out the chunk ids, which run to thousands for a large document.
+    @Query(value = "{ 'patient_id': ?0 }", fields = "{ 'chunks': 0 }", sort = "{ 'created_at': -1 }")
+    List<ClinicalDocument> findByPatientId(String patientId, Pageable pageable);
+
+    @Query(value = "{ 'patient_id': ?0, 'kind': ?1 }", fields = "{ 'chunks': 0 }", sort = "{ 'created_at': -1 }")
+    List<ClinicalDocument> findByPatientIdAndKind(String patientId, DocumentKind kind, Pageable pageable);
+}
@@ -0,0 +1,77 @@
+package com.healthcare.records.service;
+
+import com.healthcare.records.dto.ClinicalDocumentResponse;
+import com.healthcare.records.dto.DocumentKind;
+import com.healthcare.records.entity.ClinicalDocument;
+import com.healthcare.records.exception.DocumentTooLargeException;
+import com.healthcare.records.exception.ResourceNotFoundException;
+import com.healthcare.records.repository.ClinicalDocumentRepository;
+import com.healthcare.records.store.DocumentStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+@Service
+public class ClinicalDocumentService {
+    private final DocumentStore documentStore;
+    private final ClinicalDocumentRepository documentRepository;
+    private final int maxListed;
+
+    public ClinicalDocumentService(DocumentStore documentStore, ClinicalDocumentRepository documentRepository,
+                                   @Value("${records.documents.max-listed:100}") int maxListed) {
+        this.documentStore = documentStore;
+        this.documentRepository = documentRepository;
+        this.maxListed = maxListed;
+    }
+
+    public ClinicalDocumentResponse upload(String patientId, DocumentKind kind, String contentType, Long contentLength, InputStream content) throws IOException {
+        // Refuse a declared oversize body before storing any of it; a chunked one is cut off as it streams.
+        if (contentLength != null && contentLength > documentStore.maxSize()) {
+            throw new DocumentTooLargeException(documentStore.maxSize());
+        }
+        return mapToResponse(documentStore.store(patientId, kind, contentType, content, null));
+    }
+
+    public ClinicalDocumentResponse getDocument(String id) {
+        return mapToResponse(find(id));
+    }
+
+    public List<ClinicalDocumentResponse> getPatientDocuments(String patientId, DocumentKind kind, Integer limit) {
+        int size = limit == null ? maxListed : Math.max(1, Math.min(limit, maxListed));
+        List<ClinicalDocument> documents = kind == null
+                ? documentRepository.findByPatientId(patientId, Pageable.ofSize(size))
+                : documentRepository.findByPatientIdAndKind(patientId, kind, Pageable.ofSize(size));
+        return documents.stream().map(this::mapToResponse).toList();
+    }
+
+    /**
+     * Streams bytes {@code first} to {@code last}, inclusive, of the document's content.
+     */
+    public void copyContent(String id, long first, long last, OutputStream out) throws IOException {
+        documentStore.copy(find(id), first, last, out);
+    }
+
+    private ClinicalDocument find(String id) {
+        return documentRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Document not found with id: " + id));
+    }
+
+    private ClinicalDocumentResponse mapToResponse(ClinicalDocument document) {
+        ClinicalDocumentResponse response = new ClinicalDocumentResponse();
+        response.setId(document.getId());
+        response.setPatientId(document.getPatientId());
+        response.setKind(document.getKind());
+        response.setContentType(document.getContentType());
+        response.setLength(document.getLength());
+        response.setSha256(document.getSha256());
+        response.setChunks((int) ((document.getLength() + document.getChunkSize() - 1) / document.getChunkSize()));
+        response.setSource(document.getSource());
+        response.setCreatedAt(document.getCreatedAt());
+        return response;
+    }
+}
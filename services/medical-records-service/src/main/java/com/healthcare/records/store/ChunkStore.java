@@ -0,0 +1,72 @@
+package com.healthcare.records.store;
+
+import com.healthcare.records.entity.DocumentChunk;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Content-addressed chunk storage: a chunk is stored under the hash of its bytes, at most once, and
+ * never changed or removed afterwards, so any number of documents can share it.
+ */
+@Component
+public class ChunkStore {
+    private final MongoTemplate mongoTemplate;
+    private final Counter written;
+    private final Counter deduplicated;
+    private final Counter bytesWritten;
+    private final Counter bytesDeduplicated;
+
+    public ChunkStore(MongoTemplate mongoTemplate, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.written = Counter.builder("records.chunks").tag("outcome", "written").register(meterRegistry);
+        this.deduplicated = Counter.builder("records.chunks").tag("outcome", "deduplicated").register(meterRegistry);
+        this.bytesWritten = Counter.builder("records.chunks.bytes").tag("outcome", "written").baseUnit("bytes").register(meterRegistry);
+        this.bytesDeduplicated = Counter.builder("records.chunks.bytes").tag("outcome", "deduplicated").baseUnit("bytes").register(meterRegistry);
+    }
+
+    /**
+     * Stores {@code data} under {@code hash} unless a chunk with that hash is already stored, and
+     * returns whether it had to be.
+     */
+    public boolean put(String hash, byte[] data) {
+        // Checking first costs a round trip on a new chunk but saves sending one that is already stored.
+        if (!mongoTemplate.exists(query(where("_id").is(hash)), DocumentChunk.class)) {
+            try {
+                mongoTemplate.insert(new DocumentChunk(hash, data));
+                written.increment();
+                bytesWritten.increment(data.length);
+                return true;
+            } catch (DuplicateKeyException e) {
+                // Stored concurrently by another upload of the same content.
+            }
+        }
+        deduplicated.increment();
+        bytesDeduplicated.increment(data.length);
+        return false;
+    }
+
+    /**
+     * The contents of the chunks with the given hashes, in the same order, fetched in one query.
+     */
+    public List<byte[]> get(List<String> hashes) {
+        Map<String, byte[]> found = new HashMap<>();
+        for (DocumentChunk chunk : mongoTemplate.find(query(where("_id").in(hashes)), DocumentChunk.class)) {
+            found.put(chunk.getId(), chunk.getData());
+        }
+        return hashes.stream().map(hash -> {
+            byte[] data = found.get(hash);
+            if (data == null) throw new IllegalStateException("Chunk " + hash + " is missing");
+            return data;
+        }).toList();
+    }
+}
@@ -0,0 +1,181 @@
+package com.healthcare.records.store;
+
+import com.healthcare.records.dto.DocumentKind;
+import com.healthcare.records.entity.ClinicalDocument;
+import com.healthcare.records.exception.DocumentTooLargeException;
+import com.healthcare.records.repository.ClinicalDocumentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Append-only document storage on top of the {@link ChunkStore}. Content is cut into fixed-size
+ * chunks as it streams in and streamed back out a few chunks at a time, so neither direction holds
+ * more than that on the heap however large the document. Content is deduplicated by chunk only:
+ * every store is a new version of the patient's documents, even one that repeats an older version,
+ * and shares that version's chunks.
+ */
+@Component
+public class DocumentStore {
+    private static final HexFormat HEX = HexFormat.of();
+
+    private static final String WHOLE_DOCUMENT_INDEX = "patient_kind_sha256";
+
+    private final ChunkStore chunkStore;
+    private final ClinicalDocumentRepository documentRepository;
+    private final MongoTemplate mongoTemplate;
+    private final int chunkSize;
+    private final int readAhead;
+    private final long maxSize;
+    private final Counter created;
+    private final Counter unchanged;
+    private final Counter bytesServed;
+
+    public DocumentStore(ChunkStore chunkStore, ClinicalDocumentRepository documentRepository, MongoTemplate mongoTemplate,
+                         MeterRegistry meterRegistry,
+                         @Value("${records.chunks.size:256KB}") DataSize chunkSize,
+                         @Value("${records.chunks.read-ahead:4}") int readAhead,
+                         @Value("${records.documents.max-size:1GB}") DataSize maxSize) {
+        // A chunk is one BSON document, which MongoDB caps at 16MB.
+        if (chunkSize.toBytes() < 1 || chunkSize.toMegabytes() >= 16) {
+            throw new IllegalArgumentException("records.chunks.size must be between 1 byte and 16MB");
+        }
+        this.chunkStore = chunkStore;
+        this.documentRepository = documentRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.chunkSize = (int) chunkSize.toBytes();
+        this.readAhead = Math.max(1, readAhead);
+        this.maxSize = maxSize.toBytes();
+        this.created = Counter.builder("records.documents").tag("outcome", "created").register(meterRegistry);
+        this.unchanged = Counter.builder("records.documents").tag("outcome", "unchanged").register(meterRegistry);
+        this.bytesServed = Counter.builder("records.bytes.served").baseUnit("bytes").register(meterRegistry);
+    }
+
+    public record Stored(ClinicalDocument document, boolean created) {
+    }
+
+    public long maxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Earlier builds deduplicated whole documents with a unique index, which refuses a version that
+     * repeats an older one.
+     */
+    @PostConstruct
+    void dropWholeDocumentIndex() {
+        IndexOperations indexes = mongoTemplate.indexOps(ClinicalDocument.class);
+        if (indexes.getIndexInfo().stream().anyMatch(index -> WHOLE_DOCUMENT_INDEX.equals(index.getName()))) {
+            indexes.dropIndex(WHOLE_DOCUMENT_INDEX);
+        }
+    }
+
+    /**
+     * Reads {@code content} to its end and stores it as a new document of the patient. The chunks are
+     * written as they are read, before the document that lists them, so a document is never visible
+     * without its content; chunks of an upload that fails halfway stay behind, unreferenced, and are
+     * reused if the same content is uploaded again.
+     */
+    public ClinicalDocument store(String patientId, DocumentKind kind, String contentType, InputStream content, String source) throws IOException {
+        ClinicalDocument stored = documentRepository.insert(writeChunks(patientId, kind, contentType, content, source));
+        created.increment();
+        return stored;
+    }
+
+    /**
+     * Like {@link #store}, unless the patient's latest document of the kind already has this content,
+     * which is then returned instead. Only the latest counts: content that matches an older version
+     * is stored again, as the newest.
+     */
+    public Stored storeIfChanged(String patientId, DocumentKind kind, String contentType, InputStream content, String source) throws IOException {
+        ClinicalDocument candidate = writeChunks(patientId, kind, contentType, content, source);
+        List<ClinicalDocument> latest = documentRepository.findByPatientIdAndKind(patientId, kind, Pageable.ofSize(1));
+        if (!latest.isEmpty() && latest.get(0).getSha256().equals(candidate.getSha256())) {
+            unchanged.increment();
+            return new Stored(latest.get(0), false);
+        }
+        ClinicalDocument stored = documentRepository.insert(candidate);
+        created.increment();
+        return new Stored(stored, true);
+    }
+
+    private ClinicalDocument writeChunks(String patientId, DocumentKind kind, String contentType, InputStream content, String source) throws IOException {
+        MessageDigest document = sha256();
+        MessageDigest chunk = sha256();
+        List<String> chunks = new ArrayList<>();
+        long length = 0;
+        while (true) {
+            byte[] buffer = new byte[chunkSize];
+            int read = content.readNBytes(buffer, 0, chunkSize);
+            if (read == 0) break;
+            length += read;
+            if (length > maxSize) throw new DocumentTooLargeException(maxSize);
+            byte[] data = read == chunkSize ? buffer : Arrays.copyOf(buffer, read);
+            document.update(data);
+            String hash = HEX.formatHex(chunk.digest(data));
+            chunkStore.put(hash, data);
+            chunks.add(hash);
+            if (read < chunkSize) break;
+        }
+        String sha256 = HEX.formatHex(document.digest());
+
+        ClinicalDocument stored = new ClinicalDocument();
+        stored.setPatientId(patientId);
+        stored.setKind(kind);
+        stored.setContentType(contentType);
+        stored.setLength(length);
+        stored.setSha256(sha256);
+        stored.setChunkSize(chunkSize);
+        stored.setChunks(chunks);
+        stored.setSource(source);
+        stored.setCreatedAt(Instant.now());
+        return stored;
+    }
+
+    /**
+     * Writes bytes {@code first} to {@code last}, inclusive, of the document to {@code out}.
+     */
+    public void copy(ClinicalDocument document, long first, long last, OutputStream out) throws IOException {
+        if (first > last) return;
+        int size = document.getChunkSize();
+        int firstChunk = (int) (first / size);
+        int lastChunk = (int) (last / size);
+        List<String> hashes = document.getChunks();
+        for (int batch = firstChunk; batch <= lastChunk; batch += readAhead) {
+            List<byte[]> chunks = chunkStore.get(hashes.subList(batch, Math.min(batch + readAhead, lastChunk + 1)));
+            for (int i = 0; i < chunks.size(); i++) {
+                long chunkStart = (long) (batch + i) * size;
+                byte[] data = chunks.get(i);
+                int from = (int) Math.max(0, first - chunkStart);
+                int to = (int) Math.min(data.length, last - chunkStart + 1);
+                out.write(data, from, to - from);
+                bytesServed.increment(to - from);
+            }
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
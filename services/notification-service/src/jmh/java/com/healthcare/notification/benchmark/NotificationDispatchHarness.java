@@ -0,0 +1,354 @@
+package com.healthcare.notification.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.Application;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import redis.embedded.RedisServer;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Next-day reminder burst through notification-service against an embedded Kafka broker and Redis,
+ * with in-process stand-ins for an SMTP relay and a batch SMS gateway. Publishes
+ * {@code harness.messages} (100k) reminders at once, {@code harness.email-percent} (50) of them email
+ * and the rest SMS, republishing {@code harness.duplicate-percent} (5) of them, and midway through
+ * {@code harness.urgent} (500) urgent SMS alerts on the urgent topic. Providers are limited to
+ * {@code harness.provider-rate} (2000) sends per second each.
+ *
+ * <p>The stand-ins accept without storing anything, so the pipeline rather than the fake provider is
+ * what is measured. Both refuse recipients starting {@code nobody} or {@code +000}
+ * ({@code harness.invalid-per-mille}, 2); the SMS gateway also throttles 2% of batches with a 429 and
+ * fails 1% of messages transiently.
+ *
+ * <p>Checks that every valid request is delivered exactly once and every refused one reaches the
+ * dead-letter topic, and reports throughput and latency by channel and priority, both end to end
+ * and from consumption. Exits non-zero otherwise.
+ */
+public final class NotificationDispatchHarness {
+    private static final ObjectMapper MAPPER = Jackson2ObjectMapperBuilder.json().build();
+    private static final String TOPIC = "notification-requests";
+    private static final String URGENT_TOPIC = "notification-requests.urgent";
+    private static final String DLQ_TOPIC = "notification-requests.dlq";
+
+    private final Map<String, AtomicInteger> deliveries = new ConcurrentHashMap<>();
+    private final Map<String, Histogram> latency = new ConcurrentHashMap<>();
+    private final AtomicLong lastDelivery = new AtomicLong();
+    private final AtomicInteger throttled = new AtomicInteger();
+
+    public static void main(String[] args) throws Exception {
+        int messages = Integer.getInteger("harness.messages", 100_000);
+        int urgent = Integer.getInteger("harness.urgent", 500);
+        int emailPercent = Integer.getInteger("harness.email-percent", 50);
+        int duplicatePercent = Integer.getInteger("harness.duplicate-percent", 5);
+        int invalidPerMille = Integer.getInteger("harness.invalid-per-mille", 2);
+        double providerRate = Double.parseDouble(System.getProperty("harness.provider-rate", "2000"));
+
+        NotificationDispatchHarness harness = new NotificationDispatchHarness();
+        EmbeddedKafkaKraftBroker broker = new EmbeddedKafkaKraftBroker(1, 6, TOPIC, URGENT_TOPIC, DLQ_TOPIC);
+        broker.afterPropertiesSet();
+        int redisPort = freePort();
+        RedisServer redis = new RedisServer(redisPort);
+        redis.start();
+        ServerSocket smtp = harness.smtpRelay();
+        HttpServer sms = harness.smsGateway();
+        boolean ok;
+        try (ConfigurableApplicationContext app = start(broker.getBrokersAsString(), redisPort,
+                smtp.getLocalPort(), sms.getAddress().getPort(), providerRate)) {
+            KafkaProducer<String, byte[]> producer = producer(broker.getBrokersAsString());
+            SplittableRandom random = new SplittableRandom(11);
+            List<String> expected = new ArrayList<>();
+            int invalid = 0;
+            int duplicates = 0;
+            long started = System.nanoTime();
+            for (int i = 0; i < messages; i++) {
+                boolean email = i % 100 < emailPercent;
+                String key = "reminder-" + i;
+                boolean refused = random.nextInt(1000) < invalidPerMille;
+                String recipient = email ? (refused ? "nobody" : "patient") + i + "@example.org"
+                        : (refused ? "+000" : "+1555") + String.format("%07d", i);
+                producer.send(new ProducerRecord<>(TOPIC, key, request(key, email ? "EMAIL" : "SMS", "NORMAL", recipient)));
+                if (random.nextInt(100) < duplicatePercent) {
+                    producer.send(new ProducerRecord<>(TOPIC, key, request(key, email ? "EMAIL" : "SMS", "NORMAL", recipient)));
+                    duplicates++;
+                }
+                if (refused) {
+                    invalid++;
+                } else {
+                    expected.add(key);
+                }
+                if (i == messages / 2) {
+                    for (int u = 0; u < urgent; u++) {
+                        String alertKey = "alert-" + u;
+                        producer.send(new ProducerRecord<>(URGENT_TOPIC, alertKey,
+                                request(alertKey, "SMS", "URGENT", "+1666" + String.format("%07d", u))));
+                        expected.add(alertKey);
+                    }
+                }
+            }
+            producer.flush();
+            System.out.printf("published %d reminders, %d urgent alerts, %d duplicates, %d invalid recipients in %.1f s%n",
+                    messages, urgent, duplicates, invalid, (System.nanoTime() - started) / 1e9);
+
+            long deadline = System.nanoTime() + Duration.ofMinutes(Long.getLong("harness.timeout-minutes", 10)).toNanos();
+            int deadLetters = 0;
+            try (KafkaConsumer<String, byte[]> dlq = dlqConsumer(broker.getBrokersAsString())) {
+                while (System.nanoTime() < deadline && (harness.deliveries.size() < expected.size() || deadLetters < invalid)) {
+                    deadLetters += dlq.poll(Duration.ofMillis(200)).count();
+                }
+                Thread.sleep(3000); // anything delivered twice would arrive by now
+                deadLetters += dlq.poll(Duration.ofMillis(500)).count();
+            }
+            double seconds = (harness.lastDelivery.get() - started) / 1e9;
+            System.out.printf("delivered %d distinct messages in %.1f s: %.0f messages/min (%d SMS batches throttled)%n",
+                    harness.deliveries.size(), seconds, harness.deliveries.size() / seconds * 60, harness.throttled.get());
+            new TreeMap<>(harness.latency).forEach((name, h) -> System.out.printf(
+                    "%-12s end to end   p50 %8.1f ms  p99 %8.1f ms  max %8.1f ms (%d)%n", name,
+                    h.getValueAtPercentile(50) / 1000.0, h.getValueAtPercentile(99) / 1000.0, h.getMaxValue() / 1000.0, h.getTotalCount()));
+            for (Timer timer : app.getBean(MeterRegistry.class).find("notification.delivery.latency").timers()) {
+                if (timer.count() == 0) continue;
+                System.out.printf("%-12s from consume mean %8.1f ms  max %8.1f ms (%d)%n",
+                        timer.getId().getTag("channel") + " " + timer.getId().getTag("priority"),
+                        timer.mean(TimeUnit.MILLISECONDS), timer.max(TimeUnit.MILLISECONDS), timer.count());
+            }
+
+            List<String> violations = new ArrayList<>();
+            for (String key : expected) {
+                AtomicInteger count = harness.deliveries.get(key);
+                if (count == null || count.get() != 1) {
+                    violations.add(key + " delivered " + (count == null ? 0 : count.get()) + " times");
+                }
+            }
+            if (harness.deliveries.size() > expected.size()) violations.add("refused recipients were delivered");
+            if (deadLetters != invalid) violations.add(deadLetters + " dead letters for " + invalid + " invalid recipients");
+            violations.stream().limit(20).forEach(violation -> System.out.println("VIOLATION: " + violation));
+            ok = violations.isEmpty();
+            producer.close();
+        } finally {
+            sms.stop(0);
+            smtp.close();
+            redis.stop();
+            broker.destroy();
+        }
+        System.out.println(ok ? "Every request delivered exactly once." : "Deliveries do not match.");
+        System.exit(ok ? 0 : 1);
+    }
+
+    private static byte[] request(String key, String channel, String priority, String recipient) throws IOException {
+        Map<String, Object> request = Map.of(
+                "idempotencyKey", key,
+                "channel", channel,
+                "priority", priority,
+                "recipient", recipient,
+                "subject", key,
+                "body", channel + " " + priority + " " + System.nanoTime());
+        return MAPPER.writeValueAsBytes(request);
+    }
+
+    /**
+     * Records one delivery of {@code key}, with a body of {@code "<channel> <priority> <publish nanoTime>"}.
+     */
+    private void delivered(String key, String body, long now) {
+        deliveries.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+        String[] fields = body.trim().split(" ");
+        latency.computeIfAbsent(fields[0] + " " + fields[1], name -> new ConcurrentHistogram(3))
+                .recordValue(Math.max(0, (now - Long.parseLong(fields[2])) / 1000));
+        lastDelivery.accumulateAndGet(now, Math::max);
+    }
+
+    /**
+     * Speaks just enough SMTP for JavaMail: every command is accepted except recipients starting
+     * {@code nobody}, and each message's subject and first body line are recorded.
+     */
+    private ServerSocket smtpRelay() throws IOException {
+        ServerSocket server = new ServerSocket(0, 256, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(() -> {
+            while (!server.isClosed()) {
+                try {
+                    Socket socket = server.accept();
+                    Thread session = new Thread(() -> smtpSession(socket), "smtp-session");
+                    session.setDaemon(true);
+                    session.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }, "smtp-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return server;
+    }
+
+    private void smtpSession(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.ISO_8859_1));
+             Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.ISO_8859_1))) {
+            reply(out, "220 harness ESMTP");
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.length() < 4 ? line : line.substring(0, 4).toUpperCase();
+                switch (command) {
+                    case "RCPT" -> reply(out, line.contains("<nobody") ? "550 5.1.1 No such user" : "250 OK");
+                    case "DATA" -> {
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        String subject = null;
+                        String body = null;
+                        boolean headers = true;
+                        while (!".".equals(line = in.readLine())) {
+                            if (line == null) return;
+                            if (headers && line.startsWith("Subject: ")) subject = line.substring("Subject: ".length());
+                            else if (headers && line.isEmpty()) headers = false;
+                            else if (!headers && body == null) body = line;
+                        }
+                        delivered(subject, body, System.nanoTime());
+                        reply(out, "250 OK");
+                    }
+                    case "QUIT" -> {
+                        reply(out, "221 Bye");
+                        return;
+                    }
+                    default -> reply(out, "250 OK");
+                }
+            }
+        } catch (IOException e) {
+            // Connection closed by the client.
+        }
+    }
+
+    private static void reply(Writer out, String reply) throws IOException {
+        out.write(reply);
+        out.write("\r\n");
+        out.flush();
+    }
+
+    /**
+     * Accepts batches like an SMS gateway: 2% of batches throttled, 1% of messages failing
+     * transiently, recipients starting {@code +000} rejected.
+     */
+    private HttpServer smsGateway() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 256);
+        server.setExecutor(Executors.newFixedThreadPool(8));
+        server.createContext("/messages", exchange -> {
+            try (exchange) {
+                JsonNode batch = MAPPER.readTree(exchange.getRequestBody());
+                if (ThreadLocalRandom.current().nextInt(100) < 2) {
+                    throttled.incrementAndGet();
+                    respond(exchange, 429, new byte[0]);
+                    return;
+                }
+                long now = System.nanoTime();
+                List<Map<String, String>> results = new ArrayList<>();
+                for (JsonNode message : batch.get("messages")) {
+                    if (message.get("to").asText().startsWith("+000")) {
+                        results.add(Map.of("status", "rejected", "detail", "unknown number"));
+                    } else if (ThreadLocalRandom.current().nextInt(100) < 1) {
+                        results.add(Map.of("status", "failed", "detail", "carrier timeout"));
+                    } else {
+                        delivered(message.get("id").asText(), message.get("text").asText(), now);
+                        results.add(Map.of("status", "accepted"));
+                    }
+                }
+                respond(exchange, 200, MAPPER.writeValueAsBytes(Map.of("results", results)));
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String brokers, int redisPort, int smtpPort, int smsPort, double providerRate) {
+        // Passed as command-line arguments so they override application.yml.
+        return new SpringApplicationBuilder(Application.class).run(
+                "--server.port=0",
+                "--spring.kafka.bootstrap-servers=" + brokers,
+                "--spring.data.redis.host=localhost",
+                "--spring.data.redis.port=" + redisPort,
+                "--spring.mail.host=127.0.0.1",
+                "--spring.mail.port=" + smtpPort,
+                "--notification.channels.sms.url=http://127.0.0.1:" + smsPort + "/messages",
+                "--notification.providers.smtp.rate-per-second=" + providerRate,
+                "--notification.providers.sms-gateway.rate-per-second=" + providerRate,
+                "--notification.dispatch.retry-backoff=200ms",
+                "--notification.dispatch.max-retry-backoff=2s",
+                "--notification.dedup.recheck-interval=1s",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                // Throttled batches are expected here.
+                "--logging.level.com.healthcare.notification.dispatch.ChannelDispatcher=ERROR");
+    }
+
+    private static KafkaProducer<String, byte[]> producer(String brokers) {
+        return new KafkaProducer<>(Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, brokers,
+                ProducerConfig.LINGER_MS_CONFIG, 20,
+                ProducerConfig.BATCH_SIZE_CONFIG, 65536), new StringSerializer(), new ByteArraySerializer());
+    }
+
+    private static KafkaConsumer<String, byte[]> dlqConsumer(String brokers) {
+        KafkaConsumer<String, byte[]> consumer = new KafkaConsumer<>(Map.of(
+                ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, brokers,
+                ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false), new StringDeserializer(), new ByteArrayDeserializer());
+        List<TopicPartition> partitions = new ArrayList<>();
+        consumer.partitionsFor(DLQ_TOPIC).forEach(info -> partitions.add(new TopicPartition(DLQ_TOPIC, info.partition())));
+        consumer.assign(partitions);
+        consumer.seekToBeginning(partitions);
+        return consumer;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
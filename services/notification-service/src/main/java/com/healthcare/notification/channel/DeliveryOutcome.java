@@ -0,0 +1,29 @@
+package com.healthcare.notification.channel;
+
+/**
+ * What became of one request in a batch: {@code SENT}, {@code RETRY} for a transient failure such as
+ * a provider throttling or timing out, or {@code REJECTED} for one that can never succeed, such as
+ * an invalid recipient, which goes straight to the dead-letter topic.
+ */
+public record DeliveryOutcome(Status status, String detail) {
+
+    public enum Status {
+        SENT,
+        RETRY,
+        REJECTED
+    }
+
+    private static final DeliveryOutcome SENT = new DeliveryOutcome(Status.SENT, null);
+
+    public static DeliveryOutcome sent() {
+        return SENT;
+    }
+
+    public static DeliveryOutcome retry(String detail) {
+        return new DeliveryOutcome(Status.RETRY, detail);
+    }
+
+    public static DeliveryOutcome rejected(String detail) {
+        return new DeliveryOutcome(Status.REJECTED, detail);
+    }
+}
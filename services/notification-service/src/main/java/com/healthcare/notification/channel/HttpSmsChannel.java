@@ -0,0 +1,124 @@
+package com.healthcare.notification.channel;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.notification.dto.Channel;
+import com.healthcare.notification.dto.NotificationRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * SMS through an HTTP gateway that takes a batch per request: it POSTs
+ * {@code {"messages":[{"id","to","text"}]}} to {@code notification.channels.sms.url} and expects
+ * {@code {"results":[{"status","detail"}]}} back in the same order, with status {@code accepted},
+ * {@code rejected} (never deliverable) or {@code failed} (worth retrying). A 429 or 5xx retries the
+ * whole batch.
+ */
+@Component
+@ConditionalOnProperty(name = "notification.channels.sms.enabled", havingValue = "true", matchIfMissing = true)
+public class HttpSmsChannel implements NotificationChannel {
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final ObjectMapper objectMapper;
+    private final URI url;
+    private final String authorization;
+    private final Duration timeout;
+    private final String provider;
+    private final int maxBatchSize;
+    private final int maxConcurrentBatches;
+
+    public HttpSmsChannel(ObjectMapper objectMapper,
+                          @Value("${notification.channels.sms.url:http://sms-gateway:8080/messages}") URI url,
+                          @Value("${notification.channels.sms.username:}") String username,
+                          @Value("${notification.channels.sms.password:}") String password,
+                          @Value("${notification.channels.sms.timeout:10s}") Duration timeout,
+                          @Value("${notification.channels.sms.provider:sms-gateway}") String provider,
+                          @Value("${notification.channels.sms.batch-size:100}") int maxBatchSize,
+                          @Value("${notification.channels.sms.concurrency:8}") int maxConcurrentBatches) {
+        this.objectMapper = objectMapper;
+        this.url = url;
+        this.authorization = username.isEmpty() ? null
+                : "Basic " + Base64.getEncoder().encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+        this.timeout = timeout;
+        this.provider = provider;
+        this.maxBatchSize = maxBatchSize;
+        this.maxConcurrentBatches = maxConcurrentBatches;
+    }
+
+    @Override
+    public Channel channel() {
+        return Channel.SMS;
+    }
+
+    @Override
+    public String provider() {
+        return provider;
+    }
+
+    @Override
+    public int maxBatchSize() {
+        return maxBatchSize;
+    }
+
+    @Override
+    public int maxConcurrentBatches() {
+        return maxConcurrentBatches;
+    }
+
+    @Override
+    public List<DeliveryOutcome> send(List<NotificationRequest> batch) throws IOException, InterruptedException {
+        List<SmsMessage> messages = new ArrayList<>(batch.size());
+        for (NotificationRequest request : batch) {
+            messages.add(new SmsMessage(request.getIdempotencyKey(), request.getRecipient(), request.getBody()));
+        }
+        HttpRequest.Builder builder = HttpRequest.newBuilder(url)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(new SmsBatch(messages))));
+        if (authorization != null) builder.header("Authorization", authorization);
+        HttpResponse<byte[]> response = client.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+        int status = response.statusCode();
+        if (status == 429 || status >= 500) {
+            throw new IOException("SMS gateway answered " + status);
+        }
+        if (status >= 400) {
+            return Collections.nCopies(batch.size(), DeliveryOutcome.rejected("SMS gateway refused the batch with " + status));
+        }
+        List<SmsResult> results = objectMapper.readValue(response.body(), SmsResults.class).results();
+        if (results == null || results.size() != batch.size()) {
+            throw new IOException("SMS gateway returned " + (results == null ? 0 : results.size()) + " results for " + batch.size() + " messages");
+        }
+        List<DeliveryOutcome> outcomes = new ArrayList<>(results.size());
+        for (SmsResult result : results) {
+            outcomes.add(switch (result.status() == null ? "" : result.status()) {
+                case "accepted" -> DeliveryOutcome.sent();
+                case "rejected" -> DeliveryOutcome.rejected(result.detail());
+                default -> DeliveryOutcome.retry(result.detail());
+            });
+        }
+        return outcomes;
+    }
+
+    record SmsMessage(String id, String to, String text) {
+    }
+
+    record SmsBatch(List<SmsMessage> messages) {
+    }
+
+    record SmsResult(String status, String detail) {
+    }
+
+    record SmsResults(List<SmsResult> results) {
+    }
+}
@@ -0,0 +1,34 @@
+package com.healthcare.notification.channel;
+
+import com.healthcare.notification.dto.Channel;
+import com.healthcare.notification.dto.NotificationRequest;
+
+import java.util.List;
+
+/**
+ * A delivery adapter for one {@link Channel}. Every {@code NotificationChannel} bean is picked up by
+ * the dispatch pipeline, which hands it batches of up to {@link #maxBatchSize()} requests, at most
+ * {@link #maxConcurrentBatches()} at a time, within the send rate configured for its
+ * {@link #provider()}. Swapping the bean swaps the provider: a local SMTP server or SMS stand-in
+ * needs nothing but a different host or URL.
+ */
+public interface NotificationChannel {
+
+    Channel channel();
+
+    /**
+     * Names the rate limit shared by every adapter sending through the same provider account,
+     * configured as {@code notification.providers.<provider>.rate-per-second}.
+     */
+    String provider();
+
+    int maxBatchSize();
+
+    int maxConcurrentBatches();
+
+    /**
+     * Sends a batch, returning one outcome per request in the same order. Throwing counts as a
+     * transient failure of the whole batch, so every request in it is retried.
+     */
+    List<DeliveryOutcome> send(List<NotificationRequest> batch) throws Exception;
+}
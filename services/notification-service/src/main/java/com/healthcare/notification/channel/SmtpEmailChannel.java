@@ -0,0 +1,115 @@
+package com.healthcare.notification.channel;
+
+import com.healthcare.notification.dto.Channel;
+import com.healthcare.notification.dto.NotificationRequest;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.MimeMessage;
+import jakarta.mail.util.StreamProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Email over SMTP ({@code spring.mail.*}). Each batch goes out over a single connection, so the
+ * handshake and authentication are paid once per batch rather than once per message.
+ */
+@Component
+@ConditionalOnProperty(name = "notification.channels.email.enabled", havingValue = "true", matchIfMissing = true)
+public class SmtpEmailChannel implements NotificationChannel {
+    static {
+        // Jakarta Mail looks its stream provider up for every message it encodes, scanning the
+        // classpath through ServiceLoader unless this property names the implementation.
+        String streamProvider = StreamProvider.class.getName();
+        if (System.getProperty(streamProvider) == null) {
+            System.setProperty(streamProvider, "org.eclipse.angus.mail.util.MailStreamProvider");
+        }
+    }
+
+    private final JavaMailSender mailSender;
+    private final String from;
+    private final String provider;
+    private final int maxBatchSize;
+    private final int maxConcurrentBatches;
+
+    public SmtpEmailChannel(JavaMailSender mailSender,
+                            @Value("${notification.channels.email.from:no-reply@healthcare.local}") String from,
+                            @Value("${notification.channels.email.provider:smtp}") String provider,
+                            @Value("${notification.channels.email.batch-size:50}") int maxBatchSize,
+                            @Value("${notification.channels.email.concurrency:8}") int maxConcurrentBatches) {
+        this.mailSender = mailSender;
+        this.from = from;
+        this.provider = provider;
+        this.maxBatchSize = maxBatchSize;
+        this.maxConcurrentBatches = maxConcurrentBatches;
+    }
+
+    @Override
+    public Channel channel() {
+        return Channel.EMAIL;
+    }
+
+    @Override
+    public String provider() {
+        return provider;
+    }
+
+    @Override
+    public int maxBatchSize() {
+        return maxBatchSize;
+    }
+
+    @Override
+    public int maxConcurrentBatches() {
+        return maxConcurrentBatches;
+    }
+
+    @Override
+    public List<DeliveryOutcome> send(List<NotificationRequest> batch) {
+        List<DeliveryOutcome> outcomes = new ArrayList<>(batch.size());
+        List<MimeMessage> messages = new ArrayList<>(batch.size());
+        Map<MimeMessage, Integer> positions = new IdentityHashMap<>();
+        for (NotificationRequest request : batch) {
+            try {
+                MimeMessage message = mailSender.createMimeMessage();
+                MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
+                helper.setFrom(from);
+                helper.setTo(request.getRecipient());
+                helper.setSubject(request.getSubject() == null ? "" : request.getSubject());
+                helper.setText(request.getBody() == null ? "" : request.getBody());
+                positions.put(message, outcomes.size());
+                messages.add(message);
+                outcomes.add(DeliveryOutcome.sent());
+            } catch (MessagingException | IllegalArgumentException e) {
+                outcomes.add(DeliveryOutcome.rejected("Invalid message: " + e.getMessage()));
+            }
+        }
+        if (messages.isEmpty()) return outcomes;
+        try {
+            mailSender.send(messages.toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            // Everything not listed as failed was accepted by the server.
+            e.getFailedMessages().forEach((message, failure) -> {
+                Integer position = positions.get(message);
+                if (position != null) outcomes.set(position, outcome(failure));
+            });
+        }
+        return outcomes;
+    }
+
+    private static DeliveryOutcome outcome(Exception failure) {
+        if (failure instanceof SendFailedException sendFailed
+                && sendFailed.getInvalidAddresses() != null && sendFailed.getInvalidAddresses().length > 0) {
+            return DeliveryOutcome.rejected("Recipient refused: " + failure.getMessage());
+        }
+        return DeliveryOutcome.retry(failure.toString());
+    }
+}
@@ -0,0 +1,28 @@
+package com.healthcare.notification.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+
+/** Keeps Kafka listeners eager under lazy initialization; see "Fast Startup" in README.md. */
+@Configuration
+public class LazyInitConfig {
+
+    @Bean
+    public static LazyInitializationExcludeFilter listenersAreEager() {
+        return (beanName, definition, beanType) -> beanType != null && listens(beanType);
+    }
+
+    private static boolean listens(Class<?> beanType) {
+        if (AnnotatedElementUtils.hasAnnotation(beanType, KafkaListener.class)) return true;
+        for (Method method : ReflectionUtils.getUniqueDeclaredMethods(beanType)) {
+            if (AnnotatedElementUtils.hasAnnotation(method, KafkaListener.class)) return true;
+        }
+        return false;
+    }
+}
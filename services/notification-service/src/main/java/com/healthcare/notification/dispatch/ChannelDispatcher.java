@@ -0,0 +1,120 @@
+package com.healthcare.notification.dispatch;
+
+import com.healthcare.notification.channel.DeliveryOutcome;
+import com.healthcare.notification.channel.NotificationChannel;
+import com.healthcare.notification.dto.NotificationRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * The dispatch loop of one channel, on a thread of its own: waits for one of the channel's
+ * concurrent batch slots, takes a batch off the channel's {@link DispatchQueue}, waits for the
+ * provider's rate limit to admit the whole batch, then hands it to the shared sender pool and goes
+ * back for the next one. Waiting happens here, so the sender pool only ever runs batches that may go
+ * out at once.
+ */
+final class ChannelDispatcher implements Runnable {
+    private static final Logger log = LoggerFactory.getLogger(ChannelDispatcher.class);
+
+    private final NotificationChannel channel;
+    private final DispatchQueue queue;
+    private final RateLimiter rateLimiter;
+    private final Semaphore batchSlots;
+    private final Executor senders;
+    private final DispatchPipeline pipeline;
+    private final long lingerNanos;
+
+    ChannelDispatcher(NotificationChannel channel, DispatchQueue queue, RateLimiter rateLimiter, Executor senders,
+                      DispatchPipeline pipeline, long lingerNanos) {
+        this.channel = channel;
+        this.queue = queue;
+        this.rateLimiter = rateLimiter;
+        this.batchSlots = new Semaphore(channel.maxConcurrentBatches());
+        this.senders = senders;
+        this.pipeline = pipeline;
+        this.lingerNanos = lingerNanos;
+    }
+
+    NotificationChannel channel() {
+        return channel;
+    }
+
+    DispatchQueue queue() {
+        return queue;
+    }
+
+    @Override
+    public void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            // A slot first and the batch after, so the batch is chosen only once it can go out and an
+            // urgent request queued in the meantime still makes it.
+            try {
+                batchSlots.acquire();
+            } catch (InterruptedException e) {
+                return;
+            }
+            List<Notification> batch;
+            try {
+                batch = live(queue.takeBatch(channel.maxBatchSize(), lingerNanos));
+            } catch (InterruptedException e) {
+                batchSlots.release();
+                return;
+            }
+            if (batch.isEmpty()) {
+                batchSlots.release();
+                continue;
+            }
+            try {
+                rateLimiter.acquire(batch.size());
+                senders.execute(() -> send(batch));
+            } catch (InterruptedException | RejectedExecutionException e) {
+                batchSlots.release();
+                queue.putBack(batch);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Completes requests that expired while queued and returns the rest.
+     */
+    private List<Notification> live(List<Notification> batch) {
+        Instant now = Instant.now();
+        List<Notification> live = new ArrayList<>(batch.size());
+        for (Notification notification : batch) {
+            if (notification.isExpired(now)) {
+                pipeline.expired(channel, notification);
+            } else {
+                live.add(notification);
+            }
+        }
+        return live;
+    }
+
+    private void send(List<Notification> batch) {
+        List<NotificationRequest> requests = new ArrayList<>(batch.size());
+        for (Notification notification : batch) requests.add(notification.request());
+        List<DeliveryOutcome> outcomes;
+        try {
+            outcomes = channel.send(requests);
+            if (outcomes.size() != batch.size()) {
+                throw new IllegalStateException(outcomes.size() + " outcomes for a batch of " + batch.size());
+            }
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+            log.warn("{} batch of {} failed: {}", channel.channel(), batch.size(), e.toString());
+            outcomes = Collections.nCopies(batch.size(), DeliveryOutcome.retry(e.toString()));
+        } finally {
+            batchSlots.release();
+        }
+        pipeline.completed(channel, batch, outcomes);
+    }
+}
@@ -0,0 +1,37 @@
+package com.healthcare.notification.dispatch;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Publishes requests that will never be delivered to {@code notification.dead-letter.topic}: the
+ * original record value unchanged, keyed by idempotency key, with headers saying why and after how
+ * many attempts, so they can be inspected and republished once the cause is fixed.
+ */
+@Component
+public class DeadLetterPublisher {
+    static final String REASON_HEADER = "notification-dlq-reason";
+    static final String ATTEMPTS_HEADER = "notification-dlq-attempts";
+
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final String topic;
+
+    public DeadLetterPublisher(KafkaTemplate<String, byte[]> kafkaTemplate,
+                               @Value("${notification.dead-letter.topic:notification-requests.dlq}") String topic) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.topic = topic;
+    }
+
+    CompletableFuture<?> publish(Notification notification, String reason) {
+        String key = notification.request() == null ? null : notification.idempotencyKey();
+        ProducerRecord<String, byte[]> record = new ProducerRecord<>(topic, key, notification.payload());
+        record.headers().add(REASON_HEADER, String.valueOf(reason).getBytes(StandardCharsets.UTF_8));
+        record.headers().add(ATTEMPTS_HEADER, Integer.toString(notification.attempts()).getBytes(StandardCharsets.UTF_8));
+        return kafkaTemplate.send(record);
+    }
+}
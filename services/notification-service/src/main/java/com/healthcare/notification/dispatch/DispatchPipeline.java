@@ -0,0 +1,403 @@
+package com.healthcare.notification.dispatch;
+
+import com.healthcare.notification.channel.DeliveryOutcome;
+import com.healthcare.notification.channel.NotificationChannel;
+import com.healthcare.notification.dto.Channel;
+import com.healthcare.notification.dto.Priority;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Moves consumed requests to delivery:
+ *
+ * <ol>
+ *   <li>Admission: one thread takes waiting requests, most urgent first, and claims their
+ *       idempotency keys in batches of {@code notification.dedup.batch-size}, one Redis round trip
+ *       each. Duplicates of delivered requests are dropped; a request whose key another delivery
+ *       holds is checked again every {@code notification.dedup.recheck-interval}.</li>
+ *   <li>Queueing: claimed requests join their channel's {@link DispatchQueue}, ordered by priority.</li>
+ *   <li>Dispatch: a {@link ChannelDispatcher} per {@link NotificationChannel} batches them, paces
+ *       them to the provider's rate, and sends on a pool of {@code notification.dispatch.senders}
+ *       threads shared by all channels.</li>
+ *   <li>Outcome: sent requests are settled in Redis and acknowledged; failures are retried with
+ *       exponential backoff up to {@code notification.dispatch.max-attempts}, and rejected or
+ *       exhausted ones go to the dead-letter topic.</li>
+ * </ol>
+ *
+ * <p>Stopping lets the batches already sending finish and gives up the claims on everything still
+ * waiting, so the replica that takes over the partitions sends those requests straight away.
+ */
+@Component
+public class DispatchPipeline implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(DispatchPipeline.class);
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private final List<NotificationChannel> channels;
+    private final IdempotencyStore idempotencyStore;
+    private final DeadLetterPublisher deadLetters;
+    private final MeterRegistry meterRegistry;
+    private final Environment environment;
+    private final int senderThreads;
+    private final long lingerNanos;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final Duration maxRetryBackoff;
+    private final int claimBatchSize;
+    private final Duration recheckInterval;
+    private final Duration shutdownTimeout;
+
+    private final PriorityBlockingQueue<Notification> admissions = new PriorityBlockingQueue<>(1024,
+            Comparator.comparing(Notification::priority).thenComparingLong(Notification::sequence));
+    private final Set<Notification> delayed = ConcurrentHashMap.newKeySet();
+    private final Map<Channel, ChannelDispatcher> dispatchers = new EnumMap<>(Channel.class);
+    private final Map<Channel, Timer[]> latency = new EnumMap<>(Channel.class);
+    private final Map<Channel, DistributionSummary> batchSizes = new EnumMap<>(Channel.class);
+    private final List<Thread> threads = new ArrayList<>();
+    private ThreadPoolExecutor senders;
+    private ScheduledThreadPoolExecutor timer;
+    private volatile boolean running;
+
+    public DispatchPipeline(List<NotificationChannel> channels,
+                            IdempotencyStore idempotencyStore,
+                            DeadLetterPublisher deadLetters,
+                            MeterRegistry meterRegistry,
+                            Environment environment,
+                            @Value("${notification.dispatch.senders:32}") int senderThreads,
+                            @Value("${notification.dispatch.linger-ms:20}") long lingerMillis,
+                            @Value("${notification.dispatch.max-attempts:5}") int maxAttempts,
+                            @Value("${notification.dispatch.retry-backoff:2s}") Duration retryBackoff,
+                            @Value("${notification.dispatch.max-retry-backoff:5m}") Duration maxRetryBackoff,
+                            @Value("${notification.dedup.batch-size:500}") int claimBatchSize,
+                            @Value("${notification.dedup.recheck-interval:30s}") Duration recheckInterval,
+                            @Value("${notification.dispatch.shutdown-timeout:20s}") Duration shutdownTimeout) {
+        this.channels = channels;
+        this.idempotencyStore = idempotencyStore;
+        this.deadLetters = deadLetters;
+        this.meterRegistry = meterRegistry;
+        this.environment = environment;
+        this.senderThreads = senderThreads;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.maxRetryBackoff = maxRetryBackoff;
+        this.claimBatchSize = claimBatchSize;
+        this.recheckInterval = recheckInterval;
+        this.shutdownTimeout = shutdownTimeout;
+        Gauge.builder("notification.admission.pending", admissions, PriorityBlockingQueue::size)
+                .description("Requests waiting for their idempotency key to be claimed")
+                .register(meterRegistry);
+        Gauge.builder("notification.retries.pending", delayed, Set::size)
+                .description("Requests waiting out a retry backoff or a dedup recheck")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Accepts a consumed request; its record is acknowledged once the request reaches a final state.
+     */
+    void submit(Notification notification) {
+        admissions.add(notification);
+    }
+
+    /**
+     * Dead-letters a record that could not be read as a request.
+     */
+    void reject(Notification notification, String reason) {
+        meterRegistry.counter("notification.requests", "outcome", "malformed").increment();
+        deadLetter(notification, reason);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) return;
+        senders = new ThreadPoolExecutor(senderThreads, senderThreads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), threadFactory("notification-sender-"));
+        timer = new ScheduledThreadPoolExecutor(1, threadFactory("notification-retry-"));
+        timer.setRemoveOnCancelPolicy(true);
+        Map<String, RateLimiter> rateLimiters = new HashMap<>();
+        for (NotificationChannel channel : channels) {
+            if (dispatchers.containsKey(channel.channel())) {
+                throw new IllegalStateException("More than one adapter for channel " + channel.channel());
+            }
+            RateLimiter rateLimiter = rateLimiters.computeIfAbsent(channel.provider(), this::rateLimiter);
+            ChannelDispatcher dispatcher = new ChannelDispatcher(channel, new DispatchQueue(), rateLimiter, senders, this, lingerNanos);
+            dispatchers.put(channel.channel(), dispatcher);
+            registerMeters(channel.channel(), dispatcher.queue());
+            threads.add(new Thread(dispatcher, "notification-dispatch-" + channel.channel().name().toLowerCase()));
+        }
+        threads.add(new Thread(this::admit, "notification-admission"));
+        running = true;
+        for (Thread thread : threads) thread.start();
+        log.info("Notification dispatch started for {}", dispatchers.keySet());
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) return;
+        running = false;
+        for (Thread thread : threads) thread.interrupt();
+        try {
+            for (Thread thread : threads) thread.join(shutdownTimeout.toMillis());
+            senders.shutdown();
+            if (!senders.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Notification batches still sending after {}", shutdownTimeout);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        timer.shutdownNow();
+        List<Notification> waiting = new ArrayList<>(delayed);
+        admissions.drainTo(waiting);
+        for (ChannelDispatcher dispatcher : dispatchers.values()) dispatcher.queue().drainTo(waiting);
+        List<String> keys = new ArrayList<>();
+        for (Notification notification : waiting) {
+            if (notification.request() != null) keys.add(notification.idempotencyKey());
+        }
+        for (int from = 0; from < keys.size(); from += claimBatchSize) {
+            try {
+                idempotencyStore.release(keys.subList(from, Math.min(keys.size(), from + claimBatchSize)));
+            } catch (RuntimeException e) {
+                log.warn("Failed to release notification claims, they lapse on their own: {}", e.toString());
+                break;
+            }
+        }
+        threads.clear();
+        dispatchers.clear();
+        log.info("Notification dispatch stopped, {} waiting requests left for redelivery", waiting.size());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Before the Kafka listener containers start, and after they stop, so nothing consumed is left
+     * without a pipeline to take it.
+     */
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE - 200;
+    }
+
+    void completed(NotificationChannel channel, List<Notification> batch, List<DeliveryOutcome> outcomes) {
+        List<Notification> sent = new ArrayList<>(batch.size());
+        int retried = 0;
+        int rejected = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            Notification notification = batch.get(i);
+            DeliveryOutcome outcome = outcomes.get(i);
+            switch (outcome.status()) {
+                case SENT -> sent.add(notification);
+                case RETRY -> {
+                    retried++;
+                    retry(notification, outcome.detail());
+                }
+                case REJECTED -> {
+                    rejected++;
+                    deadLetter(notification, "Rejected by " + channel.provider() + ": " + outcome.detail());
+                }
+            }
+        }
+        batchSizes.get(channel.channel()).record(batch.size());
+        count(channel.channel(), "retried", retried);
+        count(channel.channel(), "rejected", rejected);
+        if (sent.isEmpty()) return;
+        List<String> keys = new ArrayList<>(sent.size());
+        for (Notification notification : sent) keys.add(notification.idempotencyKey());
+        try {
+            idempotencyStore.settle(keys, IdempotencyStore.Outcome.SENT);
+        } catch (RuntimeException e) {
+            // Delivered all the same; the claims still keep redeliveries out until they lapse.
+            log.warn("Failed to settle {} sent notifications: {}", keys.size(), e.toString());
+        }
+        Timer[] timers = latency.get(channel.channel());
+        long now = System.nanoTime();
+        for (Notification notification : sent) {
+            timers[notification.priority().ordinal()].record(now - notification.receivedAt(), TimeUnit.NANOSECONDS);
+            notification.complete();
+        }
+        count(channel.channel(), "sent", sent.size());
+    }
+
+    void expired(NotificationChannel channel, Notification notification) {
+        count(channel.channel(), "expired", 1);
+        notification.complete();
+    }
+
+    private void admit() {
+        List<Notification> batch = new ArrayList<>(claimBatchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(admissions.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            admissions.drainTo(batch, claimBatchSize - 1);
+            try {
+                claim(batch);
+            } catch (RuntimeException e) {
+                log.warn("Failed to claim {} notification keys, retrying: {}", batch.size(), e.toString());
+                for (Notification notification : batch) later(notification, retryBackoff, admissions::add);
+            }
+            batch.clear();
+        }
+    }
+
+    private void claim(List<Notification> batch) {
+        List<String> keys = new ArrayList<>(batch.size());
+        for (Notification notification : batch) keys.add(notification.idempotencyKey());
+        List<IdempotencyStore.Claim> claims = idempotencyStore.claim(keys);
+        int admitted = 0;
+        int duplicates = 0;
+        int deferred = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            Notification notification = batch.get(i);
+            switch (claims.get(i)) {
+                case CLAIMED -> {
+                    admitted++;
+                    enqueue(notification);
+                }
+                case SETTLED -> {
+                    duplicates++;
+                    notification.complete();
+                }
+                case IN_FLIGHT -> {
+                    deferred++;
+                    later(notification, recheckInterval, admissions::add);
+                }
+            }
+        }
+        count("admitted", admitted);
+        count("duplicate", duplicates);
+        count("deferred", deferred);
+    }
+
+    private void enqueue(Notification notification) {
+        ChannelDispatcher dispatcher = dispatchers.get(notification.request().getChannel());
+        if (dispatcher == null) {
+            deadLetter(notification, "No adapter for channel " + notification.request().getChannel());
+        } else {
+            dispatcher.queue().add(notification);
+        }
+    }
+
+    private void retry(Notification notification, String detail) {
+        int attempts = notification.failedAttempt();
+        if (attempts >= maxAttempts) {
+            deadLetter(notification, "Gave up after " + attempts + " attempts: " + detail);
+            return;
+        }
+        long backoff = Math.min(maxRetryBackoff.toMillis(), retryBackoff.toMillis() << Math.min(attempts - 1, 20));
+        // Jittered, so a batch failed together does not retry together.
+        later(notification, Duration.ofMillis(ThreadLocalRandom.current().nextLong(backoff / 2, backoff + 1)), this::enqueue);
+    }
+
+    private void deadLetter(Notification notification, String reason) {
+        deadLetters.publish(notification, reason).whenCompleteAsync((result, failure) -> {
+            if (failure != null) {
+                log.warn("Failed to dead-letter a notification, retrying: {}", failure.toString());
+                later(notification, retryBackoff, n -> deadLetter(n, reason));
+                return;
+            }
+            if (notification.request() != null) {
+                try {
+                    idempotencyStore.settle(List.of(notification.idempotencyKey()), IdempotencyStore.Outcome.DEAD_LETTERED);
+                } catch (RuntimeException e) {
+                    log.warn("Failed to settle a dead-lettered notification: {}", e.toString());
+                }
+            }
+            meterRegistry.counter("notification.dead.letters").increment();
+            notification.complete();
+        }, senders);
+    }
+
+    /**
+     * Runs {@code then} after {@code delay}; dropped if the pipeline stops first, in which case the
+     * request's claim is released with the rest.
+     */
+    private void later(Notification notification, Duration delay, Consumer<Notification> then) {
+        delayed.add(notification);
+        try {
+            timer.schedule(() -> {
+                if (delayed.remove(notification)) then.accept(notification);
+            }, delay.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Stopping.
+        }
+    }
+
+    private RateLimiter rateLimiter(String provider) {
+        String prefix = "notification.providers." + provider + ".";
+        double rate = environment.getProperty(prefix + "rate-per-second", Double.class, 1000.0);
+        int burst = environment.getProperty(prefix + "burst", Integer.class, (int) Math.ceil(rate));
+        log.info("Provider {} limited to {}/s with bursts of {}", provider, rate, burst);
+        return new RateLimiter(rate, burst);
+    }
+
+    private void registerMeters(Channel channel, DispatchQueue queue) {
+        Timer[] timers = new Timer[PRIORITIES.length];
+        for (Priority priority : PRIORITIES) {
+            Gauge.builder("notification.queue.depth", queue, q -> q.size(priority))
+                    .description("Requests queued for dispatch")
+                    .tags("channel", channel.name(), "priority", priority.name())
+                    .register(meterRegistry);
+            timers[priority.ordinal()] = Timer.builder("notification.delivery.latency")
+                    .description("Time from consuming a request to its provider accepting it")
+                    .tags("channel", channel.name(), "priority", priority.name())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+        latency.put(channel, timers);
+        batchSizes.put(channel, DistributionSummary.builder("notification.batch.size")
+                .description("Requests per batch handed to a channel")
+                .tag("channel", channel.name())
+                .register(meterRegistry));
+    }
+
+    private void count(String outcome, int requests) {
+        if (requests > 0) meterRegistry.counter("notification.requests", "outcome", outcome).increment(requests);
+    }
+
+    private void count(Channel channel, String outcome, int requests) {
+        if (requests > 0) {
+            meterRegistry.counter("notification.deliveries", "channel", channel.name(), "outcome", outcome).increment(requests);
+        }
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
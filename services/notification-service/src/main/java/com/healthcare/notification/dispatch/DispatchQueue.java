@@ -0,0 +1,113 @@
+package com.healthcare.notification.dispatch;
+
+import com.healthcare.notification.dto.Priority;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The requests waiting for one channel: a FIFO per {@link Priority}, drained highest priority first,
+ * so an urgent alert queued behind a day of reminders is in the very next batch.
+ */
+final class DispatchQueue {
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    @SuppressWarnings("unchecked")
+    private final ArrayDeque<Notification>[] queues = new ArrayDeque[PRIORITIES.length];
+    private int size;
+
+    DispatchQueue() {
+        for (int p = 0; p < queues.length; p++) queues[p] = new ArrayDeque<>();
+    }
+
+    void add(Notification notification) {
+        lock.lock();
+        try {
+            queues[notification.priority().ordinal()].addLast(notification);
+            size++;
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a batch to put back in front of the queue, e.g. one taken just before shutdown.
+     */
+    void putBack(List<Notification> batch) {
+        lock.lock();
+        try {
+            for (int i = batch.size() - 1; i >= 0; i--) {
+                queues[batch.get(i).priority().ordinal()].addFirst(batch.get(i));
+            }
+            size += batch.size();
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits for a request, then for up to {@code lingerNanos} more while the batch is short of
+     * {@code max}, unless an urgent request is waiting; then takes up to {@code max}, highest
+     * priority first.
+     */
+    List<Notification> takeBatch(int max, long lingerNanos) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (size == 0) changed.await();
+            long remaining = lingerNanos;
+            while (size < max && remaining > 0 && queues[Priority.URGENT.ordinal()].isEmpty()) {
+                remaining = changed.awaitNanos(remaining);
+            }
+            List<Notification> batch = new ArrayList<>(Math.min(max, size));
+            for (ArrayDeque<Notification> queue : queues) {
+                while (batch.size() < max && !queue.isEmpty()) batch.add(queue.pollFirst());
+            }
+            size -= batch.size();
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Empties the queue into {@code into}.
+     */
+    void drainTo(Collection<Notification> into) {
+        lock.lock();
+        try {
+            for (ArrayDeque<Notification> queue : queues) {
+                into.addAll(queue);
+                queue.clear();
+            }
+            size = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size(Priority priority) {
+        lock.lock();
+        try {
+            return queues[priority.ordinal()].size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
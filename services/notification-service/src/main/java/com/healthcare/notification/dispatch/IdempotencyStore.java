@@ -0,0 +1,96 @@
+package com.healthcare.notification.dispatch;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Idempotency keys in Redis, one {@code notification:idem:<key>} string per request. A key is
+ * claimed before its request is queued and settled once it is delivered or dead-lettered; each call
+ * covers a whole batch of keys in one script and one round trip (scripts under {@code resources/redis}).
+ *
+ * <p>Claims carry this replica's owner id and expire after {@code notification.dedup.claim-ttl}, the
+ * longest a request may be held up after the replica delivering it dies. Settled keys are kept for
+ * {@code notification.dedup.retention}, the window in which a republished request is still dropped.
+ *
+ * Scripts touch several keys, so they assume a single Redis primary rather than a cluster.
+ */
+@Component
+public class IdempotencyStore {
+    private static final String PREFIX = "notification:idem:";
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> CLAIM = RedisScript.of(new ClassPathResource("redis/claim.lua"), List.class);
+    private static final RedisScript<Long> SETTLE = RedisScript.of(new ClassPathResource("redis/settle.lua"), Long.class);
+    private static final RedisScript<Long> RELEASE = RedisScript.of(new ClassPathResource("redis/release.lua"), Long.class);
+
+    enum Claim {
+        /** Claimed now: this replica delivers it. */
+        CLAIMED,
+        /** Already delivered or dead-lettered. */
+        SETTLED,
+        /** Claimed by a delivery still in flight, here or on another replica. */
+        IN_FLIGHT
+    }
+
+    enum Outcome {
+        SENT("S"),
+        DEAD_LETTERED("D");
+
+        private final String state;
+
+        Outcome(String state) {
+            this.state = state;
+        }
+    }
+
+    private final StringRedisTemplate redisTemplate;
+    private final String owner = UUID.randomUUID().toString();
+    private final Duration claimTtl;
+    private final Duration retention;
+
+    public IdempotencyStore(StringRedisTemplate redisTemplate,
+                            @Value("${notification.dedup.claim-ttl:10m}") Duration claimTtl,
+                            @Value("${notification.dedup.retention:24h}") Duration retention) {
+        this.redisTemplate = redisTemplate;
+        this.claimTtl = claimTtl;
+        this.retention = retention;
+    }
+
+    /**
+     * Claims each key, returning what was found in the same order.
+     */
+    List<Claim> claim(List<String> idempotencyKeys) {
+        List<?> results = redisTemplate.execute(CLAIM, keys(idempotencyKeys), owner, Long.toString(claimTtl.toMillis()));
+        List<Claim> claims = new ArrayList<>(idempotencyKeys.size());
+        for (Object result : results) {
+            String value = (String) result;
+            claims.add("CLAIMED".equals(value) ? Claim.CLAIMED : value.startsWith("P:") ? Claim.IN_FLIGHT : Claim.SETTLED);
+        }
+        return claims;
+    }
+
+    void settle(List<String> idempotencyKeys, Outcome outcome) {
+        redisTemplate.execute(SETTLE, keys(idempotencyKeys), outcome.state, Long.toString(retention.toMillis()));
+    }
+
+    /**
+     * Drops this replica's claims on keys it will not deliver after all.
+     */
+    void release(List<String> idempotencyKeys) {
+        redisTemplate.execute(RELEASE, keys(idempotencyKeys), owner);
+    }
+
+    private static List<String> keys(List<String> idempotencyKeys) {
+        List<String> keys = new ArrayList<>(idempotencyKeys.size());
+        for (String key : idempotencyKeys) keys.add(PREFIX + key);
+        return keys;
+    }
+}
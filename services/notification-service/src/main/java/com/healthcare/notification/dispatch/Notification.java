@@ -0,0 +1,95 @@
+package com.healthcare.notification.dispatch;
+
+import com.healthcare.notification.dto.NotificationRequest;
+import com.healthcare.notification.dto.Priority;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.time.Instant;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One request on its way through the pipeline, from the record it arrived in until it is
+ * acknowledged. The record is only acknowledged once the request reaches a final state (sent,
+ * duplicate, expired or dead-lettered), so a replica that dies before that leaves it to be consumed
+ * again.
+ */
+final class Notification {
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private final NotificationRequest request;
+    private final byte[] payload;
+    private final Acknowledgment acknowledgment;
+    private final Semaphore inFlight;
+    private final long sequence = SEQUENCE.incrementAndGet();
+    private final long receivedAt = System.nanoTime();
+    private int attempts;
+    private boolean completed;
+
+    Notification(NotificationRequest request, byte[] payload, Acknowledgment acknowledgment, Semaphore inFlight) {
+        this.request = request;
+        this.payload = payload;
+        this.acknowledgment = acknowledgment;
+        this.inFlight = inFlight;
+    }
+
+    /**
+     * The parsed request; null when the record could not be read.
+     */
+    NotificationRequest request() {
+        return request;
+    }
+
+    /**
+     * The record value as received, for the dead-letter topic.
+     */
+    byte[] payload() {
+        return payload;
+    }
+
+    String idempotencyKey() {
+        return request.getIdempotencyKey();
+    }
+
+    Priority priority() {
+        return request.getPriority();
+    }
+
+    /**
+     * Arrival order, breaking ties between requests of the same priority.
+     */
+    long sequence() {
+        return sequence;
+    }
+
+    long receivedAt() {
+        return receivedAt;
+    }
+
+    int attempts() {
+        return attempts;
+    }
+
+    int failedAttempt() {
+        return ++attempts;
+    }
+
+    boolean isExpired(Instant now) {
+        return request.getExpiresAt() != null && request.getExpiresAt().isBefore(now);
+    }
+
+    /**
+     * Acknowledges the record and frees its place in the pipeline.
+     */
+    synchronized void complete() {
+        if (completed) return;
+        completed = true;
+        try {
+            acknowledgment.acknowledge();
+        } catch (RuntimeException e) {
+            // The partition moved to another consumer; the record is consumed there again and dropped
+            // as a duplicate once its key is settled.
+        }
+        inFlight.release();
+    }
+}
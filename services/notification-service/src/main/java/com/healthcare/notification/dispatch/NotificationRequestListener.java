@@ -0,0 +1,82 @@
+package com.healthcare.notification.dispatch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.notification.dto.NotificationRequest;
+import com.healthcare.notification.dto.Priority;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Consumes notification requests into the {@link DispatchPipeline}. Urgent alerts have a topic of
+ * their own, {@code notification.ingest.urgent-topic}, with its own consumers and in-flight limit, so
+ * they are consumed at once even while a burst of reminders is still being read off the main topic;
+ * requests of any priority may be published to either.
+ *
+ * <p>Records are acknowledged out of order as their requests complete ({@code async-acks}), and
+ * each topic admits at most {@code notification.ingest.max-in-flight} unfinished requests: past that
+ * the consumer blocks, leaving the backlog in Kafka rather than on the heap.
+ */
+@Component
+public class NotificationRequestListener {
+    private final DispatchPipeline pipeline;
+    private final ObjectMapper objectMapper;
+    private final Semaphore inFlight;
+    private final Semaphore urgentInFlight;
+
+    public NotificationRequestListener(DispatchPipeline pipeline,
+                                       ObjectMapper objectMapper,
+                                       @Value("${notification.ingest.max-in-flight:20000}") int maxInFlight,
+                                       @Value("${notification.ingest.urgent-max-in-flight:2000}") int urgentMaxInFlight) {
+        this.pipeline = pipeline;
+        this.objectMapper = objectMapper;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.urgentInFlight = new Semaphore(urgentMaxInFlight);
+    }
+
+    @KafkaListener(id = "notification-requests",
+            topics = "${notification.ingest.topic:notification-requests}",
+            concurrency = "${notification.ingest.concurrency:3}")
+    public void onRequest(ConsumerRecord<String, byte[]> record, Acknowledgment acknowledgment) throws InterruptedException {
+        accept(record, acknowledgment, inFlight);
+    }
+
+    @KafkaListener(id = "notification-requests-urgent",
+            topics = "${notification.ingest.urgent-topic:notification-requests.urgent}",
+            concurrency = "${notification.ingest.urgent-concurrency:1}")
+    public void onUrgentRequest(ConsumerRecord<String, byte[]> record, Acknowledgment acknowledgment) throws InterruptedException {
+        accept(record, acknowledgment, urgentInFlight);
+    }
+
+    private void accept(ConsumerRecord<String, byte[]> record, Acknowledgment acknowledgment, Semaphore permits)
+            throws InterruptedException {
+        permits.acquire();
+        NotificationRequest request;
+        try {
+            request = parse(record.value());
+        } catch (IOException | RuntimeException e) {
+            pipeline.reject(new Notification(null, record.value(), acknowledgment, permits), "Malformed request: " + e.getMessage());
+            return;
+        }
+        pipeline.submit(new Notification(request, record.value(), acknowledgment, permits));
+    }
+
+    private NotificationRequest parse(byte[] value) throws IOException {
+        if (value == null) throw new IOException("empty record");
+        NotificationRequest request = objectMapper.readValue(value, NotificationRequest.class);
+        if (isBlank(request.getIdempotencyKey())) throw new IOException("idempotencyKey is required");
+        if (request.getChannel() == null) throw new IOException("channel is required");
+        if (isBlank(request.getRecipient())) throw new IOException("recipient is required");
+        if (request.getPriority() == null) request.setPriority(Priority.NORMAL);
+        return request;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -0,0 +1,37 @@
+package com.healthcare.notification.dispatch;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A token bucket for one provider's send rate, kept as the time at which the bucket next runs dry
+ * (GCRA), so it needs no refill thread and a caller reserves any number of permits in one step.
+ * Idle time builds up at most {@code burst} permits.
+ */
+final class RateLimiter {
+    private final long nanosPerPermit;
+    private final long burstNanos;
+    private long emptyAt = System.nanoTime();
+
+    RateLimiter(double permitsPerSecond, int burst) {
+        this.nanosPerPermit = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        this.burstNanos = nanosPerPermit * burst;
+    }
+
+    /**
+     * Blocks until {@code permits} may be used.
+     */
+    void acquire(int permits) throws InterruptedException {
+        long wait = reserve(permits);
+        if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+    }
+
+    /**
+     * Takes {@code permits} now, possibly borrowing from the future, and returns how long to wait
+     * before using them.
+     */
+    private synchronized long reserve(int permits) {
+        long now = System.nanoTime();
+        emptyAt = Math.max(emptyAt, now - burstNanos) + permits * nanosPerPermit;
+        return Math.max(0, emptyAt - burstNanos - now);
+    }
+}
@@ -0,0 +1,7 @@
+package com.healthcare.notification.dto;
+
+public enum Channel {
+    EMAIL,
+    SMS,
+    PUSH
+}
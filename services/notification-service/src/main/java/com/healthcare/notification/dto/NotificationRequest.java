@@ -0,0 +1,42 @@
+package com.healthcare.notification.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.time.Instant;
+
+/**
+ * A notification to send, as published to the request topics. Producers choose the
+ * {@code idempotencyKey}: requests sharing one are delivered once, however often they are published.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class NotificationRequest {
+    private String idempotencyKey;
+    private Channel channel;
+    private Priority priority = Priority.NORMAL;
+    private String recipient;
+    private String subject;
+    private String body;
+    private Instant expiresAt;
+
+    // Getters and Setters
+    public String getIdempotencyKey() { return idempotencyKey; }
+    public void setIdempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; }
+
+    public Channel getChannel() { return channel; }
+    public void setChannel(Channel channel) { this.channel = channel; }
+
+    public Priority getPriority() { return priority; }
+    public void setPriority(Priority priority) { this.priority = priority; }
+
+    public String getRecipient() { return recipient; }
+    public void setRecipient(String recipient) { this.recipient = recipient; }
+
+    public String getSubject() { return subject; }
+    public void setSubject(String subject) { this.subject = subject; }
+
+    public String getBody() { return body; }
+    public void setBody(String body) { this.body = body; }
+
+    public Instant getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(Instant expiresAt) { this.expiresAt = expiresAt; }
+}
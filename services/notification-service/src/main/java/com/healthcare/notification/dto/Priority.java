@@ -0,0 +1,12 @@
+package com.healthcare.notification.dto;
+
+/**
+ * Dispatch order within a channel, most urgent first: a queued request is only sent once every
+ * request of a higher priority for its channel has been.
+ */
+public enum Priority {
+    URGENT,
+    HIGH,
+    NORMAL,
+    LOW
+}
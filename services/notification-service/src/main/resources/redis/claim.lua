@@ -0,0 +1,15 @@
+-- Claims a batch of idempotency keys in one round trip. A key is claimed with SET NX as
+-- 'P:<owner>', expiring after the claim TTL so a replica that dies mid-delivery does not hold it
+-- forever; a key already present returns its value: 'P:<owner>' while another delivery is in
+-- flight, 'S' once sent and 'D' once dead-lettered.
+-- KEYS: one per request   ARGV: owner, claimTtlMillis
+local claim = 'P:' .. ARGV[1]
+local results = {}
+for i, key in ipairs(KEYS) do
+    if redis.call('SET', key, claim, 'NX', 'PX', ARGV[2]) then
+        results[i] = 'CLAIMED'
+    else
+        results[i] = redis.call('GET', key)
+    end
+end
+return results
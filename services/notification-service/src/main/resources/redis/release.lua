@@ -0,0 +1,11 @@
+-- Gives up claims this replica holds but has not delivered, so whichever replica is assigned the
+-- requests next sends them at once instead of waiting out the claim TTL.
+-- KEYS: one per request   ARGV: owner
+local released = 0
+for _, key in ipairs(KEYS) do
+    if redis.call('GET', key) == 'P:' .. ARGV[1] then
+        redis.call('DEL', key)
+        released = released + 1
+    end
+end
+return released
@@ -0,0 +1,6 @@
+-- Records the final state of delivered or dead-lettered requests, kept for the dedup retention.
+-- KEYS: one per request   ARGV: state ('S' or 'D'), retentionMillis
+for _, key in ipairs(KEYS) do
+    redis.call('SET', key, ARGV[1], 'PX', ARGV[2])
+end
+return #KEYS
@@ -0,0 +1,58 @@
+package com.healthcare.patient.benchmark;
+
+import com.healthcare.patient.duplicate.PatientMatchScore;
+import com.healthcare.patient.duplicate.PatientMatchScorer;
+import com.healthcare.patient.entity.Patient;
+import com.healthcare.patient.search.PatientSearchKeysCallback;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The CPU side of an inline duplicate check: deriving the probe's blocking keys and scoring a full
+ * candidate block ({@code patient.duplicates.max-candidates}, 100 by default) against it.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PatientDuplicateScoringBenchmark {
+    private static final int CANDIDATES = 100;
+
+    private Patient probe;
+    private List<Patient> candidates;
+
+    @Setup
+    public void setUp() {
+        probe = PatientFixtures.patient(7);
+        PatientSearchKeysCallback.applyTo(probe);
+        candidates = new ArrayList<>(CANDIDATES);
+        for (int n = 0; n < CANDIDATES; n++) {
+            Patient candidate = PatientFixtures.patient(n);
+            candidate.setDateOfBirth(probe.getDateOfBirth());
+            if (n % 10 == 0) candidate.setLastName(probe.getLastName().toLowerCase());
+            PatientSearchKeysCallback.applyTo(candidate);
+            candidates.add(candidate);
+        }
+    }
+
+    @Benchmark
+    public Patient deriveKeys() {
+        PatientSearchKeysCallback.applyTo(probe);
+        return probe;
+    }
+
+    @Benchmark
+    public double scoreBlock() {
+        double best = 0;
+        for (Patient candidate : candidates) {
+            PatientMatchScore score = PatientMatchScorer.score(probe, candidate);
+            best = Math.max(best, score.score());
+        }
+        return best;
+    }
+}
@@ -0,0 +1,101 @@
+package com.healthcare.patient.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.github.luben.zstd.ZstdOutputStream;
+import com.healthcare.patient.dto.PatientResponse;
+import com.healthcare.patient.dto.PatientSliceResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Wire cost of a listing page per negotiated format: encode and decode throughput for JSON, CBOR and
+ * Smile, and encode plus response compression as the servlet stack would apply it. Encoded and
+ * compressed payload sizes are printed once per trial, since JMH only reports rates.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PatientEncodingBenchmark {
+    private static final int PAGE_SIZE = 50;
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private PatientSliceResponse page;
+    private byte[] encodedPage;
+
+    @State(Scope.Benchmark)
+    public static class CompressionState {
+        @Param({"gzip", "zstd"})
+        public String encoding;
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        ObjectMapper mapper = switch (format) {
+            case "cbor" -> builder.factory(new CBORFactory()).build();
+            case "smile" -> builder.factory(new SmileFactory()).build();
+            default -> builder.build();
+        };
+        writer = mapper.writerFor(PatientSliceResponse.class);
+        reader = mapper.readerFor(PatientSliceResponse.class);
+        List<PatientResponse> content = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            content.add(PatientFixtures.response(i));
+        }
+        page = new PatientSliceResponse(content, true, "djEfaWQfNjY1ZjAwMDAwMDAwMDAwMDAwMDAwMDMxHw");
+        encodedPage = writer.writeValueAsBytes(page);
+        System.out.printf("%n%s page of %d: %d bytes, gzip %d bytes, zstd %d bytes%n", format, PAGE_SIZE,
+                encodedPage.length, compress("gzip").length, compress("zstd").length);
+    }
+
+    @Benchmark
+    public byte[] encodePage() throws IOException {
+        return writer.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public PatientSliceResponse decodePage() throws IOException {
+        return reader.readValue(encodedPage);
+    }
+
+    @Benchmark
+    public byte[] encodeAndCompressPage(CompressionState state) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(encodedPage.length);
+        try (OutputStream compressed = compressor(state.encoding, out)) {
+            writer.writeValue(compressed, page);
+        }
+        return out.toByteArray();
+    }
+
+    private byte[] compress(String encoding) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(encodedPage.length);
+        try (OutputStream compressed = compressor(encoding, out)) {
+            compressed.write(encodedPage);
+        }
+        return out.toByteArray();
+    }
+
+    // Same settings as the server: Tomcat's default gzip level and patient.compression.zstd.level.
+    private static OutputStream compressor(String encoding, OutputStream out) throws IOException {
+        return "zstd".equals(encoding) ? new ZstdOutputStream(out, 3) : new GZIPOutputStream(out, 8192);
+    }
+}
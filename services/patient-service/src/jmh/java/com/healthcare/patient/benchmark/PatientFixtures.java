@@ -0,0 +1,99 @@
+package com.healthcare.patient.benchmark;
+
+import com.healthcare.patient.dto.AddressDto;
+import com.healthcare.patient.dto.EmergencyContactDto;
+import com.healthcare.patient.dto.PatientCreateRequest;
+import com.healthcare.patient.dto.PatientResponse;
+import com.healthcare.patient.entity.Address;
+import com.healthcare.patient.entity.EmergencyContact;
+import com.healthcare.patient.entity.Patient;
+import org.bson.types.ObjectId;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Representative patient documents and requests shared by the benchmarks and the load harness,
+ * sized like production records (full address, emergency contact). Medical histories live in
+ * medical-records-service, so patient documents no longer carry one.
+ */
+public final class PatientFixtures {
+    private static final String[] FIRST_NAMES = {"James", "Mary", "John", "Patricia", "Robert", "Jennifer", "Michael", "Linda"};
+    private static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis"};
+
+    private PatientFixtures() {
+    }
+
+    public static Patient patient(int n) {
+        Patient patient = new Patient();
+        patient.setId(new ObjectId().toHexString());
+        patient.setFirstName(FIRST_NAMES[n % FIRST_NAMES.length]);
+        patient.setLastName(LAST_NAMES[(n / FIRST_NAMES.length) % LAST_NAMES.length] + n);
+        patient.setDateOfBirth(LocalDate.of(1950 + n % 60, 1 + n % 12, 1 + n % 28));
+        patient.setGender(n % 2 == 0 ? "FEMALE" : "MALE");
+        patient.setEmail("patient" + n + "@example.com");
+        patient.setPhoneNumber("+1 (555) " + String.format("%03d-%04d", n % 1000, n % 10000));
+        Address address = new Address();
+        address.setStreet(n + " Main Street");
+        address.setCity("Springfield");
+        address.setState("IL");
+        address.setPostalCode("62701");
+        address.setCountry("US");
+        patient.setAddress(address);
+        EmergencyContact contact = new EmergencyContact();
+        contact.setName("Alex " + patient.getLastName());
+        contact.setRelationship("Spouse");
+        contact.setPhoneNumber("+1 (555) 010-" + String.format("%04d", n % 10000));
+        patient.setEmergencyContact(contact);
+        patient.setStatus("ACTIVE");
+        patient.setCreatedAt(LocalDateTime.of(2024, 1, 1, 9, 30));
+        patient.setUpdatedAt(LocalDateTime.of(2024, 6, 1, 14, 0));
+        patient.setVersion(3L);
+        return patient;
+    }
+
+    public static PatientCreateRequest createRequest(int n) {
+        Patient patient = patient(n);
+        PatientCreateRequest request = new PatientCreateRequest();
+        request.setFirstName(patient.getFirstName());
+        request.setLastName(patient.getLastName());
+        request.setDateOfBirth(patient.getDateOfBirth());
+        request.setGender(patient.getGender());
+        request.setEmail(patient.getEmail());
+        request.setPhoneNumber(patient.getPhoneNumber());
+        AddressDto address = new AddressDto();
+        address.setStreet(patient.getAddress().getStreet());
+        address.setCity(patient.getAddress().getCity());
+        address.setState(patient.getAddress().getState());
+        address.setPostalCode(patient.getAddress().getPostalCode());
+        address.setCountry(patient.getAddress().getCountry());
+        request.setAddress(address);
+        EmergencyContactDto contact = new EmergencyContactDto();
+        contact.setName(patient.getEmergencyContact().getName());
+        contact.setRelationship(patient.getEmergencyContact().getRelationship());
+        contact.setPhoneNumber(patient.getEmergencyContact().getPhoneNumber());
+        request.setEmergencyContact(contact);
+        request.setStatus(patient.getStatus());
+        return request;
+    }
+
+    public static PatientResponse response(int n) {
+        Patient source = patient(n);
+        PatientCreateRequest request = createRequest(n);
+        PatientResponse response = new PatientResponse();
+        response.setId(source.getId());
+        response.setFirstName(source.getFirstName());
+        response.setLastName(source.getLastName());
+        response.setDateOfBirth(source.getDateOfBirth());
+        response.setGender(source.getGender());
+        response.setEmail(source.getEmail());
+        response.setPhoneNumber(source.getPhoneNumber());
+        response.setAddress(request.getAddress());
+        response.setEmergencyContact(request.getEmergencyContact());
+        response.setStatus(source.getStatus());
+        response.setCreatedAt(source.getCreatedAt());
+        response.setUpdatedAt(source.getUpdatedAt());
+        response.setVersion(source.getVersion());
+        return response;
+    }
+}
@@ -0,0 +1,199 @@
+package com.healthcare.patient.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.patient.PatientServiceApplication;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * Closed-loop load test of the full servlet stack (controller, validation, service, Mongo
+ * repository) against an embedded mongod, so it needs neither Docker nor a shared database.
+ * Kafka-facing parts (cache invalidation, outbox relay) are switched off; outbox rows are still
+ * written to Mongo as in production.
+ * <p>
+ * Each operation runs on its own for the configured duration after a warm-up, and reports
+ * throughput plus p50/p95/p99 latency, which are then checked against
+ * {@code src/jmh/baselines/load.json} (see {@link PerfBaseline}). Settings are system properties:
+ * {@code harness.patients} (seeded documents, 5000), {@code harness.concurrency} (32),
+ * {@code harness.warmup} (10s) and {@code harness.duration} (30s).
+ */
+public final class PatientLoadHarness {
+    private static final String PATIENTS = "/api/v1/patients";
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+    private final String baseUrl;
+    private final List<String> ids = new ArrayList<>();
+
+    private PatientLoadHarness(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int patients = Integer.getInteger("harness.patients", 5000);
+        int concurrency = Integer.getInteger("harness.concurrency", 32);
+        Duration warmup = Duration.parse("PT" + System.getProperty("harness.warmup", "10s"));
+        Duration duration = Duration.parse("PT" + System.getProperty("harness.duration", "30s"));
+        Path baseline = Path.of(System.getProperty("harness.baseline", "src/jmh/baselines/load.json"));
+
+        boolean passed;
+        try (ConfigurableApplicationContext app = start()) {
+            PatientLoadHarness harness = new PatientLoadHarness("http://localhost:" + app.getEnvironment().getProperty("local.server.port"));
+            harness.seed(patients, concurrency);
+
+            Map<String, IntFunction<HttpRequest>> operations = new LinkedHashMap<>();
+            operations.put("get", n -> harness.get(PATIENTS + "/" + harness.randomId()));
+            operations.put("list", n -> harness.get(PATIENTS + "?size=20"));
+            operations.put("list-summary", n -> harness.get(PATIENTS + "?size=50&view=summary"));
+            operations.put("search", n -> harness.get(PATIENTS + "/search?query=" + PatientFixtures.patient(n).getFirstName().substring(0, 3)));
+            operations.put("create", n -> harness.post(PATIENTS, PatientFixtures.createRequest(patients + n)));
+
+            Map<String, Double> results = new LinkedHashMap<>();
+            for (Map.Entry<String, IntFunction<HttpRequest>> operation : operations.entrySet()) {
+                harness.run(operation.getValue(), concurrency, warmup);
+                Histogram latencies = harness.run(operation.getValue(), concurrency, duration);
+                String name = operation.getKey();
+                results.put(name + ".throughput", latencies.getTotalCount() / (double) duration.toSeconds());
+                results.put(name + ".p50", latencies.getValueAtPercentile(50) / 1000.0);
+                results.put(name + ".p95", latencies.getValueAtPercentile(95) / 1000.0);
+                results.put(name + ".p99", latencies.getValueAtPercentile(99) / 1000.0);
+                System.out.printf("%-14s %10.1f req/s  p50 %7.2f ms  p95 %7.2f ms  p99 %7.2f ms%n", name,
+                        results.get(name + ".throughput"), results.get(name + ".p50"), results.get(name + ".p95"), results.get(name + ".p99"));
+            }
+            passed = PerfBaseline.check("Load", results, baseline);
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    private static ConfigurableApplicationContext start() throws IOException {
+        int mongoPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            mongoPort = socket.getLocalPort();
+        }
+        // Passed as command-line arguments so they override application.yml.
+        return new SpringApplicationBuilder(PatientServiceApplication.class).run(
+                "--server.port=0",
+                "--de.flapdoodle.mongodb.embedded.version=" + System.getProperty("harness.mongo-version", "6.0.11"),
+                "--de.flapdoodle.mongodb.embedded.storage.repl-set-name=rs0", // patient writes run in transactions
+                "--spring.data.mongodb.port=" + mongoPort,
+                "--spring.data.mongodb.host=localhost",
+                "--spring.data.mongodb.database=patient_load",
+                // The harness measures the request path, not authentication.
+                "--spring.autoconfigure.exclude="
+                        + "org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration,"
+                        + "org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration,"
+                        + "org.springframework.boot.actuate.autoconfigure.security.servlet.ManagementWebSecurityAutoConfiguration",
+                "--spring.kafka.bootstrap-servers=localhost:9092",
+                "--patient.cache.invalidation.enabled=false",
+                "--patient.outbox.relay.enabled=false",
+                "--patient.backfill.on-startup=false",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN");
+    }
+
+    private void seed(int patients, int concurrency) throws Exception {
+        System.out.printf("Seeding %d patients...%n", patients);
+        AtomicLong next = new AtomicLong();
+        List<Thread> workers = new ArrayList<>();
+        List<String> created = Collections.synchronizedList(new ArrayList<>());
+        for (int w = 0; w < concurrency; w++) {
+            workers.add(start(() -> {
+                for (long n = next.getAndIncrement(); n < patients; n = next.getAndIncrement()) {
+                    HttpResponse<byte[]> response = send(post(PATIENTS, PatientFixtures.createRequest((int) n)));
+                    try {
+                        JsonNode body = mapper.readTree(response.body());
+                        created.add(body.get("id").asText());
+                    } catch (IOException e) {
+                        throw new IllegalStateException("Seeding failed with HTTP " + response.statusCode(), e);
+                    }
+                }
+            }));
+        }
+        for (Thread worker : workers) worker.join();
+        ids.addAll(created);
+    }
+
+    /**
+     * Runs {@code concurrency} workers back to back for {@code duration}; latencies are recorded
+     * in microseconds. Any non-2xx response aborts the run, since it would skew the numbers.
+     */
+    private Histogram run(IntFunction<HttpRequest> operation, int concurrency, Duration duration) throws InterruptedException {
+        Histogram latencies = new ConcurrentHistogram(3);
+        long deadline = System.nanoTime() + duration.toNanos();
+        AtomicLong sequence = new AtomicLong();
+        List<Thread> workers = new ArrayList<>();
+        for (int w = 0; w < concurrency; w++) {
+            workers.add(start(() -> {
+                while (System.nanoTime() < deadline) {
+                    HttpRequest request = operation.apply((int) sequence.getAndIncrement());
+                    long start = System.nanoTime();
+                    send(request);
+                    latencies.recordValue((System.nanoTime() - start) / 1000);
+                }
+            }));
+        }
+        for (Thread worker : workers) worker.join();
+        return latencies;
+    }
+
+    private static Thread start(Runnable worker) {
+        Thread thread = new Thread(worker);
+        thread.start();
+        return thread;
+    }
+
+    private HttpResponse<byte[]> send(HttpRequest request) {
+        try {
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() / 100 != 2) {
+                throw new IllegalStateException(request.method() + " " + request.uri() + " returned HTTP " + response.statusCode());
+            }
+            return response;
+        } catch (IOException e) {
+            throw new IllegalStateException(request.method() + " " + request.uri() + " failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+    }
+
+    private HttpRequest post(String path, Object body) {
+        try {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(body)))
+                    .build();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+}
@@ -0,0 +1,72 @@
+package com.healthcare.patient.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.healthcare.patient.dto.PatientCreateRequest;
+import com.healthcare.patient.dto.PatientResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson cost of the response bodies, using the same builder defaults Spring Boot applies to
+ * the MVC message converters (JavaTimeModule, ISO dates, lenient unknown properties).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PatientSerializationBenchmark {
+    private ObjectWriter writer;
+    private ObjectMapper mapper;
+    private PatientResponse patient;
+    private byte[] createRequestJson;
+
+    @State(Scope.Benchmark)
+    public static class PageState {
+        @Param({"20", "200"})
+        public int pageSize;
+
+        private Page<PatientResponse> page;
+
+        @Setup
+        public void setUp() {
+            List<PatientResponse> content = new ArrayList<>(pageSize);
+            for (int i = 0; i < pageSize; i++) {
+                content.add(PatientFixtures.response(i));
+            }
+            page = new PageImpl<>(content, PageRequest.of(0, pageSize), 1_000_000);
+        }
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        mapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = mapper.writer();
+        patient = PatientFixtures.response(0);
+        createRequestJson = mapper.writeValueAsBytes(PatientFixtures.createRequest(7));
+    }
+
+    @Benchmark
+    public byte[] serializePatient() throws Exception {
+        return writer.writeValueAsBytes(patient);
+    }
+
+    @Benchmark
+    public byte[] serializePage(PageState state) throws Exception {
+        return writer.writeValueAsBytes(state.page);
+    }
+
+    @Benchmark
+    public PatientCreateRequest deserializeCreateRequest() throws Exception {
+        return mapper.readValue(createRequestJson, PatientCreateRequest.class);
+    }
+}
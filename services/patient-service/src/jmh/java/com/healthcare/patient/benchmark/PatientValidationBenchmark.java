@@ -0,0 +1,52 @@
+package com.healthcare.patient.benchmark;
+
+import com.healthcare.patient.dto.PatientCreateRequest;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bean Validation of the create payload, i.e. what {@code @Valid} adds to every POST.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PatientValidationBenchmark {
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private PatientCreateRequest valid;
+    private PatientCreateRequest invalid;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        valid = PatientFixtures.createRequest(11);
+        invalid = PatientFixtures.createRequest(12);
+        invalid.setFirstName(" ");
+        invalid.setEmail("not-an-email");
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<PatientCreateRequest>> validateValidRequest() {
+        return validator.validate(valid);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<PatientCreateRequest>> validateInvalidRequest() {
+        return validator.validate(invalid);
+    }
+}
@@ -0,0 +1,124 @@
+package com.healthcare.patient.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Stored performance baselines: flat {@code metric -> value} JSON files under
+ * {@code src/jmh/baselines}. Latency metrics (suffix {@code .p50}, {@code .p95}, {@code .p99})
+ * regress when they grow; everything else is a throughput and regresses when it drops.
+ * <p>
+ * Run as a program to check a JMH JSON result file:
+ * {@code PerfBaseline <jmh-result.json> <baseline.json>}. Tolerances come from
+ * {@code -Dperf.throughput-tolerance} (default 0.20) and {@code -Dperf.latency-tolerance}
+ * (default 0.30); {@code -Dperf.update-baseline=true} records the values of the metrics that ran in the
+ * baseline (keeping the others) instead of checking. A suite without a baseline file yet only reports
+ * its values, so it can run before anyone has recorded one on reference hardware; once the file
+ * exists, a metric without a value in it fails the check, so a new benchmark cannot go unguarded.
+ */
+public final class PerfBaseline {
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private PerfBaseline() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: PerfBaseline <jmh-result.json> <baseline.json>");
+            System.exit(2);
+        }
+        System.exit(check("JMH", fromJmhResult(Path.of(args[0])), Path.of(args[1])) ? 0 : 1);
+    }
+
+    /**
+     * Prints current values next to the baseline and returns false if any metric regressed
+     * beyond tolerance or has no baseline value. Without a baseline file it only prints the values.
+     */
+    public static boolean check(String suite, Map<String, Double> current, Path baselineFile) throws IOException {
+        boolean recorded = Files.exists(baselineFile);
+        Map<String, Double> baseline = recorded
+                ? MAPPER.readValue(baselineFile.toFile(), new TypeReference<TreeMap<String, Double>>() { })
+                : new TreeMap<>();
+        if (Boolean.getBoolean("perf.update-baseline")) {
+            baseline.putAll(current);
+            Files.createDirectories(baselineFile.toAbsolutePath().getParent());
+            MAPPER.writeValue(baselineFile.toFile(), baseline);
+            System.out.printf("%s baseline for %d metric(s) written to %s%n", suite, current.size(), baselineFile);
+            return true;
+        }
+        if (!recorded) {
+            System.out.printf("%nNo %s baseline at %s, reporting only; record one with -Dperf.update-baseline=true and commit it%n",
+                    suite, baselineFile);
+            for (Map.Entry<String, Double> entry : new TreeMap<>(current).entrySet()) {
+                System.out.printf("%-72s %14.3f%n", entry.getKey(), entry.getValue());
+            }
+            return true;
+        }
+        double throughputTolerance = Double.parseDouble(System.getProperty("perf.throughput-tolerance", "0.20"));
+        double latencyTolerance = Double.parseDouble(System.getProperty("perf.latency-tolerance", "0.30"));
+
+        List<String> regressions = new ArrayList<>();
+        List<String> unguarded = new ArrayList<>();
+        System.out.printf("%n%s results vs %s%n", suite, baselineFile);
+        System.out.printf("%-72s %14s %14s %9s%n", "metric", "baseline", "current", "change");
+        for (Map.Entry<String, Double> entry : new TreeMap<>(current).entrySet()) {
+            String metric = entry.getKey();
+            double value = entry.getValue();
+            Double expected = baseline.get(metric);
+            if (expected == null || expected == 0) {
+                System.out.printf("%-72s %14s %14.3f %9s  NO BASELINE%n", metric, "-", value, "-");
+                unguarded.add(metric);
+                continue;
+            }
+            double change = (value - expected) / expected;
+            boolean regressed = isLatency(metric) ? change > latencyTolerance : change < -throughputTolerance;
+            System.out.printf("%-72s %14.3f %14.3f %+8.1f%%%s%n", metric, expected, value, change * 100, regressed ? "  REGRESSION" : "");
+            if (regressed) regressions.add(metric);
+        }
+        if (!regressions.isEmpty()) {
+            System.out.printf("%d %s metric(s) regressed: %s%n", regressions.size(), suite, regressions);
+        }
+        if (!unguarded.isEmpty()) {
+            System.out.printf("%d %s metric(s) have no baseline, record them with -Dperf.update-baseline=true: %s%n",
+                    unguarded.size(), suite, unguarded);
+        }
+        return regressions.isEmpty() && unguarded.isEmpty();
+    }
+
+    static boolean isLatency(String metric) {
+        return metric.endsWith(".p50") || metric.endsWith(".p95") || metric.endsWith(".p99");
+    }
+
+    /**
+     * Flattens a JMH {@code -rf json} file into {@code Class.method[param=value]} scores.
+     */
+    static Map<String, Double> fromJmhResult(Path resultFile) throws IOException {
+        Map<String, Double> scores = new TreeMap<>();
+        for (JsonNode run : MAPPER.readTree(resultFile.toFile())) {
+            String benchmark = run.get("benchmark").asText();
+            StringBuilder name = new StringBuilder(benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1));
+            JsonNode params = run.get("params");
+            if (params != null) {
+                List<String> pairs = new ArrayList<>();
+                for (Iterator<Map.Entry<String, JsonNode>> it = params.fields(); it.hasNext(); ) {
+                    Map.Entry<String, JsonNode> param = it.next();
+                    pairs.add(param.getKey() + "=" + param.getValue().asText());
+                }
+                name.append(pairs);
+            }
+            scores.put(name.toString(), run.get("primaryMetric").get("score").asDouble());
+        }
+        return scores;
+    }
+}
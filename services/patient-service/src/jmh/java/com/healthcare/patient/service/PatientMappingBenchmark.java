@@ -0,0 +1,51 @@
+package com.healthcare.patient.service;
+
+import com.healthcare.patient.benchmark.PatientFixtures;
+import com.healthcare.patient.dto.PatientCreateRequest;
+import com.healthcare.patient.dto.PatientResponse;
+import com.healthcare.patient.entity.Patient;
+import com.healthcare.patient.projection.PatientProjection;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity/DTO mapping done on every read and write. Lives in the service package because the
+ * converters are package-private; the service is built without collaborators since mapping
+ * never touches them.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PatientMappingBenchmark {
+    private PatientService patientService;
+    private Patient patient;
+    private PatientCreateRequest createRequest;
+    private PatientProjection summary;
+
+    @Setup
+    public void setUp() {
+        patientService = new PatientService(null, null, null, null, null, 200, 200, 100);
+        patient = PatientFixtures.patient(42);
+        createRequest = PatientFixtures.createRequest(42);
+        summary = PatientProjection.of("summary", null);
+    }
+
+    @Benchmark
+    public PatientResponse convertToResponse() {
+        return patientService.convertToResponse(patient);
+    }
+
+    @Benchmark
+    public PatientResponse convertToSummaryResponse() {
+        return patientService.convertToResponse(patient, summary);
+    }
+
+    @Benchmark
+    public Patient convertFromCreateRequest() {
+        return patientService.newPatient(createRequest);
+    }
+}
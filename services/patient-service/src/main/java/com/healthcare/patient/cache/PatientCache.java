@@ -0,0 +1,139 @@
+package com.healthcare.patient.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.healthcare.patient.dto.PatientResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Read-through cache for single-patient lookups: a bounded in-process near cache, optionally
+ * backed by a shared {@link PatientRemoteCache}. Writers call {@link #invalidate} with the version
+ * they wrote, which evicts locally and broadcasts the id and version on a Kafka topic that every
+ * replica consumes with its own group. Each tier remembers that version as a floor and refuses
+ * entries below it, so a load that read the patient before the write cannot cache the old
+ * version after the eviction.
+ */
+@Component
+public class PatientCache {
+    /**
+     * Floor for a deleted patient: ids are never reused, so nothing may be cached for it again.
+     */
+    public static final long DELETED = Long.MAX_VALUE;
+
+    private static final Logger log = LoggerFactory.getLogger(PatientCache.class);
+
+    private final Cache<String, PatientResponse> nearCache;
+    private final Cache<String, Long> versionFloors;
+    private final Optional<PatientRemoteCache> remoteCache;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final String invalidationTopic;
+    private final boolean invalidationEnabled;
+
+    public PatientCache(Optional<PatientRemoteCache> remoteCache,
+                        KafkaTemplate<String, Object> kafkaTemplate,
+                        MeterRegistry meterRegistry,
+                        @Value("${patient.cache.near.maximum-size:50000}") long maximumSize,
+                        @Value("${patient.cache.near.ttl:5m}") Duration ttl,
+                        @Value("${patient.cache.invalidation.topic:patient-cache-invalidation}") String invalidationTopic,
+                        @Value("${patient.cache.invalidation.enabled:true}") boolean invalidationEnabled) {
+        this.nearCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        // A floor only has to outlive the loads that started before its write; the entry TTL is a generous bound.
+        this.versionFloors = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+        this.remoteCache = remoteCache;
+        this.kafkaTemplate = kafkaTemplate;
+        this.invalidationTopic = invalidationTopic;
+        this.invalidationEnabled = invalidationEnabled;
+        CaffeineCacheMetrics.monitor(meterRegistry, nearCache, "patients");
+    }
+
+    public Optional<PatientResponse> get(String id, Function<String, Optional<PatientResponse>> loader) {
+        PatientResponse cached = nearCache.getIfPresent(id);
+        if (cached != null) return Optional.of(cached);
+        // Concurrent misses for one id already share a database read through PatientLookupCoalescer.
+        Optional<PatientResponse> loaded = loadThroughRemote(id, loader);
+        loaded.ifPresent(this::put);
+        return loaded;
+    }
+
+    /**
+     * Near-cache lookup only, for callers that must not block on a loader (the reactive stack).
+     */
+    public Optional<PatientResponse> getIfPresent(String id) {
+        return Optional.ofNullable(nearCache.getIfPresent(id));
+    }
+
+    /**
+     * Caches a loaded patient unless a write at a newer version has been invalidated since, or a
+     * newer version is already cached.
+     */
+    public void put(PatientResponse patient) {
+        nearCache.asMap().compute(patient.getId(), (id, current) ->
+                isStale(patient, versionFloors.getIfPresent(id)) || isStale(patient, current == null ? null : current.getVersion())
+                        ? current
+                        : patient);
+    }
+
+    private static boolean isStale(PatientResponse patient, Long floor) {
+        return floor != null && (patient.getVersion() == null || patient.getVersion() < floor);
+    }
+
+    private Optional<PatientResponse> loadThroughRemote(String id, Function<String, Optional<PatientResponse>> loader) {
+        Optional<PatientResponse> remote = remoteCache.flatMap(cache -> cache.get(id));
+        if (remote.isPresent()) return remote;
+        Optional<PatientResponse> loaded = loader.apply(id);
+        loaded.ifPresent(patient -> remoteCache.ifPresent(cache -> cache.put(patient)));
+        return loaded;
+    }
+
+    /**
+     * Evicts a patient after a write that left it at {@code version} (or {@link #DELETED}), here, in
+     * the remote tier and, through the invalidation topic, on every other replica.
+     */
+    public void invalidate(String id, long version) {
+        evictLocally(id, version);
+        remoteCache.ifPresent(cache -> cache.evict(id, version));
+        if (invalidationEnabled) {
+            kafkaTemplate.send(invalidationTopic, id, version).whenComplete((result, error) -> {
+                if (error != null) log.warn("Failed to broadcast cache invalidation for {}: {}", id, error.getMessage());
+            });
+        }
+    }
+
+    // The floor is raised before the entry is removed, so a racing put sees one or the other.
+    private void evictLocally(String id, long version) {
+        versionFloors.asMap().merge(id, version, Math::max);
+        nearCache.invalidate(id);
+    }
+
+    @KafkaListener(topics = "${patient.cache.invalidation.topic:patient-cache-invalidation}",
+            groupId = "${patient.cache.invalidation.group-id}",
+            autoStartup = "${patient.cache.invalidation.enabled:true}",
+            properties = "auto.offset.reset=latest")
+    public void onInvalidation(ConsumerRecord<String, Object> record) {
+        if (record.key() == null) return;
+        if (record.value() instanceof Number version) {
+            evictLocally(record.key(), version.longValue());
+        } else {
+            nearCache.invalidate(record.key()); // key-only tombstone from a replica without version floors
+        }
+    }
+}
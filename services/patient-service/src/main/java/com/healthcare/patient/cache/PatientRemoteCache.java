@@ -0,0 +1,22 @@
+package com.healthcare.patient.cache;
+
+import com.healthcare.patient.dto.PatientResponse;
+
+import java.util.Optional;
+
+/**
+ * Shared second-level cache consulted after the in-process near cache misses.
+ */
+public interface PatientRemoteCache {
+    Optional<PatientResponse> get(String id);
+
+    /**
+     * Stores the patient unless an eviction has set a higher version floor for it.
+     */
+    void put(PatientResponse patient);
+
+    /**
+     * Removes the patient and refuses later puts of versions below {@code version}.
+     */
+    void evict(String id, long version);
+}
@@ -0,0 +1,96 @@
+package com.healthcare.patient.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.patient.dto.PatientResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Redis-backed second tier. Redis failures degrade to a miss so the database stays the source of truth.
+ * Each patient has a floor key next to its entry; puts and evictions compare against it in a script,
+ * so a stale put can never land after the eviction it raced with.
+ */
+@Component
+@ConditionalOnProperty(name = "patient.cache.redis.enabled", havingValue = "true")
+public class RedisPatientCache implements PatientRemoteCache {
+    private static final Logger log = LoggerFactory.getLogger(RedisPatientCache.class);
+    private static final String KEY_PREFIX = "patient:";
+    private static final String FLOOR_SUFFIX = ":floor";
+    private static final RedisScript<Long> PUT = new DefaultRedisScript<>("""
+            local floor = redis.call('GET', KEYS[2])
+            if floor and tonumber(floor) > tonumber(ARGV[2]) then return 0 end
+            redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[3])
+            return 1
+            """, Long.class);
+    private static final RedisScript<Long> EVICT = new DefaultRedisScript<>("""
+            local floor = redis.call('GET', KEYS[2])
+            if not floor or tonumber(floor) < tonumber(ARGV[1]) then
+                redis.call('SET', KEYS[2], ARGV[1], 'PX', ARGV[2])
+            end
+            redis.call('DEL', KEYS[1])
+            return 1
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+
+    public RedisPatientCache(StringRedisTemplate redisTemplate, ObjectMapper objectMapper,
+                             @Value("${patient.cache.redis.ttl:10m}") Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public Optional<PatientResponse> get(String id) {
+        try {
+            String json = redisTemplate.opsForValue().get(key(id));
+            return json == null ? Optional.empty() : Optional.of(objectMapper.readValue(json, PatientResponse.class));
+        } catch (DataAccessException | JsonProcessingException e) {
+            log.warn("Redis patient cache read failed for {}: {}", id, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void put(PatientResponse patient) {
+        if (patient.getVersion() == null) return;
+        try {
+            redisTemplate.execute(PUT, List.of(key(patient.getId()), floorKey(patient.getId())),
+                    objectMapper.writeValueAsString(patient), patient.getVersion().toString(), Long.toString(ttl.toMillis()));
+        } catch (DataAccessException | JsonProcessingException e) {
+            log.warn("Redis patient cache write failed for {}: {}", patient.getId(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void evict(String id, long version) {
+        try {
+            redisTemplate.execute(EVICT, List.of(key(id), floorKey(id)), Long.toString(version), Long.toString(ttl.toMillis()));
+        } catch (DataAccessException e) {
+            log.warn("Redis patient cache evict failed for {}: {}", id, e.getMessage());
+        }
+    }
+
+    // The hash tag keeps an entry and its floor in one cluster slot, as the scripts require.
+    private static String key(String id) {
+        return KEY_PREFIX + "{" + id + "}";
+    }
+
+    private static String floorKey(String id) {
+        return key(id) + FLOOR_SUFFIX;
+    }
+}
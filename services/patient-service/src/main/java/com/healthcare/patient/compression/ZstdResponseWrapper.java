@@ -0,0 +1,222 @@
+package com.healthcare.patient.compression;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+
+/**
+ * Buffers the start of a response body until it either reaches the size threshold (then the rest
+ * is streamed through a zstd encoder) or the request finishes (then it is sent as-is). The decision
+ * whether to compress at all is made at the first write, once the content type is known. Streaming
+ * responses that go async, or switch to non-blocking writes, are passed through untouched. Like
+ * Tomcat's gzip, compressing weakens a strong {@code ETag}: the encoded bytes differ from the tagged ones.
+ */
+class ZstdResponseWrapper extends HttpServletResponseWrapper {
+    private enum Mode { UNDECIDED, BUFFERING, PASSTHROUGH, COMPRESSING }
+
+    private final HttpServletRequest request;
+    private final ZstdCompressionFilter filter;
+    private final int threshold;
+    private final int level;
+    private final ByteArrayOutputStream buffer;
+    private Mode mode = Mode.UNDECIDED;
+    private long contentLength = -1;
+    private OutputStream encoder;
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+
+    ZstdResponseWrapper(HttpServletRequest request, HttpServletResponse response, ZstdCompressionFilter filter,
+                        int threshold, int level) {
+        super(response);
+        this.request = request;
+        this.filter = filter;
+        this.threshold = threshold;
+        this.level = level;
+        this.buffer = new ByteArrayOutputStream(Math.max(threshold, 256));
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (writer != null) throw new IllegalStateException("getWriter() has already been called");
+        if (outputStream == null) outputStream = new Stream();
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            if (outputStream != null) throw new IllegalStateException("getOutputStream() has already been called");
+            outputStream = new Stream();
+            writer = new PrintWriter(new OutputStreamWriter(outputStream, Charset.forName(getCharacterEncoding())));
+        }
+        return writer;
+    }
+
+    @Override
+    public void setContentLength(int len) {
+        setContentLengthLong(len);
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        if (mode == Mode.PASSTHROUGH) super.setContentLengthLong(len);
+        else contentLength = len; // the encoded length is unknown until the body is done
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name) && mode != Mode.PASSTHROUGH) {
+            contentLength = value == null ? -1 : Long.parseLong(value);
+        } else {
+            super.setHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) setHeader(name, value);
+        else super.addHeader(name, value);
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) writer.flush();
+        if (mode == Mode.PASSTHROUGH || mode == Mode.COMPRESSING) {
+            if (encoder != null) encoder.flush();
+            super.flushBuffer();
+        }
+    }
+
+    @Override
+    public void resetBuffer() {
+        super.resetBuffer();
+        if (mode == Mode.BUFFERING) buffer.reset();
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        if (mode == Mode.BUFFERING || mode == Mode.UNDECIDED) {
+            buffer.reset();
+            mode = Mode.UNDECIDED;
+            contentLength = -1;
+        }
+    }
+
+    /**
+     * Completes the body once the filter chain has returned. For async requests the body is still
+     * being written elsewhere, so nothing is touched.
+     */
+    void finish() throws IOException {
+        if (writer != null) writer.flush();
+        if (request.isAsyncStarted() && (mode == Mode.UNDECIDED || mode == Mode.PASSTHROUGH)) {
+            mode = Mode.PASSTHROUGH;
+            return;
+        }
+        switch (mode) {
+            case UNDECIDED -> {
+                if (contentLength >= 0) super.setContentLengthLong(contentLength);
+            }
+            case BUFFERING -> passThrough();
+            case COMPRESSING -> encoder.close(); // writes the frame epilogue
+            case PASSTHROUGH -> { }
+        }
+    }
+
+    private void decide() {
+        String contentEncoding = getHeader(HttpHeaders.CONTENT_ENCODING);
+        boolean compressible = !request.isAsyncStarted() && contentEncoding == null && filter.isCompressible(getContentType());
+        if (compressible) {
+            mode = Mode.BUFFERING;
+        } else {
+            mode = Mode.PASSTHROUGH;
+            if (contentLength >= 0) super.setContentLengthLong(contentLength);
+        }
+    }
+
+    private void passThrough() throws IOException {
+        mode = Mode.PASSTHROUGH;
+        super.setContentLengthLong(buffer.size());
+        buffer.writeTo(super.getOutputStream());
+        buffer.reset();
+    }
+
+    private void startCompressing() throws IOException {
+        mode = Mode.COMPRESSING;
+        super.setHeader(HttpHeaders.CONTENT_ENCODING, "zstd");
+        String etag = getHeader(HttpHeaders.ETAG);
+        if (etag != null && !etag.startsWith("W/")) super.setHeader(HttpHeaders.ETAG, "W/" + etag);
+        encoder = new ZstdOutputStream(super.getOutputStream(), level);
+        buffer.writeTo(encoder);
+        buffer.reset();
+    }
+
+    private OutputStream target() throws IOException {
+        return mode == Mode.COMPRESSING ? encoder : super.getOutputStream();
+    }
+
+    private final class Stream extends ServletOutputStream {
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (mode == Mode.UNDECIDED) decide();
+            if (mode == Mode.BUFFERING) {
+                buffer.write(bytes, offset, length);
+                if (buffer.size() >= threshold) startCompressing();
+                return;
+            }
+            target().write(bytes, offset, length);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            // While buffering a flush would force the decision early; the body is judged as a whole.
+            if (mode == Mode.PASSTHROUGH || mode == Mode.COMPRESSING) target().flush();
+        }
+
+        @Override
+        public boolean isReady() {
+            if (mode == Mode.UNDECIDED || mode == Mode.BUFFERING) return true;
+            try {
+                return ZstdResponseWrapper.super.getOutputStream().isReady();
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Non-blocking writes go straight to the container's stream: whatever was buffered is sent
+         * uncompressed and the rest of the body passes through.
+         */
+        @Override
+        public void setWriteListener(WriteListener listener) {
+            try {
+                if (mode == Mode.UNDECIDED || mode == Mode.BUFFERING) {
+                    mode = Mode.PASSTHROUGH;
+                    if (contentLength >= 0) ZstdResponseWrapper.super.setContentLengthLong(contentLength);
+                    buffer.writeTo(ZstdResponseWrapper.super.getOutputStream());
+                    buffer.reset();
+                }
+                ZstdResponseWrapper.super.getOutputStream().setWriteListener(listener);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
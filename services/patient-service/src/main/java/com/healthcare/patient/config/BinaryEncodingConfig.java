@@ -0,0 +1,72 @@
+package com.healthcare.patient.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * CBOR ({@code application/cbor}) and Smile ({@code application/x-jackson-smile}) request and response
+ * bodies, chosen through {@code Content-Type} and {@code Accept}. JSON stays first, so browsers and
+ * callers that send no preference are unaffected. The binary mappers come from the same Boot-customized
+ * builder as the JSON one, so dates, modules and unknown-property handling are identical.
+ */
+@Configuration
+public class BinaryEncodingConfig {
+
+    static ObjectMapper cborMapper(Jackson2ObjectMapperBuilder builder) {
+        return builder.factory(new CBORFactory()).build();
+    }
+
+    static ObjectMapper smileMapper(Jackson2ObjectMapperBuilder builder) {
+        return builder.factory(new SmileFactory()).build();
+    }
+
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class Servlet implements WebMvcConfigurer {
+        private final ObjectProvider<Jackson2ObjectMapperBuilder> builders;
+
+        Servlet(ObjectProvider<Jackson2ObjectMapperBuilder> builders) {
+            this.builders = builders;
+        }
+
+        @Override
+        public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+            converters.add(new MappingJackson2CborHttpMessageConverter(cborMapper(builders.getObject())));
+            converters.add(new MappingJackson2SmileHttpMessageConverter(smileMapper(builders.getObject())));
+        }
+    }
+
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    static class Reactive {
+
+        @Bean
+        CodecCustomizer binaryCodecs(ObjectProvider<Jackson2ObjectMapperBuilder> builders) {
+            ObjectMapper cbor = cborMapper(builders.getObject());
+            ObjectMapper smile = smileMapper(builders.getObject());
+            return configurer -> {
+                configurer.customCodecs().register(new Jackson2CborEncoder(cbor));
+                configurer.customCodecs().register(new Jackson2CborDecoder(cbor));
+                configurer.customCodecs().register(new Jackson2SmileEncoder(smile));
+                configurer.customCodecs().register(new Jackson2SmileDecoder(smile));
+            };
+        }
+    }
+}
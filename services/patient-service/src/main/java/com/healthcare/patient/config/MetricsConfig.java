@@ -0,0 +1,21 @@
+package com.healthcare.patient.config;
+
+import com.healthcare.patient.metrics.MongoPoolWaitListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Applies to both the blocking and the reactive Mongo client. Per-command latency by command
+     * and collection ({@code mongodb.driver.commands}) comes from Spring Boot's own listener.
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoPoolWaitMetrics(MeterRegistry meterRegistry) {
+        MongoPoolWaitListener listener = new MongoPoolWaitListener(meterRegistry);
+        return settings -> settings.applyToConnectionPoolSettings(pool -> pool.addConnectionPoolListener(listener));
+    }
+}
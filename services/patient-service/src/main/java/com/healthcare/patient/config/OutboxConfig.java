@@ -0,0 +1,39 @@
+package com.healthcare.patient.config;
+
+import com.healthcare.patient.outbox.PatientOutboxEvent;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Configuration
+@EnableScheduling
+public class OutboxConfig {
+
+    @Bean
+    public MongoTransactionManager mongoTransactionManager(MongoDatabaseFactory databaseFactory) {
+        return new MongoTransactionManager(databaseFactory);
+    }
+
+    /**
+     * A patient write and its outbox event commit in one transaction, which a standalone mongod
+     * cannot run; refuse to start rather than find out on the first write.
+     */
+    @Bean
+    public ApplicationRunner outboxTransactionCheck(MongoTransactionManager transactionManager, MongoTemplate mongoTemplate) {
+        return args -> {
+            try {
+                new TransactionTemplate(transactionManager).executeWithoutResult(
+                        status -> mongoTemplate.exists(new Query(), PatientOutboxEvent.class));
+            } catch (RuntimeException e) {
+                throw new IllegalStateException("MongoDB cannot open a transaction; patient-service needs a replica set "
+                        + "(docker-compose.yml runs a single-node one)", e);
+            }
+        };
+    }
+}
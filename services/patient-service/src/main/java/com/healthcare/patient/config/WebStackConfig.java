@@ -0,0 +1,30 @@
+package com.healthcare.patient.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+@Configuration
+public class WebStackConfig {
+    private static final Logger log = LoggerFactory.getLogger(WebStackConfig.class);
+
+    /**
+     * An AOT build picks the stack's beans when it is built, whatever {@code PATIENT_WEB_STACK} says
+     * later; refuse to start rather than run one stack's server with the other's beans.
+     */
+    @Bean
+    public static BeanFactoryPostProcessor webStackCheck(Environment environment) {
+        return beanFactory -> {
+            String built = beanFactory.getBeanNamesForType(ReactiveStackConfig.class, false, false).length > 0 ? "reactive" : "servlet";
+            String configured = environment.getProperty("spring.main.web-application-type", "servlet");
+            if (!built.equalsIgnoreCase(configured)) {
+                throw new IllegalStateException("This build serves the " + built + " stack but spring.main.web-application-type is "
+                        + configured + "; rebuild with PATIENT_WEB_STACK=" + configured.toLowerCase());
+            }
+            log.info("Web stack: {}", built);
+        };
+    }
+}
@@ -1,69 +1,208 @@
 package com.healthcare.patient.controller;
 
 import com.healthcare.patient.dto.*;
+import com.healthcare.patient.etag.PatientETags;
+import com.healthcare.patient.pagination.PatientCursor;
+import com.healthcare.patient.pagination.PatientSortKey;
+import com.healthcare.patient.projection.PatientProjection;
+import com.healthcare.patient.service.PatientExportService;
+import com.healthcare.patient.service.PatientImportService;
 import com.healthcare.patient.service.PatientService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/v1/patients")
 @Tag(name = "Patients", description = "Patient Management API")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class PatientController {
     private final PatientService patientService;
+    private final PatientImportService patientImportService;
+    private final PatientExportService patientExportService;
 
-    public PatientController(PatientService patientService) {
+    public PatientController(PatientService patientService, PatientImportService patientImportService,
+                             PatientExportService patientExportService) {
         this.patientService = patientService;
+        this.patientImportService = patientImportService;
+        this.patientExportService = patientExportService;
     }
 
     @PostMapping
-    @Operation(summary = "Create a new patient")
+    @Operation(summary = "Create a new patient (409 with ranked matches for a likely duplicate only when patient.duplicates.reject-score is enabled and allowDuplicate=false)")
     @PreAuthorize("hasAuthority('WRITE_PATIENT')")
-    public ResponseEntity<PatientResponse> createPatient(@Valid @RequestBody PatientCreateRequest request) {
-        return new ResponseEntity<>(patientService.createPatient(request), HttpStatus.CREATED);
+    public ResponseEntity<PatientResponse> createPatient(@Valid @RequestBody PatientCreateRequest request,
+                                                         @RequestParam(defaultValue = "false") boolean allowDuplicate,
+                                                         @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return withETag(ResponseEntity.status(HttpStatus.CREATED), patientService.createPatient(request, allowDuplicate), accept);
+    }
+
+    @PostMapping("/duplicates")
+    @Operation(summary = "Rank existing patients that may be the same person as a registration, without creating it")
+    @PreAuthorize("hasAuthority('READ_PATIENT')")
+    public ResponseEntity<List<PatientMatch>> findDuplicates(@Valid @RequestBody PatientCreateRequest request) {
+        return ResponseEntity.ok(patientService.findDuplicates(request));
+    }
+
+    @GetMapping(value = "/duplicates/scan", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream every probable duplicate pair in the collection as NDJSON")
+    @PreAuthorize("hasAuthority('READ_PATIENT')")
+    public ResponseEntity<StreamingResponseBody> scanDuplicates(@RequestParam(required = false) Double minScore) {
+        StreamingResponseBody body = out -> patientExportService.exportDuplicatePairs(minScore, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Bulk import patients from a newline-delimited JSON stream")
+    @PreAuthorize("hasAuthority('WRITE_PATIENT')")
+    public ResponseEntity<BulkImportResponse> importPatients(InputStream body,
+                                                             @RequestParam(required = false) Integer batchSize) throws IOException {
+        return ResponseEntity.ok(patientImportService.importNdjson(body, batchSize));
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Stream all patients as NDJSON or CSV in updatedAt order, optionally filtered and resumed from a checkpoint token the export emitted (a {\"checkpoint\"} NDJSON line or the CSV checkpoint column)")
+    @PreAuthorize("hasAuthority('READ_PATIENT')")
+    public ResponseEntity<StreamingResponseBody> exportPatients(
+            @RequestParam(defaultValue = "NDJSON") PatientExportService.Format format,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedTo,
+            @RequestParam(required = false) String checkpoint,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        // Decoded before the stream starts so a bad token is a 400, not a truncated body.
+        PatientCursor after = checkpoint == null ? null : PatientCursor.decode(checkpoint, PatientSortKey.UPDATED_AT);
+        // Rows updated after this instant belong to the next incremental export (pass it back as updatedFrom).
+        LocalDateTime highWatermark = updatedTo != null ? updatedTo : LocalDateTime.now();
+        StreamingResponseBody body = out -> {
+            OutputStream target = gzip ? new GZIPOutputStream(out, 64 * 1024) : out;
+            patientExportService.export(format, status, updatedFrom, highWatermark, after, target);
+            if (gzip) ((GZIPOutputStream) target).finish();
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(format == PatientExportService.Format.CSV
+                        ? MediaType.parseMediaType("text/csv;charset=UTF-8")
+                        : MediaType.APPLICATION_NDJSON)
+                .header("X-Export-High-Watermark", highWatermark.toString());
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    @GetMapping("/batch")
+    @Operation(summary = "Get up to patient.batch.max-ids patients by ID in one call, in request order")
+    @PreAuthorize("hasAuthority('READ_PATIENT')")
+    public ResponseEntity<PatientBatchResponse> getPatients(@RequestParam List<String> ids,
+                                                            @RequestParam(required = false) String view,
+                                                            @RequestParam(required = false) String fields) {
+        return ResponseEntity.ok(patientService.getPatientsByIds(ids, PatientProjection.of(view, fields)));
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get patient by ID")
     @PreAuthorize("hasAuthority('READ_PATIENT')")
-    public ResponseEntity<PatientResponse> getPatient(@PathVariable String id) {
+    public ResponseEntity<PatientResponse> getPatient(@PathVariable String id,
+                                                      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        // An ETag on a 200 GET lets Spring answer a matching If-None-Match with 304 before writing the body.
         return patientService.getPatientById(id)
-                .map(ResponseEntity::ok)
+                .map(patient -> withETag(patient, accept))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @GetMapping
-    @Operation(summary = "Get all patients")
+    @Operation(summary = "List patients with a continuation cursor (no total count), optionally only those modified since an instant")
     @PreAuthorize("hasAuthority('READ_PATIENT')")
-    public ResponseEntity<Page<PatientResponse>> getAllPatients(Pageable pageable) {
-        return ResponseEntity.ok(patientService.getAllPatients(pageable));
+    public ResponseEntity<PatientSliceResponse> listPatients(@RequestParam(required = false) String cursor,
+                                                             @RequestParam(required = false) String sort,
+                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime modifiedSince,
+                                                             @RequestParam(defaultValue = "20") int size,
+                                                             @RequestParam(required = false) String view,
+                                                             @RequestParam(required = false) String fields,
+                                                             @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        PatientSliceResponse slice = patientService.getPatientsAfter(cursor, sort, modifiedSince, size, PatientProjection.of(view, fields));
+        return ResponseEntity.ok()
+                .eTag(PatientETags.forRepresentation(slice.getEtag(), accept))
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(slice);
+    }
+
+    @GetMapping(params = "includeTotal=true")
+    @Operation(summary = "Get all patients as a counted page (offset pagination)")
+    @PreAuthorize("hasAuthority('READ_PATIENT')")
+    public ResponseEntity<Page<PatientResponse>> getAllPatients(Pageable pageable,
+                                                                @RequestParam(required = false) String view,
+                                                                @RequestParam(required = false) String fields) {
+        return ResponseEntity.ok(patientService.getAllPatients(pageable, PatientProjection.of(view, fields)));
     }
 
     @PutMapping("/{id}")
     @Operation(summary = "Update patient")
     @PreAuthorize("hasAuthority('WRITE_PATIENT')")
-    public ResponseEntity<PatientResponse> updatePatient(@PathVariable String id, @Valid @RequestBody PatientUpdateRequest request) {
-        return ResponseEntity.ok(patientService.updatePatient(id, request));
+    public ResponseEntity<PatientResponse> updatePatient(@PathVariable String id, @Valid @RequestBody PatientUpdateRequest request,
+                                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                         @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return withETag(patientService.updatePatient(id, request, PatientETags.expectedVersion(ifMatch)), accept);
+    }
+
+    @PatchMapping("/{id}")
+    @Operation(summary = "Partially update patient (only supplied fields; optional version check via If-Match or body)")
+    @PreAuthorize("hasAuthority('WRITE_PATIENT')")
+    public ResponseEntity<PatientResponse> patchPatient(@PathVariable String id, @Valid @RequestBody PatientPatchRequest request,
+                                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return withETag(patientService.patchPatient(id, request, PatientETags.expectedVersion(ifMatch)), accept);
     }
 
     @DeleteMapping("/{id}")
     @Operation(summary = "Delete patient")
     @PreAuthorize("hasAuthority('DELETE_PATIENT')")
-    public ResponseEntity<Void> deletePatient(@PathVariable String id) {
-        patientService.deletePatient(id);
+    public ResponseEntity<Void> deletePatient(@PathVariable String id,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        patientService.deletePatient(id, PatientETags.expectedVersion(ifMatch));
         return ResponseEntity.noContent().build();
     }
 
     @GetMapping("/search")
-    @Operation(summary = "Search patients")
+    @Operation(summary = "Search patients (ranked slice of at most patient.search.max-candidates matches, no total count)")
     @PreAuthorize("hasAuthority('READ_PATIENT')")
-    public ResponseEntity<Page<PatientResponse>> searchPatients(@RequestParam String query, Pageable pageable) {
-        return ResponseEntity.ok(patientService.searchPatients(query, pageable));
+    public ResponseEntity<Slice<PatientResponse>> searchPatients(@RequestParam String query,
+                                                                 @RequestParam(defaultValue = "false") boolean fuzzy,
+                                                                 Pageable pageable,
+                                                                 @RequestParam(required = false) String view,
+                                                                 @RequestParam(required = false) String fields) {
+        return ResponseEntity.ok(patientService.searchPatients(query, fuzzy, pageable, PatientProjection.of(view, fields)));
+    }
+
+    private static ResponseEntity<PatientResponse> withETag(PatientResponse patient, String accept) {
+        return withETag(ResponseEntity.ok(), patient, accept);
+    }
+
+    // The same version is encoded as JSON, CBOR or Smile, so the tag names the encoding and caches key on Accept.
+    private static ResponseEntity<PatientResponse> withETag(ResponseEntity.BodyBuilder response, PatientResponse patient,
+                                                            String accept) {
+        String etag = PatientETags.forRepresentation(PatientETags.of(patient.getVersion(), patient.getUpdatedAt()), accept);
+        if (etag != null) response.eTag(etag);
+        return response.varyBy(HttpHeaders.ACCEPT).body(patient);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,206 @@
+package com.healthcare.patient.controller;
+
+import com.healthcare.patient.dto.*;
+import com.healthcare.patient.etag.PatientETags;
+import com.healthcare.patient.pagination.PatientCursor;
+import com.healthcare.patient.pagination.PatientSortKey;
+import com.healthcare.patient.projection.PatientProjection;
+import com.healthcare.patient.service.PatientExportService;
+import com.healthcare.patient.service.ReactivePatientService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * WebFlux endpoints for the patient API, active when the service starts in reactive mode.
+ * Mirrors every {@link PatientController} endpoint except the counted page ({@code includeTotal=true}),
+ * including ETags, {@code If-Match}, {@code modifiedSince} and export checkpoints. Search takes
+ * {@code page} and {@code size} parameters in place of a {@code Pageable}.
+ */
+@RestController
+@RequestMapping("/api/v1/patients")
+@Tag(name = "Patients", description = "Patient Management API")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePatientController {
+    private final ReactivePatientService patientService;
+
+    public ReactivePatientController(ReactivePatientService patientService) {
+        this.patientService = patientService;
+    }
+
+    @PostMapping
+    @Operation(summary = "Create a new patient (409 with ranked matches for a likely duplicate only when patient.duplicates.reject-score is enabled and allowDuplicate=false)")
+    @PreAuthorize("hasAuthority('WRITE_PATIENT')")
+    public Mono<ResponseEntity<PatientResponse>> createPatient(@Valid @RequestBody PatientCreateRequest request,
+                                                               @RequestParam(defaultValue = "false") boolean allowDuplicate,
+                                                               @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return patientService.createPatient(request, allowDuplicate)
+                .map(created -> withETag(ResponseEntity.status(HttpStatus.CREATED), created, accept));
+    }
+
+    @PostMapping("/duplicates")
+    @Operation(summary = "Rank existing patients that may be the same person as a registration, without creating it")
+    @PreAuthorize("hasAuthority('READ_PATIENT')")
+    public Mono<ResponseEntity<List<PatientMatch>>> findDuplicates(@Valid @RequestBody PatientCreateRequest request) {
+        return patientService.findDuplicates(request).map(ResponseEntity::ok);
+    }
+
+    @GetMapping(value = "/duplicates/scan", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream every probable duplicate pair in the collection as NDJSON")
+    @PreAuthorize("hasAuthority('READ_PATIENT')")
+    public ResponseEntity<Flux<DataBuffer>> scanDuplicates(@RequestParam(required = false) Double minScore,
+                                                           ServerHttpResponse response) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON)
+                .body(patientService.scanDuplicates(minScore, response.bufferFactory()));
+    }
+
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Bulk import patients from a newline-delimited JSON stream")
+    @PreAuthorize("hasAuthority('WRITE_PATIENT')")
+    public Mono<ResponseEntity<BulkImportResponse>> importPatients(@RequestBody Flux<String> lines,
+                                                                   @RequestParam(required = false) Integer batchSize) {
+        return patientService.importPatients(lines, batchSize).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Stream all patients as NDJSON or CSV in updatedAt order, optionally filtered and resumed from a checkpoint token the export emitted (a {\"checkpoint\"} NDJSON line or the CSV checkpoint column)")
+    @PreAuthorize("hasAuthority('READ_PATIENT')")
+    public ResponseEntity<Flux<DataBuffer>> exportPatients(
+            @RequestParam(defaultValue = "NDJSON") PatientExportService.Format format,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedTo,
+            @RequestParam(required = false) String checkpoint,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            ServerHttpResponse response) {
+        PatientCursor after = checkpoint == null ? null : PatientCursor.decode(checkpoint, PatientSortKey.UPDATED_AT);
+        LocalDateTime highWatermark = updatedTo != null ? updatedTo : LocalDateTime.now();
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(format == PatientExportService.Format.CSV
+                        ? MediaType.parseMediaType("text/csv;charset=UTF-8")
+                        : MediaType.APPLICATION_NDJSON)
+                .header("X-Export-High-Watermark", highWatermark.toString());
+        if (gzip) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return builder.body(patientService.exportPatients(format, status, updatedFrom, highWatermark, after, gzip,
+                response.bufferFactory()));
+    }
+
+    @GetMapping("/batch")
+    @Operation(summary = "Get up to patient.batch.max-ids patients by ID in one call, in request order")
+    @PreAuthorize("hasAuthority('READ_PATIENT')")
+    public Mono<ResponseEntity<PatientBatchResponse>> getPatients(@RequestParam List<String> ids,
+                                                                  @RequestParam(required = false) String view,
+                                                                  @RequestParam(required = false) String fields) {
+        return Mono.defer(() -> patientService.getPatientsByIds(ids, PatientProjection.of(view, fields))).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get patient by ID")
+    @PreAuthorize("hasAuthority('READ_PATIENT')")
+    public Mono<ResponseEntity<PatientResponse>> getPatient(@PathVariable String id,
+                                                            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        // As on the servlet stack, the ETag lets a matching If-None-Match be answered with 304.
+        return patientService.getPatientById(id)
+                .map(patient -> withETag(patient, accept))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "List patients with a continuation cursor (no total count), optionally only those modified since an instant")
+    @PreAuthorize("hasAuthority('READ_PATIENT')")
+    public Mono<ResponseEntity<PatientSliceResponse>> listPatients(@RequestParam(required = false) String cursor,
+                                                                   @RequestParam(required = false) String sort,
+                                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime modifiedSince,
+                                                                   @RequestParam(defaultValue = "20") int size,
+                                                                   @RequestParam(required = false) String view,
+                                                                   @RequestParam(required = false) String fields) {
+        return patientService.getPatientsAfter(cursor, sort, modifiedSince, size, PatientProjection.of(view, fields))
+                // Only JSON is produced here; the NDJSON stream shares the URL, hence the Vary.
+                .map(slice -> ResponseEntity.ok().eTag(slice.getEtag()).varyBy(HttpHeaders.ACCEPT).body(slice));
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream patients after a cursor as newline-delimited JSON")
+    @PreAuthorize("hasAuthority('READ_PATIENT')")
+    public Flux<PatientResponse> streamPatients(@RequestParam(required = false) String cursor,
+                                                @RequestParam(required = false) String sort,
+                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime modifiedSince,
+                                                @RequestParam(defaultValue = "20") int size,
+                                                @RequestParam(required = false) String view,
+                                                @RequestParam(required = false) String fields) {
+        return patientService.streamPatientsAfter(cursor, sort, modifiedSince, size, PatientProjection.of(view, fields));
+    }
+
+    @PutMapping("/{id}")
+    @Operation(summary = "Update patient")
+    @PreAuthorize("hasAuthority('WRITE_PATIENT')")
+    public Mono<ResponseEntity<PatientResponse>> updatePatient(@PathVariable String id, @Valid @RequestBody PatientUpdateRequest request,
+                                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                               @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return Mono.defer(() -> patientService.updatePatient(id, request, PatientETags.expectedVersion(ifMatch)))
+                .map(updated -> withETag(updated, accept));
+    }
+
+    @PatchMapping("/{id}")
+    @Operation(summary = "Partially update patient (only supplied fields; optional version check via If-Match or body)")
+    @PreAuthorize("hasAuthority('WRITE_PATIENT')")
+    public Mono<ResponseEntity<PatientResponse>> patchPatient(@PathVariable String id, @Valid @RequestBody PatientPatchRequest request,
+                                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                              @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return Mono.defer(() -> patientService.patchPatient(id, request, PatientETags.expectedVersion(ifMatch)))
+                .map(patched -> withETag(patched, accept));
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Delete patient")
+    @PreAuthorize("hasAuthority('DELETE_PATIENT')")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> deletePatient(@PathVariable String id,
+                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return Mono.defer(() -> patientService.deletePatient(id, PatientETags.expectedVersion(ifMatch)));
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Search patients (ranked slice of at most patient.search.max-candidates matches, no total count)")
+    @PreAuthorize("hasAuthority('READ_PATIENT')")
+    public Mono<ResponseEntity<Slice<PatientResponse>>> searchPatients(@RequestParam String query,
+                                                                       @RequestParam(defaultValue = "false") boolean fuzzy,
+                                                                       @RequestParam(defaultValue = "0") int page,
+                                                                       @RequestParam(defaultValue = "20") int size,
+                                                                       @RequestParam(required = false) String view,
+                                                                       @RequestParam(required = false) String fields) {
+        return Mono.defer(() -> patientService.searchPatients(query, fuzzy, PageRequest.of(page, size), PatientProjection.of(view, fields)))
+                .map(ResponseEntity::ok);
+    }
+
+    private static ResponseEntity<PatientResponse> withETag(PatientResponse patient, String accept) {
+        return withETag(ResponseEntity.ok(), patient, accept);
+    }
+
+    private static ResponseEntity<PatientResponse> withETag(ResponseEntity.BodyBuilder response, PatientResponse patient,
+                                                            String accept) {
+        String etag = PatientETags.forRepresentation(PatientETags.of(patient.getVersion(), patient.getUpdatedAt()), accept);
+        if (etag != null) response.eTag(etag);
+        return response.varyBy(HttpHeaders.ACCEPT).body(patient);
+    }
+}
@@ -0,0 +1,20 @@
+package com.healthcare.patient.dto;
+
+public class BulkImportError {
+    private long line;
+    private String message;
+
+    public BulkImportError() {
+    }
+
+    public BulkImportError(long line, String message) {
+        this.line = line;
+        this.message = message;
+    }
+
+    // Getters and Setters
+    public long getLine() { return line; }
+    public void setLine(long line) { this.line = line; }
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+}
@@ -0,0 +1,29 @@
+package com.healthcare.patient.dto;
+
+import java.util.List;
+
+public class BulkImportResponse {
+    private long received;
+    private long inserted;
+    private long failed;
+    private List<BulkImportError> errors;
+    private boolean errorsTruncated;
+    private long durationMillis;
+    private double recordsPerSecond;
+
+    // Getters and Setters
+    public long getReceived() { return received; }
+    public void setReceived(long received) { this.received = received; }
+    public long getInserted() { return inserted; }
+    public void setInserted(long inserted) { this.inserted = inserted; }
+    public long getFailed() { return failed; }
+    public void setFailed(long failed) { this.failed = failed; }
+    public List<BulkImportError> getErrors() { return errors; }
+    public void setErrors(List<BulkImportError> errors) { this.errors = errors; }
+    public boolean isErrorsTruncated() { return errorsTruncated; }
+    public void setErrorsTruncated(boolean errorsTruncated) { this.errorsTruncated = errorsTruncated; }
+    public long getDurationMillis() { return durationMillis; }
+    public void setDurationMillis(long durationMillis) { this.durationMillis = durationMillis; }
+    public double getRecordsPerSecond() { return recordsPerSecond; }
+    public void setRecordsPerSecond(double recordsPerSecond) { this.recordsPerSecond = recordsPerSecond; }
+}
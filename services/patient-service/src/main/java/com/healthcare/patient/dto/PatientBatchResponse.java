@@ -0,0 +1,22 @@
+package com.healthcare.patient.dto;
+
+import java.util.List;
+
+public class PatientBatchResponse {
+    private List<PatientResponse> content;
+    private List<String> notFound;
+
+    public PatientBatchResponse() {
+    }
+
+    public PatientBatchResponse(List<PatientResponse> content, List<String> notFound) {
+        this.content = content;
+        this.notFound = notFound;
+    }
+
+    // Getters and Setters
+    public List<PatientResponse> getContent() { return content; }
+    public void setContent(List<PatientResponse> content) { this.content = content; }
+    public List<String> getNotFound() { return notFound; }
+    public void setNotFound(List<String> notFound) { this.notFound = notFound; }
+}
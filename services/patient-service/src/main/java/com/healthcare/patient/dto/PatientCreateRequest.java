@@ -20,7 +20,6 @@ public class PatientCreateRequest {
     private String phoneNumber;
     private AddressDto address;
     private EmergencyContactDto emergencyContact;
-    private String medicalHistory;
     private String status;
 
     // Getters and Setters
@@ -40,8 +39,6 @@ public class PatientCreateRequest {
     public void setAddress(AddressDto address) { this.address = address; }
     public EmergencyContactDto getEmergencyContact() { return emergencyContact; }
     public void setEmergencyContact(EmergencyContactDto emergencyContact) { this.emergencyContact = emergencyContact; }
-    public String getMedicalHistory() { return medicalHistory; }
-    public void setMedicalHistory(String medicalHistory) { this.medicalHistory = medicalHistory; }
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
 }
\ No newline at end of file
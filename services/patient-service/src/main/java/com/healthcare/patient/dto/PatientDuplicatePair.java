@@ -0,0 +1,30 @@
+package com.healthcare.patient.dto;
+
+import java.util.List;
+
+public class PatientDuplicatePair {
+    private String patientId;
+    private String duplicateId;
+    private double score;
+    private List<String> matchedOn;
+
+    public PatientDuplicatePair() {
+    }
+
+    public PatientDuplicatePair(String patientId, String duplicateId, double score, List<String> matchedOn) {
+        this.patientId = patientId;
+        this.duplicateId = duplicateId;
+        this.score = score;
+        this.matchedOn = matchedOn;
+    }
+
+    // Getters and Setters
+    public String getPatientId() { return patientId; }
+    public void setPatientId(String patientId) { this.patientId = patientId; }
+    public String getDuplicateId() { return duplicateId; }
+    public void setDuplicateId(String duplicateId) { this.duplicateId = duplicateId; }
+    public double getScore() { return score; }
+    public void setScore(double score) { this.score = score; }
+    public List<String> getMatchedOn() { return matchedOn; }
+    public void setMatchedOn(List<String> matchedOn) { this.matchedOn = matchedOn; }
+}
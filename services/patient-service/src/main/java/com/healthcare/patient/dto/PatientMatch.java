@@ -0,0 +1,26 @@
+package com.healthcare.patient.dto;
+
+import java.util.List;
+
+public class PatientMatch {
+    private PatientResponse patient;
+    private double score;
+    private List<String> matchedOn;
+
+    public PatientMatch() {
+    }
+
+    public PatientMatch(PatientResponse patient, double score, List<String> matchedOn) {
+        this.patient = patient;
+        this.score = score;
+        this.matchedOn = matchedOn;
+    }
+
+    // Getters and Setters
+    public PatientResponse getPatient() { return patient; }
+    public void setPatient(PatientResponse patient) { this.patient = patient; }
+    public double getScore() { return score; }
+    public void setScore(double score) { this.score = score; }
+    public List<String> getMatchedOn() { return matchedOn; }
+    public void setMatchedOn(List<String> matchedOn) { this.matchedOn = matchedOn; }
+}
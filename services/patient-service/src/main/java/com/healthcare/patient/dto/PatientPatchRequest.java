@@ -0,0 +1,43 @@
+package com.healthcare.patient.dto;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Pattern;
+
+/**
+ * Partial update: only non-null fields are written. When {@code version} is set the update
+ * applies only if the stored patient still has that version.
+ */
+public class PatientPatchRequest {
+    private static final String NOT_BLANK_IF_PRESENT = ".*\\S.*";
+
+    @Pattern(regexp = NOT_BLANK_IF_PRESENT, message = "must not be blank")
+    private String firstName;
+    @Pattern(regexp = NOT_BLANK_IF_PRESENT, message = "must not be blank")
+    private String lastName;
+    @Email
+    private String email;
+    @Pattern(regexp = NOT_BLANK_IF_PRESENT, message = "must not be blank")
+    private String phoneNumber;
+    private AddressDto address;
+    private EmergencyContactDto emergencyContact;
+    private String status;
+    private Long version;
+
+    // Getters and Setters
+    public String getFirstName() { return firstName; }
+    public void setFirstName(String firstName) { this.firstName = firstName; }
+    public String getLastName() { return lastName; }
+    public void setLastName(String lastName) { this.lastName = lastName; }
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+    public String getPhoneNumber() { return phoneNumber; }
+    public void setPhoneNumber(String phoneNumber) { this.phoneNumber = phoneNumber; }
+    public AddressDto getAddress() { return address; }
+    public void setAddress(AddressDto address) { this.address = address; }
+    public EmergencyContactDto getEmergencyContact() { return emergencyContact; }
+    public void setEmergencyContact(EmergencyContactDto emergencyContact) { this.emergencyContact = emergencyContact; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+}
@@ -13,10 +13,10 @@ public class PatientResponse {
     private String phoneNumber;
     private AddressDto address;
     private EmergencyContactDto emergencyContact;
-    private String medicalHistory;
     private String status;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version;
 
     // Getters and Setters
     public String getId() { return id; }
@@ -37,12 +37,12 @@ public class PatientResponse {
     public void setAddress(AddressDto address) { this.address = address; }
     public EmergencyContactDto getEmergencyContact() { return emergencyContact; }
     public void setEmergencyContact(EmergencyContactDto emergencyContact) { this.emergencyContact = emergencyContact; }
-    public String getMedicalHistory() { return medicalHistory; }
-    public void setMedicalHistory(String medicalHistory) { this.medicalHistory = medicalHistory; }
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.healthcare.patient.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.List;
+
+public class PatientSliceResponse {
+    private List<PatientResponse> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+    @JsonIgnore
+    private String etag; // sent as the ETag header, not in the body
+
+    public PatientSliceResponse() {
+    }
+
+    public PatientSliceResponse(List<PatientResponse> content, boolean hasNext, String nextCursor) {
+        this.content = content;
+        this.size = content.size();
+        this.hasNext = hasNext;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters and Setters
+    public List<PatientResponse> getContent() { return content; }
+    public void setContent(List<PatientResponse> content) { this.content = content; }
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+    public boolean isHasNext() { return hasNext; }
+    public void setHasNext(boolean hasNext) { this.hasNext = hasNext; }
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+    public String getEtag() { return etag; }
+    public void setEtag(String etag) { this.etag = etag; }
+}
@@ -14,7 +14,6 @@ public class PatientUpdateRequest {
     private String phoneNumber;
     private AddressDto address;
     private EmergencyContactDto emergencyContact;
-    private String medicalHistory;
     private String status;
 
     // Getters and Setters
@@ -30,8 +29,6 @@ public class PatientUpdateRequest {
     public void setAddress(AddressDto address) { this.address = address; }
     public EmergencyContactDto getEmergencyContact() { return emergencyContact; }
     public void setEmergencyContact(EmergencyContactDto emergencyContact) { this.emergencyContact = emergencyContact; }
-    public String getMedicalHistory() { return medicalHistory; }
-    public void setMedicalHistory(String medicalHistory) { this.medicalHistory = medicalHistory; }
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
 }
\ No newline at end of file
@@ -0,0 +1,8 @@
+package com.healthcare.patient.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// Absent rather than null, so projected (view=summary / fields=) responses stay small; full responses keep their null fields.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProjectedPatientResponse extends PatientResponse {
+}
@@ -0,0 +1,11 @@
+package com.healthcare.patient.duplicate;
+
+import com.healthcare.patient.entity.Patient;
+
+import java.util.List;
+
+/**
+ * All patients sharing one blocking key, as read by the batch duplicate scan.
+ */
+public record DuplicateBlock(String key, List<Patient> members) {
+}
@@ -0,0 +1,126 @@
+package com.healthcare.patient.duplicate;
+
+import com.healthcare.patient.entity.Patient;
+import com.healthcare.patient.search.PatientSearchKeys;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Blocking keys for duplicate detection. Two patients are only ever scored against each other when
+ * they share at least one key, which turns an all-pairs comparison into a lookup on the indexed
+ * {@code duplicate_keys} field. Keys are deliberately coarse (phonetic names, last digits of a phone)
+ * so that typos and formatting differences still land in the same block.
+ */
+public final class PatientDuplicateKeys {
+    public static final String LAST_NAME = "ln:";
+    public static final String FIRST_NAME = "fn:";
+    public static final String PHONE = "ph:";
+    public static final String EMAIL = "em:";
+    static final int PHONE_DIGITS = 10;
+    private static final int MIN_PHONE_DIGITS = 7;
+
+    private PatientDuplicateKeys() {
+    }
+
+    /**
+     * Keys for a patient whose normalized email and phone are already set.
+     */
+    public static List<String> of(Patient patient) {
+        List<String> keys = new ArrayList<>(4);
+        LocalDate dateOfBirth = patient.getDateOfBirth();
+        if (dateOfBirth != null) {
+            // Surname with birth date, and given name with birth date to survive a surname change.
+            String lastName = namePrefix(LAST_NAME, patient.getLastName());
+            if (lastName != null) keys.add(lastName + dateOfBirth);
+            String firstName = namePrefix(FIRST_NAME, patient.getFirstName());
+            if (firstName != null) keys.add(firstName + dateOfBirth);
+        }
+        String phone = phone(patient.getPhoneNormalized());
+        if (phone != null) keys.add(phone);
+        String email = email(patient.getEmailNormalized());
+        if (email != null) keys.add(email);
+        return keys;
+    }
+
+    /**
+     * A name key up to the birth date {@link #of} appends to it, e.g. {@code ln:S530:}; null for a
+     * name without letters.
+     */
+    public static String namePrefix(String keyPrefix, String name) {
+        String phonetic = phoneticKey(name);
+        return phonetic == null ? null : keyPrefix + phonetic + ":";
+    }
+
+    public static String phone(String phoneNormalized) {
+        String phone = phoneKey(phoneNormalized);
+        return phone == null ? null : PHONE + phone;
+    }
+
+    public static String email(String emailNormalized) {
+        return emailNormalized == null ? null : EMAIL + emailNormalized;
+    }
+
+    /**
+     * Soundex code of the name's Latin letters, or the letters themselves for names without any.
+     */
+    static String phoneticKey(String name) {
+        String letters = letters(name);
+        if (letters.isEmpty()) return null;
+        String soundex = soundex(letters);
+        return soundex != null ? soundex : letters;
+    }
+
+    // National numbers only: "+1 555 010 1234" and "555-010-1234" must block together.
+    static String phoneKey(String phoneNormalized) {
+        if (phoneNormalized == null || phoneNormalized.length() < MIN_PHONE_DIGITS) return null;
+        return phoneNormalized.length() > PHONE_DIGITS
+                ? phoneNormalized.substring(phoneNormalized.length() - PHONE_DIGITS)
+                : phoneNormalized;
+    }
+
+    /**
+     * Lowercase letters and digits of a name with diacritics, spaces and punctuation removed.
+     */
+    static String letters(String name) {
+        StringBuilder letters = new StringBuilder();
+        for (String token : PatientSearchKeys.tokenize(name)) letters.append(token);
+        return letters.toString();
+    }
+
+    /**
+     * American Soundex over {@code a-z}; other characters are ignored. Null when there are no Latin letters.
+     */
+    static String soundex(String letters) {
+        StringBuilder code = new StringBuilder(4);
+        char last = 0;
+        for (int i = 0; i < letters.length() && code.length() < 4; i++) {
+            char c = letters.charAt(i);
+            if (c < 'a' || c > 'z') continue;
+            char digit = soundexDigit(c);
+            if (code.length() == 0) {
+                code.append(c);
+            } else if (digit != '0' && digit != last) {
+                code.append(digit);
+            }
+            // h and w do not separate two consonants with the same code; vowels do.
+            if (c != 'h' && c != 'w') last = digit;
+        }
+        if (code.length() == 0) return null;
+        while (code.length() < 4) code.append('0');
+        return code.toString();
+    }
+
+    private static char soundexDigit(char c) {
+        switch (c) {
+            case 'b': case 'f': case 'p': case 'v': return '1';
+            case 'c': case 'g': case 'j': case 'k': case 'q': case 's': case 'x': case 'z': return '2';
+            case 'd': case 't': return '3';
+            case 'l': return '4';
+            case 'm': case 'n': return '5';
+            case 'r': return '6';
+            default: return '0';
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.healthcare.patient.duplicate;
+
+import java.util.List;
+
+/**
+ * Outcome of comparing two patients: a score in {@code [0, 1]} and the fields that agreed.
+ */
+public record PatientMatchScore(double score, List<String> matchedOn) {
+}
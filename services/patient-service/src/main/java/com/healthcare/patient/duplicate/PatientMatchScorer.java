@@ -0,0 +1,120 @@
+package com.healthcare.patient.duplicate;
+
+import com.healthcare.patient.entity.Patient;
+import com.healthcare.patient.search.PatientSearchKeys;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Record-linkage scoring in the Fellegi-Sunter style: every field both patients have contributes an
+ * agreement weight or a disagreement penalty, and the sum is divided by the best achievable sum for
+ * those fields. Fields missing on either side are neutral, so sparse records are not penalized.
+ * Weights favour identifiers that rarely collide by chance (email, phone, birth date) over names.
+ */
+public final class PatientMatchScorer {
+    private static final double LAST_NAME = 4.0, LAST_NAME_PHONETIC = 2.5, LAST_NAME_TYPO = 2.0, LAST_NAME_MISMATCH = -3.0;
+    private static final double FIRST_NAME = 3.0, FIRST_NAME_PHONETIC = 2.0, FIRST_NAME_TYPO = 1.5, FIRST_NAME_INITIAL = 1.0,
+            FIRST_NAME_MISMATCH = -2.0;
+    private static final double DATE_OF_BIRTH = 5.0, DATE_OF_BIRTH_NEAR = 1.5, DATE_OF_BIRTH_MISMATCH = -5.0;
+    private static final double PHONE = 5.0, PHONE_MISMATCH = -0.5;
+    private static final double EMAIL = 6.0, EMAIL_MISMATCH = 0.0; // people change addresses; agreement is what counts
+    private static final double GENDER = 0.5, GENDER_MISMATCH = -2.0;
+
+    private PatientMatchScorer() {
+    }
+
+    public static PatientMatchScore score(Patient probe, Patient candidate) {
+        Tally tally = new Tally();
+        lastName(tally, PatientDuplicateKeys.letters(probe.getLastName()), PatientDuplicateKeys.letters(candidate.getLastName()));
+        firstName(tally, PatientDuplicateKeys.letters(probe.getFirstName()), PatientDuplicateKeys.letters(candidate.getFirstName()));
+        dateOfBirth(tally, probe.getDateOfBirth(), candidate.getDateOfBirth());
+        String probePhone = PatientDuplicateKeys.phoneKey(probe.getPhoneNormalized());
+        String candidatePhone = PatientDuplicateKeys.phoneKey(candidate.getPhoneNormalized());
+        if (probePhone != null && candidatePhone != null) {
+            tally.compare(probePhone.equals(candidatePhone), PHONE, PHONE_MISMATCH, "phoneNumber");
+        }
+        if (probe.getEmailNormalized() != null && candidate.getEmailNormalized() != null) {
+            tally.compare(probe.getEmailNormalized().equals(candidate.getEmailNormalized()), EMAIL, EMAIL_MISMATCH, "email");
+        }
+        if (probe.getGender() != null && candidate.getGender() != null) {
+            tally.compare(probe.getGender().equalsIgnoreCase(candidate.getGender()), GENDER, GENDER_MISMATCH, "gender");
+        }
+        return tally.result();
+    }
+
+    private static void lastName(Tally tally, String a, String b) {
+        if (a.isEmpty() || b.isEmpty()) return;
+        tally.max += LAST_NAME;
+        if (a.equals(b)) tally.agree(LAST_NAME, "lastName");
+        else if (samePhonetic(a, b)) tally.agree(LAST_NAME_PHONETIC, "lastNamePhonetic");
+        else if (withinTypos(a, b)) tally.agree(LAST_NAME_TYPO, "lastNameTypo");
+        else tally.total += LAST_NAME_MISMATCH;
+    }
+
+    private static void firstName(Tally tally, String a, String b) {
+        if (a.isEmpty() || b.isEmpty()) return;
+        tally.max += FIRST_NAME;
+        if (a.equals(b)) tally.agree(FIRST_NAME, "firstName");
+        else if (samePhonetic(a, b)) tally.agree(FIRST_NAME_PHONETIC, "firstNamePhonetic");
+        else if (withinTypos(a, b)) tally.agree(FIRST_NAME_TYPO, "firstNameTypo");
+        else if ((a.length() == 1 || b.length() == 1) && a.charAt(0) == b.charAt(0)) tally.agree(FIRST_NAME_INITIAL, "firstNameInitial");
+        else tally.total += FIRST_NAME_MISMATCH;
+    }
+
+    private static void dateOfBirth(Tally tally, LocalDate a, LocalDate b) {
+        if (a == null || b == null) return;
+        tally.max += DATE_OF_BIRTH;
+        if (a.equals(b)) {
+            tally.agree(DATE_OF_BIRTH, "dateOfBirth");
+        } else if (nearDate(a, b)) {
+            tally.agree(DATE_OF_BIRTH_NEAR, "dateOfBirthNear");
+        } else {
+            tally.total += DATE_OF_BIRTH_MISMATCH;
+        }
+    }
+
+    // Typical data-entry slips: day and month swapped, or exactly one of year, month and day wrong.
+    private static boolean nearDate(LocalDate a, LocalDate b) {
+        if (a.getYear() == b.getYear() && a.getMonthValue() == b.getDayOfMonth() && a.getDayOfMonth() == b.getMonthValue()) {
+            return true;
+        }
+        int differing = (a.getYear() != b.getYear() ? 1 : 0)
+                + (a.getMonthValue() != b.getMonthValue() ? 1 : 0)
+                + (a.getDayOfMonth() != b.getDayOfMonth() ? 1 : 0);
+        return differing == 1;
+    }
+
+    private static boolean samePhonetic(String a, String b) {
+        String soundexA = PatientDuplicateKeys.soundex(a);
+        return soundexA != null && soundexA.equals(PatientDuplicateKeys.soundex(b));
+    }
+
+    private static boolean withinTypos(String a, String b) {
+        int allowed = PatientSearchKeys.allowedTypos(a.length() <= b.length() ? a : b);
+        return allowed > 0 && PatientSearchKeys.boundedEditDistance(a, b, allowed) <= allowed;
+    }
+
+    private static final class Tally {
+        private final List<String> matchedOn = new ArrayList<>(6);
+        private double total;
+        private double max;
+
+        void compare(boolean equal, double agreement, double disagreement, String field) {
+            max += agreement;
+            if (equal) agree(agreement, field);
+            else total += disagreement;
+        }
+
+        void agree(double weight, String field) {
+            total += weight;
+            matchedOn.add(field);
+        }
+
+        PatientMatchScore result() {
+            double score = max == 0 ? 0 : Math.max(0, Math.min(1, total / max));
+            return new PatientMatchScore(Math.round(score * 1000) / 1000.0, matchedOn);
+        }
+    }
+}
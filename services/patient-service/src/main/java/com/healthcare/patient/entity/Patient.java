@@ -1,13 +1,20 @@
 package com.healthcare.patient.entity;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Document(collection = "patients")
+@CompoundIndex(name = "last_name_id", def = "{'last_name': 1, '_id': 1}") // keyset listing by last name
+@CompoundIndex(name = "updated_at_id", def = "{'updated_at': 1, '_id': 1}") // modifiedSince / updatedAt listing
+@CompoundIndex(name = "search_tokens_name", def = "{'search_tokens': 1, 'last_name': 1, 'first_name': 1}") // exact-token search in name order
 public class Patient {
     @Id
     private String id; // Use String for MongoDB ObjectId
@@ -27,14 +34,30 @@ public class Patient {
     private Address address;
     @Field("emergency_contact")
     private EmergencyContact emergencyContact;
-    @Field("medical_history")
-    private String medicalHistory;
     @Field("status")
     private String status; // Use String or enum
     @Field("created_at")
     private LocalDateTime createdAt;
-    @Field("updated_at")
+    @Field("updated_at") // indexed through updated_at_id
     private LocalDateTime updatedAt;
+    @Version
+    @Field("version")
+    private Long version;
+    @Field("search_tokens") // indexed through search_tokens_name
+    private List<String> searchTokens; // normalized first/last name tokens, see PatientSearchKeys
+    @Field("first_name_tokens")
+    private List<String> firstNameTokens; // per-name halves of search_tokens, so a patch can rebuild it
+    @Field("last_name_tokens")
+    private List<String> lastNameTokens;
+    @Indexed
+    @Field("email_normalized")
+    private String emailNormalized;
+    @Indexed
+    @Field("phone_normalized")
+    private String phoneNormalized; // digits only
+    @Indexed
+    @Field("duplicate_keys")
+    private List<String> duplicateKeys; // blocking keys for duplicate detection, see PatientDuplicateKeys
 
     // Getters and Setters
     public String getId() { return id; }
@@ -55,12 +78,24 @@ public class Patient {
     public void setAddress(Address address) { this.address = address; }
     public EmergencyContact getEmergencyContact() { return emergencyContact; }
     public void setEmergencyContact(EmergencyContact emergencyContact) { this.emergencyContact = emergencyContact; }
-    public String getMedicalHistory() { return medicalHistory; }
-    public void setMedicalHistory(String medicalHistory) { this.medicalHistory = medicalHistory; }
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+    public List<String> getSearchTokens() { return searchTokens; }
+    public void setSearchTokens(List<String> searchTokens) { this.searchTokens = searchTokens; }
+    public List<String> getFirstNameTokens() { return firstNameTokens; }
+    public void setFirstNameTokens(List<String> firstNameTokens) { this.firstNameTokens = firstNameTokens; }
+    public List<String> getLastNameTokens() { return lastNameTokens; }
+    public void setLastNameTokens(List<String> lastNameTokens) { this.lastNameTokens = lastNameTokens; }
+    public String getEmailNormalized() { return emailNormalized; }
+    public void setEmailNormalized(String emailNormalized) { this.emailNormalized = emailNormalized; }
+    public String getPhoneNormalized() { return phoneNormalized; }
+    public void setPhoneNormalized(String phoneNormalized) { this.phoneNormalized = phoneNormalized; }
+    public List<String> getDuplicateKeys() { return duplicateKeys; }
+    public void setDuplicateKeys(List<String> duplicateKeys) { this.duplicateKeys = duplicateKeys; }
 }
\ No newline at end of file
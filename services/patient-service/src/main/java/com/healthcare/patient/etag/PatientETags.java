@@ -0,0 +1,130 @@
+package com.healthcare.patient.etag;
+
+import com.healthcare.patient.entity.Patient;
+import com.healthcare.patient.exception.PreconditionFailedException;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Strong entity tags for patient representations, derived from stored versions instead of hashing
+ * the serialized body. A single patient is tagged with its {@code version} (or {@code updatedAt}
+ * for documents that predate versioning); a listing with a digest of the ids and versions it contains.
+ * Those tags name the JSON body; {@link #forRepresentation} suffixes them for CBOR and Smile, and
+ * compressed bodies are sent with the tag weakened (by Tomcat for gzip, by the zstd filter for zstd),
+ * so no two different byte sequences ever share a strong tag. Responses must {@code Vary: Accept}.
+ * <p>
+ * Weakening stays on, so caches never treat a compressed body as byte-identical to another; instead
+ * {@link #expectedVersion} accepts the weak form of this service's own version tags on PUT, PATCH and
+ * DELETE. The weak tag still names exactly one stored version, and clients that echo the {@code ETag}
+ * they received through a compressing path would otherwise be unable to write at all.
+ */
+public final class PatientETags {
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+    private static final String[] SUFFIXES = {"-cbor", "-smile"};
+
+    private PatientETags() {
+    }
+
+    public static String of(Long version, LocalDateTime updatedAt) {
+        if (version != null) return quote(version.toString());
+        if (updatedAt != null) return quote("t" + updatedAt.toInstant(ZoneOffset.UTC).toEpochMilli());
+        return null;
+    }
+
+    /**
+     * Tag for a page of patients. {@code variant} must capture everything else that shapes the body
+     * (projection, continuation cursor) so two differently shaped pages never share a tag.
+     */
+    public static String ofListing(List<Patient> page, String variant) {
+        MessageDigest digest = md5();
+        digest.update(variant.getBytes(StandardCharsets.UTF_8));
+        for (Patient patient : page) {
+            digest.update((byte) 0);
+            digest.update(patient.getId().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            String tag = of(patient.getVersion(), patient.getUpdatedAt());
+            if (tag != null) digest.update(tag.getBytes(StandardCharsets.UTF_8));
+        }
+        return quote(HexFormat.of().formatHex(digest.digest()));
+    }
+
+    /**
+     * The tag of the representation content negotiation picks for {@code accept}: unchanged for JSON,
+     * with a {@code -cbor} or {@code -smile} suffix for the binary encodings.
+     */
+    public static String forRepresentation(String etag, String accept) {
+        if (etag == null) return null;
+        String suffix = suffix(accept);
+        return suffix.isEmpty() ? etag : etag.substring(0, etag.length() - 1) + suffix + '"';
+    }
+
+    // Mirrors the negotiation: highest quality first, a concrete type before a wildcard of equal quality.
+    private static String suffix(String accept) {
+        if (accept == null || accept.isBlank()) return "";
+        List<MediaType> types;
+        try {
+            types = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return "";
+        }
+        MediaType best = null;
+        for (MediaType type : types) {
+            if (type.getQualityValue() <= 0 || suffix(type) == null) continue;
+            if (best == null || type.getQualityValue() > best.getQualityValue()
+                    || (type.getQualityValue() == best.getQualityValue() && best.isWildcardSubtype() && !type.isWildcardSubtype())) {
+                best = type;
+            }
+        }
+        return best == null ? "" : suffix(best);
+    }
+
+    private static String suffix(MediaType type) {
+        if (type.equalsTypeAndSubtype(MediaType.APPLICATION_CBOR)) return "-cbor";
+        if (type.equalsTypeAndSubtype(SMILE)) return "-smile";
+        return type.isCompatibleWith(MediaType.APPLICATION_JSON) ? "" : null;
+    }
+
+    /**
+     * Version a write must match, from an {@code If-Match} header; null when the header is absent
+     * or {@code *}. Any representation's tag names the same version, and so does its weak form, which
+     * is what a client sees after gzip or zstd; foreign tags can never match, so they fail fast.
+     */
+    public static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank()) return null;
+        String header = ifMatch.trim();
+        if ("*".equals(header)) return null;
+        String tag = header.startsWith("W/") ? header.substring(2) : header; // weakened by compression, see class docs
+        if (tag.indexOf(',') >= 0 || tag.length() < 3 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+            throw new PreconditionFailedException("If-Match must be a single entity tag");
+        }
+        String value = tag.substring(1, tag.length() - 1);
+        for (String suffix : SUFFIXES) {
+            if (value.endsWith(suffix)) value = value.substring(0, value.length() - suffix.length());
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("If-Match " + header + " does not match the current patient");
+        }
+    }
+
+    private static String quote(String value) {
+        return '"' + value + '"';
+    }
+
+    private static MessageDigest md5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
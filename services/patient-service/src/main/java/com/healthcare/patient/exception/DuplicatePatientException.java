@@ -0,0 +1,18 @@
+package com.healthcare.patient.exception;
+
+import com.healthcare.patient.dto.PatientMatch;
+
+import java.util.List;
+
+public class DuplicatePatientException extends RuntimeException {
+    private final List<PatientMatch> matches;
+
+    public DuplicatePatientException(String message, List<PatientMatch> matches) {
+        super(message);
+        this.matches = matches;
+    }
+
+    public List<PatientMatch> getMatches() {
+        return matches;
+    }
+}
@@ -0,0 +1,11 @@
+package com.healthcare.patient.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidProjectionException extends RuntimeException {
+    public InvalidProjectionException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.healthcare.patient.exception;
+
+public class PatientConflictException extends RuntimeException {
+    public PatientConflictException(String message) {
+        super(message);
+    }
+}
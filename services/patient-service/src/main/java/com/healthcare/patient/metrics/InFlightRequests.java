@@ -0,0 +1,35 @@
+package com.healthcare.patient.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Number of API requests currently being served by this replica, published as
+ * {@code patient.http.requests.in-flight}. Unlike CPU it rises as soon as requests start waiting
+ * on MongoDB, so it is the signal the HPA scales on (see infrastructure/kubernetes/hpa.yaml).
+ */
+@Component
+public class InFlightRequests {
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public InFlightRequests(MeterRegistry meterRegistry) {
+        Gauge.builder("patient.http.requests.in-flight", inFlight, AtomicInteger::get)
+                .description("API requests currently in progress on this replica")
+                .register(meterRegistry);
+    }
+
+    public void started() {
+        inFlight.incrementAndGet();
+    }
+
+    public void finished() {
+        inFlight.decrementAndGet();
+    }
+
+    static boolean isTracked(String path) {
+        return path.startsWith("/api/");
+    }
+}
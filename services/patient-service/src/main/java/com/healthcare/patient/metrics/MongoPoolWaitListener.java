@@ -0,0 +1,44 @@
+package com.healthcare.patient.metrics;
+
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how long operations wait to check a connection out of the driver pool, as
+ * {@code mongodb.driver.pool.wait}. The stock pool metrics only report pool and wait-queue
+ * sizes; this shows whether Mongo latency is server time or pool starvation.
+ */
+public class MongoPoolWaitListener implements ConnectionPoolListener {
+    private final MeterRegistry meterRegistry;
+
+    public MongoPoolWaitListener(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        record(event.getConnectionId().getServerId().getAddress().toString(), "success",
+                event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        record(event.getServerId().getAddress().toString(), event.getReason().name().toLowerCase(),
+                event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    private void record(String serverAddress, String outcome, long nanos) {
+        Timer.builder("mongodb.driver.pool.wait")
+                .description("Time spent waiting to check a connection out of the pool")
+                .tag("server.address", serverAddress)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
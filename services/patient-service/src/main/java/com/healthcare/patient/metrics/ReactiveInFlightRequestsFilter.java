@@ -0,0 +1,35 @@
+package com.healthcare.patient.metrics;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Counts WebFlux requests in {@link InFlightRequests} from subscription until the response
+ * completes, errors or is cancelled.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveInFlightRequestsFilter implements WebFilter {
+    private final InFlightRequests inFlightRequests;
+
+    public ReactiveInFlightRequestsFilter(InFlightRequests inFlightRequests) {
+        this.inFlightRequests = inFlightRequests;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!InFlightRequests.isTracked(exchange.getRequest().getPath().value())) {
+            return chain.filter(exchange);
+        }
+        return chain.filter(exchange)
+                .doFirst(inFlightRequests::started)
+                .doFinally(signal -> inFlightRequests.finished());
+    }
+}
@@ -0,0 +1,48 @@
+package com.healthcare.patient.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.apache.catalina.connector.Connector;
+import org.apache.tomcat.util.threads.ThreadPoolExecutor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerInitializedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Publishes busy, maximum and queued Tomcat worker threads per connector port without enabling the
+ * Tomcat MBean registry. {@code patient.http.workers.queued} is the request queue depth: requests
+ * accepted but still waiting for a worker because every thread is blocked.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class TomcatWorkerMetrics implements ApplicationListener<ServletWebServerInitializedEvent> {
+    private final MeterRegistry meterRegistry;
+
+    public TomcatWorkerMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void onApplicationEvent(ServletWebServerInitializedEvent event) {
+        if (!(event.getWebServer() instanceof TomcatWebServer tomcat)) return;
+        for (Connector connector : tomcat.getTomcat().getService().findConnectors()) {
+            Executor executor = connector.getProtocolHandler().getExecutor();
+            if (executor instanceof ThreadPoolExecutor workers) {
+                Tags tags = Tags.of("port", String.valueOf(connector.getLocalPort()));
+                Gauge.builder("patient.http.workers.busy", workers, ThreadPoolExecutor::getActiveCount)
+                        .description("Tomcat worker threads currently serving a request")
+                        .tags(tags).register(meterRegistry);
+                Gauge.builder("patient.http.workers.max", workers, ThreadPoolExecutor::getMaximumPoolSize)
+                        .tags(tags).register(meterRegistry);
+                Gauge.builder("patient.http.workers.queued", workers, pool -> pool.getQueue().size())
+                        .description("Requests waiting for a free Tomcat worker thread")
+                        .tags(tags).register(meterRegistry);
+            }
+        }
+    }
+}
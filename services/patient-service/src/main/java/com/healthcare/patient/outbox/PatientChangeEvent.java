@@ -0,0 +1,48 @@
+package com.healthcare.patient.outbox;
+
+import com.healthcare.patient.dto.PatientResponse;
+
+import java.time.Instant;
+
+/**
+ * Message published on the patient events topic, keyed by patient id. Delivery is at-least-once:
+ * consumers should dedupe on {@code eventId} and ignore events older than the
+ * {@code patientVersion} they already hold. A DELETED event carries the version after the
+ * patient's last write and no snapshot, so it can serve as a tombstone.
+ */
+public class PatientChangeEvent {
+    private String eventId;
+    private PatientChangeType type;
+    private String patientId;
+    private Long patientVersion;
+    private Instant occurredAt;
+    private PatientResponse patient;
+
+    public PatientChangeEvent() {
+    }
+
+    public static PatientChangeEvent from(PatientOutboxEvent outboxEvent) {
+        PatientChangeEvent event = new PatientChangeEvent();
+        event.setEventId(outboxEvent.getId());
+        event.setType(outboxEvent.getType());
+        event.setPatientId(outboxEvent.getPatientId());
+        event.setPatientVersion(outboxEvent.getPatientVersion());
+        event.setOccurredAt(outboxEvent.getOccurredAt());
+        event.setPatient(outboxEvent.getPatient());
+        return event;
+    }
+
+    // Getters and Setters
+    public String getEventId() { return eventId; }
+    public void setEventId(String eventId) { this.eventId = eventId; }
+    public PatientChangeType getType() { return type; }
+    public void setType(PatientChangeType type) { this.type = type; }
+    public String getPatientId() { return patientId; }
+    public void setPatientId(String patientId) { this.patientId = patientId; }
+    public Long getPatientVersion() { return patientVersion; }
+    public void setPatientVersion(Long patientVersion) { this.patientVersion = patientVersion; }
+    public Instant getOccurredAt() { return occurredAt; }
+    public void setOccurredAt(Instant occurredAt) { this.occurredAt = occurredAt; }
+    public PatientResponse getPatient() { return patient; }
+    public void setPatient(PatientResponse patient) { this.patient = patient; }
+}
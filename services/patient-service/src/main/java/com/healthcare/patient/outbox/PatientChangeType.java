@@ -0,0 +1,7 @@
+package com.healthcare.patient.outbox;
+
+public enum PatientChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
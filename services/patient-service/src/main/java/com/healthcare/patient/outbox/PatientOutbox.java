@@ -0,0 +1,70 @@
+package com.healthcare.patient.outbox;
+
+import com.healthcare.patient.dto.PatientResponse;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Appends patient change events next to the patient writes that caused them. Wrap the patient
+ * write and {@link #append} in {@link #write} so both commit in one Mongo transaction.
+ */
+@Component
+public class PatientOutbox {
+    private final MongoTemplate mongoTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public PatientOutbox(MongoTemplate mongoTemplate, MongoTransactionManager transactionManager) {
+        this.mongoTemplate = mongoTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public <T> T write(Supplier<T> work) {
+        return transactionTemplate.execute(status -> work.get());
+    }
+
+    public void append(PatientChangeType type, String patientId, Long patientVersion, PatientResponse snapshot) {
+        mongoTemplate.insert(newEvent(type, patientId, patientVersion, snapshot));
+    }
+
+    public void appendAll(Collection<PatientOutboxEvent> events) {
+        if (!events.isEmpty()) {
+            mongoTemplate.insert(new ArrayList<>(events), PatientOutboxEvent.class);
+        }
+    }
+
+    public static PatientOutboxEvent newEvent(PatientChangeType type, String patientId, Long patientVersion,
+                                              PatientResponse snapshot) {
+        PatientOutboxEvent event = new PatientOutboxEvent();
+        event.setType(type);
+        event.setPatientId(patientId);
+        event.setPatientVersion(patientVersion);
+        event.setOccurredAt(Instant.now());
+        event.setPatient(snapshot);
+        event.setLeaseUntil(Instant.EPOCH); // immediately claimable by the relay
+        return event;
+    }
+
+    /**
+     * Version carried by the DELETED event of a patient removed at {@code removedVersion}: one past its
+     * last write, so consumers ordering by version drop any replayed earlier event after the delete.
+     */
+    public static long deletedVersion(long removedVersion) {
+        return removedVersion + 1;
+    }
+
+    public static List<PatientOutboxEvent> created(List<PatientResponse> patients) {
+        List<PatientOutboxEvent> events = new ArrayList<>(patients.size());
+        for (PatientResponse patient : patients) {
+            events.add(newEvent(PatientChangeType.CREATED, patient.getId(), patient.getVersion(), patient));
+        }
+        return events;
+    }
+}
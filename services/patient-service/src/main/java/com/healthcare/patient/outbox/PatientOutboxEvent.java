@@ -0,0 +1,52 @@
+package com.healthcare.patient.outbox;
+
+import com.healthcare.patient.dto.PatientResponse;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.Instant;
+
+/**
+ * A patient change waiting to be relayed to Kafka. Written in the same transaction as the
+ * patient itself and deleted once the broker has acknowledged it.
+ */
+@Document(collection = "patient_outbox")
+@CompoundIndex(name = "lease_until_id", def = "{'lease_until': 1, '_id': 1}")
+public class PatientOutboxEvent {
+    @Id
+    private String id; // ObjectId, so ids sort in append order
+    @Field("type")
+    private PatientChangeType type;
+    @Field("patient_id")
+    private String patientId;
+    @Field("patient_version")
+    private Long patientVersion;
+    @Field("occurred_at")
+    private Instant occurredAt;
+    @Field("patient")
+    private PatientResponse patient; // null for deletions
+    @Field("lease_owner")
+    private String leaseOwner;
+    @Field("lease_until")
+    private Instant leaseUntil;
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public PatientChangeType getType() { return type; }
+    public void setType(PatientChangeType type) { this.type = type; }
+    public String getPatientId() { return patientId; }
+    public void setPatientId(String patientId) { this.patientId = patientId; }
+    public Long getPatientVersion() { return patientVersion; }
+    public void setPatientVersion(Long patientVersion) { this.patientVersion = patientVersion; }
+    public Instant getOccurredAt() { return occurredAt; }
+    public void setOccurredAt(Instant occurredAt) { this.occurredAt = occurredAt; }
+    public PatientResponse getPatient() { return patient; }
+    public void setPatient(PatientResponse patient) { this.patient = patient; }
+    public String getLeaseOwner() { return leaseOwner; }
+    public void setLeaseOwner(String leaseOwner) { this.leaseOwner = leaseOwner; }
+    public Instant getLeaseUntil() { return leaseUntil; }
+    public void setLeaseUntil(Instant leaseUntil) { this.leaseUntil = leaseUntil; }
+}
@@ -0,0 +1,167 @@
+package com.healthcare.patient.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains {@code patient_outbox} to Kafka. Each poll leases a batch (so replicas do not publish the
+ * same events), sends it without waiting per record so the producer can batch and compress, waits
+ * for the acknowledgements until shortly before the lease ends, then deletes the events the broker
+ * acknowledged. Unacknowledged events are retried once the lease lapses.
+ */
+@Component
+@ConditionalOnProperty(name = "patient.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class PatientOutboxRelay {
+    private static final Logger log = LoggerFactory.getLogger(PatientOutboxRelay.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final String topic;
+    private final int batchSize;
+    private final Duration lease;
+    private final String owner = UUID.randomUUID().toString();
+
+    private final AtomicLong oldestPendingMillis = new AtomicLong();
+    private final AtomicLong pendingEvents = new AtomicLong();
+    private final Timer publishTimer;
+    private final Counter published;
+    private final Counter failed;
+
+    public PatientOutboxRelay(MongoTemplate mongoTemplate,
+                              KafkaTemplate<String, Object> kafkaTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${patient.outbox.topic:patient-events}") String topic,
+                              @Value("${patient.outbox.relay.batch-size:500}") int batchSize,
+                              @Value("${patient.outbox.relay.lease:30s}") Duration lease) {
+        this.mongoTemplate = mongoTemplate;
+        this.kafkaTemplate = kafkaTemplate;
+        this.topic = topic;
+        this.batchSize = batchSize;
+        this.lease = lease;
+        Gauge.builder("patient.outbox.lag", oldestPendingMillis, v -> v.get() / 1000.0)
+                .description("Age of the oldest unpublished patient change event")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("patient.outbox.pending", pendingEvents, AtomicLong::get)
+                .description("Patient change events seen waiting in the last relay batch")
+                .register(meterRegistry);
+        this.publishTimer = Timer.builder("patient.outbox.publish").description("Time to publish one outbox batch").register(meterRegistry);
+        this.published = Counter.builder("patient.outbox.published").register(meterRegistry);
+        this.failed = Counter.builder("patient.outbox.failed").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${patient.outbox.relay.interval-ms:200}")
+    public void relay() {
+        try {
+            int relayed;
+            do {
+                relayed = relayBatch();
+            } while (relayed == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Patient outbox relay failed: {}", e.getMessage());
+        }
+    }
+
+    private int relayBatch() {
+        Instant now = Instant.now();
+        Instant leaseUntil = now.plus(lease).truncatedTo(ChronoUnit.MILLIS); // BSON dates hold millis
+        List<PatientOutboxEvent> batch = lease(now, leaseUntil);
+        updateLag(batch);
+        if (batch.isEmpty()) return 0;
+
+        Timer.Sample sample = Timer.start();
+        List<CompletableFuture<?>> sends = new ArrayList<>(batch.size());
+        for (PatientOutboxEvent event : batch) {
+            sends.add(kafkaTemplate.send(topic, event.getPatientId(), PatientChangeEvent.from(event)));
+        }
+        kafkaTemplate.flush();
+        // One deadline for the whole batch, leaving a tenth of the lease to delete what was acknowledged.
+        awaitAll(sends, leaseUntil.minus(lease.dividedBy(10)));
+
+        List<String> acknowledged = new ArrayList<>(batch.size());
+        Set<String> unacknowledgedPatients = new HashSet<>();
+        for (int i = 0; i < batch.size(); i++) {
+            PatientOutboxEvent event = batch.get(i);
+            CompletableFuture<?> send = sends.get(i);
+            if (!send.isDone() || send.isCompletedExceptionally()) {
+                failed.increment();
+                unacknowledgedPatients.add(event.getPatientId());
+            } else if (!unacknowledgedPatients.contains(event.getPatientId())) {
+                // A later event of a patient whose earlier one failed stays too, so the retry republishes them in order.
+                acknowledged.add(event.getId());
+            }
+        }
+        if (!acknowledged.isEmpty()) {
+            // Only events still leased to this relay: once another relay has claimed them, it owns their acknowledgement.
+            long removed = mongoTemplate.remove(Query.query(Criteria.where("_id").in(acknowledged)
+                    .and("lease_owner").is(owner).and("lease_until").is(leaseUntil)), PatientOutboxEvent.class).getDeletedCount();
+            published.increment(removed);
+        }
+        sample.stop(publishTimer);
+        return batch.size();
+    }
+
+    private static void awaitAll(List<CompletableFuture<?>> sends, Instant deadline) {
+        long remainingMillis = Math.max(0, Duration.between(Instant.now(), deadline).toMillis());
+        try {
+            CompletableFuture.allOf(sends.toArray(new CompletableFuture<?>[0])).get(remainingMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            // Failed sends are counted one by one by the caller.
+        } catch (TimeoutException e) {
+            log.warn("Patient outbox batch not fully acknowledged within its lease; unacknowledged events will be retried");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Claim up to batchSize unleased events in append order, then read back the ones this relay won.
+    private List<PatientOutboxEvent> lease(Instant now, Instant leaseUntil) {
+        Query candidates = Query.query(Criteria.where("lease_until").lt(now))
+                .with(Sort.by(Sort.Order.asc("_id")))
+                .limit(batchSize);
+        candidates.fields().include("_id");
+        List<Object> ids = new ArrayList<>(batchSize);
+        for (PatientOutboxEvent candidate : mongoTemplate.find(candidates, PatientOutboxEvent.class)) {
+            ids.add(candidate.getId());
+        }
+        if (ids.isEmpty()) return List.of();
+
+        mongoTemplate.updateMulti(Query.query(Criteria.where("_id").in(ids).and("lease_until").lt(now)),
+                new Update().set("lease_owner", owner).set("lease_until", leaseUntil), PatientOutboxEvent.class);
+        return mongoTemplate.find(Query.query(Criteria.where("_id").in(ids).and("lease_owner").is(owner).and("lease_until").is(leaseUntil))
+                .with(Sort.by(Sort.Order.asc("_id"))), PatientOutboxEvent.class);
+    }
+
+    private void updateLag(List<PatientOutboxEvent> batch) {
+        pendingEvents.set(batch.size());
+        oldestPendingMillis.set(batch.isEmpty() ? 0 : Duration.between(batch.get(0).getOccurredAt(), Instant.now()).toMillis());
+    }
+}
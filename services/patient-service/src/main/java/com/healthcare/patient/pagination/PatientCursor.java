@@ -0,0 +1,88 @@
+package com.healthcare.patient.pagination;
+
+import com.healthcare.patient.exception.InvalidCursorException;
+import com.healthcare.patient.entity.Patient;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of the last patient returned by a keyset listing. Serialized as an opaque,
+ * URL-safe token so clients cannot depend on its layout.
+ */
+public final class PatientCursor {
+    private static final String VERSION = "v1";
+    private static final char SEPARATOR = '\u001f';
+
+    private final PatientSortKey sortKey;
+    private final String id;
+    private final String lastName;
+    private final LocalDateTime updatedAt;
+
+    private PatientCursor(PatientSortKey sortKey, String id, String lastName, LocalDateTime updatedAt) {
+        this.sortKey = sortKey;
+        this.id = id;
+        this.lastName = lastName;
+        this.updatedAt = updatedAt;
+    }
+
+    public static PatientCursor after(Patient patient, PatientSortKey sortKey) {
+        return new PatientCursor(sortKey, patient.getId(),
+                sortKey == PatientSortKey.LAST_NAME ? patient.getLastName() : null,
+                sortKey == PatientSortKey.UPDATED_AT ? patient.getUpdatedAt() : null);
+    }
+
+    /**
+     * Position right after a patient last seen with the given id and {@code updatedAt}, in
+     * {@link PatientSortKey#UPDATED_AT} order.
+     */
+    public static PatientCursor afterUpdate(String id, LocalDateTime updatedAt) {
+        return new PatientCursor(PatientSortKey.UPDATED_AT, id, null, updatedAt);
+    }
+
+    public static PatientCursor decode(String token, PatientSortKey expectedSortKey) {
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+        String[] parts = decoded.split(String.valueOf(SEPARATOR), -1);
+        if (parts.length != 4 || !VERSION.equals(parts[0])) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+        PatientSortKey sortKey = PatientSortKey.fromParameter(parts[1]);
+        if (sortKey != expectedSortKey) {
+            throw new InvalidCursorException("Cursor was issued for sort '" + parts[1] + "'");
+        }
+        return new PatientCursor(sortKey, parts[2],
+                sortKey == PatientSortKey.LAST_NAME ? parts[3] : null,
+                sortKey == PatientSortKey.UPDATED_AT ? parseUpdatedAt(parts[3]) : null);
+    }
+
+    private static LocalDateTime parseUpdatedAt(String value) {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+    }
+
+    public String encode() {
+        String raw = VERSION + SEPARATOR + sortKey.parameter() + SEPARATOR + id + SEPARATOR + sortValue();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String sortValue() {
+        if (lastName != null) return lastName;
+        if (updatedAt != null) return updatedAt.toString();
+        return "";
+    }
+
+    public PatientSortKey getSortKey() { return sortKey; }
+    public String getId() { return id; }
+    public String getLastName() { return lastName; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+}
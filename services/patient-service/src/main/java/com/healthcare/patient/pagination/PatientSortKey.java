@@ -0,0 +1,30 @@
+package com.healthcare.patient.pagination;
+
+import com.healthcare.patient.exception.InvalidCursorException;
+
+/**
+ * Orderings supported by keyset listing. Each one ends in {@code _id} so the order is total
+ * and stays stable while new patients are inserted.
+ */
+public enum PatientSortKey {
+    ID("id"),
+    LAST_NAME("lastName"),
+    UPDATED_AT("updatedAt");
+
+    private final String parameter;
+
+    PatientSortKey(String parameter) {
+        this.parameter = parameter;
+    }
+
+    public String parameter() {
+        return parameter;
+    }
+
+    public static PatientSortKey fromParameter(String parameter) {
+        for (PatientSortKey key : values()) {
+            if (key.parameter.equals(parameter)) return key;
+        }
+        throw new InvalidCursorException("Unsupported sort '" + parameter + "', expected id, lastName or updatedAt");
+    }
+}
@@ -0,0 +1,89 @@
+package com.healthcare.patient.projection;
+
+import com.healthcare.patient.exception.InvalidProjectionException;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Which {@code PatientResponse} fields a caller asked for, via {@code view=summary} or an explicit
+ * {@code fields=} list. Translated to a MongoDB projection so unrequested fields are never read,
+ * decoded or serialized. {@code id} is always included.
+ */
+public final class PatientProjection {
+    public static final PatientProjection FULL = new PatientProjection(null);
+
+    private static final Map<String, String> DOCUMENT_FIELDS = new LinkedHashMap<>();
+    static {
+        DOCUMENT_FIELDS.put("id", "_id");
+        DOCUMENT_FIELDS.put("firstName", "first_name");
+        DOCUMENT_FIELDS.put("lastName", "last_name");
+        DOCUMENT_FIELDS.put("dateOfBirth", "date_of_birth");
+        DOCUMENT_FIELDS.put("gender", "gender");
+        DOCUMENT_FIELDS.put("email", "email");
+        DOCUMENT_FIELDS.put("phoneNumber", "phone_number");
+        DOCUMENT_FIELDS.put("address", "address");
+        DOCUMENT_FIELDS.put("emergencyContact", "emergency_contact");
+        DOCUMENT_FIELDS.put("status", "status");
+        DOCUMENT_FIELDS.put("createdAt", "created_at");
+        DOCUMENT_FIELDS.put("updatedAt", "updated_at");
+        DOCUMENT_FIELDS.put("version", "version");
+    }
+    private static final Set<String> SUMMARY = Set.of("id", "firstName", "lastName", "dateOfBirth", "status");
+
+    private final Set<String> fields;
+
+    private PatientProjection(Set<String> fields) {
+        this.fields = fields;
+    }
+
+    public static PatientProjection of(String view, String fields) {
+        if (fields != null && !fields.isBlank()) {
+            Set<String> requested = new LinkedHashSet<>();
+            requested.add("id");
+            for (String field : fields.split(",")) {
+                String name = field.trim();
+                if (name.isEmpty()) continue;
+                if (!DOCUMENT_FIELDS.containsKey(name)) {
+                    throw new InvalidProjectionException("Unknown patient field '" + name + "'");
+                }
+                requested.add(name);
+            }
+            return new PatientProjection(Collections.unmodifiableSet(requested));
+        }
+        if (view == null || view.isBlank() || "full".equalsIgnoreCase(view)) return FULL;
+        if ("summary".equalsIgnoreCase(view)) return new PatientProjection(SUMMARY);
+        throw new InvalidProjectionException("Unknown view '" + view + "', expected summary or full");
+    }
+
+    public boolean isFull() {
+        return fields == null;
+    }
+
+    public boolean includes(String field) {
+        return fields == null || fields.contains(field);
+    }
+
+    /**
+     * MongoDB field names to include, or null for the whole document.
+     */
+    public Set<String> documentFields() {
+        if (fields == null) return null;
+        Set<String> documentFields = new LinkedHashSet<>();
+        for (String field : fields) documentFields.add(DOCUMENT_FIELDS.get(field));
+        return documentFields;
+    }
+
+    /**
+     * {@link #documentFields()} plus fields the server needs internally (ranking, cursors).
+     */
+    public Set<String> documentFieldsWith(String... required) {
+        Set<String> documentFields = documentFields();
+        if (documentFields == null) return null;
+        Collections.addAll(documentFields, required);
+        return documentFields;
+    }
+}
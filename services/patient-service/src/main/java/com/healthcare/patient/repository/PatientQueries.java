@@ -0,0 +1,222 @@
+package com.healthcare.patient.repository;
+
+import com.healthcare.patient.duplicate.PatientDuplicateKeys;
+import com.healthcare.patient.entity.Patient;
+import com.healthcare.patient.pagination.PatientCursor;
+import com.healthcare.patient.pagination.PatientSortKey;
+import com.healthcare.patient.search.PatientSearchKeysCallback;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mapping.PropertyHandler;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Query builders shared by the blocking and reactive patient repositories.
+ */
+final class PatientQueries {
+
+    private PatientQueries() {
+    }
+
+    /**
+     * Keyset page in {@code sortKey} order. {@code modifiedSince} bounds {@code updated_at} from below;
+     * combined with {@link PatientSortKey#UPDATED_AT} it becomes one range scan of {@code updated_at_id}.
+     */
+    static Query pageAfter(PatientCursor after, PatientSortKey sortKey, LocalDateTime modifiedSince, int limit,
+                           Collection<String> includeFields) {
+        Query query = new Query().limit(limit);
+        if (modifiedSince != null) {
+            query.addCriteria(Criteria.where("updated_at").gte(modifiedSince));
+        }
+        if (sortKey == PatientSortKey.LAST_NAME) {
+            query.with(Sort.by(Sort.Order.asc("last_name"), Sort.Order.asc("_id")));
+            if (after != null) {
+                query.addCriteria(seekPast("last_name", after.getLastName(), after.getId()));
+            }
+        } else if (sortKey == PatientSortKey.UPDATED_AT) {
+            query.with(Sort.by(Sort.Order.asc("updated_at"), Sort.Order.asc("_id")));
+            if (after != null) {
+                query.addCriteria(seekPast("updated_at", after.getUpdatedAt(), after.getId()));
+            }
+        } else {
+            query.with(Sort.by(Sort.Order.asc("_id")));
+            if (after != null) {
+                query.addCriteria(Criteria.where("_id").gt(idValue(after.getId())));
+            }
+        }
+        return project(query, includeFields);
+    }
+
+    // (field, _id) > (value, id), written so MongoDB can use the matching compound index.
+    static Criteria seekPast(String field, Object value, String id) {
+        return new Criteria().orOperator(
+                Criteria.where(field).gt(value),
+                new Criteria().andOperator(Criteria.where(field).is(value), Criteria.where("_id").gt(idValue(id))));
+    }
+
+    static Query byIdAndVersion(String id, Long expectedVersion) {
+        Query query = Query.query(Criteria.where("_id").is(idValue(id)));
+        if (expectedVersion != null) {
+            query.addCriteria(Criteria.where("version").is(expectedVersion));
+        }
+        return query;
+    }
+
+    /**
+     * A full replacement written as {@code $set} of every field the entity maps and {@code $unset} of
+     * those it leaves null, plus a version increment, so fields the entity does not map are kept.
+     * findAndModify skips the entity callbacks {@code save} runs, so the search keys are derived here.
+     */
+    static Update replacement(Patient patient, MongoConverter converter) {
+        PatientSearchKeysCallback.applyTo(patient);
+        Document document = new Document();
+        converter.write(patient, document);
+        Update update = new Update().inc("version", 1);
+        converter.getMappingContext().getRequiredPersistentEntity(Patient.class).doWithProperties(
+                (PropertyHandler<MongoPersistentProperty>) property -> {
+                    if (property.isIdProperty() || property.isVersionProperty()) return;
+                    String field = property.getFieldName();
+                    if (document.containsKey(field)) update.set(field, document.get(field));
+                    else update.unset(field);
+                });
+        return update;
+    }
+
+    // findAndRemove only needs to hand back the version the patient was deleted at.
+    static Query removedVersion(Query query) {
+        query.fields().include("version");
+        return query;
+    }
+
+    static long versionOf(Patient patient) {
+        return patient.getVersion() == null ? 0L : patient.getVersion(); // written before versioning, see backfillVersions
+    }
+
+    static Query byIds(Collection<String> ids, Collection<String> includeFields) {
+        List<Object> values = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            values.add(idValue(id));
+        }
+        return project(Query.query(Criteria.where("_id").in(values)), includeFields);
+    }
+
+    /**
+     * {@code $set} of the given document fields, a fresh {@code updated_at} and a version increment,
+     * as an update pipeline. When a name, the email or the phone changes, a second stage rebuilds
+     * {@code search_tokens} and {@code duplicate_keys} from the patched values and the stored ones,
+     * so the keys are written by the same findAndModify instead of a follow-up update.
+     */
+    static AggregationUpdate patch(Map<String, Object> fields, MongoConverter converter) {
+        Document set = new Document("updated_at", literal(LocalDateTime.now(), converter))
+                .append("version", new Document("$add", List.of(new Document("$ifNull", List.of("$version", 0L)), 1L)));
+        // Values are wrapped in $literal: a pipeline would otherwise read "$..." strings as field paths.
+        fields.forEach((field, value) -> set.append(field, literal(value, converter)));
+        List<AggregationOperation> stages = new ArrayList<>(2);
+        stages.add(context -> new Document("$set", set));
+        Document keys = derivedKeys(fields);
+        if (!keys.isEmpty()) {
+            stages.add(context -> new Document("$set", keys));
+        }
+        return AggregationUpdate.from(stages);
+    }
+
+    // Mirrors PatientSearchKeysCallback over the document as the first stage left it.
+    private static Document derivedKeys(Map<String, Object> fields) {
+        boolean firstName = fields.containsKey("first_name");
+        boolean lastName = fields.containsKey("last_name");
+        boolean email = fields.containsKey("email_normalized");
+        boolean phone = fields.containsKey("phone_normalized");
+        Document keys = new Document();
+        if (firstName || lastName) {
+            // nameTokens(first, last): first-name tokens, then last-name tokens not already present.
+            Object first = new Document("$ifNull", List.of("$first_name_tokens", List.of()));
+            Object last = new Document("$ifNull", List.of("$last_name_tokens", List.of()));
+            keys.append("search_tokens", new Document("$concatArrays", List.of(first, new Document("$filter",
+                    new Document("input", last).append("cond",
+                            new Document("$not", List.of(new Document("$in", List.of("$$this", first)))))))));
+        }
+        if (firstName || lastName || email || phone) {
+            keys.append("duplicate_keys", new Document("$concatArrays", List.of(
+                    lastName ? nameKey(PatientDuplicateKeys.namePrefix(PatientDuplicateKeys.LAST_NAME, (String) fields.get("last_name")))
+                            : storedKeys(PatientDuplicateKeys.LAST_NAME),
+                    firstName ? nameKey(PatientDuplicateKeys.namePrefix(PatientDuplicateKeys.FIRST_NAME, (String) fields.get("first_name")))
+                            : storedKeys(PatientDuplicateKeys.FIRST_NAME),
+                    phone ? literalKey(PatientDuplicateKeys.phone((String) fields.get("phone_normalized")))
+                            : storedKeys(PatientDuplicateKeys.PHONE),
+                    email ? literalKey(PatientDuplicateKeys.email((String) fields.get("email_normalized")))
+                            : storedKeys(PatientDuplicateKeys.EMAIL))));
+        }
+        return keys;
+    }
+
+    // Name keys end in the birth date, formatted as LocalDate.toString() in the zone it was stored in.
+    private static Object nameKey(String prefix) {
+        if (prefix == null) return List.of();
+        Document birthDate = new Document("$dateToString", new Document("date", "$date_of_birth")
+                .append("format", "%Y-%m-%d").append("timezone", storedZone()));
+        return new Document("$cond", List.of(
+                new Document("$eq", List.of(new Document("$type", "$date_of_birth"), "date")),
+                List.of(new Document("$concat", List.of(new Document("$literal", prefix), birthDate))),
+                List.of()));
+    }
+
+    private static Object literalKey(String key) {
+        return key == null ? List.of() : new Document("$literal", List.of(key));
+    }
+
+    private static Object storedKeys(String keyPrefix) {
+        return new Document("$filter", new Document("input", new Document("$ifNull", List.of("$duplicate_keys", List.of())))
+                .append("cond", new Document("$eq", List.of(
+                        new Document("$substrCP", List.of("$$this", 0, keyPrefix.length())), keyPrefix))));
+    }
+
+    // LocalDate is stored as midnight in the JVM's default zone.
+    private static String storedZone() {
+        ZoneId zone = ZoneId.systemDefault().normalized();
+        return zone.equals(ZoneOffset.UTC) ? "UTC" : zone.getId();
+    }
+
+    private static Document literal(Object value, MongoConverter converter) {
+        return new Document("$literal", converter.convertToMongoType(value));
+    }
+
+    static Query project(Query query, Collection<String> includeFields) {
+        if (includeFields != null) {
+            query.fields().include(includeFields.toArray(new String[0]));
+        }
+        return query;
+    }
+
+    // Ids generated by MongoDB are stored as ObjectId; compare against the same BSON type.
+    static Object idValue(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
+    // Anchored, case-sensitive regex on an already-normalized key so MongoDB can turn it into index
+    // bounds. Metacharacters are escaped one by one because a \Q...\E block defeats that optimization.
+    static Pattern prefixPattern(String prefix) {
+        StringBuilder regex = new StringBuilder(prefix.length() + 8).append('^');
+        for (int i = 0; i < prefix.length(); i++) {
+            char c = prefix.charAt(i);
+            if ("\\^$.|?*+()[]{}".indexOf(c) >= 0) regex.append('\\');
+            regex.append(c);
+        }
+        return Pattern.compile(regex.toString());
+    }
+}
@@ -5,5 +5,5 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface PatientRepository extends MongoRepository<Patient, String> {
-}
\ No newline at end of file
+public interface PatientRepository extends MongoRepository<Patient, String>, PatientRepositoryCustom {
+}
@@ -0,0 +1,139 @@
+package com.healthcare.patient.repository;
+
+import com.healthcare.patient.duplicate.DuplicateBlock;
+import com.healthcare.patient.entity.Patient;
+import com.healthcare.patient.pagination.PatientCursor;
+import com.healthcare.patient.pagination.PatientSortKey;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * MongoTemplate-backed queries. Methods taking {@code includeFields} read only those document
+ * fields (plus {@code _id}); pass null to read whole documents.
+ */
+public interface PatientRepositoryCustom {
+    /**
+     * Patients having every one of the given name tokens exactly, in last name then first name order
+     * as read from the {@code search_tokens_name} index.
+     */
+    List<Patient> findByNameTokens(List<String> tokens, int limit, Collection<String> includeFields);
+
+    /**
+     * Patients whose name tokens contain a token starting with each of the given prefixes.
+     */
+    List<Patient> findByNameTokenPrefixes(List<String> prefixes, int limit, Collection<String> includeFields);
+
+    /**
+     * Patients with at least one name token starting with any of the given prefixes.
+     */
+    List<Patient> findByAnyNameTokenPrefix(List<String> prefixes, int limit, Collection<String> includeFields);
+
+    /**
+     * Patients whose normalized email starts with the prefix, in email order, so an exact match is
+     * read first and survives the limit.
+     */
+    List<Patient> findByEmailPrefix(String normalizedEmailPrefix, int limit, Collection<String> includeFields);
+
+    /**
+     * Patients whose phone digits start with the prefix, in digit order (exact match first).
+     */
+    List<Patient> findByPhonePrefix(String phoneDigitsPrefix, int limit, Collection<String> includeFields);
+
+    /**
+     * Patients with any of the given ids, in a single {@code $in} query. Order is unspecified and
+     * unknown ids are simply absent.
+     */
+    List<Patient> findByIds(Collection<String> ids, Collection<String> includeFields);
+
+    /**
+     * Keyset page: up to {@code limit} patients ordered by {@code sortKey} then {@code _id},
+     * strictly after {@code after} (or from the start when it is null), limited to patients updated at or
+     * after {@code modifiedSince} when it is non-null. Never counts.
+     */
+    List<Patient> findPageAfter(PatientCursor after, PatientSortKey sortKey, LocalDateTime modifiedSince, int limit,
+                                Collection<String> includeFields);
+
+    /**
+     * Patients sharing any of the given blocking keys, read from the {@code duplicate_keys} index.
+     * Each key gets an equal share of {@code limit}, so one crowded key cannot crowd out the others.
+     */
+    List<Patient> findByDuplicateKeys(Collection<String> keys, int limit, Collection<String> includeFields);
+
+    /**
+     * Blocking keys shared by more than {@code maxBlockSize} patients, i.e. the blocks
+     * {@link #streamDuplicateBlocks} leaves out.
+     */
+    Set<String> findOversizedDuplicateKeys(int maxBlockSize);
+
+    /**
+     * Every blocking key shared by two to {@code maxBlockSize} patients, with those patients reduced
+     * to {@code includeFields}. Grouping runs in MongoDB (spilling to disk if needed), so the service
+     * never holds more than one cursor batch of blocks. Callers must close the stream.
+     */
+    Stream<DuplicateBlock> streamDuplicateBlocks(int maxBlockSize, Collection<String> includeFields, int cursorBatchSize);
+
+    /**
+     * Offset page with a total count, reading only {@code includeFields} (all fields when null).
+     */
+    Page<Patient> findPage(Pageable pageable, Collection<String> includeFields);
+
+    /**
+     * Inserts the batch with a single unordered bulk write. Returns the number inserted; per-document
+     * failures surface as a {@link org.springframework.data.mongodb.BulkOperationException}.
+     */
+    int insertUnordered(List<Patient> patients);
+
+    /**
+     * Cursor-backed stream in {@code updated_at} then {@code _id} order, optionally filtered by status
+     * and an {@code updated_at} range and resumed after the {@link PatientSortKey#UPDATED_AT} position
+     * {@code after}. Callers must close the stream.
+     */
+    Stream<Patient> streamForExport(String status, LocalDateTime updatedFrom, LocalDateTime updatedTo,
+                                    PatientCursor after, int cursorBatchSize);
+
+    /**
+     * Applies {@code $set} of the given document fields plus a fresh {@code updated_at} and a version
+     * increment in one findAndModify, rebuilding the search and duplicate keys a changed name, email
+     * or phone affects in the same write. Matches on {@code expectedVersion} too when it is non-null.
+     * Returns the updated patient, or null when nothing matched.
+     */
+    Patient patchById(String id, Long expectedVersion, Map<String, Object> fields);
+
+    /**
+     * Writes every field of {@code patient} as {@code save} would, but as an update rather than a
+     * document replacement, so stored fields the entity no longer maps are left alone. Matches on the
+     * patient's version and increments it; returns the updated patient, or null when that version is gone.
+     */
+    Patient replace(Patient patient);
+
+    /**
+     * Deletes in a single round-trip, matching on {@code expectedVersion} too when it is non-null.
+     * Returns the version the removed patient was at, or null when nothing matched.
+     */
+    Long removeById(String id, Long expectedVersion);
+
+    /**
+     * Unsets the {@code medical_history} field the entity no longer maps, bumping the version and
+     * {@code updated_at}, but only while it still holds {@code history}. Returns the updated patient,
+     * or null when the field is gone or has changed.
+     */
+    Patient removeMedicalHistory(String id, Object history);
+
+    /**
+     * Sets {@code version} to 0 on documents written before optimistic locking existed.
+     */
+    long backfillVersions();
+
+    /**
+     * Fills in search and duplicate-detection keys on documents written before those keys existed.
+     * Returns the number updated.
+     */
+    long backfillSearchKeys(int batchSize);
+}
@@ -0,0 +1,263 @@
+package com.healthcare.patient.repository;
+
+import com.healthcare.patient.duplicate.DuplicateBlock;
+import com.healthcare.patient.entity.Patient;
+import com.healthcare.patient.pagination.PatientCursor;
+import com.healthcare.patient.pagination.PatientSortKey;
+import com.healthcare.patient.search.PatientSearchKeysCallback;
+import org.bson.Document;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+public class PatientRepositoryImpl implements PatientRepositoryCustom {
+    private final MongoTemplate mongoTemplate;
+
+    public PatientRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<Patient> findByNameTokens(List<String> tokens, int limit, Collection<String> includeFields) {
+        Query query = new Query(Criteria.where("search_tokens").all(tokens))
+                .with(Sort.by(Sort.Order.asc("last_name"), Sort.Order.asc("first_name")))
+                .limit(limit);
+        return mongoTemplate.find(PatientQueries.project(query, includeFields), Patient.class);
+    }
+
+    @Override
+    public List<Patient> findByNameTokenPrefixes(List<String> prefixes, int limit, Collection<String> includeFields) {
+        List<Criteria> perToken = new ArrayList<>();
+        for (String prefix : prefixes) {
+            perToken.add(Criteria.where("search_tokens").regex(PatientQueries.prefixPattern(prefix)));
+        }
+        Query query = new Query(new Criteria().andOperator(perToken)).limit(limit);
+        return mongoTemplate.find(PatientQueries.project(query, includeFields), Patient.class);
+    }
+
+    @Override
+    public List<Patient> findByAnyNameTokenPrefix(List<String> prefixes, int limit, Collection<String> includeFields) {
+        List<Pattern> patterns = new ArrayList<>(prefixes.size());
+        for (String prefix : prefixes) {
+            patterns.add(PatientQueries.prefixPattern(prefix));
+        }
+        Query query = new Query(Criteria.where("search_tokens").in(patterns)).limit(limit);
+        return mongoTemplate.find(PatientQueries.project(query, includeFields), Patient.class);
+    }
+
+    @Override
+    public List<Patient> findByEmailPrefix(String normalizedEmailPrefix, int limit, Collection<String> includeFields) {
+        Query query = new Query(Criteria.where("email_normalized").regex(PatientQueries.prefixPattern(normalizedEmailPrefix)))
+                .with(Sort.by(Sort.Order.asc("email_normalized")))
+                .limit(limit);
+        return mongoTemplate.find(PatientQueries.project(query, includeFields), Patient.class);
+    }
+
+    @Override
+    public List<Patient> findByPhonePrefix(String phoneDigitsPrefix, int limit, Collection<String> includeFields) {
+        Query query = new Query(Criteria.where("phone_normalized").regex(PatientQueries.prefixPattern(phoneDigitsPrefix)))
+                .with(Sort.by(Sort.Order.asc("phone_normalized")))
+                .limit(limit);
+        return mongoTemplate.find(PatientQueries.project(query, includeFields), Patient.class);
+    }
+
+    @Override
+    public List<Patient> findByIds(Collection<String> ids, Collection<String> includeFields) {
+        if (ids.isEmpty()) return List.of();
+        return mongoTemplate.find(PatientQueries.byIds(ids, includeFields), Patient.class);
+    }
+
+    @Override
+    public List<Patient> findPageAfter(PatientCursor after, PatientSortKey sortKey, LocalDateTime modifiedSince, int limit,
+                                       Collection<String> includeFields) {
+        return mongoTemplate.find(PatientQueries.pageAfter(after, sortKey, modifiedSince, limit, includeFields), Patient.class);
+    }
+
+    @Override
+    public List<Patient> findByDuplicateKeys(Collection<String> keys, int limit, Collection<String> includeFields) {
+        if (keys.isEmpty()) return List.of();
+        // A limit on one $in would return whichever documents the index yields first, possibly all
+        // from a single crowded key; one query per key bounds each key instead.
+        int perKey = Math.max(1, limit / keys.size());
+        Map<String, Patient> found = new LinkedHashMap<>();
+        for (String key : keys) {
+            Query query = new Query(Criteria.where("duplicate_keys").is(key)).limit(perKey);
+            for (Patient patient : mongoTemplate.find(PatientQueries.project(query, includeFields), Patient.class)) {
+                found.putIfAbsent(patient.getId(), patient);
+            }
+        }
+        return new ArrayList<>(found.values());
+    }
+
+    @Override
+    public Set<String> findOversizedDuplicateKeys(int maxBlockSize) {
+        List<AggregationOperation> stages = List.of(
+                stage("$unwind", "$duplicate_keys"),
+                stage("$group", new Document("_id", "$duplicate_keys").append("size", new Document("$sum", 1))),
+                stage("$match", new Document("size", new Document("$gt", maxBlockSize))));
+        Aggregation aggregation = Aggregation.newAggregation(stages)
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+        Set<String> keys = new HashSet<>();
+        for (Document block : mongoTemplate.aggregate(aggregation, "patients", Document.class)) {
+            keys.add(block.getString("_id"));
+        }
+        return keys;
+    }
+
+    @Override
+    public Stream<DuplicateBlock> streamDuplicateBlocks(int maxBlockSize, Collection<String> includeFields, int cursorBatchSize) {
+        Document member = new Document();
+        for (String field : includeFields) member.append(field, "$" + field);
+        // $unwind drops patients without keys; $firstN keeps an oversized block (a shared clinic phone,
+        // say) from growing past the document size limit before it is filtered out.
+        List<AggregationOperation> stages = List.of(
+                stage("$project", new Document("member", member).append("block", "$duplicate_keys")),
+                stage("$unwind", "$block"),
+                stage("$group", new Document("_id", "$block")
+                        .append("size", new Document("$sum", 1))
+                        .append("members", new Document("$firstN",
+                                new Document("input", "$member").append("n", maxBlockSize + 1)))),
+                stage("$match", new Document("size", new Document("$gt", 1).append("$lte", maxBlockSize))));
+        Aggregation aggregation = Aggregation.newAggregation(stages)
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).cursorBatchSize(cursorBatchSize).build());
+        return mongoTemplate.aggregateStream(aggregation, "patients", Document.class).map(block -> {
+            List<Patient> members = new ArrayList<>();
+            for (Document doc : block.getList("members", Document.class)) {
+                members.add(mongoTemplate.getConverter().read(Patient.class, doc));
+            }
+            return new DuplicateBlock(block.getString("_id"), members);
+        });
+    }
+
+    private static AggregationOperation stage(String operator, Object spec) {
+        return context -> new Document(operator, spec);
+    }
+
+    @Override
+    public int insertUnordered(List<Patient> patients) {
+        if (patients.isEmpty()) return 0;
+        return mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Patient.class)
+                .insert(patients)
+                .execute()
+                .getInsertedCount();
+    }
+
+    @Override
+    public Page<Patient> findPage(Pageable pageable, Collection<String> includeFields) {
+        Query query = PatientQueries.project(new Query().with(pageable), includeFields);
+        List<Patient> content = mongoTemplate.find(query, Patient.class);
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> mongoTemplate.count(new Query(), Patient.class));
+    }
+
+    @Override
+    public Stream<Patient> streamForExport(String status, LocalDateTime updatedFrom, LocalDateTime updatedTo,
+                                           PatientCursor after, int cursorBatchSize) {
+        // Filter, order and resume position all use updated_at_id, so the export is one index range scan.
+        Query query = new Query()
+                .with(Sort.by(Sort.Order.asc("updated_at"), Sort.Order.asc("_id")))
+                .cursorBatchSize(cursorBatchSize);
+        if (status != null) {
+            query.addCriteria(Criteria.where("status").is(status));
+        }
+        if (updatedFrom != null || updatedTo != null) {
+            Criteria updated = Criteria.where("updated_at");
+            if (updatedFrom != null) updated.gte(updatedFrom);
+            if (updatedTo != null) updated.lt(updatedTo);
+            query.addCriteria(updated);
+        }
+        if (after != null) {
+            query.addCriteria(PatientQueries.seekPast("updated_at", after.getUpdatedAt(), after.getId()));
+        }
+        query.fields().exclude("search_tokens", "first_name_tokens", "last_name_tokens", "email_normalized", "phone_normalized",
+                "medical_history"); // unmapped, and until removed possibly the largest field
+        return mongoTemplate.stream(query, Patient.class);
+    }
+
+    @Override
+    public Patient patchById(String id, Long expectedVersion, Map<String, Object> fields) {
+        return mongoTemplate.findAndModify(PatientQueries.byIdAndVersion(id, expectedVersion), PatientQueries.patch(fields, mongoTemplate.getConverter()),
+                FindAndModifyOptions.options().returnNew(true), Patient.class);
+    }
+
+    @Override
+    public Patient replace(Patient patient) {
+        return mongoTemplate.findAndModify(PatientQueries.byIdAndVersion(patient.getId(), patient.getVersion()),
+                PatientQueries.replacement(patient, mongoTemplate.getConverter()), FindAndModifyOptions.options().returnNew(true), Patient.class);
+    }
+
+    @Override
+    public Long removeById(String id, Long expectedVersion) {
+        Patient removed = mongoTemplate.findAndRemove(PatientQueries.removedVersion(PatientQueries.byIdAndVersion(id, expectedVersion)), Patient.class);
+        return removed == null ? null : PatientQueries.versionOf(removed);
+    }
+
+    @Override
+    public Patient removeMedicalHistory(String id, Object history) {
+        Query query = Query.query(new Criteria().andOperator(Criteria.where("_id").is(PatientQueries.idValue(id)),
+                Criteria.where("medical_history").exists(true), Criteria.where("medical_history").is(history)));
+        Update update = new Update().unset("medical_history").inc("version", 1).set("updated_at", LocalDateTime.now());
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), Patient.class);
+    }
+
+    @Override
+    public long backfillVersions() {
+        return mongoTemplate.updateMulti(Query.query(Criteria.where("version").exists(false)),
+                new Update().set("version", 0L), Patient.class).getModifiedCount();
+    }
+
+    @Override
+    public long backfillSearchKeys(int batchSize) {
+        Query missing = new Query(new Criteria().orOperator(Criteria.where("search_tokens").exists(false),
+                Criteria.where("first_name_tokens").exists(false), Criteria.where("duplicate_keys").exists(false)));
+        missing.fields().include("first_name", "last_name", "date_of_birth", "email", "phone_number");
+        long updated = 0;
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Patient.class);
+        int pending = 0;
+        try (Stream<Patient> stream = mongoTemplate.stream(missing, Patient.class)) {
+            Iterator<Patient> cursor = stream.iterator();
+            while (cursor.hasNext()) {
+                Patient patient = cursor.next();
+                PatientSearchKeysCallback.applyTo(patient);
+                bulk.updateOne(Query.query(Criteria.where("_id").is(patient.getId())), new Update()
+                        .set("search_tokens", patient.getSearchTokens())
+                        .set("first_name_tokens", patient.getFirstNameTokens())
+                        .set("last_name_tokens", patient.getLastNameTokens())
+                        .set("email_normalized", patient.getEmailNormalized())
+                        .set("phone_normalized", patient.getPhoneNormalized())
+                        .set("duplicate_keys", patient.getDuplicateKeys()));
+                if (++pending == batchSize) {
+                    updated += bulk.execute().getModifiedCount();
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Patient.class);
+                    pending = 0;
+                }
+            }
+        }
+        if (pending > 0) {
+            updated += bulk.execute().getModifiedCount();
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,9 @@
+package com.healthcare.patient.repository;
+
+import com.healthcare.patient.entity.Patient;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReactivePatientRepository extends ReactiveMongoRepository<Patient, String>, ReactivePatientRepositoryCustom {
+}
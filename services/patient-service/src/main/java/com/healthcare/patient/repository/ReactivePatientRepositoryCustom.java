@@ -0,0 +1,32 @@
+package com.healthcare.patient.repository;
+
+import com.healthcare.patient.entity.Patient;
+import com.healthcare.patient.pagination.PatientCursor;
+import com.healthcare.patient.pagination.PatientSortKey;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Non-blocking versions of the {@link PatientRepositoryCustom} operations the reactive stack serves.
+ */
+public interface ReactivePatientRepositoryCustom {
+    Flux<Patient> findPageAfter(PatientCursor after, PatientSortKey sortKey, LocalDateTime modifiedSince, int limit,
+                                Collection<String> includeFields);
+
+    Mono<Patient> patchById(String id, Long expectedVersion, Map<String, Object> fields);
+
+    /**
+     * Non-blocking {@link PatientRepositoryCustom#replace}; empty when the patient's version is gone.
+     */
+    Mono<Patient> replace(Patient patient);
+
+    /**
+     * Emits the version the removed patient was at; empty when nothing matched (or, with a non-null
+     * {@code expectedVersion}, when the stored version differs).
+     */
+    Mono<Long> removeById(String id, Long expectedVersion);
+}
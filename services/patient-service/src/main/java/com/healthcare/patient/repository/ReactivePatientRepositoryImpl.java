@@ -0,0 +1,45 @@
+package com.healthcare.patient.repository;
+
+import com.healthcare.patient.entity.Patient;
+import com.healthcare.patient.pagination.PatientCursor;
+import com.healthcare.patient.pagination.PatientSortKey;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+
+public class ReactivePatientRepositoryImpl implements ReactivePatientRepositoryCustom {
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public ReactivePatientRepositoryImpl(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Flux<Patient> findPageAfter(PatientCursor after, PatientSortKey sortKey, LocalDateTime modifiedSince, int limit,
+                                       Collection<String> includeFields) {
+        return mongoTemplate.find(PatientQueries.pageAfter(after, sortKey, modifiedSince, limit, includeFields), Patient.class);
+    }
+
+    @Override
+    public Mono<Patient> patchById(String id, Long expectedVersion, Map<String, Object> fields) {
+        return mongoTemplate.findAndModify(PatientQueries.byIdAndVersion(id, expectedVersion), PatientQueries.patch(fields, mongoTemplate.getConverter()),
+                FindAndModifyOptions.options().returnNew(true), Patient.class);
+    }
+
+    @Override
+    public Mono<Patient> replace(Patient patient) {
+        return mongoTemplate.findAndModify(PatientQueries.byIdAndVersion(patient.getId(), patient.getVersion()),
+                PatientQueries.replacement(patient, mongoTemplate.getConverter()), FindAndModifyOptions.options().returnNew(true), Patient.class);
+    }
+
+    @Override
+    public Mono<Long> removeById(String id, Long expectedVersion) {
+        return mongoTemplate.findAndRemove(PatientQueries.removedVersion(PatientQueries.byIdAndVersion(id, expectedVersion)), Patient.class)
+                .map(PatientQueries::versionOf);
+    }
+}
@@ -0,0 +1,117 @@
+package com.healthcare.patient.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Normalization rules shared by the stored search keys on {@code Patient} and the
+ * incoming search queries, so both sides always agree on what a token looks like.
+ */
+public final class PatientSearchKeys {
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern NON_DIGIT = Pattern.compile("\\D+");
+
+    private PatientSearchKeys() {
+    }
+
+    public static String normalize(String value) {
+        if (value == null) return "";
+        String decomposed = Normalizer.normalize(value.trim(), Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    public static List<String> tokenize(String value) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : NON_ALPHANUMERIC.split(normalize(value))) {
+            if (!token.isEmpty()) tokens.add(token);
+        }
+        return tokens;
+    }
+
+    public static List<String> nameTokens(String firstName, String lastName) {
+        Set<String> tokens = new LinkedHashSet<>(tokenize(firstName));
+        tokens.addAll(tokenize(lastName));
+        return new ArrayList<>(tokens);
+    }
+
+    public static String normalizeEmail(String email) {
+        if (email == null || email.isBlank()) return null;
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public static String normalizePhone(String phoneNumber) {
+        if (phoneNumber == null) return null;
+        String digits = NON_DIGIT.matcher(phoneNumber).replaceAll("");
+        return digits.isEmpty() ? null : digits;
+    }
+
+    public static boolean looksLikeEmail(String query) {
+        return query.indexOf('@') >= 0;
+    }
+
+    public static boolean looksLikePhone(String query) {
+        int digits = 0;
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (Character.isLetter(c)) return false;
+            if (Character.isDigit(c)) digits++;
+        }
+        return digits >= 3;
+    }
+
+    /**
+     * Edit distance counting insertions, deletions, substitutions and adjacent transpositions
+     * (optimal string alignment). Gives up once {@code max} is exceeded, returning {@code max + 1}.
+     */
+    public static int boundedEditDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) return max + 1;
+        int[] beforePrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) previous[j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    current[j] = Math.min(current[j], beforePrevious[j - 2] + 1);
+                }
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) return max + 1;
+            int[] recycled = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    public static int allowedTypos(String token) {
+        if (token.length() <= 3) return 0;
+        return token.length() <= 6 ? 1 : 2;
+    }
+
+    /**
+     * Index prefixes used to fetch typo-tolerant candidates for a token: the first two characters,
+     * plus the first and third characters to cover a swapped or dropped second character.
+     */
+    public static List<String> fuzzyPrefixes(String token) {
+        List<String> prefixes = new ArrayList<>(2);
+        if (token.length() < 2) {
+            prefixes.add(token);
+            return prefixes;
+        }
+        prefixes.add(token.substring(0, 2));
+        if (token.length() >= 3) prefixes.add("" + token.charAt(0) + token.charAt(2));
+        return prefixes;
+    }
+}
@@ -0,0 +1,30 @@
+package com.healthcare.patient.search;
+
+import com.healthcare.patient.duplicate.PatientDuplicateKeys;
+import com.healthcare.patient.entity.Patient;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+import org.springframework.stereotype.Component;
+
+/**
+ * Recomputes the normalized search keys and duplicate-detection blocking keys every time a
+ * {@link Patient} is written through the repository, so the indexes never drift from the name,
+ * birth date, email and phone fields.
+ */
+@Component
+public class PatientSearchKeysCallback implements BeforeConvertCallback<Patient> {
+
+    @Override
+    public Patient onBeforeConvert(Patient patient, String collection) {
+        applyTo(patient);
+        return patient;
+    }
+
+    public static void applyTo(Patient patient) {
+        patient.setFirstNameTokens(PatientSearchKeys.nameTokens(patient.getFirstName(), null));
+        patient.setLastNameTokens(PatientSearchKeys.nameTokens(null, patient.getLastName()));
+        patient.setSearchTokens(PatientSearchKeys.nameTokens(patient.getFirstName(), patient.getLastName()));
+        patient.setEmailNormalized(PatientSearchKeys.normalizeEmail(patient.getEmail()));
+        patient.setPhoneNormalized(PatientSearchKeys.normalizePhone(patient.getPhoneNumber()));
+        patient.setDuplicateKeys(PatientDuplicateKeys.of(patient));
+    }
+}
@@ -0,0 +1,82 @@
+package com.healthcare.patient.search;
+
+import com.healthcare.patient.entity.Patient;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Scores candidate patients against a tokenized query. Exact token matches beat prefix
+ * matches, which beat typo-tolerant matches; a candidate must match every query token.
+ */
+public final class PatientSearchRanker {
+    private static final double EXACT = 3.0;
+    private static final double PREFIX = 2.0;
+    private static final double TYPO = 1.0;
+
+    private PatientSearchRanker() {
+    }
+
+    public static List<Patient> rankByName(List<Patient> candidates, List<String> queryTokens, boolean fuzzy) {
+        List<Scored> scored = new ArrayList<>(candidates.size());
+        for (Patient patient : candidates) {
+            double score = nameScore(patient.getSearchTokens(), queryTokens, fuzzy);
+            if (score > 0) scored.add(new Scored(patient, score));
+        }
+        return sorted(scored);
+    }
+
+    public static List<Patient> rankByKey(List<Patient> candidates, String normalizedQuery, boolean email) {
+        List<Scored> scored = new ArrayList<>(candidates.size());
+        for (Patient patient : candidates) {
+            String key = email ? patient.getEmailNormalized() : patient.getPhoneNormalized();
+            if (key == null) continue;
+            scored.add(new Scored(patient, key.equals(normalizedQuery) ? EXACT : PREFIX));
+        }
+        return sorted(scored);
+    }
+
+    private static double nameScore(List<String> patientTokens, List<String> queryTokens, boolean fuzzy) {
+        if (patientTokens == null || patientTokens.isEmpty()) return 0;
+        double total = 0;
+        for (String queryToken : queryTokens) {
+            double best = 0;
+            for (String token : patientTokens) {
+                best = Math.max(best, tokenScore(token, queryToken, fuzzy));
+                if (best == EXACT) break;
+            }
+            if (best == 0) return 0;
+            total += best;
+        }
+        return total;
+    }
+
+    private static double tokenScore(String token, String queryToken, boolean fuzzy) {
+        if (token.equals(queryToken)) return EXACT;
+        if (token.startsWith(queryToken)) return PREFIX;
+        if (!fuzzy) return 0;
+        int allowed = PatientSearchKeys.allowedTypos(queryToken);
+        if (allowed == 0) return 0;
+        // Compare against the whole token and against a same-length prefix, so a typo in a
+        // partially typed name still matches while the user is typing.
+        int whole = PatientSearchKeys.boundedEditDistance(token, queryToken, allowed);
+        int partial = token.length() > queryToken.length()
+                ? PatientSearchKeys.boundedEditDistance(token.substring(0, queryToken.length()), queryToken, allowed)
+                : whole;
+        int distance = Math.min(whole, partial);
+        return distance <= allowed ? TYPO / distance : 0;
+    }
+
+    private static List<Patient> sorted(List<Scored> scored) {
+        scored.sort(Comparator.comparingDouble(Scored::score).reversed()
+                .thenComparing(s -> s.patient().getLastName(), Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+                .thenComparing(s -> s.patient().getFirstName(), Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)));
+        List<Patient> patients = new ArrayList<>(scored.size());
+        for (Scored s : scored) patients.add(s.patient());
+        return patients;
+    }
+
+    private record Scored(Patient patient, double score) {
+    }
+}
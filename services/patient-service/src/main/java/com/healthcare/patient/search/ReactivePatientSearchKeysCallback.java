@@ -0,0 +1,20 @@
+package com.healthcare.patient.search;
+
+import com.healthcare.patient.entity.Patient;
+import org.reactivestreams.Publisher;
+import org.springframework.data.mongodb.core.mapping.event.ReactiveBeforeConvertCallback;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@link PatientSearchKeysCallback} for writes through the reactive repository.
+ */
+@Component
+public class ReactivePatientSearchKeysCallback implements ReactiveBeforeConvertCallback<Patient> {
+
+    @Override
+    public Publisher<Patient> onBeforeConvert(Patient patient, String collection) {
+        PatientSearchKeysCallback.applyTo(patient);
+        return Mono.just(patient);
+    }
+}
@@ -0,0 +1,149 @@
+package com.healthcare.patient.service;
+
+import com.healthcare.patient.cache.PatientCache;
+import com.healthcare.patient.entity.Patient;
+import com.healthcare.patient.outbox.PatientChangeType;
+import com.healthcare.patient.outbox.PatientOutbox;
+import com.healthcare.patient.repository.PatientRepository;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Removes the {@code medical_history} field that patients written by older releases still carry,
+ * once medical-records-service has copied it into its {@code clinical_documents} store. The entity
+ * no longer maps the field, so it is unset here, each patient in its own transaction with an
+ * {@code UPDATED} change event, and evicted from the caches. A history with no document of the same
+ * content yet is left in place and retried on the next run.
+ */
+@Component
+@ConditionalOnProperty(name = "patient.medical-history.removal.enabled", havingValue = "true", matchIfMissing = true)
+public class MedicalHistoryRemoval {
+    private static final Logger log = LoggerFactory.getLogger(MedicalHistoryRemoval.class);
+    private static final String FIELD = "medical_history";
+
+    private final PatientRepository patientRepository;
+    private final PatientService patientService;
+    private final PatientOutbox patientOutbox;
+    private final PatientCache patientCache;
+    private final MongoTemplate mongoTemplate;
+    private final String recordsDatabase;
+    private final int batchSize;
+    private final ReentrantLock running = new ReentrantLock();
+
+    public MedicalHistoryRemoval(PatientRepository patientRepository,
+                                 PatientService patientService,
+                                 PatientOutbox patientOutbox,
+                                 PatientCache patientCache,
+                                 MongoTemplate mongoTemplate,
+                                 @Value("${patient.medical-history.records-database:records_db}") String recordsDatabase,
+                                 @Value("${patient.medical-history.removal.batch-size:500}") int batchSize) {
+        this.patientRepository = patientRepository;
+        this.patientService = patientService;
+        this.patientOutbox = patientOutbox;
+        this.patientCache = patientCache;
+        this.mongoTemplate = mongoTemplate;
+        this.recordsDatabase = recordsDatabase;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(initialDelayString = "${patient.medical-history.removal.initial-delay-ms:60000}",
+            fixedDelayString = "${patient.medical-history.removal.interval-ms:3600000}")
+    public void removeCopied() {
+        if (!running.tryLock()) return;
+        try {
+            run();
+        } finally {
+            running.unlock();
+        }
+    }
+
+    private void run() {
+        MongoCollection<Document> documents = mongoTemplate.getMongoDatabaseFactory()
+                .getMongoDatabase(recordsDatabase).getCollection("clinical_documents");
+        long removed = 0;
+        long pending = 0;
+        Object after = null;
+        while (true) {
+            // Page by _id rather than keeping one cursor open across the per-patient transactions.
+            Criteria criteria = Criteria.where(FIELD).exists(true);
+            if (after != null) criteria = criteria.and("_id").gt(after);
+            Query query = Query.query(criteria).with(Sort.by("_id")).limit(batchSize);
+            query.fields().include(FIELD);
+            List<Document> batch = mongoTemplate.find(query, Document.class, "patients");
+            if (batch.isEmpty()) break;
+            Map<String, Set<String>> copied = copiedHashes(documents, batch);
+            for (Document patient : batch) {
+                String id = patient.get("_id").toString();
+                Object history = patient.get(FIELD);
+                boolean empty = !(history instanceof String text) || text.isEmpty();
+                if (!empty && !copied.getOrDefault(id, Set.of()).contains(sha256((String) history))) {
+                    pending++;
+                } else if (remove(id, history)) {
+                    removed++;
+                }
+            }
+            after = batch.get(batch.size() - 1).get("_id");
+        }
+        if (removed > 0 || pending > 0) {
+            log.info("Removed medical_history from {} patients; {} not yet copied to {}", removed, pending, recordsDatabase);
+        }
+    }
+
+    private Map<String, Set<String>> copiedHashes(MongoCollection<Document> documents, List<Document> batch) {
+        List<String> ids = new ArrayList<>(batch.size());
+        for (Document patient : batch) ids.add(patient.get("_id").toString());
+        Map<String, Set<String>> copied = new HashMap<>();
+        for (Document document : documents.find(Filters.and(Filters.in("patient_id", ids), Filters.eq("kind", "MEDICAL_HISTORY")))
+                .projection(Projections.include("patient_id", "sha256"))) {
+            copied.computeIfAbsent(document.getString("patient_id"), key -> new HashSet<>()).add(document.getString("sha256"));
+        }
+        return copied;
+    }
+
+    // Unsets only while the field still holds what was checked; one changed since, say by a replica of an
+    // older release during a rollout, waits for the next run.
+    private boolean remove(String id, Object history) {
+        Patient updated = patientOutbox.write(() -> {
+            Patient patient = patientRepository.removeMedicalHistory(id, history);
+            if (patient != null) {
+                patientOutbox.append(PatientChangeType.UPDATED, id, patient.getVersion(), patientService.convertToResponse(patient));
+            }
+            return patient;
+        });
+        if (updated == null) return false;
+        patientCache.invalidate(id, updated.getVersion());
+        return true;
+    }
+
+    private static String sha256(String text) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.healthcare.patient.service;
+
+import com.healthcare.patient.repository.PatientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Brings patients written by older releases up to the current document shape: search keys and
+ * the optimistic-locking version. Idempotent: only documents missing those fields are touched.
+ */
+@Component
+@ConditionalOnProperty(name = "patient.backfill.on-startup", havingValue = "true", matchIfMissing = true)
+public class PatientBackfill {
+    private static final Logger log = LoggerFactory.getLogger(PatientBackfill.class);
+
+    private final PatientRepository patientRepository;
+    private final int batchSize;
+
+    public PatientBackfill(PatientRepository patientRepository,
+                           @Value("${patient.backfill.batch-size:1000}") int batchSize) {
+        this.patientRepository = patientRepository;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        long versioned = patientRepository.backfillVersions();
+        if (versioned > 0) {
+            log.info("Initialized version on {} patients", versioned);
+        }
+        long indexed = patientRepository.backfillSearchKeys(batchSize);
+        if (indexed > 0) {
+            log.info("Backfilled search keys on {} patients", indexed);
+        }
+    }
+}
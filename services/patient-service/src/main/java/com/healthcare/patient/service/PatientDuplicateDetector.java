@@ -0,0 +1,149 @@
+package com.healthcare.patient.service;
+
+import com.healthcare.patient.dto.PatientDuplicatePair;
+import com.healthcare.patient.duplicate.DuplicateBlock;
+import com.healthcare.patient.duplicate.PatientMatchScore;
+import com.healthcare.patient.duplicate.PatientMatchScorer;
+import com.healthcare.patient.entity.Patient;
+import com.healthcare.patient.repository.PatientRepository;
+import com.healthcare.patient.search.PatientSearchKeysCallback;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Finds probable duplicate registrations by scoring only patients that share a blocking key
+ * (see {@code PatientDuplicateKeys}). A single check reads at most {@code patient.duplicates.max-candidates}
+ * documents from the {@code duplicate_keys} index; the batch scan visits each block once and scores
+ * the blocks in parallel, so neither ever compares all pairs of patients.
+ */
+@Component
+public class PatientDuplicateDetector {
+    static final Set<String> SCORING_FIELDS = Set.of("_id", "first_name", "last_name", "date_of_birth", "gender",
+            "status", "email_normalized", "phone_normalized", "duplicate_keys");
+    private static final int SCAN_CHUNK_BLOCKS = 256;
+
+    private final PatientRepository patientRepository;
+    private final int maxCandidates;
+    private final double minScore;
+    private final double rejectScore;
+    private final int scanMaxBlockSize;
+    private final int scanParallelism;
+    private final int scanCursorBatchSize;
+
+    public PatientDuplicateDetector(PatientRepository patientRepository,
+                                    @Value("${patient.duplicates.max-candidates:100}") int maxCandidates,
+                                    @Value("${patient.duplicates.min-score:0.45}") double minScore,
+                                    @Value("${patient.duplicates.reject-score:1.01}") double rejectScore,
+                                    @Value("${patient.duplicates.scan.max-block-size:1000}") int scanMaxBlockSize,
+                                    @Value("${patient.duplicates.scan.parallelism:0}") int scanParallelism,
+                                    @Value("${patient.duplicates.scan.cursor-batch-size:100}") int scanCursorBatchSize) {
+        this.patientRepository = patientRepository;
+        this.maxCandidates = maxCandidates;
+        this.minScore = minScore;
+        this.rejectScore = rejectScore;
+        this.scanMaxBlockSize = scanMaxBlockSize;
+        this.scanParallelism = scanParallelism > 0 ? scanParallelism : Runtime.getRuntime().availableProcessors();
+        this.scanCursorBatchSize = scanCursorBatchSize;
+    }
+
+    /**
+     * Existing patients scoring at least {@code patient.duplicates.min-score} against {@code probe},
+     * best match first. The probe needs no id; its search and blocking keys are derived here.
+     */
+    List<ScoredPatient> findMatches(Patient probe) {
+        PatientSearchKeysCallback.applyTo(probe);
+        List<ScoredPatient> matches = new ArrayList<>();
+        for (Patient candidate : patientRepository.findByDuplicateKeys(probe.getDuplicateKeys(), maxCandidates, SCORING_FIELDS)) {
+            PatientMatchScore score = PatientMatchScorer.score(probe, candidate);
+            if (score.score() >= minScore) matches.add(new ScoredPatient(candidate, score));
+        }
+        matches.sort(Comparator.comparingDouble((ScoredPatient match) -> match.score().score()).reversed());
+        return matches;
+    }
+
+    /**
+     * Whether registrations are checked at all: scores never exceed 1, so a higher reject score
+     * leaves the check advisory (clients ask {@code POST /duplicates} first) and saves its query.
+     */
+    boolean rejectsAny() {
+        return rejectScore <= 1;
+    }
+
+    /**
+     * Whether a match is strong enough to refuse a new registration without explicit confirmation.
+     */
+    boolean rejects(ScoredPatient match) {
+        return match.score().score() >= rejectScore;
+    }
+
+    /**
+     * Scores every block of the collection and hands each pair at or above {@code threshold} (the
+     * configured minimum when null) to {@code sink}, on the calling thread. Blocks are read in chunks
+     * and each chunk is scored across {@code patient.duplicates.scan.parallelism} workers.
+     * Returns the number of pairs reported.
+     */
+    public long scan(Double threshold, Consumer<PatientDuplicatePair> sink) {
+        double cutoff = threshold != null ? threshold : minScore;
+        // A pair sharing several keys is scored once, in the block of its smallest shared key that the
+        // scan keeps; an oversized block (a placeholder email, say) must not be that owner.
+        Set<String> skipped = patientRepository.findOversizedDuplicateKeys(scanMaxBlockSize);
+        ForkJoinPool workers = new ForkJoinPool(scanParallelism);
+        try (Stream<DuplicateBlock> blocks = patientRepository.streamDuplicateBlocks(scanMaxBlockSize, SCORING_FIELDS, scanCursorBatchSize)) {
+            Iterator<DuplicateBlock> cursor = blocks.iterator();
+            List<DuplicateBlock> chunk = new ArrayList<>(SCAN_CHUNK_BLOCKS);
+            long reported = 0;
+            while (cursor.hasNext()) {
+                chunk.add(cursor.next());
+                if (chunk.size() == SCAN_CHUNK_BLOCKS || !cursor.hasNext()) {
+                    List<DuplicateBlock> scored = chunk;
+                    List<PatientDuplicatePair> pairs = workers.submit(() -> scored.parallelStream()
+                            .flatMap(block -> scoreBlock(block, cutoff, skipped).stream())
+                            .toList()).join();
+                    pairs.forEach(sink);
+                    reported += pairs.size();
+                    chunk = new ArrayList<>(SCAN_CHUNK_BLOCKS);
+                }
+            }
+            return reported;
+        } finally {
+            workers.shutdown();
+        }
+    }
+
+    private static List<PatientDuplicatePair> scoreBlock(DuplicateBlock block, double cutoff, Set<String> skipped) {
+        List<PatientDuplicatePair> pairs = new ArrayList<>();
+        List<Patient> members = block.members();
+        for (int i = 0; i < members.size(); i++) {
+            for (int j = i + 1; j < members.size(); j++) {
+                Patient a = members.get(i);
+                Patient b = members.get(j);
+                if (!block.key().equals(ownerKey(a.getDuplicateKeys(), b.getDuplicateKeys(), skipped))) continue;
+                PatientMatchScore score = PatientMatchScorer.score(a, b);
+                if (score.score() >= cutoff) {
+                    pairs.add(new PatientDuplicatePair(a.getId(), b.getId(), score.score(), score.matchedOn()));
+                }
+            }
+        }
+        return pairs;
+    }
+
+    private static String ownerKey(List<String> a, List<String> b, Set<String> skipped) {
+        String first = null;
+        for (String key : a) {
+            if (b.contains(key) && !skipped.contains(key) && (first == null || key.compareTo(first) < 0)) first = key;
+        }
+        return first;
+    }
+
+    record ScoredPatient(Patient patient, PatientMatchScore score) {
+    }
+}
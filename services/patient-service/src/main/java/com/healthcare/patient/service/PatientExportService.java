@@ -0,0 +1,175 @@
+package com.healthcare.patient.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.healthcare.patient.dto.AddressDto;
+import com.healthcare.patient.dto.EmergencyContactDto;
+import com.healthcare.patient.dto.PatientDuplicatePair;
+import com.healthcare.patient.dto.PatientResponse;
+import com.healthcare.patient.entity.Patient;
+import com.healthcare.patient.pagination.PatientCursor;
+import com.healthcare.patient.pagination.PatientSortKey;
+import com.healthcare.patient.repository.PatientRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes the patients collection straight from a MongoDB cursor to an output stream. Only one
+ * cursor batch and one write buffer are held at a time, so memory does not grow with the export.
+ *
+ * <p>Every export carries opaque {@link PatientCursor} tokens a client passes back as
+ * {@code checkpoint} to resume after the record it last received: NDJSON adds a
+ * {@code {"checkpoint":...}} line after each cursor batch and at the end, CSV a
+ * {@code checkpoint} column on every row.
+ */
+@Service
+public class PatientExportService {
+    public enum Format { NDJSON, CSV }
+
+    private static final String[] CSV_HEADER = {
+            "id", "first_name", "last_name", "date_of_birth", "gender", "email", "phone_number",
+            "address_street", "address_city", "address_state", "address_postal_code", "address_country",
+            "emergency_contact_name", "emergency_contact_relationship", "emergency_contact_phone_number",
+            "status", "created_at", "updated_at", "checkpoint"};
+
+    private final PatientService patientService;
+    private final PatientRepository patientRepository;
+    private final PatientDuplicateDetector duplicateDetector;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter recordWriter;
+    private final ObjectWriter pairWriter;
+    private final int cursorBatchSize;
+
+    public PatientExportService(PatientService patientService,
+                                PatientRepository patientRepository,
+                                PatientDuplicateDetector duplicateDetector,
+                                ObjectMapper objectMapper,
+                                @Value("${patient.export.cursor-batch-size:500}") int cursorBatchSize) {
+        this.patientService = patientService;
+        this.patientRepository = patientRepository;
+        this.duplicateDetector = duplicateDetector;
+        this.objectMapper = objectMapper;
+        // Let the generator buffer fill before hitting the socket instead of flushing every row.
+        this.recordWriter = objectMapper.writerFor(PatientResponse.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.pairWriter = objectMapper.writerFor(PatientDuplicatePair.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.cursorBatchSize = cursorBatchSize;
+    }
+
+    /**
+     * Exports patients in {@code updatedAt} then {@code id} order, starting right after {@code after}
+     * (a checkpoint a previous, interrupted export emitted) when it is given.
+     */
+    public long export(Format format, String status, LocalDateTime updatedFrom, LocalDateTime updatedTo,
+                       PatientCursor after, OutputStream out) throws IOException {
+        try (Stream<Patient> patients = patientRepository.streamForExport(status, updatedFrom, updatedTo, after, cursorBatchSize)) {
+            Iterator<Patient> cursor = patients.iterator();
+            return format == Format.CSV ? writeCsv(cursor, out) : writeNdjson(cursor, after, out);
+        }
+    }
+
+    /**
+     * Runs the batch duplicate scan and writes each reported pair as one NDJSON line as soon as its
+     * chunk of blocks has been scored.
+     */
+    public long exportDuplicatePairs(Double minScore, OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.setRootValueSeparator(null);
+        long written;
+        try {
+            written = duplicateDetector.scan(minScore, pair -> {
+                try {
+                    pairWriter.writeValue(generator, pair);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        generator.flush();
+        return written;
+    }
+
+    private long writeNdjson(Iterator<Patient> cursor, PatientCursor after, OutputStream out) throws IOException {
+        long written = 0;
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.setRootValueSeparator(null);
+        PatientCursor position = after;
+        while (cursor.hasNext()) {
+            Patient patient = cursor.next();
+            recordWriter.writeValue(generator, patientService.convertToResponse(patient));
+            generator.writeRaw('\n');
+            position = PatientCursor.after(patient, PatientSortKey.UPDATED_AT);
+            if (++written % cursorBatchSize == 0) writeCheckpoint(generator, position);
+        }
+        // An empty resumed export repeats the token it was given, so the client always has one to pass back.
+        if (position != null && (written == 0 || written % cursorBatchSize != 0)) {
+            writeCheckpoint(generator, position);
+        }
+        generator.flush();
+        return written;
+    }
+
+    private static void writeCheckpoint(JsonGenerator generator, PatientCursor position) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("checkpoint", position.encode());
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    private long writeCsv(Iterator<Patient> cursor, OutputStream out) throws IOException {
+        long written = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        writeCsvRow(writer, (Object[]) CSV_HEADER);
+        while (cursor.hasNext()) {
+            Patient patient = cursor.next();
+            PatientResponse p = patientService.convertToResponse(patient);
+            AddressDto a = p.getAddress() == null ? new AddressDto() : p.getAddress();
+            EmergencyContactDto c = p.getEmergencyContact() == null ? new EmergencyContactDto() : p.getEmergencyContact();
+            writeCsvRow(writer, p.getId(), p.getFirstName(), p.getLastName(), p.getDateOfBirth(), p.getGender(),
+                    p.getEmail(), p.getPhoneNumber(), a.getStreet(), a.getCity(), a.getState(), a.getPostalCode(),
+                    a.getCountry(), c.getName(), c.getRelationship(), c.getPhoneNumber(), p.getStatus(), p.getCreatedAt(), p.getUpdatedAt(),
+                    PatientCursor.after(patient, PatientSortKey.UPDATED_AT).encode());
+            written++;
+        }
+        writer.flush();
+        return written;
+    }
+
+    private static void writeCsvRow(Writer writer, Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) writer.write(',');
+            if (values[i] != null) writeCsvValue(writer, values[i].toString());
+        }
+        writer.write("\r\n");
+    }
+
+    private static void writeCsvValue(Writer writer, String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,198 @@
+package com.healthcare.patient.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.healthcare.patient.dto.BulkImportError;
+import com.healthcare.patient.dto.BulkImportResponse;
+import com.healthcare.patient.dto.PatientCreateRequest;
+import com.healthcare.patient.dto.PatientResponse;
+import com.healthcare.patient.entity.Patient;
+import com.healthcare.patient.outbox.PatientOutbox;
+import com.healthcare.patient.repository.PatientRepository;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Streams newline-delimited JSON patients into MongoDB. Lines are parsed and validated as they
+ * arrive and written in unordered bulk batches, each in one transaction with its change events; the
+ * next batch is not read until the previous one is committed, so memory is bounded by the batch size
+ * rather than the upload size.
+ */
+@Service
+public class PatientImportService {
+    private final PatientService patientService;
+    private final PatientRepository patientRepository;
+    private final PatientOutbox patientOutbox;
+    private final Validator validator;
+    private final ObjectReader reader;
+    private final int defaultBatchSize;
+    private final int maxBatchSize;
+    private final int maxReportedErrors;
+
+    public PatientImportService(PatientService patientService,
+                                PatientRepository patientRepository,
+                                PatientOutbox patientOutbox,
+                                Validator validator,
+                                ObjectMapper objectMapper,
+                                @Value("${patient.import.batch-size:1000}") int defaultBatchSize,
+                                @Value("${patient.import.max-batch-size:10000}") int maxBatchSize,
+                                @Value("${patient.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.patientService = patientService;
+        this.patientRepository = patientRepository;
+        this.patientOutbox = patientOutbox;
+        this.validator = validator;
+        this.reader = objectMapper.readerFor(PatientCreateRequest.class);
+        this.defaultBatchSize = defaultBatchSize;
+        this.maxBatchSize = maxBatchSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    public BulkImportResponse importNdjson(InputStream body, Integer requestedBatchSize) throws IOException {
+        ImportRun run = start(requestedBatchSize);
+        BufferedReader lines = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        String line;
+        while ((line = lines.readLine()) != null) {
+            run.line(line);
+        }
+        return run.finish();
+    }
+
+    /**
+     * Starts an import fed one line at a time, for callers that receive the upload as a stream of
+     * lines rather than an {@link InputStream}. Not thread-safe; lines must arrive in order.
+     */
+    public ImportRun start(Integer requestedBatchSize) {
+        int batchSize = requestedBatchSize == null ? defaultBatchSize : Math.max(1, Math.min(requestedBatchSize, maxBatchSize));
+        return new ImportRun(batchSize);
+    }
+
+    private Patient parse(String line, long lineNumber, ImportRun run) {
+        PatientCreateRequest request;
+        try {
+            request = reader.readValue(line);
+        } catch (JsonProcessingException e) {
+            run.fail(lineNumber, "Malformed JSON: " + e.getOriginalMessage());
+            return null;
+        }
+        Set<ConstraintViolation<PatientCreateRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            run.fail(lineNumber, violations.stream()
+                    .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+            return null;
+        }
+        Patient patient = patientService.newPatient(request);
+        patient.setId(new ObjectId().toHexString()); // known up front so change events can reference it
+        patient.setVersion(0L); // bulk inserts bypass the repository's version initialization
+        return patient;
+    }
+
+    private void flush(ImportRun run) {
+        List<Patient> batch = run.batch;
+        long[] batchLines = run.batchLines;
+        if (batch.isEmpty()) return;
+        // A write error aborts the whole transaction, so the batch is retried without the rejected
+        // documents until it commits; each retry drops at least one, and events only follow inserts.
+        List<Integer> pending = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) pending.add(i);
+        while (!pending.isEmpty()) {
+            List<Patient> attempt = new ArrayList<>(pending.size());
+            for (int i : pending) attempt.add(batch.get(i));
+            try {
+                run.inserted += patientOutbox.write(() -> {
+                    int inserted = patientRepository.insertUnordered(attempt);
+                    List<PatientResponse> created = new ArrayList<>(attempt.size());
+                    for (Patient patient : attempt) created.add(patientService.convertToResponse(patient));
+                    patientOutbox.appendAll(PatientOutbox.created(created));
+                    return inserted;
+                });
+                break;
+            } catch (BulkOperationException e) {
+                if (e.getErrors().isEmpty()) throw e; // nothing to drop, so a retry would fail the same way
+                List<Integer> rejected = new ArrayList<>();
+                for (BulkWriteError error : e.getErrors()) {
+                    int index = pending.get(error.getIndex());
+                    rejected.add(index);
+                    run.fail(batchLines[index], error.getMessage());
+                }
+                pending.removeAll(rejected);
+            }
+        }
+        batch.clear();
+    }
+
+    public final class ImportRun {
+        private final long started = System.nanoTime();
+        private final int batchSize;
+        private final List<Patient> batch;
+        private final long[] batchLines;
+        private long lineNumber;
+        private long received;
+        private long inserted;
+        private long failed;
+        private final List<BulkImportError> errors = new ArrayList<>();
+
+        private ImportRun(int batchSize) {
+            this.batchSize = batchSize;
+            this.batch = new ArrayList<>(batchSize);
+            this.batchLines = new long[batchSize];
+        }
+
+        /**
+         * Parses and validates one line, writing the batch once it is full.
+         */
+        public void line(String line) {
+            lineNumber++;
+            if (line.isBlank()) return;
+            received++;
+            Patient patient = parse(line, lineNumber, this);
+            if (patient == null) return;
+            batchLines[batch.size()] = lineNumber;
+            batch.add(patient);
+            if (batch.size() == batchSize) {
+                flush(this);
+            }
+        }
+
+        /**
+         * Writes the last, partial batch and reports the whole import.
+         */
+        public BulkImportResponse finish() {
+            flush(this);
+            long elapsedNanos = System.nanoTime() - started;
+            BulkImportResponse response = new BulkImportResponse();
+            response.setReceived(received);
+            response.setInserted(inserted);
+            response.setFailed(failed);
+            response.setErrors(errors);
+            response.setErrorsTruncated(failed > errors.size());
+            response.setDurationMillis(elapsedNanos / 1_000_000);
+            response.setRecordsPerSecond(elapsedNanos == 0 ? 0 : inserted * 1_000_000_000.0 / elapsedNanos);
+            return response;
+        }
+
+        private void fail(long line, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new BulkImportError(line, message));
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.healthcare.patient.service;
+
+import com.healthcare.patient.entity.Patient;
+import com.healthcare.patient.repository.PatientRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Collapses concurrent single-patient reads into few MongoDB queries. Callers asking for an id
+ * that is already being read wait for that read (single flight). Distinct ids requested within
+ * {@code patient.lookup.batch-window} of each other are fetched together with one {@code $in}
+ * query: the first caller of a window waits out the window and then reads for everyone, or the
+ * caller that fills the batch to {@code patient.lookup.max-batch-size} reads immediately.
+ * A caller with no concurrent lookups reads at once instead of waiting out an empty window.
+ * A zero window disables micro-batching and keeps only single flight.
+ */
+@Component
+public class PatientLookupCoalescer {
+    private final PatientRepository patientRepository;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final DistributionSummary batchSizes;
+
+    private final ConcurrentHashMap<String, CompletableFuture<Optional<Patient>>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicInteger callers = new AtomicInteger();
+    private final Object lock = new Object();
+    private Map<String, CompletableFuture<Optional<Patient>>> openBatch;
+
+    public PatientLookupCoalescer(PatientRepository patientRepository,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${patient.lookup.batch-window:2ms}") Duration batchWindow,
+                                  @Value("${patient.lookup.max-batch-size:100}") int maxBatchSize) {
+        this.patientRepository = patientRepository;
+        this.windowNanos = batchWindow.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.batchSizes = DistributionSummary.builder("patient.lookup.batch.size")
+                .description("Ids read per coalesced patient lookup query")
+                .register(meterRegistry);
+    }
+
+    public Optional<Patient> findById(String id) {
+        CompletableFuture<Optional<Patient>> pending = inFlight.get(id);
+        if (pending != null) return join(pending);
+
+        callers.incrementAndGet();
+        try {
+            return lookup(id);
+        } finally {
+            callers.decrementAndGet();
+        }
+    }
+
+    private Optional<Patient> lookup(String id) {
+        CompletableFuture<Optional<Patient>> pending;
+        Map<String, CompletableFuture<Optional<Patient>>> batch;
+        boolean leader = false;
+        boolean readNow = false;
+        CompletableFuture<Optional<Patient>> future = new CompletableFuture<>();
+        synchronized (lock) {
+            pending = inFlight.putIfAbsent(id, future);
+            if (pending == null) {
+                if (openBatch == null) {
+                    openBatch = new HashMap<>();
+                    leader = true;
+                }
+                batch = openBatch;
+                batch.put(id, future);
+                // Nobody else can join the window of a lone caller, so don't make it wait.
+                if (windowNanos <= 0 || batch.size() >= maxBatchSize || (leader && callers.get() <= 1)) {
+                    openBatch = null;
+                    readNow = true;
+                }
+            } else {
+                batch = null;
+            }
+        }
+        // Never wait while holding the lock: the batch leader needs it to close the batch.
+        if (pending != null) return join(pending);
+
+        if (readNow) {
+            read(batch);
+        } else if (leader) {
+            LockSupport.parkNanos(windowNanos);
+            boolean stillOpen;
+            synchronized (lock) {
+                stillOpen = openBatch == batch;
+                if (stillOpen) openBatch = null;
+            }
+            if (stillOpen) read(batch);
+        }
+        return join(future);
+    }
+
+    /**
+     * Reads the batch and completes every future in it, whatever the read throws, so no caller
+     * waits forever and no id stays pinned in {@code inFlight}.
+     */
+    private void read(Map<String, CompletableFuture<Optional<Patient>>> batch) {
+        Map<String, Patient> byId = new HashMap<>();
+        Throwable failure = null;
+        try {
+            batchSizes.record(batch.size());
+            for (Patient patient : patientRepository.findByIds(new ArrayList<>(batch.keySet()), null)) {
+                byId.put(patient.getId(), patient);
+            }
+        } catch (Throwable e) {
+            failure = e;
+        } finally {
+            Throwable cause = failure;
+            batch.forEach((id, future) -> {
+                inFlight.remove(id, future);
+                if (cause != null) {
+                    future.completeExceptionally(cause);
+                } else {
+                    future.complete(Optional.ofNullable(byId.get(id)));
+                }
+            });
+        }
+    }
+
+    private static Optional<Patient> join(CompletableFuture<Optional<Patient>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof Error cause) throw cause;
+            throw e;
+        }
+    }
+}
@@ -1,28 +1,117 @@
 package com.healthcare.patient.service;
 
+import com.healthcare.patient.cache.PatientCache;
 import com.healthcare.patient.dto.*;
 import com.healthcare.patient.entity.Address;
 import com.healthcare.patient.entity.EmergencyContact;
 import com.healthcare.patient.entity.Patient;
+import com.healthcare.patient.etag.PatientETags;
+import com.healthcare.patient.exception.BatchLimitExceededException;
+import com.healthcare.patient.exception.DuplicatePatientException;
+import com.healthcare.patient.exception.InvalidCursorException;
+import com.healthcare.patient.exception.PatientConflictException;
+import com.healthcare.patient.exception.PreconditionFailedException;
+import com.healthcare.patient.exception.ResourceNotFoundException;
+import com.healthcare.patient.outbox.PatientChangeType;
+import com.healthcare.patient.outbox.PatientOutbox;
+import com.healthcare.patient.pagination.PatientCursor;
+import com.healthcare.patient.pagination.PatientSortKey;
+import com.healthcare.patient.projection.PatientProjection;
 import com.healthcare.patient.repository.PatientRepository;
+import com.healthcare.patient.search.PatientSearchKeys;
+import com.healthcare.patient.search.PatientSearchRanker;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class PatientService {
+    private static final PatientProjection MATCH_PROJECTION = PatientProjection.of(null, "firstName,lastName,dateOfBirth,gender,status");
+
     private final PatientRepository patientRepository;
+    private final PatientCache patientCache;
+    private final PatientOutbox patientOutbox;
+    private final PatientLookupCoalescer lookupCoalescer;
+    private final PatientDuplicateDetector duplicateDetector;
+    private final int searchMaxCandidates;
+    private final int listingMaxPageSize;
+    private final int batchMaxIds;
 
     @Autowired
-    public PatientService(PatientRepository patientRepository) {
+    public PatientService(PatientRepository patientRepository,
+                          PatientCache patientCache,
+                          PatientOutbox patientOutbox,
+                          PatientLookupCoalescer lookupCoalescer,
+                          PatientDuplicateDetector duplicateDetector,
+                          @Value("${patient.search.max-candidates:200}") int searchMaxCandidates,
+                          @Value("${patient.listing.max-page-size:200}") int listingMaxPageSize,
+                          @Value("${patient.batch.max-ids:100}") int batchMaxIds) {
         this.patientRepository = patientRepository;
+        this.patientCache = patientCache;
+        this.patientOutbox = patientOutbox;
+        this.lookupCoalescer = lookupCoalescer;
+        this.duplicateDetector = duplicateDetector;
+        this.searchMaxCandidates = searchMaxCandidates;
+        this.listingMaxPageSize = listingMaxPageSize;
+        this.batchMaxIds = batchMaxIds;
     }
 
     public PatientResponse createPatient(PatientCreateRequest request) {
+        return createPatient(request, false);
+    }
+
+    /**
+     * Registers a patient. With {@code patient.duplicates.reject-score} set to 1 or below (it is above 1,
+     * i.e. off, by default), a registration an existing patient scores at or above it is refused with
+     * the ranked matches in a {@link DuplicatePatientException}. Concurrent registrations of the same
+     * person can both pass; the batch scan reports those afterwards.
+     */
+    public PatientResponse createPatient(PatientCreateRequest request, boolean allowDuplicates) {
+        Patient patient = newPatient(request);
+        if (!allowDuplicates && rejectsDuplicates()) {
+            rejectIfDuplicate(patient);
+        }
+        return patientOutbox.write(() -> {
+            PatientResponse created = convertToResponse(patientRepository.save(patient));
+            patientOutbox.append(PatientChangeType.CREATED, created.getId(), created.getVersion(), created);
+            return created;
+        });
+    }
+
+    boolean rejectsDuplicates() {
+        return duplicateDetector.rejectsAny();
+    }
+
+    /**
+     * Throws {@link DuplicatePatientException} with the ranked matches when the best of them reaches
+     * {@code patient.duplicates.reject-score}.
+     */
+    void rejectIfDuplicate(Patient patient) {
+        List<PatientDuplicateDetector.ScoredPatient> matches = duplicateDetector.findMatches(patient);
+        if (!matches.isEmpty() && duplicateDetector.rejects(matches.get(0))) {
+            throw new DuplicatePatientException("Patient appears to be registered already", toMatches(matches));
+        }
+    }
+
+    Patient newPatient(PatientCreateRequest request) {
         Patient patient = new Patient();
         patient.setFirstName(request.getFirstName());
         patient.setLastName(request.getLastName());
@@ -32,59 +121,365 @@ public class PatientService {
         patient.setPhoneNumber(request.getPhoneNumber());
         patient.setAddress(convertToAddress(request.getAddress()));
         patient.setEmergencyContact(convertToEmergencyContact(request.getEmergencyContact()));
-        patient.setMedicalHistory(request.getMedicalHistory());
         patient.setStatus(request.getStatus());
         patient.setCreatedAt(LocalDateTime.now());
         patient.setUpdatedAt(LocalDateTime.now());
+        return patient;
+    }
 
-        Patient savedPatient = patientRepository.save(patient);
-        return convertToResponse(savedPatient);
+    /**
+     * Ranked potential duplicates of a registration that has not been submitted yet.
+     */
+    public List<PatientMatch> findDuplicates(PatientCreateRequest request) {
+        return toMatches(duplicateDetector.findMatches(newPatient(request)));
+    }
+
+    private List<PatientMatch> toMatches(List<PatientDuplicateDetector.ScoredPatient> matches) {
+        List<PatientMatch> result = new ArrayList<>(matches.size());
+        for (PatientDuplicateDetector.ScoredPatient match : matches) {
+            result.add(new PatientMatch(convertToResponse(match.patient(), MATCH_PROJECTION),
+                    match.score().score(), match.score().matchedOn()));
+        }
+        return result;
     }
 
     public Optional<PatientResponse> getPatientById(String id) {
-        return patientRepository.findById(id).map(this::convertToResponse);
+        return patientCache.get(id, key -> lookupCoalescer.findById(key).map(this::convertToResponse));
+    }
+
+    /**
+     * Resolves up to {@code patient.batch.max-ids} distinct ids: full records come from the near
+     * cache where possible, and all remaining ids are read with one {@code $in} query. Results
+     * keep the order of the requested ids; ids that do not exist are listed in {@code notFound}.
+     */
+    public PatientBatchResponse getPatientsByIds(List<String> ids, PatientProjection projection) {
+        List<String> distinct = ids.stream().map(String::trim).filter(id -> !id.isEmpty()).distinct().toList();
+        if (distinct.size() > batchMaxIds) {
+            throw new BatchLimitExceededException("At most " + batchMaxIds + " ids can be requested at once");
+        }
+        Map<String, PatientResponse> resolved = new HashMap<>(distinct.size() * 2);
+        List<String> misses = new ArrayList<>();
+        for (String id : distinct) {
+            Optional<PatientResponse> cached = projection.isFull() ? patientCache.getIfPresent(id) : Optional.empty();
+            if (cached.isPresent()) resolved.put(id, cached.get());
+            else misses.add(id);
+        }
+        if (!misses.isEmpty()) {
+            for (Patient patient : patientRepository.findByIds(misses, projection.documentFields())) {
+                resolved.put(patient.getId(), convertToResponse(patient, projection));
+            }
+        }
+        List<PatientResponse> content = new ArrayList<>(resolved.size());
+        List<String> notFound = new ArrayList<>();
+        for (String id : distinct) {
+            PatientResponse patient = resolved.get(id);
+            if (patient != null) content.add(patient);
+            else notFound.add(id);
+        }
+        return new PatientBatchResponse(content, notFound);
     }
 
     public Page<PatientResponse> getAllPatients(Pageable pageable) {
-        return patientRepository.findAll(pageable).map(this::convertToResponse);
+        return getAllPatients(pageable, PatientProjection.FULL);
+    }
+
+    public Page<PatientResponse> getAllPatients(Pageable pageable, PatientProjection projection) {
+        return patientRepository.findPage(pageable, projection.documentFields())
+                .map(patient -> convertToResponse(patient, projection));
+    }
+
+    /**
+     * Keyset listing: reads one extra document to learn whether another page exists instead of
+     * counting, and seeks past the cursor instead of skipping, so every page costs the same.
+     */
+    public PatientSliceResponse getPatientsAfter(String cursor, String sort, int size, PatientProjection projection) {
+        return getPatientsAfter(cursor, sort, null, size, projection);
+    }
+
+    /**
+     * Keyset listing limited to patients updated at or after {@code modifiedSince}. Such listings are
+     * ordered by {@code updatedAt} (the default sort when {@code sort} is null) so the filter and the
+     * order are served by the same {@code updated_at_id} index range. The returned slice carries a
+     * strong ETag computed from the ids and versions on the page.
+     */
+    public PatientSliceResponse getPatientsAfter(String cursor, String sort, OffsetDateTime modifiedSince, int size,
+                                                 PatientProjection projection) {
+        PatientSortKey sortKey = listingSortKey(sort, modifiedSince);
+        PatientCursor after = cursor == null || cursor.isBlank() ? null : PatientCursor.decode(cursor, sortKey);
+        int limit = listingLimit(size);
+        Set<String> fields = listingFields(sortKey, projection);
+
+        List<Patient> patients = patientRepository.findPageAfter(after, sortKey, storedTime(modifiedSince), limit + 1, fields);
+        return toSlice(patients, limit, sortKey, fields, projection);
+    }
+
+    static PatientSortKey listingSortKey(String sort, OffsetDateTime modifiedSince) {
+        PatientSortKey sortKey = sort == null
+                ? (modifiedSince != null ? PatientSortKey.UPDATED_AT : PatientSortKey.ID)
+                : PatientSortKey.fromParameter(sort);
+        if (modifiedSince != null && sortKey != PatientSortKey.UPDATED_AT) {
+            throw new InvalidCursorException("modifiedSince listings are ordered by updatedAt");
+        }
+        return sortKey;
+    }
+
+    /**
+     * {@code updated_at} is written as {@code LocalDateTime.now()}, i.e. in this JVM's zone, so an
+     * instant from a client is compared in that zone rather than with its offset dropped.
+     */
+    static LocalDateTime storedTime(OffsetDateTime instant) {
+        return instant == null ? null : LocalDateTime.ofInstant(instant.toInstant(), ZoneId.systemDefault());
+    }
+
+    /**
+     * Turns a listing read with one extra row into a slice with its continuation cursor and ETag.
+     */
+    PatientSliceResponse toSlice(List<Patient> patients, int limit, PatientSortKey sortKey, Set<String> fields,
+                                 PatientProjection projection) {
+        boolean hasNext = patients.size() > limit;
+        List<Patient> page = hasNext ? patients.subList(0, limit) : patients;
+        String nextCursor = hasNext ? PatientCursor.after(page.get(page.size() - 1), sortKey).encode() : null;
+        List<PatientResponse> content = page.stream().map(patient -> convertToResponse(patient, projection)).toList();
+        PatientSliceResponse slice = new PatientSliceResponse(content, hasNext, nextCursor);
+        slice.setEtag(PatientETags.ofListing(page, fields + "|" + nextCursor));
+        return slice;
+    }
+
+    int listingLimit(int requestedSize) {
+        return Math.max(1, Math.min(requestedSize, listingMaxPageSize));
+    }
+
+    // Projected listings still read version and updated_at: the page ETag and updatedAt cursors need them.
+    static Set<String> listingFields(PatientSortKey sortKey, PatientProjection projection) {
+        return sortKey == PatientSortKey.LAST_NAME
+                ? projection.documentFieldsWith("last_name", "version", "updated_at")
+                : projection.documentFieldsWith("version", "updated_at");
     }
 
     public PatientResponse updatePatient(String id, PatientUpdateRequest request) {
+        return updatePatient(id, request, null);
+    }
+
+    /**
+     * Full replacement; with a non-null {@code expectedVersion} (from {@code If-Match}) the stored
+     * patient must still be at that version or the update fails with a precondition error.
+     */
+    public PatientResponse updatePatient(String id, PatientUpdateRequest request, Long expectedVersion) {
+        PatientResponse updated = patientOutbox.write(() -> {
+            PatientResponse response = convertToResponse(replacePatient(id, request, expectedVersion));
+            patientOutbox.append(PatientChangeType.UPDATED, id, response.getVersion(), response);
+            return response;
+        });
+        patientCache.invalidate(id, updated.getVersion());
+        return updated;
+    }
+
+    private Patient replacePatient(String id, PatientUpdateRequest request, Long expectedVersion) {
         Optional<Patient> existingPatient = patientRepository.findById(id);
         if (existingPatient.isPresent()) {
-            Patient patient = existingPatient.get();
-            patient.setFirstName(request.getFirstName());
-            patient.setLastName(request.getLastName());
-            patient.setEmail(request.getEmail());
-            patient.setPhoneNumber(request.getPhoneNumber());
-            patient.setAddress(convertToAddress(request.getAddress()));
-            patient.setEmergencyContact(convertToEmergencyContact(request.getEmergencyContact()));
-            patient.setMedicalHistory(request.getMedicalHistory());
-            patient.setStatus(request.getStatus());
-            patient.setUpdatedAt(LocalDateTime.now());
+            checkVersion(existingPatient.get(), expectedVersion);
+            Patient replaced = patientRepository.replace(applyUpdate(existingPatient.get(), request));
+            if (replaced == null) throw concurrentUpdate(id);
+            return replaced;
+        }
+        throw new ResourceNotFoundException("Patient not found");
+    }
+
+    // What save reports when the version it read has moved on; answered with 409.
+    static OptimisticLockingFailureException concurrentUpdate(String id) {
+        return new OptimisticLockingFailureException("Patient " + id + " was modified concurrently");
+    }
 
-            Patient updatedPatient = patientRepository.save(patient);
-            return convertToResponse(updatedPatient);
+    static Patient checkVersion(Patient patient, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(patient.getVersion())) {
+            throw new PreconditionFailedException("Patient is at version " + patient.getVersion()
+                    + ", If-Match expected " + expectedVersion);
         }
-        throw new RuntimeException("Patient not found");
+        return patient;
+    }
+
+    Patient applyUpdate(Patient patient, PatientUpdateRequest request) {
+        patient.setFirstName(request.getFirstName());
+        patient.setLastName(request.getLastName());
+        patient.setEmail(request.getEmail());
+        patient.setPhoneNumber(request.getPhoneNumber());
+        patient.setAddress(convertToAddress(request.getAddress()));
+        patient.setEmergencyContact(convertToEmergencyContact(request.getEmergencyContact()));
+        patient.setStatus(request.getStatus());
+        patient.setUpdatedAt(LocalDateTime.now());
+        return patient;
+    }
+
+    /**
+     * Writes only the supplied fields in one atomic findAndModify instead of read-then-save,
+     * so untouched fields are never rewritten.
+     */
+    public PatientResponse patchPatient(String id, PatientPatchRequest request) {
+        return patchPatient(id, request, null);
+    }
+
+    /**
+     * As {@link #patchPatient(String, PatientPatchRequest)}, but an {@code If-Match} version, when
+     * given, takes precedence over the body's {@code version} and a mismatch is a precondition failure.
+     */
+    public PatientResponse patchPatient(String id, PatientPatchRequest request, Long ifMatchVersion) {
+        expectedPatchVersion(request, ifMatchVersion);
+        Map<String, Object> fields = patchFields(request);
+        PatientResponse patched = patientOutbox.write(() -> {
+            PatientResponse response = convertToResponse(applyPatch(id, request, ifMatchVersion, fields));
+            patientOutbox.append(PatientChangeType.UPDATED, id, response.getVersion(), response);
+            return response;
+        });
+        patientCache.invalidate(id, patched.getVersion());
+        return patched;
+    }
+
+    /**
+     * Document fields to {@code $set} for a patch: the supplied values plus the search keys that follow
+     * from them alone. Keys that also depend on stored fields are rebuilt by the patch itself.
+     */
+    Map<String, Object> patchFields(PatientPatchRequest request) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        putIfPresent(fields, "first_name", request.getFirstName());
+        putIfPresent(fields, "last_name", request.getLastName());
+        putIfPresent(fields, "email", request.getEmail());
+        putIfPresent(fields, "phone_number", request.getPhoneNumber());
+        putIfPresent(fields, "address", convertToAddress(request.getAddress()));
+        putIfPresent(fields, "emergency_contact", convertToEmergencyContact(request.getEmergencyContact()));
+        putIfPresent(fields, "status", request.getStatus());
+        if (request.getFirstName() != null) {
+            fields.put("first_name_tokens", PatientSearchKeys.nameTokens(request.getFirstName(), null));
+        }
+        if (request.getLastName() != null) {
+            fields.put("last_name_tokens", PatientSearchKeys.nameTokens(null, request.getLastName()));
+        }
+        if (request.getEmail() != null) {
+            fields.put("email_normalized", PatientSearchKeys.normalizeEmail(request.getEmail()));
+        }
+        if (request.getPhoneNumber() != null) {
+            fields.put("phone_normalized", PatientSearchKeys.normalizePhone(request.getPhoneNumber()));
+        }
+        return fields;
+    }
+
+    /**
+     * The version a patch must match: the {@code If-Match} version, which must agree with the body's
+     * {@code version} when both are given, else the body's.
+     */
+    static Long expectedPatchVersion(PatientPatchRequest request, Long ifMatchVersion) {
+        if (ifMatchVersion != null && request.getVersion() != null && !ifMatchVersion.equals(request.getVersion())) {
+            throw new PreconditionFailedException("If-Match version " + ifMatchVersion
+                    + " disagrees with request version " + request.getVersion());
+        }
+        return ifMatchVersion != null ? ifMatchVersion : request.getVersion();
+    }
+
+    /**
+     * Why a conditional write matched nothing, given whether the patient still exists: a stale
+     * {@code If-Match} is a precondition failure, a stale body version a conflict.
+     */
+    static RuntimeException versionMismatch(boolean exists, Long expectedVersion, Long ifMatchVersion) {
+        if (!exists || expectedVersion == null) return new ResourceNotFoundException("Patient not found");
+        if (ifMatchVersion != null) {
+            return new PreconditionFailedException("Patient no longer matches If-Match version " + ifMatchVersion);
+        }
+        return new PatientConflictException("Patient was modified concurrently; expected version " + expectedVersion);
+    }
+
+    private Patient applyPatch(String id, PatientPatchRequest request, Long ifMatchVersion, Map<String, Object> fields) {
+        Long expectedVersion = expectedPatchVersion(request, ifMatchVersion);
+        Patient patched = patientRepository.patchById(id, expectedVersion, fields);
+        if (patched == null) {
+            throw versionMismatch(expectedVersion != null && patientRepository.existsById(id), expectedVersion, ifMatchVersion);
+        }
+        return patched;
+    }
+
+    private static void putIfPresent(Map<String, Object> fields, String field, Object value) {
+        if (value != null) fields.put(field, value);
     }
 
     public void deletePatient(String id) {
-        if (patientRepository.existsById(id)) {
-            patientRepository.deleteById(id);
-        } else {
-            throw new RuntimeException("Patient not found");
+        deletePatient(id, null);
+    }
+
+    public void deletePatient(String id, Long expectedVersion) {
+        patientOutbox.write(() -> {
+            Long removedVersion = patientRepository.removeById(id, expectedVersion);
+            if (removedVersion == null) {
+                throw versionMismatch(expectedVersion != null && patientRepository.existsById(id), expectedVersion, expectedVersion);
+            }
+            patientOutbox.append(PatientChangeType.DELETED, id, PatientOutbox.deletedVersion(removedVersion), null);
+            return null;
+        });
+        patientCache.invalidate(id, PatientCache.DELETED);
+    }
+
+    /**
+     * Ranked search over the indexed search keys. Queries containing {@code @} are matched as email
+     * prefixes, digit-only queries as phone prefixes, anything else as name tokens (every query token
+     * must match). With {@code fuzzy} set, names within a small edit distance also match.
+     * At most {@code patient.search.max-candidates} documents are read and ranked per call, exact
+     * matches first, so the result is a slice of those rather than a counted page.
+     */
+    public Slice<PatientResponse> searchPatients(String query, boolean fuzzy, Pageable pageable) {
+        return searchPatients(query, fuzzy, pageable, PatientProjection.FULL);
+    }
+
+    public Slice<PatientResponse> searchPatients(String query, boolean fuzzy, Pageable pageable, PatientProjection projection) {
+        // Ranking needs the search keys and names even when the caller did not ask for them.
+        Set<String> fields = projection.documentFieldsWith(
+                "search_tokens", "email_normalized", "phone_normalized", "first_name", "last_name");
+        List<Patient> ranked = rankedSearch(query == null ? "" : query.trim(), fuzzy, fields);
+        int from = pageable.isUnpaged() ? 0 : (int) Math.min(pageable.getOffset(), ranked.size());
+        int to = pageable.isUnpaged() ? ranked.size() : Math.min(from + pageable.getPageSize(), ranked.size());
+        List<PatientResponse> content = ranked.subList(from, to).stream()
+                .map(patient -> convertToResponse(patient, projection))
+                .toList();
+        return new SliceImpl<>(content, pageable, to < ranked.size());
+    }
+
+    private List<Patient> rankedSearch(String query, boolean fuzzy, Set<String> fields) {
+        if (query.isEmpty()) return Collections.emptyList();
+        // Email and phone candidates come back in key order, so an exact key is read before its extensions.
+        if (PatientSearchKeys.looksLikeEmail(query)) {
+            String email = PatientSearchKeys.normalizeEmail(query);
+            return PatientSearchRanker.rankByKey(patientRepository.findByEmailPrefix(email, searchMaxCandidates, fields), email, true);
+        }
+        if (PatientSearchKeys.looksLikePhone(query)) {
+            String phone = PatientSearchKeys.normalizePhone(query);
+            return PatientSearchRanker.rankByKey(patientRepository.findByPhonePrefix(phone, searchMaxCandidates, fields), phone, false);
+        }
+        List<String> tokens = PatientSearchKeys.tokenize(query);
+        if (tokens.isEmpty()) return Collections.emptyList();
+        // Exact token matches rank highest, so they are read first and the unordered prefix and typo
+        // reads only fill the remaining candidate budget.
+        List<Patient> candidates = patientRepository.findByNameTokens(tokens, searchMaxCandidates, fields);
+        if (candidates.size() < searchMaxCandidates) {
+            candidates = merge(candidates, patientRepository.findByNameTokenPrefixes(tokens, searchMaxCandidates, fields));
+        }
+        if (fuzzy && candidates.size() < searchMaxCandidates) {
+            // Fetch typo candidates through the most selective (longest) token only.
+            String anchor = tokens.stream().max(Comparator.comparingInt(String::length)).get();
+            List<Patient> typoCandidates = patientRepository.findByAnyNameTokenPrefix(
+                    PatientSearchKeys.fuzzyPrefixes(anchor), searchMaxCandidates, fields);
+            candidates = merge(candidates, typoCandidates);
         }
+        return PatientSearchRanker.rankByName(candidates, tokens, fuzzy);
     }
 
-    public Page<PatientResponse> searchPatients(String query, Pageable pageable) {
-        // Implement MongoDB text search or custom query logic
-        // Example: Search by firstName or lastName (requires text index in MongoDB)
-        // For simplicity, return all patients (update with actual query logic as needed)
-        return patientRepository.findAll(pageable).map(this::convertToResponse);
+    // Keeps the first list whole and fills up to the candidate budget from the second.
+    private List<Patient> merge(List<Patient> first, List<Patient> second) {
+        Map<String, Patient> byId = new LinkedHashMap<>();
+        for (Patient patient : first) byId.put(patient.getId(), patient);
+        for (Patient patient : second) {
+            if (byId.size() >= searchMaxCandidates) break;
+            byId.putIfAbsent(patient.getId(), patient);
+        }
+        return new ArrayList<>(byId.values());
     }
 
-    private PatientResponse convertToResponse(Patient patient) {
+    PatientResponse convertToResponse(Patient patient) {
         PatientResponse response = new PatientResponse();
         response.setId(patient.getId());
         response.setFirstName(patient.getFirstName());
@@ -95,10 +490,32 @@ public class PatientService {
         response.setPhoneNumber(patient.getPhoneNumber());
         response.setAddress(convertToAddressDto(patient.getAddress()));
         response.setEmergencyContact(convertToEmergencyContactDto(patient.getEmergencyContact()));
-        response.setMedicalHistory(patient.getMedicalHistory());
         response.setStatus(patient.getStatus());
         response.setCreatedAt(patient.getCreatedAt());
         response.setUpdatedAt(patient.getUpdatedAt());
+        response.setVersion(patient.getVersion());
+        return response;
+    }
+
+    /**
+     * Like {@link #convertToResponse(Patient)} but copies only the projected fields.
+     */
+    PatientResponse convertToResponse(Patient patient, PatientProjection projection) {
+        if (projection.isFull()) return convertToResponse(patient);
+        PatientResponse response = new ProjectedPatientResponse();
+        response.setId(patient.getId());
+        if (projection.includes("firstName")) response.setFirstName(patient.getFirstName());
+        if (projection.includes("lastName")) response.setLastName(patient.getLastName());
+        if (projection.includes("dateOfBirth")) response.setDateOfBirth(patient.getDateOfBirth());
+        if (projection.includes("gender")) response.setGender(patient.getGender());
+        if (projection.includes("email")) response.setEmail(patient.getEmail());
+        if (projection.includes("phoneNumber")) response.setPhoneNumber(patient.getPhoneNumber());
+        if (projection.includes("address")) response.setAddress(convertToAddressDto(patient.getAddress()));
+        if (projection.includes("emergencyContact")) response.setEmergencyContact(convertToEmergencyContactDto(patient.getEmergencyContact()));
+        if (projection.includes("status")) response.setStatus(patient.getStatus());
+        if (projection.includes("createdAt")) response.setCreatedAt(patient.getCreatedAt());
+        if (projection.includes("updatedAt")) response.setUpdatedAt(patient.getUpdatedAt());
+        if (projection.includes("version")) response.setVersion(patient.getVersion());
         return response;
     }
 
@@ -0,0 +1,245 @@
+package com.healthcare.patient.service;
+
+import com.healthcare.patient.cache.PatientCache;
+import com.healthcare.patient.dto.BulkImportResponse;
+import com.healthcare.patient.dto.PatientBatchResponse;
+import com.healthcare.patient.dto.PatientCreateRequest;
+import com.healthcare.patient.dto.PatientMatch;
+import com.healthcare.patient.dto.PatientPatchRequest;
+import com.healthcare.patient.dto.PatientResponse;
+import com.healthcare.patient.dto.PatientSliceResponse;
+import com.healthcare.patient.dto.PatientUpdateRequest;
+import com.healthcare.patient.entity.Patient;
+import com.healthcare.patient.exception.ResourceNotFoundException;
+import com.healthcare.patient.outbox.PatientChangeType;
+import com.healthcare.patient.outbox.PatientOutbox;
+import com.healthcare.patient.pagination.PatientCursor;
+import com.healthcare.patient.pagination.PatientSortKey;
+import com.healthcare.patient.projection.PatientProjection;
+import com.healthcare.patient.repository.ReactivePatientRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.mongodb.ReactiveMongoTransactionManager;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Non-blocking variant of {@link PatientService} used when the service runs on WebFlux
+ * ({@code spring.main.web-application-type=reactive}). Mapping and validation rules are shared
+ * with the servlet stack; only the I/O is different. Outbox events commit in the same transaction
+ * as the patient, and only the in-process near cache is consulted on reads. Search, batch reads,
+ * duplicate matching, import and export reuse the servlet services on the bounded elastic pool,
+ * so they never block the event loop.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePatientService {
+    private final ReactivePatientRepository patientRepository;
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final PatientService patientService;
+    private final PatientCache patientCache;
+    private final PatientImportService importService;
+    private final PatientExportService exportService;
+    private final TransactionalOperator transactions;
+
+    public ReactivePatientService(ReactivePatientRepository patientRepository,
+                                  ReactiveMongoTemplate mongoTemplate,
+                                  PatientService patientService,
+                                  PatientCache patientCache,
+                                  PatientImportService importService,
+                                  PatientExportService exportService,
+                                  ReactiveMongoTransactionManager transactionManager) {
+        this.patientRepository = patientRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.patientService = patientService;
+        this.patientCache = patientCache;
+        this.importService = importService;
+        this.exportService = exportService;
+        this.transactions = TransactionalOperator.create(transactionManager);
+    }
+
+    /**
+     * As {@link PatientService#createPatient(PatientCreateRequest, boolean)}, including the duplicate check.
+     */
+    public Mono<PatientResponse> createPatient(PatientCreateRequest request, boolean allowDuplicates) {
+        Patient patient = patientService.newPatient(request);
+        Mono<Void> duplicateCheck = allowDuplicates || !patientService.rejectsDuplicates()
+                ? Mono.empty()
+                : Mono.<Void>fromRunnable(() -> patientService.rejectIfDuplicate(patient)).subscribeOn(Schedulers.boundedElastic());
+        return duplicateCheck.then(Mono.defer(() -> patientRepository.save(patient)))
+                .map(patientService::convertToResponse)
+                .flatMap(created -> appendEvent(PatientChangeType.CREATED, created.getId(), created).thenReturn(created))
+                .as(transactions::transactional);
+    }
+
+    public Mono<PatientResponse> getPatientById(String id) {
+        return Mono.justOrEmpty(patientCache.getIfPresent(id))
+                .switchIfEmpty(Mono.defer(() -> patientRepository.findById(id)
+                        .map(patientService::convertToResponse)
+                        .doOnNext(patientCache::put)));
+    }
+
+    /**
+     * Same listing and page ETag as {@link PatientService#getPatientsAfter(String, String, OffsetDateTime, int, PatientProjection)}.
+     */
+    public Mono<PatientSliceResponse> getPatientsAfter(String cursor, String sort, OffsetDateTime modifiedSince, int size,
+                                                       PatientProjection projection) {
+        PatientSortKey sortKey = PatientService.listingSortKey(sort, modifiedSince);
+        int limit = patientService.listingLimit(size);
+        Set<String> fields = PatientService.listingFields(sortKey, projection);
+        return findPageAfter(cursor, sortKey, modifiedSince, limit + 1, fields)
+                .collectList()
+                .map(patients -> patientService.toSlice(patients, limit, sortKey, fields, projection));
+    }
+
+    /**
+     * Emits up to {@code size} patients after the cursor as they arrive from the database, for
+     * NDJSON streaming; the client continues from the id (or last name and id) of the last element.
+     */
+    public Flux<PatientResponse> streamPatientsAfter(String cursor, String sort, OffsetDateTime modifiedSince, int size,
+                                                     PatientProjection projection) {
+        PatientSortKey sortKey = PatientService.listingSortKey(sort, modifiedSince);
+        return findPageAfter(cursor, sortKey, modifiedSince, patientService.listingLimit(size), PatientService.listingFields(sortKey, projection))
+                .map(patient -> patientService.convertToResponse(patient, projection));
+    }
+
+    private Flux<Patient> findPageAfter(String cursor, PatientSortKey sortKey, OffsetDateTime modifiedSince, int limit,
+                                        Set<String> fields) {
+        PatientCursor after = cursor == null || cursor.isBlank() ? null : PatientCursor.decode(cursor, sortKey);
+        return patientRepository.findPageAfter(after, sortKey, PatientService.storedTime(modifiedSince), limit, fields);
+    }
+
+    /**
+     * Full replacement; a non-null {@code expectedVersion} (from {@code If-Match}) must match the stored version.
+     */
+    public Mono<PatientResponse> updatePatient(String id, PatientUpdateRequest request, Long expectedVersion) {
+        return patientRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Patient not found")))
+                .map(patient -> PatientService.checkVersion(patient, expectedVersion))
+                .flatMap(patient -> patientRepository.replace(patientService.applyUpdate(patient, request))
+                        .switchIfEmpty(Mono.error(() -> PatientService.concurrentUpdate(id))))
+                .map(patientService::convertToResponse)
+                .flatMap(updated -> appendEvent(PatientChangeType.UPDATED, id, updated).thenReturn(updated))
+                .as(transactions::transactional)
+                .flatMap(updated -> invalidate(id, updated.getVersion()).thenReturn(updated));
+    }
+
+    /**
+     * Partial update; an {@code If-Match} version takes precedence over the body's {@code version}.
+     */
+    public Mono<PatientResponse> patchPatient(String id, PatientPatchRequest request, Long ifMatchVersion) {
+        return Mono.fromCallable(() -> PatientService.expectedPatchVersion(request, ifMatchVersion))
+                .flatMap(expectedVersion -> patientRepository.patchById(id, expectedVersion, patientService.patchFields(request))
+                        .switchIfEmpty(Mono.defer(() -> versionMismatch(id, expectedVersion, ifMatchVersion))))
+                .map(patientService::convertToResponse)
+                .flatMap(patched -> appendEvent(PatientChangeType.UPDATED, id, patched).thenReturn(patched))
+                .as(transactions::transactional)
+                .flatMap(patched -> invalidate(id, patched.getVersion()).thenReturn(patched));
+    }
+
+    public Mono<List<PatientMatch>> findDuplicates(PatientCreateRequest request) {
+        return blocking(() -> patientService.findDuplicates(request));
+    }
+
+    public Mono<Slice<PatientResponse>> searchPatients(String query, boolean fuzzy, Pageable pageable, PatientProjection projection) {
+        return blocking(() -> patientService.searchPatients(query, fuzzy, pageable, projection));
+    }
+
+    public Mono<PatientBatchResponse> getPatientsByIds(List<String> ids, PatientProjection projection) {
+        return blocking(() -> patientService.getPatientsByIds(ids, projection));
+    }
+
+    /**
+     * Feeds NDJSON lines to an import on one bounded elastic worker; the bounded prefetch holds back
+     * the upload while a batch is being written.
+     */
+    public Mono<BulkImportResponse> importPatients(Flux<String> lines, Integer batchSize) {
+        return Mono.fromSupplier(() -> importService.start(batchSize))
+                .flatMap(run -> lines.publishOn(Schedulers.boundedElastic())
+                        .doOnNext(run::line)
+                        .then(Mono.fromCallable(run::finish)));
+    }
+
+    /**
+     * {@link PatientExportService#export} written to a publisher: the export runs on a bounded elastic
+     * worker and waits whenever the client is slower than the cursor.
+     */
+    public Flux<DataBuffer> exportPatients(PatientExportService.Format format, String status, LocalDateTime updatedFrom,
+                                           LocalDateTime updatedTo, PatientCursor after, boolean gzip,
+                                           DataBufferFactory bufferFactory) {
+        return stream(out -> exportService.export(format, status, updatedFrom, updatedTo, after, out), gzip, bufferFactory);
+    }
+
+    public Flux<DataBuffer> scanDuplicates(Double minScore, DataBufferFactory bufferFactory) {
+        return stream(out -> exportService.exportDuplicatePairs(minScore, out), false, bufferFactory);
+    }
+
+    private interface StreamWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private static Flux<DataBuffer> stream(StreamWriter writer, boolean gzip, DataBufferFactory bufferFactory) {
+        return Flux.from(DataBufferUtils.outputStreamPublisher(out -> {
+            try {
+                if (gzip) {
+                    GZIPOutputStream compressed = new GZIPOutputStream(out, 64 * 1024);
+                    writer.writeTo(compressed);
+                    compressed.finish();
+                } else {
+                    writer.writeTo(out);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, bufferFactory, task -> Schedulers.boundedElastic().schedule(task)));
+    }
+
+    private static <T> Mono<T> blocking(Callable<T> work) {
+        return Mono.fromCallable(work).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private <T> Mono<T> versionMismatch(String id, Long expectedVersion, Long ifMatchVersion) {
+        Mono<Boolean> exists = expectedVersion == null ? Mono.just(false) : patientRepository.existsById(id);
+        return exists.flatMap(found -> Mono.error(PatientService.versionMismatch(found, expectedVersion, ifMatchVersion)));
+    }
+
+    public Mono<Void> deletePatient(String id, Long expectedVersion) {
+        return patientRepository.removeById(id, expectedVersion)
+                .switchIfEmpty(Mono.defer(() -> versionMismatch(id, expectedVersion, expectedVersion)))
+                .flatMap(removedVersion -> appendEvent(PatientChangeType.DELETED, id, PatientOutbox.deletedVersion(removedVersion), null))
+                .as(transactions::transactional)
+                .then(invalidate(id, PatientCache.DELETED));
+    }
+
+    // The Redis eviction and the Kafka broadcast block (a send can wait max.block.ms for metadata),
+    // so they run on the bounded elastic pool rather than the event loop.
+    private Mono<Void> invalidate(String id, long version) {
+        return Mono.<Void>fromRunnable(() -> patientCache.invalidate(id, version)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private Mono<Void> appendEvent(PatientChangeType type, String patientId, PatientResponse snapshot) {
+        return appendEvent(type, patientId, snapshot.getVersion(), snapshot);
+    }
+
+    private Mono<Void> appendEvent(PatientChangeType type, String patientId, Long version, PatientResponse snapshot) {
+        return mongoTemplate.insert(PatientOutbox.newEvent(type, patientId, version, snapshot)).then();
+    }
+}
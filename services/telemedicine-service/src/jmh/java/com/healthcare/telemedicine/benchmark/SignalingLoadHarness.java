@@ -0,0 +1,440 @@
+package com.healthcare.telemedicine.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.channel.ChannelOption;
+import org.HdrHistogram.Histogram;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.websocket.WebsocketInbound;
+import reactor.netty.http.websocket.WebsocketOutbound;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Video-visit signaling load against telemedicine-service in a child JVM: {@code harness.sessions}
+ * (50,000) WebSocket sessions in rooms of two, spread over {@code harness.replicas} (1) service
+ * instances so that, with more than one, every room spans replicas and its traffic crosses the bus.
+ * <p>
+ * Sessions connect at {@code harness.connect-rate} (2,000) per second, no more than 256 handshakes at
+ * a time, and ping every {@code
+ * harness.ping-seconds} (10). For {@code harness.warmup} plus {@code harness.seconds} (30) participants then send {@code
+ * harness.rate} (5,000) signaling frames a second to their peer, whose client records the time
+ * from send to receipt, and {@code harness.churn} (50) rooms a second see one participant leave and
+ * come back. Meanwhile {@code harness.dead} (100) participants go silent without disconnecting;
+ * the service must evict them and tell their peers within its heartbeat timeout ({@code
+ * harness.heartbeat-timeout}, 30s) and a sweep.
+ * <p>
+ * Fails if a session cannot connect, a frame between two connected peers is lost, a leave, return
+ * or eviction is not announced, or relay p99 is above {@code harness.p99-ms} (5) after a {@code harness.warmup} (10s). Both JVMs need
+ * a file descriptor limit above the session count; the clients connect through four loopback
+ * addresses to have enough ephemeral ports.
+ * <p>
+ * The defaults are the target, not a measured result. The largest run so far, 16,000 sessions on
+ * one CPU shared with the clients, had an end-to-end p99 of 266 ms and failed the 5 ms check.
+ */
+public final class SignalingLoadHarness {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final int TICK_MILLIS = 10;
+    // With more than the kernel's SYN backlog in flight, a busy service starts dropping connection attempts.
+    private static final int MAX_HANDSHAKES = 256;
+
+    private final List<Integer> ports;
+    private final HttpClient http;
+    private final java.net.http.HttpClient probe = java.net.http.HttpClient.newHttpClient();
+    private final ScheduledExecutorService driver = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "harness-driver"));
+    private final Histogram latencies = new Histogram(TimeUnit.SECONDS.toMicros(10), 3);
+    private final List<String> failures = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicInteger joined = new AtomicInteger();
+    private final AtomicInteger handshakes = new AtomicInteger();
+    private final AtomicInteger peerLeft = new AtomicInteger();
+    private final Map<String, AtomicInteger> departureReasons = new ConcurrentHashMap<>();
+    private final AtomicInteger peerJoined = new AtomicInteger();
+    private final AtomicInteger evictionsAnnounced = new AtomicInteger();
+    private final AtomicInteger evictionsClosed = new AtomicInteger();
+    private Client[] clients;
+
+    private SignalingLoadHarness(List<Integer> ports) {
+        this.ports = ports;
+        this.http = HttpClient.create(ConnectionProvider.newConnection())
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 10_000);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int sessions = Integer.getInteger("harness.sessions", 50_000) & ~1;
+        int replicas = Integer.getInteger("harness.replicas", 1);
+        int connectRate = Integer.getInteger("harness.connect-rate", 2_000);
+        int pingSeconds = Integer.getInteger("harness.ping-seconds", 10);
+        int warmup = Integer.getInteger("harness.warmup", 10);
+        int seconds = Integer.getInteger("harness.seconds", 30);
+        int rate = Integer.getInteger("harness.rate", 5_000);
+        int churn = Integer.getInteger("harness.churn", 50);
+        int dead = Integer.getInteger("harness.dead", 100);
+        Duration heartbeatTimeout = Duration.parse("PT" + System.getProperty("harness.heartbeat-timeout", "30s"));
+        double p99Limit = Double.parseDouble(System.getProperty("harness.p99-ms", "5"));
+        if (pingSeconds * 2L > heartbeatTimeout.toSeconds()) {
+            throw new IllegalArgumentException("harness.ping-seconds must be at most half of harness.heartbeat-timeout");
+        }
+
+        List<Integer> ports = new ArrayList<>();
+        for (int r = 0; r < replicas; r++) ports.add(freePort());
+        SignalingLoadHarness harness = new SignalingLoadHarness(ports);
+        Process service = harness.startService(heartbeatTimeout);
+        try {
+            harness.connect(sessions, connectRate, pingSeconds);
+            System.out.printf("Service RSS with %d sessions: %d MB%n", sessions, rssMegabytes(service));
+
+            Load load = harness.run(warmup, seconds, rate, churn, dead);
+            harness.awaitEvictions(dead, heartbeatTimeout.plusSeconds(5));
+            harness.report(load, service, p99Limit);
+        } finally {
+            harness.driver.shutdownNow();
+            service.destroyForcibly().waitFor();
+        }
+        harness.failures.stream().limit(20).forEach(failure -> System.out.println("FAILED: " + failure));
+        System.out.println(harness.failures.isEmpty() ? "All checks passed" : harness.failures.size() + " checks failed");
+        System.exit(harness.failures.isEmpty() ? 0 : 1);
+    }
+
+    private Process startService(Duration heartbeatTimeout) throws Exception {
+        String executable = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        List<String> command = new ArrayList<>(List.of(executable, "-Xmx" + System.getProperty("harness.service-heap", "1g"),
+                "-cp", System.getProperty("java.class.path"), SignalingReplicas.class.getName()));
+        ports.forEach(port -> command.add(String.valueOf(port)));
+        command.addAll(List.of("--",
+                "--telemedicine.bus.type=in-process",
+                "--telemedicine.heartbeat.timeout=" + heartbeatTimeout.toSeconds() + "s",
+                "--telemedicine.heartbeat.sweep-interval-ms=1000",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN"));
+        Process process = new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.INHERIT)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .directory(new File(System.getProperty("user.dir")))
+                .start();
+        long deadline = System.nanoTime() + Duration.ofMinutes(2).toNanos();
+        for (int port : ports) {
+            while (true) {
+                if (!process.isAlive()) throw new IllegalStateException("telemedicine-service exited with " + process.exitValue());
+                if (System.nanoTime() > deadline) {
+                    process.destroyForcibly();
+                    throw new IllegalStateException("telemedicine-service did not start");
+                }
+                try {
+                    if (probe.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/health")).build(),
+                            HttpResponse.BodyHandlers.discarding()).statusCode() == 200) break;
+                } catch (IOException e) {
+                    // Not listening yet.
+                }
+                Thread.sleep(250);
+            }
+        }
+        return process;
+    }
+
+    /**
+     * Connects the sessions, and keeps every connected one pinging from then on.
+     */
+    private void connect(int sessions, int rate, int pingSeconds) throws InterruptedException {
+        System.out.printf("Connecting %d sessions over %d replicas...%n", sessions, ports.size());
+        clients = new Client[sessions];
+        for (int i = 0; i < sessions; i++) clients[i] = new Client(i);
+        int pingSlice = Math.max(1, (int) (sessions * (long) TICK_MILLIS / TimeUnit.SECONDS.toMillis(pingSeconds)));
+        AtomicLong pinged = new AtomicLong();
+        driver.scheduleAtFixedRate(() -> {
+            for (int n = 0; n < pingSlice; n++) clients[(int) (pinged.getAndIncrement() % sessions)].ping();
+        }, 0, TICK_MILLIS, TimeUnit.MILLISECONDS);
+        long started = System.nanoTime();
+        int perTick = Math.max(1, rate * TICK_MILLIS / 1000);
+        AtomicInteger next = new AtomicInteger();
+        var connecting = driver.scheduleAtFixedRate(() -> {
+            for (int n = 0; n < perTick && next.get() < sessions && handshakes.get() < MAX_HANDSHAKES; n++) {
+                clients[next.getAndIncrement()].connect();
+            }
+        }, 0, TICK_MILLIS, TimeUnit.MILLISECONDS);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(sessions / rate + 60);
+        while (joined.get() < sessions && System.nanoTime() < deadline) Thread.sleep(100);
+        connecting.cancel(false);
+        if (joined.get() < sessions) failures.add("only " + joined.get() + " of " + sessions + " sessions joined");
+        System.out.printf("%d sessions joined in %.1f s%n", joined.get(), (System.nanoTime() - started) / 1e9);
+        // A newcomer learns of a peer on another replica from the peer's offer, which may still be on its way.
+        while (!Arrays.stream(clients).allMatch(client -> client.peer != null) && System.nanoTime() < deadline) Thread.sleep(100);
+        long strangers = Arrays.stream(clients).filter(client -> client.peer == null).count();
+        if (strangers > 0) failures.add(strangers + " sessions never learned of their peer");
+    }
+
+    private Load run(int warmup, int seconds, int rate, int churn, int dead) throws Exception {
+        int rooms = clients.length / 2;
+        SplittableRandom random = new SplittableRandom(42);
+        // The last rooms go quiet on one side; the others carry the traffic and the churn.
+        int liveRooms = rooms - dead;
+        driver.submit(() -> {
+            for (int room = liveRooms; room < rooms; room++) clients[2 * room + 1].silent = true;
+        }).get();
+
+        Load load = new Load();
+        load.announcedAtStart = peerJoined.get();
+        double messagesPerTick = rate * TICK_MILLIS / 1000.0;
+        double churnPerTick = churn * TICK_MILLIS / 1000.0;
+        double[] carry = new double[2];
+        var running = driver.scheduleAtFixedRate(() -> {
+            for (carry[0] += messagesPerTick; carry[0] >= 1; carry[0]--) {
+                int room = random.nextInt(liveRooms);
+                boolean fromA = random.nextBoolean();
+                Client from = clients[2 * room + (fromA ? 0 : 1)];
+                Client to = clients[2 * room + (fromA ? 1 : 0)];
+                if (from.stable() && to.stable()) from.signal(to);
+            }
+            for (carry[1] += churnPerTick; carry[1] >= 1; carry[1]--) {
+                Client leaving = clients[2 * random.nextInt(liveRooms) + 1];
+                if (leaving.stable() && clients[leaving.index - 1].stable()) {
+                    // Stop signaling in the room first, so no frame is in flight to a participant who has left.
+                    leaving.leaving = true;
+                    leaving.leaveWhenDrained();
+                    load.churned++;
+                }
+            }
+        }, 0, TICK_MILLIS, TimeUnit.MILLISECONDS);
+        // Latency from the warm-up, while both JVMs are still compiling the hot paths, is left out.
+        Thread.sleep(TimeUnit.SECONDS.toMillis(warmup));
+        synchronized (latencies) {
+            latencies.reset();
+        }
+        Thread.sleep(TimeUnit.SECONDS.toMillis(seconds));
+        running.cancel(false);
+        // Let frames in flight and returning participants arrive.
+        Thread.sleep(2_000);
+        return load;
+    }
+
+    private void awaitEvictions(int dead, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while ((evictionsAnnounced.get() < dead || evictionsClosed.get() < dead) && System.nanoTime() < deadline) Thread.sleep(200);
+        if (evictionsClosed.get() != dead) {
+            failures.add(evictionsClosed.get() + " of " + dead + " silent participants were closed for heartbeat timeout");
+        }
+        if (evictionsAnnounced.get() != dead) {
+            failures.add(evictionsAnnounced.get() + " of " + dead + " evictions were announced to the peer");
+        }
+    }
+
+    private void report(Load load, Process service, double p99Limit) throws Exception {
+        long lostFrames = sent.get() - received.get();
+        System.out.printf("Frames: %d sent, %d received, %d lost%n", sent.get(), received.get(), lostFrames);
+        System.out.printf("Relay latency: p50 %.2f ms, p99 %.2f ms, p99.9 %.2f ms, max %.2f ms%n",
+                latencies.getValueAtPercentile(50) / 1000.0, latencies.getValueAtPercentile(99) / 1000.0,
+                latencies.getValueAtPercentile(99.9) / 1000.0, latencies.getMaxValue() / 1000.0);
+        int departures = peerLeft.get() - evictionsAnnounced.get();
+        int returns = peerJoined.get() - load.announcedAtStart;
+        System.out.printf("Churn: %d leaves, %d departures and %d returns announced; departures by reason %s%n",
+                load.churned, departures, returns, departureReasons);
+        System.out.printf("Evictions: %d closed, %d announced%n", evictionsClosed.get(), evictionsAnnounced.get());
+        System.out.printf("Service RSS at the end: %d MB%n", rssMegabytes(service));
+        for (int port : ports) {
+            JsonNode relay = MAPPER.readTree(probe.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port
+                    + "/actuator/metrics/telemedicine.relay")).build(), HttpResponse.BodyHandlers.ofString()).body());
+            double[] measured = new double[3];
+            for (JsonNode measurement : relay.get("measurements")) {
+                switch (measurement.get("statistic").asText()) {
+                    case "COUNT" -> measured[0] = measurement.get("value").asDouble();
+                    case "TOTAL_TIME" -> measured[1] = measurement.get("value").asDouble();
+                    case "MAX" -> measured[2] = measurement.get("value").asDouble();
+                    default -> { }
+                }
+            }
+            System.out.printf("Replica on %d, inside the service: %.0f frames relayed, mean %.3f ms, recent max %.2f ms%n",
+                    port, measured[0], measured[1] * 1000 / Math.max(1, measured[0]), measured[2] * 1000);
+        }
+
+        if (lostFrames != 0) failures.add(lostFrames + " frames between connected peers were lost");
+        if (latencies.getValueAtPercentile(99) / 1000.0 > p99Limit) {
+            failures.add(String.format("relay p99 %.2f ms is above %.1f ms", latencies.getValueAtPercentile(99) / 1000.0, p99Limit));
+        }
+        if (departures != load.churned) failures.add(load.churned + " participants left but " + departures + " departures were announced");
+        if (returns != load.churned) failures.add(load.churned + " participants left but " + returns + " returns were announced");
+    }
+
+    private static long rssMegabytes(Process process) throws IOException {
+        for (String line : Files.readAllLines(Path.of("/proc/" + process.pid() + "/status"))) {
+            if (line.startsWith("VmRSS:")) return Long.parseLong(line.replaceAll("\\D", "")) / 1024;
+        }
+        return -1;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static final class Load {
+        int churned;
+        int announcedAtStart;
+    }
+
+    /**
+     * One participant. Frames to send are emitted only on the driver thread, one producer per sink.
+     */
+    private final class Client {
+        final int index;
+        final String room;
+        volatile String session;
+        volatile String peer;
+        volatile boolean connected;
+        volatile boolean silent;
+        volatile boolean leaving;
+        private volatile boolean handshaking;
+        private Sinks.Many<String> outbound;
+        private long sequence;
+        private long expected; // frames sent to this participant, counted on the driver thread
+        private final AtomicLong arrived = new AtomicLong();
+
+        Client(int index) {
+            this.index = index;
+            this.room = "visit-" + index / 2;
+        }
+
+        boolean stable() {
+            return connected && !leaving && !silent && peer != null && session != null;
+        }
+
+        void connect() {
+            handshaking = true;
+            handshakes.incrementAndGet();
+            outbound = Sinks.many().unicast().onBackpressureBuffer();
+            Sinks.Many<String> frames = outbound;
+            int port = ports.get((index / 2 + index % 2) % ports.size());
+            String host = "127.0.0." + (1 + index % 4);
+            http.remoteAddress(() -> new InetSocketAddress(host, port))
+                    .websocket()
+                    .uri("/ws/signaling?room=" + room + "&participant=p" + index)
+                    .handle((in, out) -> exchange(in, out, frames))
+                    .subscribe(null, error -> {
+                        handshaken();
+                        failures.add("session " + index + " failed: " + error);
+                    });
+        }
+
+        private void handshaken() {
+            if (handshaking) {
+                handshaking = false;
+                handshakes.decrementAndGet();
+            }
+        }
+
+        private Mono<Void> exchange(WebsocketInbound in, WebsocketOutbound out, Sinks.Many<String> frames) {
+            Mono<Void> receiving = in.receive().asString().doOnNext(this::onFrame).then();
+            in.receiveCloseStatus().subscribe(status -> {
+                if (status.code() == 4408) evictionsClosed.incrementAndGet();
+            });
+            return Mono.when(receiving, out.sendString(frames.asFlux()).then())
+                    .doFinally(signal -> onClosed());
+        }
+
+        private void onFrame(String text) {
+            JsonNode frame;
+            try {
+                frame = MAPPER.readTree(text);
+            } catch (IOException e) {
+                failures.add("unparseable frame " + text);
+                return;
+            }
+            switch (frame.get("type").asText()) {
+                case "joined" -> {
+                    session = frame.get("session").asText();
+                    JsonNode peers = frame.get("peers");
+                    if (!peers.isEmpty()) peer = peers.get(0).get("session").asText();
+                    connected = true;
+                    joined.incrementAndGet();
+                    handshaken();
+                }
+                case "peer-joined" -> {
+                    String newcomer = frame.get("session").asText();
+                    peer = newcomer;
+                    peerJoined.incrementAndGet();
+                    // As a browser would, the participant already in the room makes the offer.
+                    driver.execute(() -> offer(newcomer));
+                }
+                case "offer" -> peer = frame.get("from").asText();
+                case "peer-left" -> {
+                    peer = null;
+                    peerLeft.incrementAndGet();
+                    departureReasons.computeIfAbsent(frame.get("reason").asText(), reason -> new AtomicInteger()).incrementAndGet();
+                    if ("timeout".equals(frame.get("reason").asText())) evictionsAnnounced.incrementAndGet();
+                }
+                case "message" -> {
+                    long latency = (System.nanoTime() - frame.get("payload").get("sent").asLong()) / 1000;
+                    synchronized (latencies) {
+                        latencies.recordValue(Math.min(latency, latencies.getHighestTrackableValue()));
+                    }
+                    received.incrementAndGet();
+                    arrived.incrementAndGet();
+                }
+                case "pong" -> { }
+                default -> failures.add("session " + index + " got " + text);
+            }
+        }
+
+        private void onClosed() {
+            connected = false;
+            session = null;
+            if (leaving) {
+                leaving = false;
+                driver.execute(this::connect);
+            }
+        }
+
+        void ping() {
+            if (connected && !silent) outbound.tryEmitNext("{\"type\":\"ping\"}");
+        }
+
+        private void offer(String to) {
+            if (connected) outbound.tryEmitNext("{\"type\":\"offer\",\"to\":\"" + to + "\",\"payload\":{}}");
+        }
+
+        void signal(Client to) {
+            sent.incrementAndGet();
+            to.expected++;
+            outbound.tryEmitNext("{\"type\":\"message\",\"to\":\"" + to.session + "\",\"payload\":{\"seq\":" + sequence++
+                    + ",\"sent\":" + System.nanoTime() + "}}");
+        }
+
+        void leaveWhenDrained() {
+            if (arrived.get() < expected) {
+                driver.schedule(this::leaveWhenDrained, TICK_MILLIS, TimeUnit.MILLISECONDS);
+            } else {
+                leave();
+            }
+        }
+
+        void leave() {
+            outbound.tryEmitNext("{\"type\":\"leave\"}");
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.healthcare.telemedicine.benchmark;
+
+import com.healthcare.Application;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs one service instance per port given in this JVM; their in-process buses connect them the
+ * way Redis connects replicas, so rooms spread over them exercise cross-replica routing.
+ */
+public final class SignalingReplicas {
+
+    public static void main(String[] args) {
+        int separator = List.of(args).indexOf("--");
+        List<String> ports = List.of(args).subList(0, separator);
+        List<String> settings = List.of(args).subList(separator + 1, args.length);
+        for (String port : ports) {
+            List<String> arguments = new ArrayList<>(settings);
+            // Passed as command-line arguments so they override application.yml.
+            arguments.add("--server.port=" + port);
+            arguments.add("--telemedicine.node-id=replica-" + port);
+            new SpringApplicationBuilder(Application.class).run(arguments.toArray(String[]::new));
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.healthcare.telemedicine.bus;
+
+/**
+ * A signaling frame on its way to the sessions of a room on other replicas: all of them but
+ * {@code from}, or only {@code to} if that is set.
+ */
+public record BusMessage(String origin, String room, String from, String to, String frame) {
+}
@@ -0,0 +1,56 @@
+package com.healthcare.telemedicine.bus;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * The bus for a single replica, and a stand-in for Redis when several service instances run in one
+ * JVM: subscriptions are shared by every instance in the JVM and messages are handed over directly
+ * on the publishing thread.
+ */
+@Component
+@ConditionalOnProperty(name = "telemedicine.bus.type", havingValue = "in-process", matchIfMissing = true)
+public class InProcessSignalingBus implements SignalingBus {
+    private static final Map<String, Set<InProcessSignalingBus>> SUBSCRIBERS = new ConcurrentHashMap<>();
+
+    private volatile Consumer<BusMessage> listener = message -> { };
+
+    @Override
+    public void listen(Consumer<BusMessage> listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void subscribe(String room) {
+        SUBSCRIBERS.computeIfAbsent(room, key -> ConcurrentHashMap.newKeySet()).add(this);
+    }
+
+    @Override
+    public void unsubscribe(String room) {
+        SUBSCRIBERS.computeIfPresent(room, (key, buses) -> {
+            buses.remove(this);
+            return buses.isEmpty() ? null : buses;
+        });
+    }
+
+    @Override
+    public void publish(BusMessage message) {
+        Set<InProcessSignalingBus> buses = SUBSCRIBERS.get(message.room());
+        if (buses == null) return;
+        for (InProcessSignalingBus bus : buses) {
+            // This instance has already delivered to its own sessions.
+            if (bus != this) bus.listener.accept(message);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        for (String room : SUBSCRIBERS.keySet()) unsubscribe(room);
+    }
+}
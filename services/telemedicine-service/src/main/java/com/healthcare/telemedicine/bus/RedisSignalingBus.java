@@ -0,0 +1,93 @@
+package com.healthcare.telemedicine.bus;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Redis pub/sub between replicas, one channel per room. Only replicas holding sessions in a room
+ * are subscribed to its channel, so a frame reaches the replicas that need it and no others.
+ * Delivery is at most once, as with any pub/sub: a frame published while a replica is reconnecting
+ * is lost, and WebRTC clients recover by renegotiating.
+ */
+@Component
+@ConditionalOnProperty(name = "telemedicine.bus.type", havingValue = "redis")
+public class RedisSignalingBus implements SignalingBus {
+    private static final Logger log = LoggerFactory.getLogger(RedisSignalingBus.class);
+    private static final String CHANNEL_PREFIX = "telemedicine:room:";
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final ReactiveRedisMessageListenerContainer container;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Disposable> subscriptions = new ConcurrentHashMap<>();
+    private final Counter publishFailures;
+    private volatile Consumer<BusMessage> listener = message -> { };
+
+    public RedisSignalingBus(ReactiveRedisConnectionFactory connectionFactory, ReactiveStringRedisTemplate redisTemplate,
+                             ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.container = new ReactiveRedisMessageListenerContainer(connectionFactory);
+        this.objectMapper = objectMapper;
+        this.publishFailures = Counter.builder("telemedicine.bus.publish.failures").register(meterRegistry);
+    }
+
+    @Override
+    public void listen(Consumer<BusMessage> listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void subscribe(String room) {
+        subscriptions.computeIfAbsent(room, key -> container.receive(ChannelTopic.of(CHANNEL_PREFIX + key))
+                .subscribe(message -> deliver(message.getMessage()),
+                        error -> log.warn("Subscription to room {} failed", key, error)));
+    }
+
+    @Override
+    public void unsubscribe(String room) {
+        Disposable subscription = subscriptions.remove(room);
+        if (subscription != null) subscription.dispose();
+    }
+
+    @Override
+    public void publish(BusMessage message) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        redisTemplate.convertAndSend(CHANNEL_PREFIX + message.room(), payload)
+                .subscribe(receivers -> { }, error -> publishFailures.increment());
+    }
+
+    @PreDestroy
+    public void close() {
+        subscriptions.values().forEach(Disposable::dispose);
+        subscriptions.clear();
+        container.destroy();
+    }
+
+    private void deliver(String payload) {
+        try {
+            listener.accept(objectMapper.readValue(payload, BusMessage.class));
+        } catch (JsonProcessingException e) {
+            log.warn("Dropped malformed bus message", e);
+        }
+    }
+}
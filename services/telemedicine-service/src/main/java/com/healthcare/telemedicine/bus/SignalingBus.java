@@ -0,0 +1,23 @@
+package com.healthcare.telemedicine.bus;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries signaling between replicas. A replica subscribes to a room while it holds sessions in it
+ * and publishes every frame for the room, so a room's participants can be spread over replicas.
+ * Implementations must not block the caller: it is a network event loop.
+ */
+public interface SignalingBus {
+
+    /**
+     * Sets where messages for subscribed rooms are delivered; called once, before any subscription.
+     * Messages this replica published may come back and are for the listener to drop.
+     */
+    void listen(Consumer<BusMessage> listener);
+
+    void subscribe(String room);
+
+    void unsubscribe(String room);
+
+    void publish(BusMessage message);
+}
@@ -0,0 +1,44 @@
+package com.healthcare.telemedicine.config;
+
+import com.healthcare.telemedicine.bus.RedisSignalingBus;
+import com.healthcare.telemedicine.signaling.SignalingHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.reactive.handler.SimpleUrlHandlerMapping;
+
+import java.util.Map;
+
+@Configuration
+public class SignalingConfig {
+    private static final Logger log = LoggerFactory.getLogger(SignalingConfig.class);
+
+    /**
+     * An AOT build picks the bus when it is built, whatever {@code telemedicine.bus.type} says later;
+     * refuse to start rather than run on a bus other than the one configured.
+     */
+    @Bean
+    public static BeanFactoryPostProcessor signalingBusCheck(Environment environment) {
+        return beanFactory -> {
+            String built = beanFactory.getBeanNamesForType(RedisSignalingBus.class, false, false).length > 0 ? "redis" : "in-process";
+            String configured = environment.getProperty("telemedicine.bus.type", "in-process");
+            if (!built.equals(configured)) {
+                throw new IllegalStateException("This build uses the " + built + " signaling bus but telemedicine.bus.type is "
+                        + configured + "; rebuild with TELEMEDICINE_BUS=" + configured);
+            }
+            log.info("Signaling bus: {}", built);
+        };
+    }
+
+    // Ahead of the annotated controllers, which would otherwise answer the upgrade request with 404.
+    @Bean
+    public HandlerMapping signalingHandlerMapping(SignalingHandler signalingHandler,
+                                                  @Value("${telemedicine.signaling.path:/ws/signaling}") String path) {
+        return new SimpleUrlHandlerMapping(Map.of(path, signalingHandler), -1);
+    }
+}
@@ -0,0 +1,48 @@
+package com.healthcare.telemedicine.controller;
+
+import com.healthcare.telemedicine.dto.ParticipantResponse;
+import com.healthcare.telemedicine.dto.RoomResponse;
+import com.healthcare.telemedicine.exception.ResourceNotFoundException;
+import com.healthcare.telemedicine.registry.Room;
+import com.healthcare.telemedicine.registry.SessionRegistry;
+import com.healthcare.telemedicine.signaling.SignalingSession;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Arrays;
+
+@RestController
+@RequestMapping("/api/v1/telemedicine/rooms")
+public class RoomController {
+
+    private final SessionRegistry sessionRegistry;
+
+    public RoomController(SessionRegistry sessionRegistry) {
+        this.sessionRegistry = sessionRegistry;
+    }
+
+    @GetMapping("/{room}")
+    public ResponseEntity<RoomResponse> getRoom(@PathVariable String room) {
+        Room found = sessionRegistry.room(room);
+        if (found == null) {
+            throw new ResourceNotFoundException("No participants in room " + room + " on this replica");
+        }
+        long now = System.nanoTime();
+        RoomResponse response = new RoomResponse();
+        response.setRoom(found.id());
+        response.setParticipants(Arrays.stream(found.participants()).map(session -> mapToResponse(session, now)).toList());
+        return ResponseEntity.ok(response);
+    }
+
+    private ParticipantResponse mapToResponse(SignalingSession session, long now) {
+        ParticipantResponse response = new ParticipantResponse();
+        response.setSession(session.id());
+        response.setParticipant(session.participant());
+        response.setJoinedAt(session.joinedAt());
+        response.setIdleMillis((now - session.lastSeen()) / 1_000_000);
+        return response;
+    }
+}
@@ -0,0 +1,20 @@
+package com.healthcare.telemedicine.dto;
+
+import java.time.Instant;
+
+public class ParticipantResponse {
+    private String session;
+    private String participant;
+    private Instant joinedAt;
+    private long idleMillis; // since the session last sent anything
+
+    // Getters and Setters
+    public String getSession() { return session; }
+    public void setSession(String session) { this.session = session; }
+    public String getParticipant() { return participant; }
+    public void setParticipant(String participant) { this.participant = participant; }
+    public Instant getJoinedAt() { return joinedAt; }
+    public void setJoinedAt(Instant joinedAt) { this.joinedAt = joinedAt; }
+    public long getIdleMillis() { return idleMillis; }
+    public void setIdleMillis(long idleMillis) { this.idleMillis = idleMillis; }
+}
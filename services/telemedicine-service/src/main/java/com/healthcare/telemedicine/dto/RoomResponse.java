@@ -0,0 +1,14 @@
+package com.healthcare.telemedicine.dto;
+
+import java.util.List;
+
+public class RoomResponse {
+    private String room;
+    private List<ParticipantResponse> participants; // on this replica
+
+    // Getters and Setters
+    public String getRoom() { return room; }
+    public void setRoom(String room) { this.room = room; }
+    public List<ParticipantResponse> getParticipants() { return participants; }
+    public void setParticipants(List<ParticipantResponse> participants) { this.participants = participants; }
+}
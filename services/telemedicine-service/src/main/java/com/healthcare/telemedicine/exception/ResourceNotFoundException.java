@@ -0,0 +1,7 @@
+package com.healthcare.telemedicine.exception;
+
+public class ResourceNotFoundException extends RuntimeException {
+    public ResourceNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.healthcare.telemedicine.exception;
+
+public class RoomFullException extends RuntimeException {
+    public RoomFullException(String room, int maxParticipants) {
+        super("Room " + room + " already has " + maxParticipants + " participants");
+    }
+}
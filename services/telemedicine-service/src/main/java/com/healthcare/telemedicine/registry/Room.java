@@ -0,0 +1,54 @@
+package com.healthcare.telemedicine.registry;
+
+import com.healthcare.telemedicine.signaling.SignalingSession;
+
+import java.util.Arrays;
+
+/**
+ * The sessions in a room on this replica. The participant array is replaced, never changed, so
+ * fan-out reads it without locking; joins and leaves are serialized by the room's shard.
+ */
+public final class Room {
+    private static final SignalingSession[] EMPTY = new SignalingSession[0];
+
+    private final String id;
+    private volatile SignalingSession[] participants = EMPTY;
+
+    Room(String id) {
+        this.id = id;
+    }
+
+    public String id() { return id; }
+
+    public SignalingSession[] participants() {
+        return participants;
+    }
+
+    public SignalingSession participant(String sessionId) {
+        for (SignalingSession session : participants) {
+            if (session.id().equals(sessionId)) return session;
+        }
+        return null;
+    }
+
+    void add(SignalingSession session) {
+        SignalingSession[] current = participants;
+        SignalingSession[] next = Arrays.copyOf(current, current.length + 1);
+        next[current.length] = session;
+        participants = next;
+    }
+
+    boolean remove(SignalingSession session) {
+        SignalingSession[] current = participants;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == session) {
+                SignalingSession[] next = new SignalingSession[current.length - 1];
+                System.arraycopy(current, 0, next, 0, i);
+                System.arraycopy(current, i + 1, next, i, current.length - i - 1);
+                participants = next;
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,119 @@
+package com.healthcare.telemedicine.registry;
+
+import com.healthcare.telemedicine.bus.SignalingBus;
+import com.healthcare.telemedicine.exception.RoomFullException;
+import com.healthcare.telemedicine.signaling.SignalingSession;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * The rooms and sessions on this replica, split into shards by room so that joins and leaves in
+ * different rooms rarely contend. A room lives in one shard; its shard's lock makes the capacity
+ * check, the membership change and the bus subscription for the room one step. Lookups and
+ * fan-out take no lock at all.
+ */
+@Component
+public class SessionRegistry {
+    private final Shard[] shards;
+    private final int maxParticipants;
+    private final SignalingBus bus;
+    private final AtomicInteger sessions = new AtomicInteger();
+
+    public SessionRegistry(SignalingBus bus, MeterRegistry meterRegistry,
+                           @Value("${telemedicine.registry.shards:64}") int shards,
+                           @Value("${telemedicine.rooms.max-participants:16}") int maxParticipants) {
+        if (Integer.bitCount(shards) != 1) {
+            throw new IllegalArgumentException("telemedicine.registry.shards must be a power of two");
+        }
+        this.shards = new Shard[shards];
+        for (int i = 0; i < shards; i++) this.shards[i] = new Shard();
+        this.maxParticipants = maxParticipants;
+        this.bus = bus;
+        Gauge.builder("telemedicine.sessions", sessions, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("telemedicine.rooms", this, SessionRegistry::rooms).register(meterRegistry);
+    }
+
+    /**
+     * Adds the session to its room and, still holding the room's shard, hands {@code announce} the
+     * room and the sessions that were in it before. Announcing under the lock means two sessions
+     * joining at once are introduced to each other exactly once, in the order they joined.
+     */
+    public Room join(SignalingSession session, BiConsumer<Room, SignalingSession[]> announce) {
+        Shard shard = shard(session.room());
+        Room room;
+        synchronized (shard) {
+            room = shard.rooms.get(session.room());
+            if (room == null) {
+                room = new Room(session.room());
+                shard.rooms.put(room.id(), room);
+                bus.subscribe(room.id());
+            } else if (room.participants().length >= maxParticipants) {
+                throw new RoomFullException(room.id(), maxParticipants);
+            }
+            SignalingSession[] peers = room.participants();
+            room.add(session);
+            announce.accept(room, peers);
+        }
+        sessions.incrementAndGet();
+        return room;
+    }
+
+    /**
+     * Takes the session out of its room and, still holding the room's shard, hands {@code announce}
+     * the sessions left in it; returns false, announcing nothing, if it was not in it.
+     */
+    public boolean leave(SignalingSession session, Consumer<SignalingSession[]> announce) {
+        Shard shard = shard(session.room());
+        synchronized (shard) {
+            Room room = shard.rooms.get(session.room());
+            if (room == null || !room.remove(session)) return false;
+            announce.accept(room.participants());
+            if (room.participants().length == 0) {
+                shard.rooms.remove(room.id());
+                bus.unsubscribe(room.id());
+            }
+        }
+        sessions.decrementAndGet();
+        return true;
+    }
+
+    public Room room(String id) {
+        return shard(id).rooms.get(id);
+    }
+
+    public void forEachSession(Consumer<SignalingSession> action) {
+        for (Shard shard : shards) {
+            for (Room room : shard.rooms.values()) {
+                for (SignalingSession session : room.participants()) action.accept(session);
+            }
+        }
+    }
+
+    public int sessions() {
+        return sessions.get();
+    }
+
+    public int rooms() {
+        int rooms = 0;
+        for (Shard shard : shards) rooms += shard.rooms.size();
+        return rooms;
+    }
+
+    private Shard shard(String room) {
+        int hash = room.hashCode();
+        return shards[(hash ^ (hash >>> 16)) & (shards.length - 1)];
+    }
+
+    private static final class Shard {
+        // Written under the shard's lock, read without it.
+        final Map<String, Room> rooms = new ConcurrentHashMap<>();
+    }
+}
@@ -0,0 +1,39 @@
+package com.healthcare.telemedicine.signaling;
+
+import com.healthcare.telemedicine.registry.SessionRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Evicts sessions that have sent nothing, not even a ping, for the heartbeat timeout. A dropped
+ * network leaves the connection open on this side for as long as TCP takes to notice, often many
+ * minutes, and the rest of the room would wait on a peer that is gone.
+ */
+@Component
+public class HeartbeatMonitor {
+    private final SessionRegistry registry;
+    private final SignalingRelay relay;
+    private final long timeoutNanos;
+
+    public HeartbeatMonitor(SessionRegistry registry, SignalingRelay relay,
+                            @Value("${telemedicine.heartbeat.timeout:30s}") Duration timeout) {
+        this.registry = registry;
+        this.relay = relay;
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    @Scheduled(fixedDelayString = "${telemedicine.heartbeat.sweep-interval-ms:5000}")
+    public void sweep() {
+        long now = System.nanoTime();
+        List<SignalingSession> silent = new ArrayList<>();
+        registry.forEachSession(session -> {
+            if (now - session.lastSeen() > timeoutNanos) silent.add(session);
+        });
+        for (SignalingSession session : silent) relay.evict(session, SignalingRelay.HEARTBEAT_TIMEOUT);
+    }
+}
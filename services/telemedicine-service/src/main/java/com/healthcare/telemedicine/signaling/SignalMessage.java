@@ -0,0 +1,12 @@
+package com.healthcare.telemedicine.signaling;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * A frame from a client: {@code type} is {@code ping}, {@code leave} or one of the relayed types,
+ * {@code to} a session in the room or absent for all of them, {@code payload} passed on untouched.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+record SignalMessage(String type, String to, JsonNode payload) {
+}
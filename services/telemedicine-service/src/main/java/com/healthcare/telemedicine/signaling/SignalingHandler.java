@@ -0,0 +1,55 @@
+package com.healthcare.telemedicine.signaling;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.reactive.socket.CloseStatus;
+import org.springframework.web.reactive.socket.WebSocketHandler;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * {@code /ws/signaling?room=<room>&participant=<name>}: joins the room on connect and leaves it
+ * when the connection ends, however it ends.
+ */
+@Component
+public class SignalingHandler implements WebSocketHandler {
+    private static final Pattern ROOM = Pattern.compile("[A-Za-z0-9_.:-]{1,128}");
+
+    private final SignalingRelay relay;
+    private final int outboundBuffer;
+
+    public SignalingHandler(SignalingRelay relay, @Value("${telemedicine.signaling.outbound-buffer:256}") int outboundBuffer) {
+        this.relay = relay;
+        this.outboundBuffer = outboundBuffer;
+    }
+
+    @Override
+    public Mono<Void> handle(WebSocketSession connection) {
+        MultiValueMap<String, String> query = UriComponentsBuilder.fromUri(connection.getHandshakeInfo().getUri()).build().getQueryParams();
+        String room = query.getFirst("room");
+        if (room == null || !ROOM.matcher(room).matches()) {
+            return connection.close(CloseStatus.POLICY_VIOLATION.withReason("A room of letters, digits and _.:- is required"));
+        }
+        String participant = query.getFirst("participant");
+        SignalingSession session = new SignalingSession(UUID.randomUUID().toString(), room,
+                participant == null ? null : UriUtils.decode(participant, StandardCharsets.UTF_8), connection, outboundBuffer);
+        if (!relay.join(session)) {
+            return connection.close(SignalingRelay.ROOM_FULL);
+        }
+        Mono<Void> input = connection.receive()
+                .filter(message -> message.getType() == WebSocketMessage.Type.TEXT)
+                .doOnNext(message -> relay.onMessage(session, message.getPayloadAsText()))
+                .then()
+                .doFinally(signal -> relay.leave(session, "disconnected"));
+        Mono<Void> output = connection.send(session.outbound().map(connection::textMessage));
+        return Mono.zip(input, output).then();
+    }
+}
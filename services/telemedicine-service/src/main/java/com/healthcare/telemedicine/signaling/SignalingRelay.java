@@ -0,0 +1,241 @@
+package com.healthcare.telemedicine.signaling;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.healthcare.telemedicine.bus.BusMessage;
+import com.healthcare.telemedicine.bus.SignalingBus;
+import com.healthcare.telemedicine.exception.RoomFullException;
+import com.healthcare.telemedicine.registry.Room;
+import com.healthcare.telemedicine.registry.SessionRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.socket.CloseStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Routes signaling frames between the sessions of a room. A frame is serialized once and queued on
+ * every recipient on the event loop it arrived on; recipients on other replicas get it through the
+ * {@link SignalingBus}. Nothing here waits: a recipient that cannot take a frame is evicted, once
+ * no shard lock is held, since evicting publishes on the bus.
+ * <p>
+ * The server announces membership: a new session gets {@code joined} with the room's other
+ * sessions on this replica, and everyone else in the room gets {@code peer-joined} and, when it
+ * goes, {@code peer-left}. Existing participants make the offers to a newcomer, so the newcomer
+ * never needs a list of participants on other replicas.
+ */
+@Component
+public class SignalingRelay {
+    public static final CloseStatus ROOM_FULL = new CloseStatus(4409, "Room is full");
+    public static final CloseStatus HEARTBEAT_TIMEOUT = new CloseStatus(4408, "Heartbeat timeout");
+    public static final CloseStatus TOO_SLOW = new CloseStatus(4429, "Not reading fast enough");
+    private static final Set<String> RELAYED = Set.of("offer", "answer", "candidate", "message");
+    private static final String PONG = "{\"type\":\"pong\"}";
+
+    private final SessionRegistry registry;
+    private final SignalingBus bus;
+    private final ObjectMapper objectMapper;
+    private final String nodeId;
+    private final Counter received;
+    private final Counter delivered;
+    private final Counter busReceived;
+    private final Counter rejected;
+    private final Counter evictedHeartbeat;
+    private final Counter evictedSlow;
+    private final Timer relay;
+
+    public SignalingRelay(SessionRegistry registry, SignalingBus bus, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                          @Value("${telemedicine.node-id:}") String nodeId) {
+        this.registry = registry;
+        this.bus = bus;
+        this.objectMapper = objectMapper;
+        this.nodeId = nodeId.isEmpty() ? UUID.randomUUID().toString() : nodeId;
+        this.received = Counter.builder("telemedicine.frames.received").register(meterRegistry);
+        this.delivered = Counter.builder("telemedicine.frames.delivered").register(meterRegistry);
+        this.busReceived = Counter.builder("telemedicine.bus.received").register(meterRegistry);
+        this.rejected = Counter.builder("telemedicine.sessions.rejected").tag("reason", "room-full").register(meterRegistry);
+        this.evictedHeartbeat = Counter.builder("telemedicine.sessions.evicted").tag("reason", "heartbeat").register(meterRegistry);
+        this.evictedSlow = Counter.builder("telemedicine.sessions.evicted").tag("reason", "slow").register(meterRegistry);
+        this.relay = Timer.builder("telemedicine.relay")
+                .description("From a frame's arrival to its being queued on every local recipient")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        bus.listen(this::onBusMessage);
+    }
+
+    /**
+     * Puts the session in its room and announces it, or returns false if the room is full.
+     */
+    public boolean join(SignalingSession session) {
+        String peerJoined = write(objectMapper.createObjectNode()
+                .put("type", "peer-joined")
+                .put("session", session.id())
+                .put("participant", session.participant()));
+        List<SignalingSession> slow = new ArrayList<>(0);
+        try {
+            registry.join(session, (room, peers) -> {
+                ObjectNode joined = objectMapper.createObjectNode()
+                        .put("type", "joined")
+                        .put("session", session.id())
+                        .put("room", room.id());
+                ArrayNode list = joined.putArray("peers");
+                for (SignalingSession peer : peers) {
+                    list.addObject().put("session", peer.id()).put("participant", peer.participant());
+                }
+                session.send(write(joined));
+                for (SignalingSession peer : peers) deliver(peer, peerJoined, slow);
+            });
+        } catch (RoomFullException e) {
+            rejected.increment();
+            return false;
+        }
+        // Outside the shard lock: an in-process bus delivers synchronously into other replicas.
+        bus.publish(new BusMessage(nodeId, session.room(), session.id(), null, peerJoined));
+        evictSlow(slow);
+        return true;
+    }
+
+    /**
+     * Takes the session out of its room and tells the rest of the room; does nothing the second time.
+     */
+    public void leave(SignalingSession session, String reason) {
+        leave(session, reason, CloseStatus.NORMAL);
+    }
+
+    public void onMessage(SignalingSession session, String text) {
+        long started = System.nanoTime();
+        session.touch();
+        received.increment();
+        SignalMessage message;
+        try {
+            message = objectMapper.readValue(text, SignalMessage.class);
+        } catch (JsonProcessingException e) {
+            session.send(error("Malformed frame"));
+            return;
+        }
+        String type = message.type();
+        if ("ping".equals(type)) {
+            session.send(PONG);
+            return;
+        }
+        if ("leave".equals(type)) {
+            leave(session, "left");
+            return;
+        }
+        if (type == null || !RELAYED.contains(type)) {
+            session.send(error("Unknown frame type " + type));
+            return;
+        }
+        ObjectNode relayed = objectMapper.createObjectNode().put("type", type).put("from", session.id());
+        relayed.set("payload", message.payload());
+        String frame = write(relayed);
+        if (message.to() == null) {
+            broadcast(session, frame);
+        } else {
+            Room room = registry.room(session.room());
+            SignalingSession target = room == null ? null : room.participant(message.to());
+            if (target != null) {
+                deliver(target, frame);
+            } else {
+                bus.publish(new BusMessage(nodeId, session.room(), session.id(), message.to(), frame));
+            }
+        }
+        relay.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Closes a session that stopped answering or reading, and tells the rest of its room.
+     */
+    public void evict(SignalingSession session, CloseStatus status) {
+        boolean heartbeat = status == HEARTBEAT_TIMEOUT;
+        if (leave(session, heartbeat ? "timeout" : "slow", status)) (heartbeat ? evictedHeartbeat : evictedSlow).increment();
+    }
+
+    // Out of the registry before the connection is closed, so the reason announced is this one and
+    // not the disconnect that closing causes.
+    private boolean leave(SignalingSession session, String reason, CloseStatus status) {
+        String peerLeft = write(objectMapper.createObjectNode()
+                .put("type", "peer-left")
+                .put("session", session.id())
+                .put("reason", reason));
+        List<SignalingSession> slow = new ArrayList<>(0);
+        if (!registry.leave(session, peers -> {
+            for (SignalingSession peer : peers) deliver(peer, peerLeft, slow);
+        })) {
+            return false;
+        }
+        // Announced before the close, so the peers hear of it before the participant can come back.
+        bus.publish(new BusMessage(nodeId, session.room(), session.id(), null, peerLeft));
+        session.close(status);
+        evictSlow(slow);
+        return true;
+    }
+
+    private void broadcast(SignalingSession from, String frame) {
+        Room room = registry.room(from.room());
+        if (room != null) {
+            for (SignalingSession peer : room.participants()) {
+                if (peer != from) deliver(peer, frame);
+            }
+        }
+        bus.publish(new BusMessage(nodeId, from.room(), from.id(), null, frame));
+    }
+
+    private void onBusMessage(BusMessage message) {
+        if (nodeId.equals(message.origin())) return;
+        busReceived.increment();
+        Room room = registry.room(message.room());
+        if (room == null) return;
+        if (message.to() != null) {
+            SignalingSession target = room.participant(message.to());
+            if (target != null) deliver(target, message.frame());
+            return;
+        }
+        for (SignalingSession peer : room.participants()) {
+            if (!peer.id().equals(message.from())) deliver(peer, message.frame());
+        }
+    }
+
+    private void deliver(SignalingSession target, String frame) {
+        if (target.send(frame)) {
+            delivered.increment();
+        } else {
+            evict(target, TOO_SLOW); // or already closed and on its way out, in which case this does nothing
+        }
+    }
+
+    // Under a shard lock: the eviction is left to the caller, as it publishes on the bus and an
+    // in-process bus runs another replica's listener, which takes that replica's shard locks.
+    private void deliver(SignalingSession target, String frame, List<SignalingSession> slow) {
+        if (target.send(frame)) {
+            delivered.increment();
+        } else {
+            slow.add(target);
+        }
+    }
+
+    private void evictSlow(List<SignalingSession> slow) {
+        for (SignalingSession session : slow) evict(session, TOO_SLOW);
+    }
+
+    private String error(String message) {
+        return write(objectMapper.createObjectNode().put("type", "error").put("message", message));
+    }
+
+    private String write(ObjectNode frame) {
+        try {
+            return objectMapper.writeValueAsString(frame);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.healthcare.telemedicine.signaling;
+
+import org.springframework.web.reactive.socket.CloseStatus;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+import java.time.Instant;
+
+/**
+ * One participant's WebSocket connection. Frames for it go into a bounded queue that the
+ * connection drains at its own pace, so a sender never waits on a receiver; a receiver that lets
+ * the queue fill up is dropped instead of holding the room back.
+ */
+public final class SignalingSession {
+    private final String id;
+    private final String room;
+    private final String participant;
+    private final Instant joinedAt = Instant.now();
+    private final WebSocketSession connection;
+    private final Sinks.Many<String> outbound;
+    private volatile long lastSeen = System.nanoTime();
+    private boolean closed;
+
+    public SignalingSession(String id, String room, String participant, WebSocketSession connection, int outboundBuffer) {
+        this.id = id;
+        this.room = room;
+        this.participant = participant;
+        this.connection = connection;
+        this.outbound = Sinks.many().unicast().onBackpressureBuffer(Queues.<String>get(outboundBuffer).get());
+    }
+
+    public String id() { return id; }
+    public String room() { return room; }
+    public String participant() { return participant; }
+    public Instant joinedAt() { return joinedAt; }
+    public long lastSeen() { return lastSeen; }
+
+    public void touch() {
+        lastSeen = System.nanoTime();
+    }
+
+    /**
+     * Queues a frame, and returns false if the session is closed or its queue is full.
+     */
+    public synchronized boolean send(String frame) {
+        // The sink takes one producer at a time; senders from different event loops take turns here.
+        return !closed && outbound.tryEmitNext(frame).isSuccess();
+    }
+
+    public Flux<String> outbound() {
+        return outbound.asFlux();
+    }
+
+    /**
+     * Stops queueing frames and closes the connection with {@code status}, dropping frames not yet
+     * sent; returns false if the session was already closed.
+     */
+    public boolean close(CloseStatus status) {
+        synchronized (this) {
+            if (closed) return false;
+            closed = true;
+        }
+        // Close first: once the queue completes, the connection could be closed without the status.
+        connection.close(status).subscribe();
+        outbound.tryEmitComplete();
+        return true;
+    }
+}